@@ -32,6 +32,7 @@
 #include "runtime/data_stream_sender.h"
 #include "runtime/export_sink.h"
 #include "runtime/memory_scratch_sink.h"
+#include "runtime/multi_cast_data_stream_sink.h"
 #include "runtime/mysql_table_sink.h"
 #include "runtime/result_sink.h"
 #include "runtime/runtime_state.h"
@@ -59,6 +60,19 @@ Status DataSink::create_data_sink(ObjectPool* pool, const TDataSink& thrift_sink
         sink->reset(tmp_sink);
         break;
     }
+    case TDataSinkType::MULTI_CAST_DATA_STREAM_SINK: {
+        if (!thrift_sink.__isset.multi_cast_stream_sink) {
+            return Status::InternalError("Missing multi cast data stream sink.");
+        }
+        bool send_query_statistics_with_every_batch = params.__isset.send_query_statistics_with_every_batch
+                                                              ? params.send_query_statistics_with_every_batch
+                                                              : false;
+        tmp_sink = new MultiCastDataStreamSink(pool, params.use_vectorized, params.sender_id, row_desc,
+                                               thrift_sink.multi_cast_stream_sink, 16 * 1024,
+                                               send_query_statistics_with_every_batch);
+        sink->reset(tmp_sink);
+        break;
+    }
     case TDataSinkType::RESULT_SINK:
         if (!thrift_sink.__isset.result_sink) {
             return Status::InternalError("Missing data buffer sink.");
@@ -265,6 +265,10 @@ Status EsHttpScanNode::_create_scanner(int scanner_idx, std::unique_ptr<EsHttpSc
         properties[ESScanReader::KEY_TYPE] = es_scan_range.type;
     }
     properties[ESScanReader::KEY_SHARD] = std::to_string(es_scan_range.shard_id);
+    if (es_scan_range.__isset.slice_max && es_scan_range.slice_max > 1) {
+        properties[ESScanReader::KEY_SLICE_ID] = std::to_string(es_scan_range.slice_id);
+        properties[ESScanReader::KEY_SLICE_MAX] = std::to_string(es_scan_range.slice_max);
+    }
     properties[ESScanReader::KEY_BATCH_SIZE] = std::to_string(_runtime_state->batch_size());
     properties[ESScanReader::KEY_HOST_PORT] = get_host_port(es_scan_range.es_hosts);
     // push down limit to Elasticsearch
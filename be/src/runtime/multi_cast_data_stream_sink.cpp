@@ -0,0 +1,90 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+#include "runtime/multi_cast_data_stream_sink.h"
+
+#include "gen_cpp/DataSinks_types.h"
+#include "runtime/runtime_state.h"
+#include "util/runtime_profile.h"
+
+namespace starrocks {
+
+MultiCastDataStreamSink::MultiCastDataStreamSink(ObjectPool* pool, bool is_vectorized, int sender_id,
+                                                 const RowDescriptor& row_desc, const TMultiCastDataStreamSink& sink,
+                                                 int per_channel_buffer_size,
+                                                 bool send_query_statistics_with_every_batch)
+        : _pool(pool) {
+    DCHECK_EQ(sink.sinks.size(), sink.destinations.size());
+    for (size_t i = 0; i < sink.sinks.size(); ++i) {
+        _senders.emplace_back(new DataStreamSender(pool, is_vectorized, sender_id, row_desc, sink.sinks[i],
+                                                   sink.destinations[i], per_channel_buffer_size,
+                                                   send_query_statistics_with_every_batch));
+    }
+}
+
+Status MultiCastDataStreamSink::init(const TDataSink& thrift_sink) {
+    RETURN_IF_ERROR(DataSink::init(thrift_sink));
+    const TMultiCastDataStreamSink& t_multi_cast_sink = thrift_sink.multi_cast_stream_sink;
+    for (size_t i = 0; i < _senders.size(); ++i) {
+        TDataSink t_sink;
+        t_sink.__set_type(TDataSinkType::DATA_STREAM_SINK);
+        t_sink.__set_stream_sink(t_multi_cast_sink.sinks[i]);
+        RETURN_IF_ERROR(_senders[i]->init(t_sink));
+    }
+    return Status::OK();
+}
+
+Status MultiCastDataStreamSink::prepare(RuntimeState* state) {
+    RETURN_IF_ERROR(DataSink::prepare(state));
+    _profile = _pool->add(new RuntimeProfile("MultiCastDataStreamSink"));
+    for (auto& sender : _senders) {
+        RETURN_IF_ERROR(sender->prepare(state));
+        _profile->add_child(sender->profile(), true, nullptr);
+    }
+    return Status::OK();
+}
+
+Status MultiCastDataStreamSink::open(RuntimeState* state) {
+    for (auto& sender : _senders) {
+        RETURN_IF_ERROR(sender->open(state));
+    }
+    return Status::OK();
+}
+
+Status MultiCastDataStreamSink::send(RuntimeState* state, RowBatch* batch) {
+    for (auto& sender : _senders) {
+        RETURN_IF_ERROR(sender->send(state, batch));
+    }
+    return Status::OK();
+}
+
+Status MultiCastDataStreamSink::send_chunk(RuntimeState* state, vectorized::Chunk* chunk) {
+    for (auto& sender : _senders) {
+        RETURN_IF_ERROR(sender->send_chunk(state, chunk));
+    }
+    return Status::OK();
+}
+
+Status MultiCastDataStreamSink::close(RuntimeState* state, Status exec_status) {
+    if (_closed) {
+        return Status::OK();
+    }
+    // close all the senders even if some of them fail, so the receivers get the eos
+    Status status = Status::OK();
+    for (auto& sender : _senders) {
+        Status st = sender->close(state, exec_status);
+        if (!st.ok() && status.ok()) {
+            status = st;
+        }
+    }
+    _closed = true;
+    return status;
+}
+
+void MultiCastDataStreamSink::set_query_statistics(std::shared_ptr<QueryStatistics> statistics) {
+    DataSink::set_query_statistics(statistics);
+    for (auto& sender : _senders) {
+        sender->set_query_statistics(statistics);
+    }
+}
+
+} // namespace starrocks
@@ -0,0 +1,107 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.benchmark;
+
+import com.starrocks.analysis.TablePattern;
+import com.starrocks.analysis.UserIdentity;
+import com.starrocks.common.AnalysisException;
+import com.starrocks.common.Config;
+import com.starrocks.common.DdlException;
+import com.starrocks.mysql.privilege.Auth;
+import com.starrocks.mysql.privilege.Password;
+import com.starrocks.mysql.privilege.PrivBitSet;
+import com.starrocks.mysql.privilege.PrivPredicate;
+import com.starrocks.mysql.privilege.Privilege;
+import com.starrocks.persist.PrivInfo;
+import com.starrocks.system.SystemInfoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Check the privileges of a query touching 30 tables as the analyzer does, with and without the
+ * privilege snapshots of Auth. There are userNum users, each has 10 database privs and 30 table privs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthBenchmark {
+    private static final int DB_NUM = 10;
+    private static final int TABLE_NUM = 30;
+
+    @Param({"100", "1000"})
+    public int userNum;
+
+    @Param({"true", "false"})
+    public boolean privSnapshot;
+
+    private Auth auth;
+    private UserIdentity currentUser;
+    private String[] dbs;
+    private String[] tbls;
+
+    @Setup
+    public void setUp() throws AnalysisException, DdlException {
+        Config.enable_auth_priv_snapshot = privSnapshot;
+        auth = new Auth();
+        dbs = new String[TABLE_NUM];
+        tbls = new String[TABLE_NUM];
+        for (int i = 0; i < TABLE_NUM; i++) {
+            dbs[i] = SystemInfoService.DEFAULT_CLUSTER + ":db" + (i % DB_NUM);
+            tbls[i] = "tbl" + i;
+        }
+
+        for (int u = 0; u < userNum; u++) {
+            UserIdentity user = new UserIdentity("user" + u, "%");
+            user.analyze(SystemInfoService.DEFAULT_CLUSTER);
+            auth.replayCreateUser(new PrivInfo(user, PrivBitSet.of(), new Password(new byte[0]), null));
+            for (int i = 0; i < DB_NUM; i++) {
+                // LOAD on the dbs, so that checking SELECT falls through to the table privs
+                TablePattern dbPattern = new TablePattern("db" + i, "*");
+                dbPattern.analyze(SystemInfoService.DEFAULT_CLUSTER);
+                auth.grantPrivs(user, dbPattern, PrivBitSet.of(Privilege.LOAD_PRIV), false);
+            }
+            for (int i = 0; i < TABLE_NUM; i++) {
+                TablePattern tblPattern = new TablePattern("db" + (i % DB_NUM), "tbl" + i);
+                tblPattern.analyze(SystemInfoService.DEFAULT_CLUSTER);
+                auth.grantPrivs(user, tblPattern, PrivBitSet.of(Privilege.SELECT_PRIV), false);
+            }
+            if (u == userNum / 2) {
+                currentUser = user;
+            }
+        }
+    }
+
+    private boolean checkQuery() {
+        boolean allowed = true;
+        for (int i = 0; i < TABLE_NUM; i++) {
+            allowed &= auth.checkTblPriv(currentUser, dbs[i], tbls[i], PrivPredicate.SELECT);
+        }
+        return allowed;
+    }
+
+    @Benchmark
+    public boolean checkTables() {
+        return checkQuery();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean checkTablesConcurrently() {
+        return checkQuery();
+    }
+}
@@ -0,0 +1,120 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.benchmark;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.FileReader;
+import java.io.Reader;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Entry of benchmarks.jar, it accepts all the options of JMH, and writes the results to
+ * jmh-result.json unless "-rf/-rff" is given, so the results can be collected for regression tracking.
+ *
+ * Two more options to compare with the results of a previous run:
+ *   -baseline FILE    the json results of a previous run
+ *   -threshold PCT    a benchmark regresses if its score is PCT percent worse than the baseline, default 10
+ * The process exits with 1 if any benchmark regresses.
+ *
+ * e.g. java -jar fe-benchmark/target/benchmarks.jar OptimizerBenchmark -baseline last/jmh-result.json
+ */
+public class BenchmarkRunner {
+    private static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+    private static final double DEFAULT_THRESHOLD = 10;
+
+    public static void main(String[] args) throws Exception {
+        String baseline = null;
+        double threshold = DEFAULT_THRESHOLD;
+        List<String> jmhArgs = Lists.newArrayList();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-baseline") && i + 1 < args.length) {
+                baseline = args[++i];
+            } else if (args[i].equals("-threshold") && i + 1 < args.length) {
+                threshold = Double.parseDouble(args[++i]);
+            } else {
+                jmhArgs.add(args[i]);
+            }
+        }
+
+        CommandLineOptions cmdOptions = new CommandLineOptions(jmhArgs.toArray(new String[0]));
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(cmdOptions);
+        if (!cmdOptions.getResult().hasValue()) {
+            builder.result(DEFAULT_RESULT_FILE);
+        }
+        if (!cmdOptions.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        Collection<RunResult> results = new Runner(builder.build()).run();
+
+        if (baseline != null && !compare(results, loadBaseline(baseline), threshold)) {
+            System.exit(1);
+        }
+    }
+
+    // benchmark with its params, such as "com.starrocks.benchmark.OptimizerBenchmark.tpch{query=q1}"
+    private static String benchmarkKey(String benchmark, Map<String, String> params) {
+        return benchmark + new TreeMap<>(params);
+    }
+
+    private static Map<String, JsonObject> loadBaseline(String file) throws Exception {
+        Map<String, JsonObject> baseline = Maps.newHashMap();
+        try (Reader reader = new FileReader(file)) {
+            JsonArray array = new JsonParser().parse(reader).getAsJsonArray();
+            for (JsonElement element : array) {
+                JsonObject result = element.getAsJsonObject();
+                Map<String, String> params = Maps.newHashMap();
+                if (result.has("params")) {
+                    for (Map.Entry<String, JsonElement> param : result.getAsJsonObject("params").entrySet()) {
+                        params.put(param.getKey(), param.getValue().getAsString());
+                    }
+                }
+                baseline.put(benchmarkKey(result.get("benchmark").getAsString(), params), result);
+            }
+        }
+        return baseline;
+    }
+
+    private static boolean compare(Collection<RunResult> results, Map<String, JsonObject> baseline,
+                                   double threshold) {
+        boolean passed = true;
+        for (RunResult result : results) {
+            Map<String, String> params = Maps.newHashMap();
+            for (String key : result.getParams().getParamsKeys()) {
+                params.put(key, result.getParams().getParam(key));
+            }
+            String key = benchmarkKey(result.getParams().getBenchmark(), params);
+            JsonObject base = baseline.get(key);
+            if (base == null) {
+                continue;
+            }
+            double baseScore = base.getAsJsonObject("primaryMetric").get("score").getAsDouble();
+            double score = result.getPrimaryResult().getScore();
+            // throughput is better when higher, others (average time, sample time...) are better when lower
+            boolean higherIsBetter = "thrpt".equals(base.get("mode").getAsString());
+            double change = baseScore == 0 ? 0 : (score - baseScore) / baseScore * 100;
+            double regression = higherIsBetter ? -change : change;
+            String status = regression > threshold ? "REGRESSION" : "OK";
+            System.out.printf("%-10s %s: %.3f -> %.3f %s (%+.1f%%)%n", status, key, baseScore, score,
+                    result.getPrimaryResult().getScoreUnit(), change);
+            if (regression > threshold) {
+                passed = false;
+            }
+        }
+        return passed;
+    }
+}
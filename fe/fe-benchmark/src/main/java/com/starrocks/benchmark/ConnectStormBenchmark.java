@@ -0,0 +1,119 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.benchmark;
+
+import com.starrocks.analysis.UserIdentity;
+import com.starrocks.catalog.Catalog;
+import com.starrocks.common.AnalysisException;
+import com.starrocks.mysql.privilege.Auth;
+import com.starrocks.mysql.privilege.Password;
+import com.starrocks.mysql.privilege.PrivBitSet;
+import com.starrocks.persist.PrivInfo;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.qe.ConnectScheduler;
+import com.starrocks.system.SystemInfoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A storm of short connections, each registers to ConnectScheduler, runs a command and unregisters,
+ * while idleConnections connections are kept registered and checked for timeout by the scheduler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConnectStormBenchmark {
+    // every user can have 100 connections by default
+    private static final int USER_NUM = 256;
+
+    @Param({"0", "10000"})
+    public int idleConnections;
+
+    private ConnectScheduler scheduler;
+    private String[] users;
+    private final AtomicInteger nextConnectionId = new AtomicInteger(0);
+    private final AtomicInteger nextThreadId = new AtomicInteger(0);
+
+    @Setup
+    public void setUp() throws AnalysisException {
+        Auth auth = Catalog.getCurrentCatalog().getAuth();
+        users = new String[USER_NUM];
+        for (int u = 0; u < USER_NUM; u++) {
+            UserIdentity user = new UserIdentity("storm_user" + u, "%");
+            user.analyze(SystemInfoService.DEFAULT_CLUSTER);
+            auth.replayCreateUser(new PrivInfo(user, PrivBitSet.of(), new Password(new byte[0]), null));
+            users[u] = user.getQualifiedUser();
+        }
+
+        scheduler = new ConnectScheduler(Integer.MAX_VALUE);
+        for (int i = 0; i < idleConnections; i++) {
+            ConnectContext context = createContext(users[i % USER_NUM]);
+            if (!scheduler.registerConnection(context)) {
+                throw new IllegalStateException("failed to register idle connection " + i);
+            }
+            context.setStartTime();
+        }
+    }
+
+    private ConnectContext createContext(String user) {
+        ConnectContext context = new ConnectContext(null);
+        context.setCatalog(Catalog.getCurrentCatalog());
+        context.setQualifiedUser(user);
+        context.setConnectionId(nextConnectionId.getAndIncrement());
+        context.setConnectScheduler(scheduler);
+        return context;
+    }
+
+    @State(Scope.Thread)
+    public static class Connection {
+        private ConnectContext context;
+
+        @Setup
+        public void setUp(ConnectStormBenchmark benchmark) {
+            // the idle connections take at most 40 connections of every user, leave the rest to the storm
+            int threadId = benchmark.nextThreadId.getAndIncrement();
+            context = benchmark.createContext(benchmark.users[threadId % USER_NUM]);
+        }
+    }
+
+    private boolean connect(Connection connection) {
+        ConnectContext context = connection.context;
+        // a new connection id like ConnectScheduler.submit
+        context.setConnectionId(nextConnectionId.getAndIncrement());
+        if (!scheduler.registerConnection(context)) {
+            return false;
+        }
+        // start and finish a command
+        context.setStartTime();
+        context.setStartTime();
+        scheduler.unregisterConnection(context);
+        return true;
+    }
+
+    @Benchmark
+    public boolean connect1Thread(Connection connection) {
+        return connect(connection);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public boolean connect16Threads(Connection connection) {
+        return connect(connection);
+    }
+}
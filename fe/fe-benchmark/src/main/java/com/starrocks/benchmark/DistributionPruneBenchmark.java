@@ -0,0 +1,107 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.benchmark;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.analysis.IntLiteral;
+import com.starrocks.analysis.LiteralExpr;
+import com.starrocks.analysis.StringLiteral;
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.Type;
+import com.starrocks.common.AnalysisException;
+import com.starrocks.planner.HashDistributionPruner;
+import com.starrocks.planner.PartitionColumnFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HashDistributionPruner.prune on a table with bucketNum buckets, the predicates are
+ * "id in (inListSize ids)", "id in (inListSize ids) and region in (4 regions)" and
+ * "id between x and x + inListSize - 1", where id is BIGINT and region is VARCHAR.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DistributionPruneBenchmark {
+    @Param({"10000"})
+    public int inListSize;
+
+    @Param({"64", "8192"})
+    public int bucketNum;
+
+    private List<Long> tabletIds;
+    private List<Column> idColumns;
+    private List<Column> idRegionColumns;
+
+    private Map<String, PartitionColumnFilter> inFilter;
+    private Map<String, PartitionColumnFilter> multiColumnInFilter;
+    private Map<String, PartitionColumnFilter> rangeFilter;
+
+    @Setup
+    public void setUp() throws AnalysisException {
+        tabletIds = Lists.newArrayList();
+        for (long i = 0; i < bucketNum; i++) {
+            tabletIds.add(i);
+        }
+        Column id = new Column("id", Type.BIGINT);
+        Column region = new Column("region", Type.VARCHAR);
+        idColumns = Lists.newArrayList(id);
+        idRegionColumns = Lists.newArrayList(id, region);
+
+        // sparse ids, like the ids of a sub query result
+        List<LiteralExpr> ids = Lists.newArrayList();
+        for (long i = 0; i < inListSize; i++) {
+            ids.add(new IntLiteral(i * 7919 + 17, Type.BIGINT));
+        }
+        PartitionColumnFilter idFilter = new PartitionColumnFilter();
+        idFilter.setInPredicateLiterals(ids);
+        inFilter = Maps.newHashMap();
+        inFilter.put("id", idFilter);
+
+        PartitionColumnFilter regionFilter = new PartitionColumnFilter();
+        regionFilter.setInPredicateLiterals(Lists.newArrayList(new StringLiteral("AFRICA"),
+                new StringLiteral("ASIA"), new StringLiteral("EUROPE"), new StringLiteral("AMERICA")));
+        multiColumnInFilter = Maps.newHashMap();
+        multiColumnInFilter.put("id", idFilter);
+        multiColumnInFilter.put("region", regionFilter);
+
+        PartitionColumnFilter idRangeFilter = new PartitionColumnFilter();
+        idRangeFilter.setLowerBound(new IntLiteral(1000000, Type.BIGINT), true);
+        idRangeFilter.setUpperBound(new IntLiteral(1000000 + inListSize - 1, Type.BIGINT), true);
+        rangeFilter = Maps.newHashMap();
+        rangeFilter.put("id", idRangeFilter);
+    }
+
+    @Benchmark
+    public Collection<Long> inList() {
+        return new HashDistributionPruner(tabletIds, idColumns, inFilter, bucketNum).prune();
+    }
+
+    @Benchmark
+    public Collection<Long> multiColumnInList() {
+        return new HashDistributionPruner(tabletIds, idRegionColumns, multiColumnInFilter, bucketNum).prune();
+    }
+
+    @Benchmark
+    public Collection<Long> intRange() {
+        return new HashDistributionPruner(tabletIds, idColumns, rangeFilter, bucketNum).prune();
+    }
+}
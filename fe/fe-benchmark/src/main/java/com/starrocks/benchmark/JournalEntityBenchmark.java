@@ -0,0 +1,82 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.benchmark;
+
+import com.starrocks.catalog.Catalog;
+import com.starrocks.catalog.Database;
+import com.starrocks.common.io.DataOutputBuffer;
+import com.starrocks.common.io.Writable;
+import com.starrocks.journal.JournalEntity;
+import com.starrocks.persist.CreateTableInfo;
+import com.starrocks.persist.OperationType;
+import com.starrocks.persist.ReplicaPersistInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialize and deserialize the journal entities the same way as BDBJEJournal and BDBJournalCursor.
+ * "replica" is a small and frequent entity, "create_table" carries the whole lineitem table.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JournalEntityBenchmark {
+    // same as BDBJEJournal
+    private static final int OUTPUT_BUFFER_INIT_SIZE = 128;
+
+    @Param({"replica", "create_table"})
+    public String entity;
+
+    private short opCode;
+    private Writable data;
+    private byte[] serialized;
+
+    @Setup
+    public void setUp() throws Exception {
+        MockedEnv.start(MockedEnv.Schema.TPCH);
+        if (entity.equals("replica")) {
+            opCode = OperationType.OP_ADD_REPLICA;
+            data = ReplicaPersistInfo.createForAdd(10001, 10002, 10003, 10004, 10005, 10006, 10007,
+                    2, 0, 1234567, 1024L * 1024 * 1024, 6000000, -1, 0, 2, 0);
+        } else {
+            Database db = Catalog.getCurrentCatalog().getDb("default_cluster:test");
+            opCode = OperationType.OP_CREATE_TABLE;
+            data = new CreateTableInfo(db.getFullName(), db.getTable("lineitem"));
+        }
+        serialized = write();
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        JournalEntity journal = new JournalEntity();
+        journal.setOpCode(opCode);
+        journal.setData(data);
+        DataOutputBuffer buffer = new DataOutputBuffer(OUTPUT_BUFFER_INIT_SIZE);
+        journal.write(buffer);
+        return buffer.getData();
+    }
+
+    @Benchmark
+    public JournalEntity read() throws IOException {
+        JournalEntity journal = new JournalEntity();
+        journal.readFields(new DataInputStream(new ByteArrayInputStream(serialized)));
+        return journal;
+    }
+}
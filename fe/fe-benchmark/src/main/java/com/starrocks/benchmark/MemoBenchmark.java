@@ -0,0 +1,70 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.benchmark;
+
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.sql.optimizer.Memo;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.dump.QueryDumpInfo;
+import com.starrocks.utframe.UtFrameUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optimizer.optimize of the stored query dumps of fe-core, whose tables, statistics and session variables
+ * are replayed once before the measurement. The memory of the memo is dominated by the allocations of
+ * the group expressions, run it with the gc profiler to get the bytes allocated by every optimization:
+ *
+ *   java -jar fe-benchmark/target/benchmarks.jar MemoBenchmark -prof gc
+ *
+ * and the "gc.alloc.rate.norm" is the bytes per optimization. The size of the memo is printed after
+ * the measurement.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MemoBenchmark {
+
+    @State(Scope.Thread)
+    public static class QueryDump extends OptimizerBenchmark.QueryState {
+        @Param({"ssb10", "tpcds02", "tpcds54", "tpch01"})
+        public String dump;
+
+        @Setup
+        public void setUp() throws Exception {
+            ConnectContext context = MockedEnv.start(MockedEnv.Schema.QUERY_DUMP);
+            QueryDumpInfo dumpInfo = MockedEnv.loadQueryDump(dump);
+            UtFrameUtils.getNewPlanAndFragmentFromDump(context, dumpInfo);
+            init(context, dumpInfo.getOriginStmt());
+        }
+
+        @TearDown
+        public void printMemo() {
+            Memo memo = getMemo();
+            if (memo != null) {
+                System.out.printf("%n%s: %d groups, %d group expressions%n", dump, memo.getGroups().size(),
+                        memo.getGroupExpressions().size());
+            }
+        }
+    }
+
+    @Benchmark
+    public OptExpression optimize(QueryDump state) {
+        return state.optimize();
+    }
+}
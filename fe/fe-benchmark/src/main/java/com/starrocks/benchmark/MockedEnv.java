@@ -0,0 +1,94 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.benchmark;
+
+import com.google.common.base.Preconditions;
+import com.google.common.io.Resources;
+import com.starrocks.analysis.SqlParser;
+import com.starrocks.analysis.SqlScanner;
+import com.starrocks.analysis.StatementBase;
+import com.starrocks.common.FeConstants;
+import com.starrocks.common.util.SqlParserUtils;
+import com.starrocks.persist.gson.GsonUtils;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.sql.optimizer.dump.QueryDumpInfo;
+import com.starrocks.sql.plan.DistributedEnvPlanTestBase;
+import com.starrocks.sql.plan.PlanTestBase;
+import com.starrocks.sql.plan.TPCDSPlanTestBase;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * MockedEnv starts a mocked frontend with mocked backends, which is the frame of the planner unit tests,
+ * and creates the TPC-H or TPC-DS tables in database "test".
+ *
+ * The catalog is a singleton, so a JVM can only host one schema. It is fine for JMH, which forks new JVMs
+ * for every benchmark.
+ */
+public class MockedEnv {
+    public enum Schema {
+        // TPC-H tables with the row counts of scale factor 100
+        TPCH,
+        TPCDS,
+        // the tables of query dumps are created by replaying them, see loadQueryDump
+        QUERY_DUMP
+    }
+
+    private static Schema startedSchema = null;
+
+    public static synchronized ConnectContext start(Schema schema) throws Exception {
+        if (startedSchema == null) {
+            if (schema == Schema.TPCH) {
+                DistributedEnvPlanTestBase.beforeClass();
+            } else if (schema == Schema.QUERY_DUMP) {
+                PlanTestBase.beforeClass();
+            } else {
+                TPCDSPlanTestBase.beforeClass();
+            }
+            FeConstants.runningUnitTest = true;
+            startedSchema = schema;
+        }
+        Preconditions.checkState(startedSchema == schema, "mocked env has been started with " + startedSchema);
+        // benchmark methods run in the worker threads of JMH
+        PlanTestBase.connectContext.setThreadLocalInfo();
+        return PlanTestBase.connectContext;
+    }
+
+    /**
+     * Load the sql of TPC-H query, such as "q1", from the plan test cases of fe-core,
+     * which is the text between "[sql]" and "[result]".
+     */
+    public static String loadTpchQuery(String name) throws Exception {
+        String content = Resources.toString(Resources.getResource("sql/tpchcost/" + name + ".sql"),
+                StandardCharsets.UTF_8);
+        int start = content.indexOf("[sql]");
+        int end = content.indexOf("[result]");
+        Preconditions.checkState(start >= 0 && end > start, "invalid tpch query file " + name);
+        return content.substring(start + "[sql]".length(), end).trim();
+    }
+
+    /**
+     * Load the sql of TPC-DS query, the queries are picked from TPCDSPlanTest and named after its test cases,
+     * except q64 which is the standard TPC-DS q64.
+     */
+    public static String loadTpcdsQuery(String name) throws Exception {
+        return Resources.toString(Resources.getResource("benchmark/tpcds/" + name + ".sql"),
+                StandardCharsets.UTF_8).trim();
+    }
+
+    /**
+     * Load the query dump, such as "tpch01", from the replay test cases of fe-core. Its tables, statistics
+     * and session variables are set up by UtFrameUtils.getNewPlanAndFragmentFromDump.
+     */
+    public static QueryDumpInfo loadQueryDump(String name) throws Exception {
+        String content = Resources.toString(Resources.getResource("sql/query_dump/" + name + ".json"),
+                StandardCharsets.UTF_8);
+        return GsonUtils.GSON.fromJson(content, QueryDumpInfo.class);
+    }
+
+    public static StatementBase parse(ConnectContext context, String sql) throws Exception {
+        SqlScanner input = new SqlScanner(new StringReader(sql), context.getSessionVariable().getSqlMode());
+        return SqlParserUtils.getFirstStmt(new SqlParser(input));
+    }
+}
@@ -0,0 +1,69 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.benchmark;
+
+import com.google.common.collect.Lists;
+import com.starrocks.mysql.MysqlSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode the text rows of the result set to mysql packets as StmtExecutor.sendShowResult does,
+ * the rows look like the rows of TPC-H lineitem.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MysqlSerializerBenchmark {
+    @Param({"1024"})
+    public int rowNum;
+
+    private List<List<String>> rows;
+    private MysqlSerializer serializer;
+
+    @Setup
+    public void setUp() {
+        rows = Lists.newArrayList();
+        for (int i = 0; i < rowNum; i++) {
+            rows.add(Lists.newArrayList(
+                    String.valueOf(i * 7L), String.valueOf(i % 200000), String.valueOf(i % 10000),
+                    String.valueOf(i % 7), "17.00", "24710.35", "0.04", "0.02", "N", "O",
+                    "1996-03-13", "1996-02-12", "1996-03-22", "DELIVER IN PERSON", "TRUCK",
+                    i % 10 == 0 ? null : "egular courts above the"));
+        }
+        serializer = MysqlSerializer.newInstance();
+    }
+
+    @Benchmark
+    public void encodeRows(Blackhole blackhole) {
+        for (List<String> row : rows) {
+            serializer.reset();
+            for (String item : row) {
+                if (item == null) {
+                    serializer.writeNull();
+                } else {
+                    serializer.writeLenEncodedString(item);
+                }
+            }
+            ByteBuffer packet = serializer.toByteBuffer();
+            blackhole.consume(packet);
+        }
+    }
+}
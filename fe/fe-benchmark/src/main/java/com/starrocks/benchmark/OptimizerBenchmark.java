@@ -0,0 +1,134 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.benchmark;
+
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.sql.analyzer.Analyzer;
+import com.starrocks.sql.analyzer.relation.Relation;
+import com.starrocks.sql.optimizer.Memo;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.Optimizer;
+import com.starrocks.sql.optimizer.base.ColumnRefFactory;
+import com.starrocks.sql.optimizer.base.ColumnRefSet;
+import com.starrocks.sql.optimizer.base.PhysicalPropertySet;
+import com.starrocks.sql.optimizer.transformer.LogicalPlan;
+import com.starrocks.sql.optimizer.transformer.RelationTransformer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optimizer.optimize of TPC-H (scale factor 100) and TPC-DS queries, the statistics are provided by
+ * MockTpchStatisticStorage. Only the optimizer is measured, the logical plan is rebuilt before every
+ * invocation because the optimizer may rewrite it in place.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OptimizerBenchmark {
+
+    @State(Scope.Thread)
+    public static class Tpch extends QueryState {
+        @Param({"q1", "q2", "q3", "q5", "q7", "q8", "q9", "q13", "q18", "q21"})
+        public String query;
+
+        @Setup
+        public void setUp() throws Exception {
+            init(MockedEnv.start(MockedEnv.Schema.TPCH), MockedEnv.loadTpchQuery(query));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Tpcds extends QueryState {
+        @Param({"q1", "q7", "q19", "q39", "q48", "q63", "q69", "q93"})
+        public String query;
+
+        @Setup
+        public void setUp() throws Exception {
+            init(MockedEnv.start(MockedEnv.Schema.TPCDS), MockedEnv.loadTpcdsQuery(query));
+        }
+    }
+
+    /**
+     * TPC-DS q64 joins 18 tables of the snowflake schema in a join tree, which is more than
+     * cbo_max_reorder_node_use_dp, compare the greedy join reorder with the connected subgraph dp.
+     */
+    @State(Scope.Thread)
+    public static class Snowflake extends QueryState {
+        @Param({"greedy", "dphyp"})
+        public String joinReorder;
+
+        @Setup
+        public void setUp() throws Exception {
+            ConnectContext context = MockedEnv.start(MockedEnv.Schema.TPCDS);
+            if (joinReorder.equals("greedy")) {
+                context.getSessionVariable().disableDPJoinReorder();
+                context.getSessionVariable().enableGreedyJoinReorder();
+            } else {
+                context.getSessionVariable().enableDPJoinReorder();
+                context.getSessionVariable().disableGreedyJoinReorder();
+            }
+            init(context, MockedEnv.loadTpcdsQuery("q64"));
+        }
+    }
+
+    public abstract static class QueryState {
+        private ConnectContext context;
+        private String sql;
+
+        private ColumnRefFactory columnRefFactory;
+        private LogicalPlan logicalPlan;
+        private Optimizer optimizer;
+
+        protected void init(ConnectContext context, String sql) {
+            this.context = context;
+            this.sql = sql;
+        }
+
+        @Setup(Level.Invocation)
+        public void buildLogicalPlan() throws Exception {
+            Relation relation = new Analyzer(context.getCatalog(), context).analyze(MockedEnv.parse(context, sql));
+            columnRefFactory = new ColumnRefFactory();
+            logicalPlan = new RelationTransformer(columnRefFactory).transform(relation);
+        }
+
+        public OptExpression optimize() {
+            optimizer = new Optimizer();
+            return optimizer.optimize(context, logicalPlan.getRoot(), new PhysicalPropertySet(),
+                    new ColumnRefSet(logicalPlan.getOutputColumn()), columnRefFactory);
+        }
+
+        // the memo of the last invocation
+        public Memo getMemo() {
+            return optimizer == null ? null : optimizer.getContext().getMemo();
+        }
+    }
+
+    @Benchmark
+    public OptExpression tpch(Tpch state) {
+        return state.optimize();
+    }
+
+    @Benchmark
+    public OptExpression tpcds(Tpcds state) {
+        return state.optimize();
+    }
+
+    @Benchmark
+    public OptExpression snowflake(Snowflake state) {
+        return state.optimize();
+    }
+}
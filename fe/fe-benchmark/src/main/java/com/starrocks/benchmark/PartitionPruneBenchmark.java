@@ -0,0 +1,126 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.benchmark;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Range;
+import com.starrocks.analysis.IntLiteral;
+import com.starrocks.analysis.LiteralExpr;
+import com.starrocks.analysis.PartitionValue;
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.PartitionKey;
+import com.starrocks.catalog.PartitionRangeIndex;
+import com.starrocks.catalog.Type;
+import com.starrocks.common.AnalysisException;
+import com.starrocks.planner.PartitionColumnFilter;
+import com.starrocks.planner.RangePartitionPruner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RangePartitionPruner.prune on a table with a lot of partitions, partition i is [i * 10, (i + 1) * 10)
+ * of an INT column.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PartitionPruneBenchmark {
+    private static final int PARTITION_WIDTH = 10;
+
+    @Param({"10000", "100000"})
+    public int partitionNum;
+
+    // "map" builds a range map for every prune, "index" uses the shared range index of RangePartitionInfo
+    @Param({"map", "index"})
+    public String source;
+
+    private List<Column> partitionColumns;
+    private Map<Long, Range<PartitionKey>> keyRangeById;
+    private PartitionRangeIndex rangeIndex;
+
+    private Map<String, PartitionColumnFilter> pointFilter;
+    private Map<String, PartitionColumnFilter> rangeFilter;
+    private Map<String, PartitionColumnFilter> inFilter;
+
+    @Setup
+    public void setUp() throws AnalysisException {
+        partitionColumns = Lists.newArrayList(new Column("k1", Type.INT));
+        keyRangeById = Maps.newHashMap();
+        for (int i = 0; i < partitionNum; i++) {
+            PartitionKey lower = PartitionKey.createPartitionKey(
+                    Lists.newArrayList(new PartitionValue(String.valueOf(i * PARTITION_WIDTH))), partitionColumns);
+            PartitionKey upper = PartitionKey.createPartitionKey(
+                    Lists.newArrayList(new PartitionValue(String.valueOf((i + 1) * PARTITION_WIDTH))),
+                    partitionColumns);
+            keyRangeById.put((long) i, Range.closedOpen(lower, upper));
+        }
+        rangeIndex = new PartitionRangeIndex(0, keyRangeById);
+
+        int middle = partitionNum / 2 * PARTITION_WIDTH;
+
+        PartitionColumnFilter filter = new PartitionColumnFilter();
+        filter.setLowerBound(new IntLiteral(middle + 1, Type.INT), true);
+        filter.setUpperBound(new IntLiteral(middle + 1, Type.INT), true);
+        pointFilter = Collections.singletonMap("k1", filter);
+
+        // 1% of the partitions
+        filter = new PartitionColumnFilter();
+        filter.setLowerBound(new IntLiteral(middle, Type.INT), true);
+        filter.setUpperBound(new IntLiteral(middle + partitionNum / 100 * PARTITION_WIDTH, Type.INT), false);
+        rangeFilter = Collections.singletonMap("k1", filter);
+
+        List<LiteralExpr> inValues = Lists.newArrayList();
+        for (int i = 0; i < 20; i++) {
+            inValues.add(new IntLiteral((long) i * partitionNum / 20 * PARTITION_WIDTH, Type.INT));
+        }
+        filter = new PartitionColumnFilter();
+        filter.setInPredicateLiterals(inValues);
+        inFilter = Collections.singletonMap("k1", filter);
+    }
+
+    private Collection<Long> prune(Map<String, PartitionColumnFilter> filters) throws AnalysisException {
+        if (source.equals("index")) {
+            return new RangePartitionPruner(rangeIndex, partitionColumns, filters).prune();
+        }
+        return new RangePartitionPruner(keyRangeById, partitionColumns, filters).prune();
+    }
+
+    @Benchmark
+    public Collection<Long> point() throws AnalysisException {
+        return prune(pointFilter);
+    }
+
+    @Benchmark
+    public Collection<Long> range() throws AnalysisException {
+        return prune(rangeFilter);
+    }
+
+    @Benchmark
+    public Collection<Long> inList() throws AnalysisException {
+        return prune(inFilter);
+    }
+
+    @Benchmark
+    public Collection<Long> noFilter() throws AnalysisException {
+        return prune(Collections.emptyMap());
+    }
+}
@@ -0,0 +1,230 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.benchmark;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import com.starrocks.common.Pair;
+import com.starrocks.persist.gson.GsonUtils;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.sql.optimizer.dump.QueryDumpInfo;
+import com.starrocks.sql.plan.ExecPlan;
+import com.starrocks.thrift.TExplainLevel;
+import com.starrocks.utframe.UtFrameUtils;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Replay a directory of query dumps exported by QueryDumpAction, and plan every query of them in the
+ * mocked env with the tables, statistics, session variables and backends of its dump. It reports the
+ * planning latency, the bytes allocated by planning and the chosen plan of every query, which is the
+ * explain of costs, to track the planner across versions.
+ *
+ * Options:
+ *   -dir DIR          the directory of dumps (*.json), default the stored dumps of fe-core sql/query_dump
+ *   -iterations N     plan every query N times after warming up, default 10
+ *   -output FILE      the report of this run, default replay-result.json
+ *   -baseline FILE    the report of a previous run to compare with
+ *   -threshold PCT    the latency or allocation regresses if it's PCT percent worse than the baseline,
+ *                     default 10
+ * The process exits with 1 if any query fails, regresses or changes its plan compared with the baseline.
+ *
+ * e.g. mvn -Pbenchmark,replay-dump verify -pl fe-benchmark -am -DskipTests -Dreplay.baseline=last.json
+ */
+public class QueryDumpReplayer {
+    private static final String DEFAULT_DUMP_DIR = "sql/query_dump";
+    private static final String DEFAULT_RESULT_FILE = "replay-result.json";
+    private static final int DEFAULT_ITERATIONS = 10;
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final double DEFAULT_THRESHOLD = 10;
+
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    public static class ReplayResult {
+        public String query;
+        public double latencyMs;
+        public long allocatedBytes;
+        public String plan;
+        public String error;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String dir = null;
+        String output = DEFAULT_RESULT_FILE;
+        String baseline = null;
+        int iterations = DEFAULT_ITERATIONS;
+        double threshold = DEFAULT_THRESHOLD;
+        for (int i = 0; i < args.length; i++) {
+            // the options not given by the maven profile have empty or no values
+            if (i + 1 >= args.length || args[i + 1].isEmpty() || args[i + 1].startsWith("-")) {
+                continue;
+            }
+            String value = args[++i];
+            switch (args[i - 1]) {
+                case "-dir":
+                    dir = value;
+                    break;
+                case "-iterations":
+                    iterations = Integer.parseInt(value);
+                    break;
+                case "-output":
+                    output = value;
+                    break;
+                case "-baseline":
+                    baseline = value;
+                    break;
+                case "-threshold":
+                    threshold = Double.parseDouble(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown option " + args[i - 1]);
+            }
+        }
+
+        Preconditions.checkArgument(iterations > 0, "iterations should be positive");
+
+        ConnectContext context = MockedEnv.start(MockedEnv.Schema.QUERY_DUMP);
+        boolean passed = true;
+        List<ReplayResult> results = Lists.newArrayList();
+        for (File dump : listDumps(dir)) {
+            ReplayResult result = replay(context, dump, iterations);
+            if (result.error != null) {
+                System.out.printf("FAILED     %s: %s%n", result.query, result.error);
+                passed = false;
+            } else {
+                System.out.printf("%-30s %10.3f ms %14d bytes%n", result.query, result.latencyMs,
+                        result.allocatedBytes);
+            }
+            results.add(result);
+        }
+
+        try (Writer writer = new FileWriter(output)) {
+            GSON.toJson(results, writer);
+        }
+        if (baseline != null) {
+            passed &= compare(results, loadBaseline(baseline), threshold);
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static List<File> listDumps(String dir) throws Exception {
+        File directory;
+        if (dir == null) {
+            URL url = QueryDumpReplayer.class.getClassLoader().getResource(DEFAULT_DUMP_DIR);
+            Preconditions.checkState(url != null && url.getProtocol().equals("file"),
+                    "can't find the stored dumps, please specify -dir");
+            directory = new File(url.toURI());
+        } else {
+            directory = new File(dir);
+        }
+        File[] files = directory.listFiles((d, name) -> name.endsWith(".json"));
+        Preconditions.checkState(files != null, "invalid dump directory " + directory);
+        return Arrays.stream(files).sorted().collect(Collectors.toList());
+    }
+
+    private static ReplayResult replay(ConnectContext context, File dump, int iterations) {
+        ReplayResult result = new ReplayResult();
+        result.query = dump.getName().substring(0, dump.getName().length() - ".json".length());
+        try {
+            String content = new String(Files.readAllBytes(dump.toPath()), StandardCharsets.UTF_8);
+            QueryDumpInfo dumpInfo = GsonUtils.GSON.fromJson(content, QueryDumpInfo.class);
+            // create the tables and statistics of the dump, and set its session variables
+            UtFrameUtils.getNewPlanAndFragmentFromDump(context, dumpInfo);
+            String sql = dumpInfo.getOriginStmt();
+
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                UtFrameUtils.getNewPlanAndFragment(context, sql);
+            }
+
+            com.sun.management.ThreadMXBean threadBean =
+                    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long threadId = Thread.currentThread().getId();
+            long allocated = threadBean.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            Pair<String, ExecPlan> plan = null;
+            for (int i = 0; i < iterations; i++) {
+                plan = UtFrameUtils.getNewPlanAndFragment(context, sql);
+            }
+            result.latencyMs = (System.nanoTime() - start) / 1e6 / iterations;
+            result.allocatedBytes = (threadBean.getThreadAllocatedBytes(threadId) - allocated) / iterations;
+            // the tablets are different in every replay
+            result.plan = Arrays.stream(plan.second.getExplainString(TExplainLevel.COSTS).split("\n"))
+                    .filter(line -> !line.contains("tabletList"))
+                    .collect(Collectors.joining("\n"));
+        } catch (Throwable e) {
+            result.error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+        return result;
+    }
+
+    private static Map<String, ReplayResult> loadBaseline(String file) throws Exception {
+        List<ReplayResult> results;
+        try (Reader reader = new FileReader(file)) {
+            results = GSON.fromJson(reader, new TypeToken<List<ReplayResult>>() {
+            }.getType());
+        }
+        Map<String, ReplayResult> baseline = Maps.newHashMap();
+        for (ReplayResult result : results) {
+            baseline.put(result.query, result);
+        }
+        return baseline;
+    }
+
+    private static boolean compare(List<ReplayResult> results, Map<String, ReplayResult> baseline,
+                                   double threshold) {
+        boolean passed = true;
+        for (ReplayResult result : results) {
+            ReplayResult base = baseline.get(result.query);
+            if (base == null || base.error != null || result.error != null) {
+                continue;
+            }
+            double latencyChange = change(base.latencyMs, result.latencyMs);
+            double allocationChange = change(base.allocatedBytes, result.allocatedBytes);
+            boolean regressed = latencyChange > threshold || allocationChange > threshold;
+            System.out.printf("%-10s %s: latency %.3f -> %.3f ms (%+.1f%%), allocation %d -> %d bytes (%+.1f%%)%n",
+                    regressed ? "REGRESSION" : "OK", result.query, base.latencyMs, result.latencyMs,
+                    latencyChange, base.allocatedBytes, result.allocatedBytes, allocationChange);
+            if (!base.plan.equals(result.plan)) {
+                System.out.printf("PLAN CHANGED %s:%n%s", result.query, diff(base.plan, result.plan));
+                passed = false;
+            }
+            passed &= !regressed;
+        }
+        return passed;
+    }
+
+    private static double change(double base, double value) {
+        return base == 0 ? 0 : (value - base) / base * 100;
+    }
+
+    // the lines removed from the baseline plan and added to the new plan
+    private static String diff(String basePlan, String plan) {
+        List<String> removed = Lists.newArrayList(basePlan.split("\n"));
+        List<String> added = Lists.newArrayList(plan.split("\n"));
+        for (String line : plan.split("\n")) {
+            if (removed.remove(line)) {
+                added.remove(line);
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        removed.forEach(line -> sb.append("- ").append(line).append("\n"));
+        added.forEach(line -> sb.append("+ ").append(line).append("\n"));
+        return sb.toString();
+    }
+}
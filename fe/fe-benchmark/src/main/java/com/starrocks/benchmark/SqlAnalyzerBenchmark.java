@@ -0,0 +1,54 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.benchmark;
+
+import com.starrocks.analysis.StatementBase;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.sql.analyzer.Analyzer;
+import com.starrocks.sql.analyzer.relation.Relation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse the TPC-H queries, and analyze them with the new analyzer (QueryAnalyzer).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SqlAnalyzerBenchmark {
+    @Param({"q1", "q2", "q5", "q9", "q13", "q18", "q21", "q22"})
+    public String query;
+
+    private ConnectContext context;
+    private String sql;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = MockedEnv.start(MockedEnv.Schema.TPCH);
+        sql = MockedEnv.loadTpchQuery(query);
+    }
+
+    @Benchmark
+    public StatementBase parse() throws Exception {
+        return MockedEnv.parse(context, sql);
+    }
+
+    @Benchmark
+    public Relation parseAndAnalyze() throws Exception {
+        return new Analyzer(context.getCatalog(), context).analyze(MockedEnv.parse(context, sql));
+    }
+}
@@ -0,0 +1,95 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.benchmark;
+
+import com.starrocks.catalog.Replica;
+import com.starrocks.catalog.TabletInvertedIndex;
+import com.starrocks.catalog.TabletMeta;
+import com.starrocks.thrift.TStorageMedium;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups of TabletInvertedIndex, which are on the path of tablet report, load and query scheduling.
+ * Every tablet has 3 replicas on 10 backends, and every partition has 16 tablets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TabletInvertedIndexBenchmark {
+    private static final int BACKEND_NUM = 10;
+    private static final int REPLICA_NUM = 3;
+    private static final int TABLETS_PER_PARTITION = 16;
+    private static final long TABLET_ID_BASE = 100000000L;
+
+    @Param({"100000", "1000000"})
+    public int tabletNum;
+
+    private TabletInvertedIndex invertedIndex;
+
+    @Setup
+    public void setUp() {
+        invertedIndex = new TabletInvertedIndex();
+        long replicaId = 0;
+        for (int i = 0; i < tabletNum; i++) {
+            long tabletId = TABLET_ID_BASE + i;
+            long partitionId = i / TABLETS_PER_PARTITION;
+            invertedIndex.addTablet(tabletId, new TabletMeta(1, 2, partitionId, partitionId, 0, TStorageMedium.HDD));
+            for (int j = 0; j < REPLICA_NUM; j++) {
+                long backendId = (i + j) % BACKEND_NUM;
+                invertedIndex.addReplica(tabletId, new Replica(replicaId++, backendId, 0, Replica.ReplicaState.NORMAL));
+            }
+        }
+    }
+
+    private long randomTabletId() {
+        return TABLET_ID_BASE + ThreadLocalRandom.current().nextInt(tabletNum);
+    }
+
+    @Benchmark
+    public TabletMeta getTabletMeta() {
+        return invertedIndex.getTabletMeta(randomTabletId());
+    }
+
+    @Benchmark
+    public Replica getReplica() {
+        long tabletId = randomTabletId();
+        return invertedIndex.getReplica(tabletId, (tabletId - TABLET_ID_BASE) % BACKEND_NUM);
+    }
+
+    @Benchmark
+    public List<Replica> getReplicasByTabletId() {
+        return invertedIndex.getReplicasByTabletId(randomTabletId());
+    }
+
+    // the read lock is shared by the concurrent queries and loads
+    @Benchmark
+    @Threads(8)
+    public Replica getReplicaConcurrently() {
+        return getReplica();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Long> getTabletIdsByBackendId() {
+        return invertedIndex.getTabletIdsByBackendId(ThreadLocalRandom.current().nextInt(BACKEND_NUM));
+    }
+}
@@ -0,0 +1,131 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.benchmark;
+
+import com.starrocks.common.Config;
+import com.starrocks.common.ThreadPoolManager;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A number of connections run a query at the same time, every query waits for queriesPerConnection
+ * fetch-data rpcs of BE which take rpcLatencyMs each, like ConnectProcessor waits in ResultReceiver.getNext.
+ * The score is the time for all the connections to finish, and the max number of the queries waiting
+ * for rpc at the same time in each iteration is reported as the secondary result maxInFlightQueries.
+ * <p>
+ * With platform threads, the queries are run by a pool of max_mysql_service_task_threads_num threads,
+ * so at most that many queries are in flight. With virtual threads, all the connections are in flight.
+ * threadMode=virtual requires JDK 21+, run with "-p threadMode=platform" on the older JDKs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xss512k"})
+public class VirtualThreadConnectionBenchmark {
+    private static final long RPC_TIMEOUT_S = 60;
+
+    @Param({"platform", "virtual"})
+    public String threadMode;
+
+    @Param({"20000"})
+    public int connections;
+
+    @Param({"5"})
+    public int rpcLatencyMs;
+
+    @Param({"4"})
+    public int queriesPerConnection;
+
+    private ExecutorService taskService;
+    // completes the rpc futures as BE
+    private ScheduledExecutorService backend;
+
+    private final AtomicInteger inFlight = new AtomicInteger(0);
+    private final AtomicInteger maxInFlight = new AtomicInteger(0);
+
+    @Setup
+    public void setUp() {
+        if (threadMode.equals("virtual")) {
+            if (!ThreadPoolManager.isVirtualThreadSupported()) {
+                throw new IllegalStateException("virtual thread requires JDK 21+, current java version is "
+                        + System.getProperty("java.version"));
+            }
+            taskService = ThreadPoolManager.newDaemonVirtualThreadPool("benchmark-mysql-virtual-pool");
+        } else {
+            // queue the connections exceeding the threads instead of discarding them
+            taskService = ThreadPoolManager.newDaemonFixedThreadPool(Config.max_mysql_service_task_threads_num,
+                    connections, "benchmark-mysql-platform-pool", false);
+        }
+        backend = ThreadPoolManager.newDaemonScheduledThreadPool(4, "benchmark-backend", false);
+    }
+
+    @TearDown
+    public void tearDown() {
+        taskService.shutdownNow();
+        backend.shutdownNow();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Concurrency {
+        public long maxInFlightQueries;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            maxInFlightQueries = 0;
+        }
+    }
+
+    private void runQuery() throws Exception {
+        int num = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(num, Math::max);
+        try {
+            for (int i = 0; i < queriesPerConnection; i++) {
+                CompletableFuture<Boolean> fetchResult = new CompletableFuture<>();
+                backend.schedule(() -> fetchResult.complete(true), rpcLatencyMs, TimeUnit.MILLISECONDS);
+                fetchResult.get(RPC_TIMEOUT_S, TimeUnit.SECONDS);
+            }
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    @Benchmark
+    public void connections(Concurrency concurrency) throws InterruptedException {
+        CountDownLatch finished = new CountDownLatch(connections);
+        for (int i = 0; i < connections; i++) {
+            taskService.submit(() -> {
+                try {
+                    runQuery();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    finished.countDown();
+                }
+            });
+        }
+        finished.await();
+        concurrency.maxInFlightQueries = Math.max(concurrency.maxInFlightQueries, maxInFlight.getAndSet(0));
+    }
+}
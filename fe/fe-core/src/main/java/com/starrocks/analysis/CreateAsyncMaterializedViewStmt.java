@@ -0,0 +1,224 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.analysis;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.starrocks.catalog.Catalog;
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.MaterializedViewDefinition;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.PartitionType;
+import com.starrocks.catalog.RangePartitionInfo;
+import com.starrocks.catalog.ScalarType;
+import com.starrocks.catalog.Table;
+import com.starrocks.catalog.Type;
+import com.starrocks.common.AnalysisException;
+import com.starrocks.common.ErrorCode;
+import com.starrocks.common.ErrorReport;
+import com.starrocks.common.FeNameFormat;
+import com.starrocks.common.UserException;
+import com.starrocks.mysql.privilege.PrivPredicate;
+import com.starrocks.qe.ConnectContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Asynchronous materialized view stores the result of a query, which may join several tables,
+ * as a normal olap table. It is refreshed in background after the base tables are changed,
+ * and the optimizer rewrites the queries to read it while it is consistent with the base tables.
+ * <p>
+ * Syntax:
+ * CREATE MATERIALIZED VIEW [db.]mv_name
+ * [PARTITION BY column_name]
+ * DISTRIBUTED BY HASH (column_name[, column_name ...]) [BUCKETS num]
+ * REFRESH ASYNC
+ * [PROPERTIES ("key" = "value")]
+ * AS select_stmt
+ * <p>
+ * The partition column must be the range partition column of one of the base tables,
+ * and the materialized view is partitioned the same way as that table.
+ */
+public class CreateAsyncMaterializedViewStmt extends DdlStmt {
+    private final TableName mvName;
+    private final String partitionColumn;
+    private final DistributionDesc distributionDesc;
+    private final Map<String, String> properties;
+    private final QueryStmt queryStmt;
+
+    private CreateTableStmt createTableStmt;
+    private MaterializedViewDefinition definition;
+
+    public CreateAsyncMaterializedViewStmt(TableName mvName, String partitionColumn, DistributionDesc distributionDesc,
+                                           Map<String, String> properties, QueryStmt queryStmt) {
+        this.mvName = mvName;
+        this.partitionColumn = partitionColumn;
+        this.distributionDesc = distributionDesc;
+        this.properties = properties;
+        this.queryStmt = queryStmt;
+    }
+
+    public TableName getMvName() {
+        return mvName;
+    }
+
+    public CreateTableStmt getCreateTableStmt() {
+        return createTableStmt;
+    }
+
+    public MaterializedViewDefinition getDefinition() {
+        return definition;
+    }
+
+    @Override
+    public void analyze(Analyzer analyzer) throws UserException {
+        super.analyze(analyzer);
+        mvName.analyze(analyzer);
+        FeNameFormat.checkTableName(mvName.getTbl());
+
+        if (!Catalog.getCurrentCatalog().getAuth().checkTblPriv(ConnectContext.get(), mvName.getDb(),
+                mvName.getTbl(), PrivPredicate.CREATE)) {
+            ErrorReport.reportAnalysisException(ErrorCode.ERR_SPECIFIC_ACCESS_DENIED_ERROR, "CREATE");
+        }
+
+        if (!(queryStmt instanceof SelectStmt)) {
+            throw new AnalysisException("Materialized view only supports select statement");
+        }
+        // analyze a copy of query, like create table as select, to avoid duplicate registrations
+        Analyzer dummyRootAnalyzer = new Analyzer(analyzer.getCatalog(), analyzer.getContext());
+        SelectStmt selectStmt = (SelectStmt) queryStmt.clone();
+        selectStmt.setNeedToSql(true);
+        selectStmt.analyze(dummyRootAnalyzer);
+
+        List<Long> baseTableIds = analyzeQuery(selectStmt);
+
+        List<ColumnDef> columnDefs = Lists.newArrayList();
+        for (int i = 0; i < selectStmt.getColLabels().size(); i++) {
+            String name = selectStmt.getColLabels().get(i);
+            try {
+                FeNameFormat.checkColumnName(name);
+            } catch (AnalysisException e) {
+                throw new AnalysisException("Invalid column name '" + name
+                        + "' of materialized view, please specify an alias for it");
+            }
+            Type type = selectStmt.getResultExprs().get(i).getType();
+            if (type.isStringType() && ((ScalarType) type).getLength() <= 0) {
+                type = ScalarType.createVarcharType(ScalarType.MAX_VARCHAR_LENGTH);
+            }
+            // the result of join or aggregation may be null, so all the columns are nullable
+            columnDefs.add(new ColumnDef(name, new TypeDef(type), false, null, true,
+                    ColumnDef.DefaultValue.NOT_SET, ""));
+        }
+
+        definition = new MaterializedViewDefinition(selectStmt.toSql(), baseTableIds);
+
+        RangePartitionDesc partitionDesc = null;
+        if (partitionColumn != null) {
+            analyzePartitionColumn(selectStmt);
+            partitionDesc = new RangePartitionDesc(Lists.newArrayList(partitionColumn), Lists.newArrayList());
+        }
+
+        // the partitions of a partitioned materialized view are created at refresh
+        createTableStmt = new CreateTableStmt(false, false, mvName, columnDefs, "olap", null, partitionDesc,
+                distributionDesc, properties, null, "materialized view");
+        createTableStmt.analyze(analyzer);
+    }
+
+    // check the query is a select-project-join-aggregate on olap tables of the same database,
+    // and return the ids of the tables.
+    private List<Long> analyzeQuery(SelectStmt selectStmt) throws AnalysisException {
+        if (selectStmt.hasWithClause() || selectStmt.hasLimitClause() || selectStmt.hasOrderByClause()) {
+            throw new AnalysisException("Materialized view does not support with, order by or limit clause");
+        }
+        if (selectStmt.hasAnalyticInfo()) {
+            throw new AnalysisException("Materialized view does not support analytic function");
+        }
+        if (selectStmt.getWhereClause() != null && selectStmt.getWhereClause().contains(Subquery.class)) {
+            throw new AnalysisException("Materialized view does not support subquery");
+        }
+        if (selectStmt.getTableRefs().isEmpty()) {
+            throw new AnalysisException("Materialized view must select from at least one table");
+        }
+
+        List<Long> baseTableIds = Lists.newArrayList();
+        Set<Long> tableIdSet = Sets.newHashSet();
+        for (TableRef tableRef : selectStmt.getTableRefs()) {
+            if (!(tableRef instanceof BaseTableRef)) {
+                throw new AnalysisException("Materialized view only supports selecting from tables");
+            }
+            if (tableRef.getJoinOp() != null && !tableRef.getJoinOp().isInnerJoin()
+                    && !tableRef.getJoinOp().isCrossJoin()) {
+                throw new AnalysisException("Materialized view only supports inner join");
+            }
+            if (tableRef.getPartitionNames() != null || tableRef.getTabletIds() != null
+                    && !tableRef.getTabletIds().isEmpty()) {
+                throw new AnalysisException("Materialized view does not support partition or tablet hint");
+            }
+            Table table = tableRef.getTable();
+            if (table.getType() != Table.TableType.OLAP || ((OlapTable) table).getMaterializedViewDefinition() != null) {
+                throw new AnalysisException("Materialized view only supports olap table, but "
+                        + table.getName() + " is not");
+            }
+            if (!tableRef.getName().getDb().equalsIgnoreCase(mvName.getDb())) {
+                throw new AnalysisException("Base table " + table.getName()
+                        + " must be in the same database as materialized view");
+            }
+            if (!tableIdSet.add(table.getId())) {
+                throw new AnalysisException("Materialized view does not support selecting table "
+                        + table.getName() + " more than once");
+            }
+            baseTableIds.add(table.getId());
+        }
+        return baseTableIds;
+    }
+
+    private void analyzePartitionColumn(SelectStmt selectStmt) throws AnalysisException {
+        int index = -1;
+        for (int i = 0; i < selectStmt.getColLabels().size(); i++) {
+            if (selectStmt.getColLabels().get(i).equalsIgnoreCase(partitionColumn)) {
+                index = i;
+                break;
+            }
+        }
+        if (index < 0) {
+            throw new AnalysisException("Partition column " + partitionColumn + " does not exist in the select list");
+        }
+
+        Expr expr = selectStmt.getBaseTblResultExprs().get(index);
+        if (expr instanceof SlotRef && ((SlotRef) expr).getDesc().getParent().getTable() instanceof OlapTable) {
+            SlotRef slotRef = (SlotRef) expr;
+            OlapTable table = (OlapTable) slotRef.getDesc().getParent().getTable();
+            Column column = slotRef.getColumn();
+            if (table.getPartitionInfo().getType() == PartitionType.RANGE) {
+                List<Column> partitionColumns = ((RangePartitionInfo) table.getPartitionInfo()).getPartitionColumns();
+                if (partitionColumns.size() == 1 && partitionColumns.get(0).equals(column)) {
+                    definition.setPartitionInfo(partitionColumn, table.getId(), column.getName());
+                    return;
+                }
+            }
+        }
+        throw new AnalysisException("Partition column " + partitionColumn
+                + " must be the single range partition column of a base table");
+    }
+
+    @Override
+    public String toSql() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("CREATE MATERIALIZED VIEW ").append(mvName.toSql());
+        if (partitionColumn != null) {
+            sb.append(" PARTITION BY ").append(partitionColumn);
+        }
+        if (distributionDesc != null) {
+            sb.append(" ").append(distributionDesc.toSql());
+        }
+        sb.append(" REFRESH ASYNC AS ").append(queryStmt.toSql());
+        return sb.toString();
+    }
+
+    @Override
+    public RedirectStatus getRedirectStatus() {
+        return RedirectStatus.FORWARD_WITH_SYNC;
+    }
+}
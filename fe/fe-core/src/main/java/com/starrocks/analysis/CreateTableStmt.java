@@ -29,6 +29,7 @@ import com.starrocks.catalog.Catalog;
 import com.starrocks.catalog.Column;
 import com.starrocks.catalog.Index;
 import com.starrocks.catalog.KeysType;
+import com.starrocks.catalog.MaterializedViewDefinition;
 import com.starrocks.catalog.PartitionType;
 import com.starrocks.catalog.PrimitiveType;
 import com.starrocks.common.AnalysisException;
@@ -96,6 +97,9 @@ public class CreateTableStmt extends DdlStmt {
     // for backup. set to -1 for normal use
     private int tableSignature;
 
+    // set only when creating an asynchronous materialized view
+    private MaterializedViewDefinition materializedViewDefinition;
+
     public CreateTableStmt() {
         // for persist
         tableName = new TableName();
@@ -250,6 +254,14 @@ public class CreateTableStmt extends DdlStmt {
         return indexes;
     }
 
+    public MaterializedViewDefinition getMaterializedViewDefinition() {
+        return materializedViewDefinition;
+    }
+
+    public void setMaterializedViewDefinition(MaterializedViewDefinition materializedViewDefinition) {
+        this.materializedViewDefinition = materializedViewDefinition;
+    }
+
     @Override
     public void analyze(Analyzer analyzer) throws UserException {
         super.analyze(analyzer);
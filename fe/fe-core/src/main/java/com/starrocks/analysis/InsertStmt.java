@@ -320,7 +320,8 @@ public class InsertStmt extends DdlStmt {
 
             // partition
             if (targetPartitionNames != null) {
-                if (olapTable.getPartitionInfo().getType() == PartitionType.UNPARTITIONED) {
+                if (olapTable.getPartitionInfo().getType() == PartitionType.UNPARTITIONED
+                        && !targetPartitionNames.isTemp()) {
                     ErrorReport.reportAnalysisException(ErrorCode.ERR_PARTITION_CLAUSE_NO_ALLOWED);
                 }
                 for (String partName : targetPartitionNames.getPartitionNames()) {
@@ -29,6 +29,7 @@ import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Collections2;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.starrocks.analysis.TableRef;
 import com.starrocks.backup.Status.ErrCode;
 import com.starrocks.catalog.Catalog;
@@ -42,6 +43,7 @@ import com.starrocks.catalog.Replica;
 import com.starrocks.catalog.Table;
 import com.starrocks.catalog.Table.TableType;
 import com.starrocks.catalog.Tablet;
+import com.starrocks.common.StarRocksFEMetaVersion;
 import com.starrocks.common.io.Text;
 import com.starrocks.common.util.TimeUtils;
 import com.starrocks.common.util.UUIDUtil;
@@ -71,6 +73,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 public class BackupJob extends AbstractJob {
@@ -112,6 +115,9 @@ public class BackupJob extends AbstractJob {
     // save the local file path of meta info and job info file
     private String localMetaInfoFilePath = null;
     private String localJobInfoFilePath = null;
+    // remote info files which have been uploaded. persisted so that
+    // a retried or replayed job does not upload them again.
+    private Set<String> uploadedInfoFiles = Sets.newHashSet();
 
     public BackupJob() {
         super(JobType.BACKUP);
@@ -646,6 +652,11 @@ public class BackupJob extends AbstractJob {
     }
 
     private boolean uploadFile(String localFilePath, String remoteFilePath) {
+        if (uploadedInfoFiles.contains(remoteFilePath)) {
+            LOG.info("file {} has already been uploaded, skip it. {}", remoteFilePath, this);
+            return true;
+        }
+
         if (!validateLocalFile(localFilePath)) {
             return false;
         }
@@ -654,6 +665,9 @@ public class BackupJob extends AbstractJob {
         if (!status.ok()) {
             return false;
         }
+
+        uploadedInfoFiles.add(remoteFilePath);
+        catalog.getEditLog().logBackupJob(this);
         return true;
     }
 
@@ -811,6 +825,11 @@ public class BackupJob extends AbstractJob {
             out.writeBoolean(true);
             Text.writeString(out, localJobInfoFilePath);
         }
+
+        out.writeInt(uploadedInfoFiles.size());
+        for (String remoteFilePath : uploadedInfoFiles) {
+            Text.writeString(out, remoteFilePath);
+        }
     }
 
     public void readFields(DataInput in) throws IOException {
@@ -854,6 +873,13 @@ public class BackupJob extends AbstractJob {
         if (in.readBoolean()) {
             localJobInfoFilePath = Text.readString(in);
         }
+
+        if (Catalog.getCurrentCatalogStarRocksJournalVersion() >= StarRocksFEMetaVersion.VERSION_4) {
+            size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                uploadedInfoFiles.add(Text.readString(in));
+            }
+        }
     }
 
     @Override
@@ -33,6 +33,7 @@ import com.starrocks.common.Pair;
 import com.starrocks.common.io.Text;
 import com.starrocks.common.io.Writable;
 import com.starrocks.common.util.BrokerUtil;
+import com.starrocks.metric.MetricRepo;
 import com.starrocks.service.FrontendOptions;
 import com.starrocks.thrift.TBrokerCheckPathExistRequest;
 import com.starrocks.thrift.TBrokerCheckPathExistResponse;
@@ -71,6 +72,7 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
 import java.nio.file.FileVisitOption;
@@ -108,6 +110,12 @@ public class BlobStorage implements Writable {
         LOG.debug("download from {} to {}, file size: {}.",
                 remoteFilePath, localFilePath, fileSize);
 
+        // read the mutable config once, a non-positive part size disables the download in parts
+        long partSize = Config.backup_transfer_part_size_bytes;
+        if (partSize > 0 && fileSize > partSize && Config.backup_transfer_concurrency > 1) {
+            return downloadInParts(remoteFilePath, localFilePath, fileSize, partSize);
+        }
+
         long start = System.currentTimeMillis();
 
         // 1. get a proper broker
@@ -273,9 +281,153 @@ public class BlobStorage implements Writable {
 
         LOG.info("finished to download from {} to {} with size: {}. cost {} ms", remoteFilePath, localFilePath,
                 fileSize, (System.currentTimeMillis() - start));
+        if (status.ok()) {
+            updateTransferMetrics(false, fileSize, System.currentTimeMillis() - start);
+        }
         return status;
     }
 
+    // Download the remote file in parts of partSize.
+    // Each part is read by its own broker reader and written to its offset of the local file,
+    // so that several parts can be downloaded in parallel.
+    // The finished parts are only kept in memory, a download interrupted by the restart of FE
+    // starts over from the first part.
+    private Status downloadInParts(String remoteFilePath, String localFilePath, long fileSize, long partSize) {
+        long start = System.currentTimeMillis();
+
+        // 1. create an empty local file with the final size
+        File localFile = new File(localFilePath);
+        try {
+            if (localFile.exists()) {
+                Files.walk(Paths.get(localFilePath),
+                        FileVisitOption.FOLLOW_LINKS).sorted(Comparator.reverseOrder()).map(Path::toFile)
+                        .forEach(File::delete);
+            }
+            if (!localFile.createNewFile()) {
+                return new Status(ErrCode.COMMON_ERROR, "failed to create local file: " + localFilePath);
+            }
+            try (RandomAccessFile raf = new RandomAccessFile(localFile, "rw")) {
+                raf.setLength(fileSize);
+            }
+        } catch (IOException e) {
+            return new Status(ErrCode.COMMON_ERROR, "failed to create local file: "
+                    + localFilePath + ", msg: " + e.getMessage());
+        }
+
+        // 2. download all parts
+        BlobTransferProgress progress = new BlobTransferProgress(remoteFilePath, fileSize, partSize);
+        MultipartTransfer transfer = new MultipartTransfer(progress, Config.backup_transfer_concurrency,
+                Config.backup_transfer_part_max_retry_times,
+                (partIdx, offset, length) -> downloadPart(remoteFilePath, localFile, offset, length));
+        Status status = transfer.run();
+        if (!status.ok()) {
+            LOG.warn("failed to download {} to {}, progress: {}, msg: {}",
+                    remoteFilePath, localFilePath, progress, status.getErrMsg());
+            return status;
+        }
+
+        long costMs = System.currentTimeMillis() - start;
+        LOG.info("finished to download from {} to {} with size: {} in {} parts. cost {} ms",
+                remoteFilePath, localFilePath, fileSize, progress.getPartNum(), costMs);
+        updateTransferMetrics(false, fileSize, costMs);
+        return Status.OK;
+    }
+
+    private Status downloadPart(String remoteFilePath, File localFile, long offset, long length) {
+        Pair<TFileBrokerService.Client, TNetworkAddress> pair =
+                new Pair<TFileBrokerService.Client, TNetworkAddress>(null, null);
+        Status status = getBroker(pair);
+        if (!status.ok()) {
+            return status;
+        }
+        TFileBrokerService.Client client = pair.first;
+        TNetworkAddress address = pair.second;
+
+        TBrokerFD fd;
+        try {
+            TBrokerOpenReaderRequest req = new TBrokerOpenReaderRequest(TBrokerVersion.VERSION_ONE, remoteFilePath,
+                    offset, clientId(), properties);
+            TBrokerOpenReaderResponse rep = client.openReader(req);
+            TBrokerOperationStatus opst = rep.getOpStatus();
+            if (opst.getStatusCode() != TBrokerOperationStatusCode.OK) {
+                ClientPool.brokerPool.returnObject(address, client);
+                return new Status(ErrCode.COMMON_ERROR,
+                        "failed to open reader on broker " + BrokerUtil.printBroker(brokerName, address)
+                                + " for file: " + remoteFilePath + ". msg: " + opst.getMessage());
+            }
+            fd = rep.getFd();
+        } catch (TException e) {
+            ClientPool.brokerPool.invalidateObject(address, client);
+            return new Status(ErrCode.BAD_CONNECTION,
+                    "failed to open reader on broker " + BrokerUtil.printBroker(brokerName, address)
+                            + " for file: " + remoteFilePath + ". msg: " + e.getMessage());
+        }
+
+        try (RandomAccessFile out = new RandomAccessFile(localFile, "rw")) {
+            out.seek(offset);
+            final long bufSize = 1024 * 1024; // 1MB
+            long readOffset = offset;
+            long end = offset + length;
+            while (readOffset < end) {
+                long readLen = Math.min(bufSize, end - readOffset);
+                TBrokerPReadRequest req = new TBrokerPReadRequest(TBrokerVersion.VERSION_ONE, fd, readOffset,
+                        readLen);
+                TBrokerReadResponse rep = client.pread(req);
+                if (rep.getOpStatus().getStatusCode() != TBrokerOperationStatusCode.OK) {
+                    status = new Status(ErrCode.COMMON_ERROR, String.format("failed to read via broker %s. "
+                                    + "current read offset: %d, read length: %d, file: %s, err code: %d, msg: %s",
+                            BrokerUtil.printBroker(brokerName, address), readOffset, readLen, remoteFilePath,
+                            rep.getOpStatus().getStatusCode(), rep.getOpStatus().getMessage()));
+                    break;
+                }
+                byte[] data = rep.getData();
+                if (data.length == 0) {
+                    status = new Status(ErrCode.COMMON_ERROR, String.format("unexpected end of file via broker %s. "
+                                    + "current read offset: %d, expected end: %d, file: %s",
+                            BrokerUtil.printBroker(brokerName, address), readOffset, end, remoteFilePath));
+                    break;
+                }
+                // the actual read length may be less than the expected read length.
+                int writeLen = (int) Math.min(data.length, end - readOffset);
+                out.write(data, 0, writeLen);
+                readOffset += writeLen;
+            }
+        } catch (TException e) {
+            status = new Status(ErrCode.BAD_CONNECTION, String.format("failed to read via broker %s. "
+                            + "part offset: %d, part length: %d, file: %s. msg: %s",
+                    BrokerUtil.printBroker(brokerName, address), offset, length, remoteFilePath, e.getMessage()));
+        } catch (IOException e) {
+            status = new Status(ErrCode.COMMON_ERROR, "failed to write local file " + localFile
+                    + ", msg: " + e.getMessage());
+        } finally {
+            Status closeStatus = closeReader(client, address, fd);
+            if (!closeStatus.ok()) {
+                LOG.warn(closeStatus.getErrMsg());
+            }
+            if (closeStatus.getErrCode() == ErrCode.BAD_CONNECTION || status.getErrCode() == ErrCode.BAD_CONNECTION) {
+                ClientPool.brokerPool.invalidateObject(address, client);
+            } else {
+                ClientPool.brokerPool.returnObject(address, client);
+            }
+        }
+        return status;
+    }
+
+    private static void updateTransferMetrics(boolean isUpload, long bytes, long costMs) {
+        if (!MetricRepo.isInit) {
+            return;
+        }
+        // bytes per ms is almost KB/s
+        long throughput = bytes / Math.max(1, costMs);
+        if (isUpload) {
+            MetricRepo.COUNTER_BACKUP_UPLOAD_BYTES.increase(bytes);
+            MetricRepo.HISTO_BACKUP_UPLOAD_THROUGHPUT.update(throughput);
+        } else {
+            MetricRepo.COUNTER_BACKUP_DOWNLOAD_BYTES.increase(bytes);
+            MetricRepo.HISTO_BACKUP_DOWNLOAD_THROUGHPUT.update(throughput);
+        }
+    }
+
     // directly upload the content to remote file
     public Status directUpload(String content, String remoteFile) {
         Status status = Status.OK;
@@ -349,17 +501,22 @@ public class BlobStorage implements Writable {
         }
 
         // 3. read local file and write to remote with broker
+        // Broker writer is a sequential stream, so parts are written one by one.
         File localFile = new File(localPath);
         long fileLength = localFile.length();
-        byte[] readBuf = new byte[1024];
+        BlobTransferProgress progress = new BlobTransferProgress(remotePath, fileLength,
+                Math.max(Config.backup_transfer_part_size_bytes, 1));
+        int partIdx = 0;
+        byte[] readBuf = new byte[1024 * 1024];
         try (BufferedInputStream in = new BufferedInputStream(new FileInputStream(localFile))) {
             // save the last err msg
             String lastErrMsg = null;
             // save the current write offset of remote file
             long writeOffset = 0;
-            // read local file, 1MB at a time
+            // read local file, 1MB at a time and never across the boundary of a part
             int bytesRead = 0;
-            while ((bytesRead = in.read(readBuf)) != -1) {
+            while ((bytesRead = in.read(readBuf, 0, (int) Math.min(readBuf.length,
+                    progress.getPartOffset(partIdx) + progress.getPartLength(partIdx) - writeOffset))) > 0) {
                 ByteBuffer bb = ByteBuffer.wrap(readBuf, 0, bytesRead);
 
                 // We only retry if we encounter a timeout thrift exception.
@@ -419,6 +576,13 @@ public class BlobStorage implements Writable {
                 if (status.ok() && tryTimes < 3) {
                     // write succeed, update current write offset
                     writeOffset += bytesRead;
+                    if (writeOffset == progress.getPartOffset(partIdx) + progress.getPartLength(partIdx)) {
+                        progress.finishPart(partIdx);
+                        if (progress.isFinished()) {
+                            break;
+                        }
+                        partIdx++;
+                    }
                 } else {
                     status = new Status(ErrCode.COMMON_ERROR, lastErrMsg);
                     break;
@@ -446,8 +610,10 @@ public class BlobStorage implements Writable {
         }
 
         if (status.ok()) {
-            LOG.info("finished to upload {} to remote path {}. cost: {} ms",
-                    localPath, remotePath, (System.currentTimeMillis() - start));
+            long costMs = System.currentTimeMillis() - start;
+            LOG.info("finished to upload {} to remote path {}. {}. cost: {} ms",
+                    localPath, remotePath, progress, costMs);
+            updateTransferMetrics(true, fileLength, costMs);
         }
         return status;
     }
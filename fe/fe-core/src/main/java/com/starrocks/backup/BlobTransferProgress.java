@@ -0,0 +1,85 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.backup;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Sets;
+
+import java.util.Set;
+
+/*
+ * BlobTransferProgress records which parts of a file have been transferred through broker.
+ * A failed part is retried by itself, the finished parts are never transferred again.
+ * The parts are not checksummed, the whole file is verified by its md5sum once it's downloaded.
+ */
+public class BlobTransferProgress {
+    private String path;
+    private long fileSize;
+    private long partSize;
+    private Set<Integer> finishedParts = Sets.newTreeSet();
+
+    public BlobTransferProgress(String path, long fileSize, long partSize) {
+        Preconditions.checkArgument(partSize > 0, "part size must be positive");
+        this.path = path;
+        this.fileSize = fileSize;
+        this.partSize = partSize;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public long getPartSize() {
+        return partSize;
+    }
+
+    public int getPartNum() {
+        if (fileSize == 0) {
+            return 1;
+        }
+        return (int) ((fileSize + partSize - 1) / partSize);
+    }
+
+    public long getPartOffset(int partIdx) {
+        return partIdx * partSize;
+    }
+
+    public long getPartLength(int partIdx) {
+        return Math.min(partSize, fileSize - getPartOffset(partIdx));
+    }
+
+    public synchronized boolean isPartFinished(int partIdx) {
+        return finishedParts.contains(partIdx);
+    }
+
+    public synchronized void finishPart(int partIdx) {
+        Preconditions.checkArgument(partIdx >= 0 && partIdx < getPartNum(), partIdx);
+        finishedParts.add(partIdx);
+    }
+
+    public synchronized int getFinishedPartNum() {
+        return finishedParts.size();
+    }
+
+    public synchronized long getFinishedBytes() {
+        long bytes = 0;
+        for (int partIdx : finishedParts) {
+            bytes += getPartLength(partIdx);
+        }
+        return bytes;
+    }
+
+    public synchronized boolean isFinished() {
+        return finishedParts.size() == getPartNum();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "path: " + path + ", file size: " + fileSize + ", part size: " + partSize
+                + ", finished parts: " + finishedParts.size() + "/" + getPartNum();
+    }
+}
@@ -0,0 +1,117 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.backup;
+
+import com.google.common.collect.Lists;
+import com.starrocks.backup.Status.ErrCode;
+import com.starrocks.common.ThreadPoolManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * MultipartTransfer splits a file into the parts described by BlobTransferProgress,
+ * and transfers the unfinished parts with at most 'concurrency' threads.
+ * Each part is retried at most 'maxRetryTimes' times, and the whole transfer fails
+ * as soon as one part runs out of retries.
+ */
+public class MultipartTransfer {
+    private static final Logger LOG = LogManager.getLogger(MultipartTransfer.class);
+
+    public interface PartHandler {
+        // transfer the bytes in [offset, offset + length) of the file
+        Status transfer(int partIdx, long offset, long length);
+    }
+
+    private final BlobTransferProgress progress;
+    private final int concurrency;
+    private final int maxRetryTimes;
+    private final PartHandler handler;
+
+    private final AtomicBoolean failed = new AtomicBoolean(false);
+
+    public MultipartTransfer(BlobTransferProgress progress, int concurrency, int maxRetryTimes,
+                             PartHandler handler) {
+        this.progress = progress;
+        this.concurrency = Math.max(1, concurrency);
+        this.maxRetryTimes = Math.max(0, maxRetryTimes);
+        this.handler = handler;
+    }
+
+    public Status run() {
+        List<Integer> pendingParts = Lists.newArrayList();
+        for (int i = 0; i < progress.getPartNum(); i++) {
+            if (!progress.isPartFinished(i)) {
+                pendingParts.add(i);
+            }
+        }
+        if (pendingParts.isEmpty()) {
+            return Status.OK;
+        }
+
+        if (concurrency == 1 || pendingParts.size() == 1) {
+            for (int partIdx : pendingParts) {
+                Status st = transferPart(partIdx);
+                if (!st.ok()) {
+                    return st;
+                }
+            }
+            return Status.OK;
+        }
+
+        ThreadPoolExecutor executor = ThreadPoolManager.newDaemonFixedThreadPool(
+                Math.min(concurrency, pendingParts.size()), pendingParts.size(), "blob-transfer", false);
+        try {
+            List<Future<Status>> futures = Lists.newArrayList();
+            for (int partIdx : pendingParts) {
+                futures.add(executor.submit(() -> transferPart(partIdx)));
+            }
+
+            Status status = Status.OK;
+            for (Future<Status> future : futures) {
+                Status st;
+                try {
+                    st = future.get();
+                } catch (InterruptedException | ExecutionException e) {
+                    failed.set(true);
+                    st = new Status(ErrCode.COMMON_ERROR, "failed to transfer part of "
+                            + progress.getPath() + ", msg: " + e.getMessage());
+                }
+                if (!st.ok() && status.ok()) {
+                    status = st;
+                }
+            }
+            return status;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Status transferPart(int partIdx) {
+        long offset = progress.getPartOffset(partIdx);
+        long length = progress.getPartLength(partIdx);
+        Status st = Status.OK;
+        for (int tryTimes = 0; tryTimes <= maxRetryTimes; tryTimes++) {
+            if (failed.get()) {
+                // other part has failed, no need to go on
+                return new Status(ErrCode.COMMON_ERROR, "transfer of " + progress.getPath() + " is aborted");
+            }
+            st = handler.transfer(partIdx, offset, length);
+            if (st.ok()) {
+                progress.finishPart(partIdx);
+                LOG.debug("finished to transfer part {} of {}, offset: {}, length: {}",
+                        partIdx, progress.getPath(), offset, length);
+                return st;
+            }
+            LOG.warn("failed to transfer part {} of {}, offset: {}, length: {}, try times: {}, msg: {}",
+                    partIdx, progress.getPath(), offset, length, tryTimes + 1, st.getErrMsg());
+        }
+        failed.set(true);
+        return st;
+    }
+}
@@ -65,6 +65,7 @@ import com.starrocks.analysis.ColumnRenameClause;
 import com.starrocks.analysis.CreateClusterStmt;
 import com.starrocks.analysis.CreateDbStmt;
 import com.starrocks.analysis.CreateFunctionStmt;
+import com.starrocks.analysis.CreateAsyncMaterializedViewStmt;
 import com.starrocks.analysis.CreateMaterializedViewStmt;
 import com.starrocks.analysis.CreateTableLikeStmt;
 import com.starrocks.analysis.CreateTableStmt;
@@ -189,6 +190,7 @@ import com.starrocks.persist.DropLinkDbAndUpdateDbInfo;
 import com.starrocks.persist.DropPartitionInfo;
 import com.starrocks.persist.EditLog;
 import com.starrocks.persist.GlobalVarPersistInfo;
+import com.starrocks.persist.MaterializedViewRefreshInfo;
 import com.starrocks.persist.ModifyPartitionInfo;
 import com.starrocks.persist.ModifyTablePropertyOperationLog;
 import com.starrocks.persist.OperationType;
@@ -424,6 +426,10 @@ public class Catalog {
 
     private final StatisticAutoCollector statisticAutoCollector;
 
+    private final MaterializedViewRefresher materializedViewRefresher;
+
+    private final MaterializedViewIndex materializedViewIndex;
+
     private AnalyzeManager analyzeManager;
 
     private StatisticStorage statisticStorage;
@@ -509,6 +515,8 @@ public class Catalog {
         this.updateDbUsedDataQuotaDaemon = new UpdateDbUsedDataQuotaDaemon();
         this.statisticsMetaManager = new StatisticsMetaManager();
         this.statisticAutoCollector = new StatisticAutoCollector();
+        this.materializedViewRefresher = new MaterializedViewRefresher();
+        this.materializedViewIndex = new MaterializedViewIndex();
         this.statisticStorage = new CachedStatisticStorage();
 
         this.replayedJournalId = new AtomicLong(0L);
@@ -636,6 +644,10 @@ public class Catalog {
         return analyzeManager;
     }
 
+    public MaterializedViewIndex getMaterializedViewIndex() {
+        return materializedViewIndex;
+    }
+
     public Auth getAuth() {
         return auth;
     }
@@ -1289,6 +1301,7 @@ public class Catalog {
         updateDbUsedDataQuotaDaemon.start();
         statisticsMetaManager.start();
         statisticAutoCollector.start();
+        materializedViewRefresher.start();
     }
 
     // start threads that should running on all FE
@@ -3356,6 +3369,90 @@ public class Catalog {
         return sourceProperties;
     }
 
+    /*
+     * Add a temp partition to an unpartitioned table, which has the same properties as the only partition of
+     * the table, so that the whole table can be rebuilt in the temp partition and then replace the formal one.
+     */
+    public void addUnpartitionedTempPartition(Database db, String tableName, String tempPartitionName)
+            throws DdlException {
+        OlapTable copiedTbl;
+        long formalPartitionId;
+        db.readLock();
+        try {
+            Table table = db.getTable(tableName);
+            CatalogChecker.checkTableExist(db, tableName);
+            CatalogChecker.checkTableTypeOLAP(db, table);
+            OlapTable olapTable = (OlapTable) table;
+            CatalogChecker.checkTableState(olapTable, tableName);
+            if (olapTable.getPartitionInfo().getType() != PartitionType.UNPARTITIONED) {
+                throw new DdlException("Table[" + tableName + "] is not an unpartitioned table");
+            }
+            if (olapTable.checkPartitionNameExist(tempPartitionName, true)) {
+                throw new DdlException("Temp partition[" + tempPartitionName + "] already exists");
+            }
+            Partition formalPartition = olapTable.getPartitions().iterator().next();
+            formalPartitionId = formalPartition.getId();
+            copiedTbl = olapTable.selectiveCopy(Lists.newArrayList(formalPartition.getName()), true,
+                    IndexExtState.VISIBLE);
+        } finally {
+            db.readUnlock();
+        }
+
+        // create partition outside db lock
+        PartitionInfo copiedInfo = copiedTbl.getPartitionInfo();
+        DataProperty dataProperty = copiedInfo.getDataProperty(formalPartitionId);
+        short replicationNum = copiedInfo.getReplicationNum(formalPartitionId);
+        boolean isInMemory = copiedInfo.getIsInMemory(formalPartitionId);
+        Set<Long> tabletIdSet = Sets.newHashSet();
+        Partition partition = createPartitionWithIndices(db.getClusterName(), db.getId(), copiedTbl.getId(),
+                copiedTbl.getBaseIndexId(), getNextId(), tempPartitionName,
+                copiedTbl.getIndexIdToMeta(),
+                copiedTbl.getDefaultDistributionInfo(),
+                dataProperty.getStorageMedium(),
+                replicationNum,
+                null /* version info */,
+                copiedTbl.getCopiedBfColumns(),
+                copiedTbl.getBfFpp(),
+                tabletIdSet,
+                copiedTbl.getCopiedIndexes(),
+                isInMemory,
+                copiedTbl.getStorageFormat(),
+                copiedInfo.getTabletType(formalPartitionId));
+
+        db.writeLock();
+        try {
+            OlapTable olapTable = (OlapTable) db.getTable(copiedTbl.getId());
+            if (olapTable == null) {
+                throw new DdlException("Table[" + tableName + "] is dropped");
+            }
+            CatalogChecker.checkTableState(olapTable, tableName);
+            if (olapTable.checkPartitionNameExist(tempPartitionName, true)) {
+                throw new DdlException("Temp partition[" + tempPartitionName + "] already exists");
+            }
+            // rollup index may be added or dropped, and schema may be changed during creating partition.
+            if (!olapTable.getIndexIdToSchemaHash().equals(copiedTbl.getIndexIdToSchemaHash())) {
+                throw new DdlException("Table[" + tableName + "]'s meta has been changed. try again.");
+            }
+
+            olapTable.getPartitionInfo().addPartition(partition.getId(), dataProperty, replicationNum, isInMemory);
+            olapTable.addTempPartition(partition);
+
+            // unpartitioned table has no range, which is persisted as a range without bounds
+            PartitionPersistInfo info = new PartitionPersistInfo(db.getId(), olapTable.getId(), partition,
+                    Range.all(), dataProperty, replicationNum, isInMemory, true);
+            editLog.logAddPartition(info);
+            LOG.info("succeed in creating temp partition[{}], name: {}, table: {}", partition.getId(),
+                    tempPartitionName, tableName);
+        } catch (DdlException e) {
+            for (Long tabletId : tabletIdSet) {
+                Catalog.getCurrentInvertedIndex().deleteTablet(tabletId);
+            }
+            throw e;
+        } finally {
+            db.writeUnlock();
+        }
+    }
+
     public void replayAddPartition(PartitionPersistInfo info) throws DdlException {
         Database db = this.getDb(info.getDbId());
         db.writeLock();
@@ -3370,9 +3467,15 @@ public class Catalog {
                 olapTable.addPartition(partition);
             }
 
-            ((RangePartitionInfo) partitionInfo).unprotectHandleNewSinglePartitionDesc(partition.getId(),
-                    info.isTempPartition(), info.getRange(), info.getDataProperty(), info.getReplicationNum(),
-                    info.isInMemory());
+            if (partitionInfo.getType() == PartitionType.RANGE) {
+                ((RangePartitionInfo) partitionInfo).unprotectHandleNewSinglePartitionDesc(partition.getId(),
+                        info.isTempPartition(), info.getRange(), info.getDataProperty(), info.getReplicationNum(),
+                        info.isInMemory());
+            } else {
+                // temp partition of unpartitioned table
+                partitionInfo.addPartition(partition.getId(), info.getDataProperty(), info.getReplicationNum(),
+                        info.isInMemory());
+            }
 
             if (!isCheckpointThread()) {
                 // add to inverted index
@@ -3416,7 +3519,7 @@ public class Catalog {
         }
 
         PartitionInfo partitionInfo = olapTable.getPartitionInfo();
-        if (partitionInfo.getType() != PartitionType.RANGE) {
+        if (partitionInfo.getType() != PartitionType.RANGE && !isTempPartition) {
             throw new DdlException("Alter table [" + olapTable.getName() + "] failed. Not a partitioned table");
         }
 
@@ -3876,6 +3979,10 @@ public class Catalog {
                 throw new DdlException("Unsupport partition method: " + partitionInfo.getType().name());
             }
 
+            if (stmt.getMaterializedViewDefinition() != null) {
+                olapTable.setMaterializedViewDefinition(stmt.getMaterializedViewDefinition());
+            }
+
             // check database exists again, because database can be dropped when creating table
             if (!tryLock(false)) {
                 throw new DdlException("Failed to acquire catalog lock. Try again");
@@ -5178,6 +5285,35 @@ public class Catalog {
         this.alter.processCreateMaterializedView(stmt);
     }
 
+    /**
+     * Asynchronous materialized view is created as an olap table with the definition,
+     * and its data is filled by MaterializedViewRefresher later.
+     */
+    public void createAsyncMaterializedView(CreateAsyncMaterializedViewStmt stmt) throws DdlException {
+        CreateTableStmt createTableStmt = stmt.getCreateTableStmt();
+        createTableStmt.setMaterializedViewDefinition(stmt.getDefinition());
+        createTable(createTableStmt);
+    }
+
+    public void replayRefreshMaterializedView(MaterializedViewRefreshInfo info) {
+        Database db = getDb(info.getDbId());
+        if (db == null) {
+            return;
+        }
+        db.writeLock();
+        try {
+            Table table = db.getTable(info.getMvId());
+            if (!(table instanceof OlapTable) || ((OlapTable) table).getMaterializedViewDefinition() == null) {
+                return;
+            }
+            MaterializedViewDefinition definition = ((OlapTable) table).getMaterializedViewDefinition();
+            definition.setBaseTableVisibleVersions(info.getBaseTableVisibleVersions());
+            definition.setLastRefreshTime(info.getRefreshTime());
+        } finally {
+            db.writeUnlock();
+        }
+    }
+
     public void dropMaterializedView(DropMaterializedViewStmt stmt) throws DdlException, MetaNotFoundException {
         this.alter.processDropMaterializedView(stmt);
     }
@@ -288,6 +288,7 @@ public class Database extends MetaObject implements Writable {
             } else {
                 idToTable.put(table.getId(), table);
                 nameToTable.put(table.getName(), table);
+                addToMaterializedViewIndex(table);
 
                 if (!isReplay) {
                     // Write edit log
@@ -311,6 +312,7 @@ public class Database extends MetaObject implements Writable {
         } else {
             idToTable.put(table.getId(), table);
             nameToTable.put(table.getName(), table);
+            addToMaterializedViewIndex(table);
         }
         return result;
     }
@@ -322,6 +324,7 @@ public class Database extends MetaObject implements Writable {
             if (table != null) {
                 this.nameToTable.remove(tableName);
                 this.idToTable.remove(table.getId());
+                removeFromMaterializedViewIndex(table);
             }
         } finally {
             writeUnlock();
@@ -333,6 +336,20 @@ public class Database extends MetaObject implements Writable {
         if (table != null) {
             this.nameToTable.remove(tableName);
             this.idToTable.remove(table.getId());
+            removeFromMaterializedViewIndex(table);
+        }
+    }
+
+    private void addToMaterializedViewIndex(Table table) {
+        if (table instanceof OlapTable && ((OlapTable) table).getMaterializedViewDefinition() != null) {
+            Catalog.getCurrentCatalog().getMaterializedViewIndex().addMaterializedView(id, table.getId(),
+                    ((OlapTable) table).getMaterializedViewDefinition().getBaseTableIds());
+        }
+    }
+
+    private void removeFromMaterializedViewIndex(Table table) {
+        if (table instanceof OlapTable && ((OlapTable) table).getMaterializedViewDefinition() != null) {
+            Catalog.getCurrentCatalog().getMaterializedViewIndex().removeMaterializedView(table.getId());
         }
     }
 
@@ -464,6 +481,7 @@ public class Database extends MetaObject implements Writable {
             Table table = Table.read(in);
             nameToTable.put(table.getName(), table);
             idToTable.put(table.getId(), table);
+            addToMaterializedViewIndex(table);
         }
 
         // read quota
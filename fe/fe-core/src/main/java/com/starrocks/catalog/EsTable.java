@@ -67,6 +67,7 @@ public class EsTable extends Table {
     public static final String DOC_VALUE_SCAN = "enable_docvalue_scan";
     public static final String KEYWORD_SNIFF = "enable_keyword_sniff";
     public static final String MAX_DOCVALUE_FIELDS = "max_docvalue_fields";
+    public static final String MAX_DOCS_PER_SLICE = "max_docs_per_slice";
 
     private String hosts;
     private String[] seeds;
@@ -101,6 +102,12 @@ public class EsTable extends Table {
     // @see `MAX_DOCVALUE_FIELDS`
     private static final int DEFAULT_MAX_DOCVALUE_FIELDS = 20;
 
+    // A shard with more docs than this is split into several slices with sliced scroll,
+    // each of them is scanned by a separate scan range. 0 means never split shards.
+    // It only works with http transport and ES 7.x or later.
+    private long maxDocsPerSlice = DEFAULT_MAX_DOCS_PER_SLICE;
+    private static final long DEFAULT_MAX_DOCS_PER_SLICE = 5000000;
+
     // version would be used to be compatible with different ES Cluster
     public EsMajorVersion majorVersion = null;
 
@@ -133,6 +140,10 @@ public class EsTable extends Table {
         return maxDocValueFields;
     }
 
+    public long maxDocsPerSlice() {
+        return maxDocsPerSlice;
+    }
+
     public boolean isDocValueScanEnable() {
         return enableDocValueScan;
     }
@@ -231,6 +242,17 @@ public class EsTable extends Table {
                 maxDocValueFields = DEFAULT_MAX_DOCVALUE_FIELDS;
             }
         }
+        if (properties.containsKey(MAX_DOCS_PER_SLICE)) {
+            try {
+                maxDocsPerSlice = Long.parseLong(properties.get(MAX_DOCS_PER_SLICE).trim());
+            } catch (Exception e) {
+                throw new DdlException("max_docs_per_slice must be a number, but value is "
+                        + properties.get(MAX_DOCS_PER_SLICE));
+            }
+            if (maxDocsPerSlice < 0) {
+                throw new DdlException("max_docs_per_slice must not be negative, but value is " + maxDocsPerSlice);
+            }
+        }
         tableContext.put("hosts", hosts);
         tableContext.put("userName", userName);
         tableContext.put("passwd", passwd);
@@ -243,6 +265,7 @@ public class EsTable extends Table {
         tableContext.put("enableDocValueScan", String.valueOf(enableDocValueScan));
         tableContext.put("enableKeywordSniff", String.valueOf(enableKeywordSniff));
         tableContext.put("maxDocValueFields", String.valueOf(maxDocValueFields));
+        tableContext.put("maxDocsPerSlice", String.valueOf(maxDocsPerSlice));
     }
 
     @Override
@@ -340,6 +363,13 @@ public class EsTable extends Table {
                     maxDocValueFields = DEFAULT_MAX_DOCVALUE_FIELDS;
                 }
             }
+            if (tableContext.containsKey("maxDocsPerSlice")) {
+                try {
+                    maxDocsPerSlice = Long.parseLong(tableContext.get("maxDocsPerSlice"));
+                } catch (Exception e) {
+                    maxDocsPerSlice = DEFAULT_MAX_DOCS_PER_SLICE;
+                }
+            }
 
             PartitionType partType = PartitionType.valueOf(Text.readString(in));
             if (partType == PartitionType.UNPARTITIONED) {
@@ -88,6 +88,7 @@ public class FunctionSet {
     public static final String TO_BITMAP = "to_bitmap";
     public static final String NULL_OR_EMPTY = "null_or_empty";
     public static final String IF = "if";
+    public static final String RAND = "rand";
 
     // arithmetic functions:
     public static final String ADD = "add";
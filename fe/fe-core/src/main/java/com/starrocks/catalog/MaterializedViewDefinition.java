@@ -0,0 +1,120 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.catalog;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.gson.annotations.SerializedName;
+
+import java.util.List;
+import java.util.Map;
+
+/*
+ * MaterializedViewDefinition describes an asynchronous materialized view, which is stored as
+ * a normal olap table and refreshed in background by MaterializedViewRefresher.
+ *
+ * The visible version of every partition of the base tables is recorded at each refresh,
+ * the materialized view is fresh only if none of the base tables has changed since then.
+ * If the materialized view is partitioned, its partitions have the same names and ranges
+ * as the partitions of the partition base table, so that only the changed partitions are refreshed.
+ */
+public class MaterializedViewDefinition {
+    // the query which defines the materialized view, with fully qualified table names
+    @SerializedName(value = "definition")
+    private String definition;
+    @SerializedName(value = "baseTableIds")
+    private List<Long> baseTableIds = Lists.newArrayList();
+    // the partition column of the materialized view, null if the materialized view is not partitioned
+    @SerializedName(value = "partitionColumn")
+    private String partitionColumn;
+    @SerializedName(value = "partitionBaseTableId")
+    private long partitionBaseTableId = -1;
+    @SerializedName(value = "partitionBaseColumn")
+    private String partitionBaseColumn;
+    // base table id -> (partition id -> visible version) at the last refresh
+    @SerializedName(value = "baseTableVisibleVersions")
+    private Map<Long, Map<Long, Long>> baseTableVisibleVersions = Maps.newHashMap();
+    @SerializedName(value = "lastRefreshTime")
+    private long lastRefreshTime = 0;
+
+    public MaterializedViewDefinition(String definition, List<Long> baseTableIds) {
+        this.definition = definition;
+        this.baseTableIds = baseTableIds;
+    }
+
+    public String getDefinition() {
+        return definition;
+    }
+
+    public List<Long> getBaseTableIds() {
+        return baseTableIds;
+    }
+
+    public boolean isPartitioned() {
+        return partitionColumn != null;
+    }
+
+    public void setPartitionInfo(String partitionColumn, long partitionBaseTableId, String partitionBaseColumn) {
+        this.partitionColumn = partitionColumn;
+        this.partitionBaseTableId = partitionBaseTableId;
+        this.partitionBaseColumn = partitionBaseColumn;
+    }
+
+    public String getPartitionColumn() {
+        return partitionColumn;
+    }
+
+    public long getPartitionBaseTableId() {
+        return partitionBaseTableId;
+    }
+
+    public String getPartitionBaseColumn() {
+        return partitionBaseColumn;
+    }
+
+    public synchronized Map<Long, Map<Long, Long>> getBaseTableVisibleVersions() {
+        return baseTableVisibleVersions;
+    }
+
+    public synchronized void setBaseTableVisibleVersions(Map<Long, Map<Long, Long>> baseTableVisibleVersions) {
+        this.baseTableVisibleVersions = baseTableVisibleVersions;
+    }
+
+    public long getLastRefreshTime() {
+        return lastRefreshTime;
+    }
+
+    public void setLastRefreshTime(long lastRefreshTime) {
+        this.lastRefreshTime = lastRefreshTime;
+    }
+
+    /*
+     * Collect the visible versions of all the partitions of base tables.
+     * Return null if any of the base tables does not exist anymore.
+     * The caller should hold the read lock of db.
+     */
+    public Map<Long, Map<Long, Long>> collectBaseTableVisibleVersions(Database db) {
+        Map<Long, Map<Long, Long>> versions = Maps.newHashMap();
+        for (long tableId : baseTableIds) {
+            Table table = db.getTable(tableId);
+            if (!(table instanceof OlapTable)) {
+                return null;
+            }
+            Map<Long, Long> partitionVersions = Maps.newHashMap();
+            for (Partition partition : ((OlapTable) table).getPartitions()) {
+                partitionVersions.put(partition.getId(), partition.getVisibleVersion());
+            }
+            versions.put(tableId, partitionVersions);
+        }
+        return versions;
+    }
+
+    /*
+     * Return true if the data of materialized view is consistent with its base tables.
+     * The caller should hold the read lock of db.
+     */
+    public boolean isFresh(Database db) {
+        Map<Long, Map<Long, Long>> versions = collectBaseTableVisibleVersions(db);
+        return versions != null && versions.equals(getBaseTableVisibleVersions());
+    }
+}
@@ -0,0 +1,65 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.catalog;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.starrocks.common.Pair;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * MaterializedViewIndex indexes the asynchronous materialized views by their base tables, so that
+ * the query rewrite finds the candidate views without scanning all the tables of the catalog.
+ * It's maintained when the materialized views are added to or removed from their databases,
+ * including the replay of edit logs and the loading of image.
+ *
+ * A dropped database doesn't remove its tables one by one, so the views returned may have been
+ * dropped, and the callers should check them in their databases.
+ */
+public class MaterializedViewIndex {
+    // materialized view id -> (db id, base table ids)
+    private final Map<Long, Pair<Long, List<Long>>> mvIdToBaseTables = Maps.newHashMap();
+    // base table id -> materialized view ids
+    private final Map<Long, Set<Long>> baseTableIdToMvIds = Maps.newHashMap();
+
+    public synchronized void addMaterializedView(long dbId, long mvId, List<Long> baseTableIds) {
+        removeMaterializedView(mvId);
+        mvIdToBaseTables.put(mvId, new Pair<>(dbId, Lists.newArrayList(baseTableIds)));
+        for (long baseTableId : baseTableIds) {
+            baseTableIdToMvIds.computeIfAbsent(baseTableId, k -> Sets.newHashSet()).add(mvId);
+        }
+    }
+
+    public synchronized void removeMaterializedView(long mvId) {
+        Pair<Long, List<Long>> baseTables = mvIdToBaseTables.remove(mvId);
+        if (baseTables == null) {
+            return;
+        }
+        for (long baseTableId : baseTables.second) {
+            Set<Long> mvIds = baseTableIdToMvIds.get(baseTableId);
+            if (mvIds != null) {
+                mvIds.remove(mvId);
+                if (mvIds.isEmpty()) {
+                    baseTableIdToMvIds.remove(baseTableId);
+                }
+            }
+        }
+    }
+
+    public synchronized boolean isEmpty() {
+        return mvIdToBaseTables.isEmpty();
+    }
+
+    // return the (db id, materialized view id) of the materialized views on the base table
+    public synchronized List<Pair<Long, Long>> getMaterializedViews(long baseTableId) {
+        List<Pair<Long, Long>> mvs = Lists.newArrayList();
+        for (long mvId : baseTableIdToMvIds.getOrDefault(baseTableId, Sets.newHashSet())) {
+            mvs.add(new Pair<>(mvIdToBaseTables.get(mvId).first, mvId));
+        }
+        return mvs;
+    }
+}
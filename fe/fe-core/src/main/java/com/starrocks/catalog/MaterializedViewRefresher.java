@@ -0,0 +1,262 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.catalog;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Range;
+import com.starrocks.analysis.DateLiteral;
+import com.starrocks.analysis.LiteralExpr;
+import com.starrocks.analysis.StatementBase;
+import com.starrocks.cluster.ClusterNamespace;
+import com.starrocks.common.Config;
+import com.starrocks.common.DdlException;
+import com.starrocks.common.util.MasterDaemon;
+import com.starrocks.persist.MaterializedViewRefreshInfo;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.qe.QueryState;
+import com.starrocks.qe.StmtExecutor;
+import com.starrocks.statistic.StatisticExecutor;
+import com.starrocks.statistic.StatisticUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.Map;
+
+/*
+ * MaterializedViewRefresher refreshes the asynchronous materialized views whose base tables have changed.
+ *
+ * Unpartitioned materialized view is fully rebuilt.
+ * Partitioned materialized view keeps the same partitions as its partition base table. Only the partitions
+ * whose base partition has changed are rebuilt.
+ * Each rebuilt partition is loaded into a temp partition and then replaces the old one, so that queries
+ * never see an empty or half refreshed partition.
+ * If any of the other base tables has changed, all the partitions are rebuilt.
+ *
+ * The visible versions of base tables are collected before the refresh and recorded after it,
+ * so the changes made during the refresh are picked up by the next round.
+ */
+public class MaterializedViewRefresher extends MasterDaemon {
+    private static final Logger LOG = LogManager.getLogger(MaterializedViewRefresher.class);
+
+    private static final String TEMP_PARTITION_PREFIX = "tmp_";
+
+    private static class PartitionRefreshTask {
+        private final String partitionName;
+        // range desc of partition, like [("2021-01-01"), ("2021-02-01")), null for unpartitioned
+        private final String rangeDesc;
+        // predicate of the partition column to select the data of this partition, null for unpartitioned
+        private final String predicate;
+
+        PartitionRefreshTask(String partitionName, String rangeDesc, String predicate) {
+            this.partitionName = partitionName;
+            this.rangeDesc = rangeDesc;
+            this.predicate = predicate;
+        }
+    }
+
+    public MaterializedViewRefresher() {
+        super("MaterializedViewRefresher", Config.materialized_view_refresh_interval_seconds * 1000L);
+    }
+
+    @Override
+    protected void runAfterCatalogReady() {
+        if (getInterval() != Config.materialized_view_refresh_interval_seconds * 1000L) {
+            setInterval(Config.materialized_view_refresh_interval_seconds * 1000L);
+        }
+
+        Catalog catalog = Catalog.getCurrentCatalog();
+        for (Long dbId : catalog.getDbIds()) {
+            Database db = catalog.getDb(dbId);
+            if (db == null) {
+                continue;
+            }
+            List<OlapTable> mvs = Lists.newArrayList();
+            db.readLock();
+            try {
+                for (Table table : db.getTables()) {
+                    if (table instanceof OlapTable && ((OlapTable) table).getMaterializedViewDefinition() != null) {
+                        mvs.add((OlapTable) table);
+                    }
+                }
+            } finally {
+                db.readUnlock();
+            }
+
+            for (OlapTable mv : mvs) {
+                try {
+                    refresh(db, mv);
+                } catch (Exception e) {
+                    LOG.warn("failed to refresh materialized view {}", mv.getName(), e);
+                }
+            }
+        }
+    }
+
+    private void refresh(Database db, OlapTable mv) throws Exception {
+        MaterializedViewDefinition definition = mv.getMaterializedViewDefinition();
+        String mvName = ClusterNamespace.getNameFromFullName(db.getFullName()) + "`.`" + mv.getName();
+        String selectSql = "SELECT * FROM (" + definition.getDefinition() + ") `__mv`";
+
+        Map<Long, Map<Long, Long>> versions;
+        List<String> prepareSqls = Lists.newArrayList();
+        List<PartitionRefreshTask> tasks = Lists.newArrayList();
+        db.readLock();
+        try {
+            if (db.getTable(mv.getId()) != mv) {
+                // dropped
+                return;
+            }
+            versions = definition.collectBaseTableVisibleVersions(db);
+            if (versions == null) {
+                LOG.warn("base tables of materialized view {} have been dropped", mv.getName());
+                return;
+            }
+            if (versions.equals(definition.getBaseTableVisibleVersions())) {
+                return;
+            }
+            if (definition.isPartitioned()) {
+                buildPartitionRefreshTasks(db, mv, definition, versions, prepareSqls, tasks);
+            } else {
+                // the only partition of unpartitioned materialized view is rebuilt
+                tasks.add(new PartitionRefreshTask(mv.getPartitions().iterator().next().getName(), null, null));
+            }
+        } finally {
+            db.readUnlock();
+        }
+
+        long startTime = System.currentTimeMillis();
+        for (String sql : prepareSqls) {
+            executeSql(db, sql);
+        }
+        for (PartitionRefreshTask task : tasks) {
+            refreshPartition(db, mv, mvName, selectSql, task);
+        }
+
+        db.writeLock();
+        try {
+            if (db.getTable(mv.getId()) != mv) {
+                return;
+            }
+            long refreshTime = System.currentTimeMillis();
+            definition.setBaseTableVisibleVersions(versions);
+            definition.setLastRefreshTime(refreshTime);
+            Catalog.getCurrentCatalog().getEditLog().logRefreshMaterializedView(
+                    new MaterializedViewRefreshInfo(db.getId(), mv.getId(), versions, refreshTime));
+        } finally {
+            db.writeUnlock();
+        }
+        LOG.info("finished to refresh materialized view {}, refreshed partitions: {}, cost: {}ms",
+                mv.getName(), tasks.size(), System.currentTimeMillis() - startTime);
+    }
+
+    // make the partitions of materialized view the same as the partition base table,
+    // and find the partitions need to be refreshed. The caller should hold the read lock of db.
+    private void buildPartitionRefreshTasks(Database db, OlapTable mv, MaterializedViewDefinition definition,
+                                            Map<Long, Map<Long, Long>> versions, List<String> prepareSqls,
+                                            List<PartitionRefreshTask> tasks) {
+        String mvName = ClusterNamespace.getNameFromFullName(db.getFullName()) + "`.`" + mv.getName();
+        OlapTable baseTable = (OlapTable) db.getTable(definition.getPartitionBaseTableId());
+        RangePartitionInfo baseInfo = (RangePartitionInfo) baseTable.getPartitionInfo();
+        RangePartitionInfo mvInfo = (RangePartitionInfo) mv.getPartitionInfo();
+        Map<Long, Map<Long, Long>> lastVersions = definition.getBaseTableVisibleVersions();
+
+        // refresh all the partitions if any of the other base tables has changed
+        boolean refreshAll = false;
+        for (Map.Entry<Long, Map<Long, Long>> entry : versions.entrySet()) {
+            if (entry.getKey() != definition.getPartitionBaseTableId()
+                    && !entry.getValue().equals(lastVersions.get(entry.getKey()))) {
+                refreshAll = true;
+                break;
+            }
+        }
+        Map<Long, Long> lastPartitionVersions = lastVersions.get(baseTable.getId());
+
+        // drop the partitions which do not exist or have different range in base table
+        for (Partition mvPartition : mv.getPartitions()) {
+            Partition basePartition = baseTable.getPartition(mvPartition.getName());
+            if (basePartition == null || !baseInfo.getRange(basePartition.getId())
+                    .equals(mvInfo.getRange(mvPartition.getId()))) {
+                prepareSqls.add("ALTER TABLE `" + mvName + "` DROP PARTITION `" + mvPartition.getName() + "`");
+            }
+        }
+
+        for (Partition basePartition : baseTable.getPartitions()) {
+            Range<PartitionKey> range = baseInfo.getRange(basePartition.getId());
+            String rangeDesc = "[" + range.lowerEndpoint().toSql() + ", " + range.upperEndpoint().toSql() + ")";
+            Partition mvPartition = mv.getPartition(basePartition.getName());
+            boolean isNew = mvPartition == null || !range.equals(mvInfo.getRange(mvPartition.getId()));
+            if (isNew) {
+                prepareSqls.add("ALTER TABLE `" + mvName + "` ADD PARTITION `" + basePartition.getName()
+                        + "` VALUES " + rangeDesc);
+            }
+            Long lastVersion = lastPartitionVersions == null ? null : lastPartitionVersions.get(basePartition.getId());
+            if (refreshAll || isNew || lastVersion == null || lastVersion != basePartition.getVisibleVersion()) {
+                tasks.add(new PartitionRefreshTask(basePartition.getName(), rangeDesc,
+                        buildPartitionPredicate(definition.getPartitionColumn(), range)));
+            }
+        }
+    }
+
+    private String buildPartitionPredicate(String column, Range<PartitionKey> range) {
+        String columnSql = "`__mv`.`" + column + "`";
+        List<String> conjuncts = Lists.newArrayList();
+        if (!range.upperEndpoint().isMaxValue()) {
+            conjuncts.add(columnSql + " < " + literalToSql(range.upperEndpoint().getKeys().get(0)));
+        }
+        if (range.lowerEndpoint().isMinValue()) {
+            // null values are stored in the first partition
+            if (!conjuncts.isEmpty()) {
+                return "(" + conjuncts.get(0) + " OR " + columnSql + " IS NULL)";
+            }
+            return "TRUE";
+        }
+        conjuncts.add(columnSql + " >= " + literalToSql(range.lowerEndpoint().getKeys().get(0)));
+        return String.join(" AND ", conjuncts);
+    }
+
+    private String literalToSql(LiteralExpr expr) {
+        if (expr instanceof DateLiteral) {
+            return expr.toSql();
+        }
+        return "\"" + expr.getRealValue() + "\"";
+    }
+
+    private void refreshPartition(Database db, OlapTable mv, String mvName, String selectSql,
+                                  PartitionRefreshTask task) throws Exception {
+        String tempPartitionName = TEMP_PARTITION_PREFIX + task.partitionName;
+        // the temp partition may be left by last failed refresh
+        executeSql(db, "ALTER TABLE `" + mvName + "` DROP TEMPORARY PARTITION IF EXISTS `"
+                + tempPartitionName + "`");
+        if (task.rangeDesc == null) {
+            // unpartitioned materialized view, there is no range to describe the temp partition
+            Catalog.getCurrentCatalog().addUnpartitionedTempPartition(db, mv.getName(), tempPartitionName);
+        } else {
+            executeSql(db, "ALTER TABLE `" + mvName + "` ADD TEMPORARY PARTITION `" + tempPartitionName
+                    + "` VALUES " + task.rangeDesc);
+        }
+        try {
+            executeSql(db, "INSERT INTO `" + mvName + "` TEMPORARY PARTITION(`" + tempPartitionName + "`) "
+                    + selectSql + (task.predicate == null ? "" : " WHERE " + task.predicate));
+            executeSql(db, "ALTER TABLE `" + mvName + "` REPLACE PARTITION(`" + task.partitionName
+                    + "`) WITH TEMPORARY PARTITION(`" + tempPartitionName + "`)");
+        } catch (Exception e) {
+            executeSql(db, "ALTER TABLE `" + mvName + "` DROP TEMPORARY PARTITION IF EXISTS `"
+                    + tempPartitionName + "`");
+            throw e;
+        }
+    }
+
+    private void executeSql(Database db, String sql) throws Exception {
+        LOG.debug("refresh materialized view SQL: {}", sql);
+        ConnectContext context = StatisticUtils.buildConnectContext();
+        context.setDatabase(db.getFullName());
+        StatementBase parsedStmt = StatisticExecutor.parseSQL(sql, context);
+        StmtExecutor executor = new StmtExecutor(context, parsedStmt);
+        executor.execute();
+
+        if (context.getState().getStateType() == QueryState.MysqlStateType.ERR) {
+            throw new DdlException(context.getState().getErrorMessage());
+        }
+    }
+}
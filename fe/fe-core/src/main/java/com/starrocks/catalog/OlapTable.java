@@ -439,7 +439,7 @@ public class OlapTable extends Table {
                 rangePartitionInfo.idToReplicationNum.remove(entry.getValue());
                 rangePartitionInfo.idToReplicationNum.put(newPartId,
                         (short) restoreReplicationNum);
-                rangePartitionInfo.getIdToRange(false).put(newPartId,
+                rangePartitionInfo.setRange(newPartId, false,
                         rangePartitionInfo.getIdToRange(false).remove(entry.getValue()));
 
                 rangePartitionInfo.idToInMemory
@@ -658,11 +658,10 @@ public class OlapTable extends Table {
             idToPartition.remove(partition.getId());
             nameToPartition.remove(partitionName);
 
-            Preconditions.checkState(partitionInfo.getType() == PartitionType.RANGE);
-            RangePartitionInfo rangePartitionInfo = (RangePartitionInfo) partitionInfo;
-
             if (!isForceDrop) {
                 // recycle partition
+                Preconditions.checkState(partitionInfo.getType() == PartitionType.RANGE);
+                RangePartitionInfo rangePartitionInfo = (RangePartitionInfo) partitionInfo;
                 Catalog.getCurrentRecycleBin().recyclePartition(dbId, id, partition,
                         rangePartitionInfo.getRange(partition.getId()),
                         rangePartitionInfo.getDataProperty(partition.getId()),
@@ -673,7 +672,7 @@ public class OlapTable extends Table {
             }
 
             // drop partition info
-            rangePartitionInfo.dropPartition(partition.getId());
+            partitionInfo.dropPartition(partition.getId());
         }
         return partition;
     }
@@ -1484,12 +1483,17 @@ public class OlapTable extends Table {
      *      1. replace partition (p1, p2) with temporary partition (tp1, tp2). After replacing, the partition
      *         names are still p1 and p2.
      *
+     * The only partition of unpartitioned table can be replaced by one temp partition, no range is checked.
      */
     public void replaceTempPartitions(List<String> partitionNames, List<String> tempPartitionNames,
                                       boolean strictRange, boolean useTempPartitionName) throws DdlException {
-        RangePartitionInfo rangeInfo = (RangePartitionInfo) partitionInfo;
-
-        if (strictRange) {
+        if (partitionInfo.getType() != PartitionType.RANGE) {
+            // unpartitioned table has only one partition, which can only be replaced by one temp partition
+            if (partitionNames.size() != 1 || tempPartitionNames.size() != 1) {
+                throw new DdlException("Only one partition can be replaced in unpartitioned table");
+            }
+        } else if (strictRange) {
+            RangePartitionInfo rangeInfo = (RangePartitionInfo) partitionInfo;
             // check if range of partitions and temp partitions are exactly same
             List<Range<PartitionKey>> rangeList = Lists.newArrayList();
             List<Range<PartitionKey>> tempRangeList = Lists.newArrayList();
@@ -1506,6 +1510,7 @@ public class OlapTable extends Table {
             }
             RangeUtils.checkRangeListsMatch(rangeList, tempRangeList);
         } else {
+            RangePartitionInfo rangeInfo = (RangePartitionInfo) partitionInfo;
             // check after replacing, whether the range will conflict
             Set<Long> replacePartitionIds = Sets.newHashSet();
             for (String partName : partitionNames) {
@@ -1538,7 +1543,9 @@ public class OlapTable extends Table {
             // drop
             tempPartitions.dropPartition(partitionName, false);
             // move the range from idToTempRange to idToRange
-            rangeInfo.moveRangeFromTempToFormal(partition.getId());
+            if (partitionInfo.getType() == PartitionType.RANGE) {
+                ((RangePartitionInfo) partitionInfo).moveRangeFromTempToFormal(partition.getId());
+            }
         }
 
         // change the name so that after replacing, the partition name remain unchanged
@@ -1579,6 +1586,21 @@ public class OlapTable extends Table {
         return tableProperty.getStorageFormat();
     }
 
+    public void setMaterializedViewDefinition(MaterializedViewDefinition definition) {
+        if (tableProperty == null) {
+            tableProperty = new TableProperty(new HashMap<>());
+        }
+        tableProperty.setMaterializedViewDefinition(definition);
+    }
+
+    // return null if the table is not an asynchronous materialized view
+    public MaterializedViewDefinition getMaterializedViewDefinition() {
+        if (tableProperty == null) {
+            return null;
+        }
+        return tableProperty.getMaterializedViewDefinition();
+    }
+
     @Override
     public void onDrop() {
         // drop all temp partitions of this table, so that there is no temp partitions in recycle bin,
@@ -0,0 +1,43 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.catalog;
+
+import com.google.common.collect.ImmutableRangeMap;
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeMap;
+import com.google.common.collect.TreeRangeMap;
+
+import java.util.Map;
+
+/**
+ * An immutable interval index from partition range to partition id. RangePartitionInfo builds it
+ * from the ranges of the formal partitions, and rebuilds it lazily once the ranges are changed,
+ * so the concurrent planners share it instead of building a range map for every query.
+ */
+public class PartitionRangeIndex {
+    // the version of ranges in RangePartitionInfo which the index is built from
+    private final long version;
+    private final RangeMap<PartitionKey, Long> rangeMap;
+
+    public PartitionRangeIndex(long version, Map<Long, Range<PartitionKey>> idToRange) {
+        this.version = version;
+        // TreeRangeMap resolves the overlapped ranges, which ImmutableRangeMap.Builder refuses
+        RangeMap<PartitionKey, Long> treeRangeMap = TreeRangeMap.create();
+        for (Map.Entry<Long, Range<PartitionKey>> entry : idToRange.entrySet()) {
+            treeRangeMap.put(entry.getValue(), entry.getKey());
+        }
+        this.rangeMap = ImmutableRangeMap.copyOf(treeRangeMap);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public RangeMap<PartitionKey, Long> getRangeMap() {
+        return rangeMap;
+    }
+
+    public int size() {
+        return rangeMap.asMapOfRanges().size();
+    }
+}
@@ -42,6 +42,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class RangePartitionInfo extends PartitionInfo {
     private static final Logger LOG = LogManager.getLogger(RangePartitionInfo.class);
@@ -52,6 +53,11 @@ public class RangePartitionInfo extends PartitionInfo {
     // temp partition id -> partition range
     private Map<Long, Range<PartitionKey>> idToTempRange = Maps.newHashMap();
 
+    // increased whenever the range of a formal partition is changed
+    private transient AtomicLong rangeVersion = new AtomicLong(0);
+    // index of idToRange for partition pruning, rebuilt if its version is behind rangeVersion
+    private transient volatile PartitionRangeIndex rangeIndex = null;
+
     public RangePartitionInfo() {
         // for persist
         super();
@@ -70,7 +76,9 @@ public class RangePartitionInfo extends PartitionInfo {
     @Override
     public void dropPartition(long partitionId) {
         super.dropPartition(partitionId);
-        idToRange.remove(partitionId);
+        if (idToRange.remove(partitionId) != null) {
+            rangeVersion.incrementAndGet();
+        }
         idToTempRange.remove(partitionId);
     }
 
@@ -213,6 +221,8 @@ public class RangePartitionInfo extends PartitionInfo {
         setRangeInternal(partitionId, isTemp, range);
     }
 
+    // the returned map should not be modified, use setRange or dropPartition instead,
+    // otherwise the range index will not be refreshed
     public Map<Long, Range<PartitionKey>> getIdToRange(boolean isTemp) {
         if (isTemp) {
             return idToTempRange;
@@ -221,6 +231,26 @@ public class RangePartitionInfo extends PartitionInfo {
         }
     }
 
+    /**
+     * Return the range index of the formal partitions. The index is immutable and can be used
+     * by the concurrent planners without any lock, the caller should hold the read lock of
+     * database to get an index consistent with the partitions.
+     */
+    public PartitionRangeIndex getRangeIndex() {
+        PartitionRangeIndex index = rangeIndex;
+        if (index == null || index.getVersion() != rangeVersion.get()) {
+            synchronized (this) {
+                index = rangeIndex;
+                long version = rangeVersion.get();
+                if (index == null || index.getVersion() != version) {
+                    index = new PartitionRangeIndex(version, idToRange);
+                    rangeIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
     public Range<PartitionKey> getRange(long partitionId) {
         Range<PartitionKey> range = idToRange.get(partitionId);
         if (range == null) {
@@ -300,6 +330,7 @@ public class RangePartitionInfo extends PartitionInfo {
             idToTempRange.put(partitionId, range);
         } else {
             idToRange.put(partitionId, range);
+            rangeVersion.incrementAndGet();
         }
     }
 
@@ -307,6 +338,7 @@ public class RangePartitionInfo extends PartitionInfo {
         Range<PartitionKey> range = idToTempRange.remove(tempPartitionId);
         if (range != null) {
             idToRange.put(tempPartitionId, range);
+            rangeVersion.incrementAndGet();
         }
     }
 
@@ -65,6 +65,10 @@ public class TableProperty implements Writable {
      */
     private TStorageFormat storageFormat = TStorageFormat.DEFAULT;
 
+    // not null only if the table is an asynchronous materialized view
+    @SerializedName(value = "materializedViewDefinition")
+    private MaterializedViewDefinition materializedViewDefinition;
+
     public TableProperty(Map<String, String> properties) {
         this.properties = properties;
     }
@@ -151,6 +155,14 @@ public class TableProperty implements Writable {
         return storageFormat;
     }
 
+    public MaterializedViewDefinition getMaterializedViewDefinition() {
+        return materializedViewDefinition;
+    }
+
+    public void setMaterializedViewDefinition(MaterializedViewDefinition materializedViewDefinition) {
+        this.materializedViewDefinition = materializedViewDefinition;
+    }
+
     @Override
     public void write(DataOutput out) throws IOException {
         Text.writeString(out, GsonUtils.GSON.toJson(this));
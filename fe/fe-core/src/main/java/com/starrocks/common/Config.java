@@ -120,6 +120,43 @@ public class Config extends ConfigBase {
     @ConfField
     public static String audit_log_roll_mode = "TIME-DAY";
 
+    /**
+     * audit_event_buffer_size:
+     * Capacity of the buffer of audit events waiting for the audit plugins, rounded up to the power of 2.
+     * <p>
+     * audit_event_overflow_policy:
+     * What to do with a new audit event if the buffer is full, the query thread is never blocked.
+     * The events used to be never dropped, the query thread waited for the buffer instead, so spill is
+     * the default. drop and sample lose events under a burst of queries.
+     * drop:   drop the event
+     * sample: once the buffer is half full, keep only 1 in audit_event_sample_ratio events,
+     *         except the failed and slow queries. drop the event if the buffer is full.
+     * spill:  append the event to a local file under audit_log_dir by a dedicated thread, the events
+     *         are delivered again once the buffer is drained. The event is dropped if the thread
+     *         can't keep up either.
+     * <p>
+     * audit_event_consumer_num:
+     * Number of threads delivering audit events to the plugins.
+     * <p>
+     * audit_event_batch_size:
+     * Maximal number of audit events delivered to a plugin at once.
+     * <p>
+     * audit_event_spill_max_bytes:
+     * Maximal size of the spill file, the events are dropped if it's exceeded.
+     */
+    @ConfField
+    public static int audit_event_buffer_size = 16384;
+    @ConfField
+    public static String audit_event_overflow_policy = "spill";
+    @ConfField(mutable = true)
+    public static int audit_event_sample_ratio = 10;
+    @ConfField
+    public static int audit_event_consumer_num = 1;
+    @ConfField(mutable = true)
+    public static int audit_event_batch_size = 1000;
+    @ConfField(mutable = true)
+    public static long audit_event_spill_max_bytes = 1024L * 1024 * 1024;
+
     /**
      * dump_log_dir:
      * This specifies FE dump log dir.
@@ -426,6 +463,18 @@ public class Config extends ConfigBase {
     @ConfField
     public static int max_mysql_service_task_threads_num = 4096;
 
+    /**
+     * Run the tasks of mysql service and connect scheduler, which handle the queries and wait for the
+     * rpc of BE, on virtual threads instead of the pools of platform threads, so that the number of
+     * in-flight queries is not limited by the number of OS threads.
+     * Only takes effect when FE runs on a JDK supporting virtual threads (JDK 21+), otherwise the
+     * platform thread pools are used. max_mysql_service_task_threads_num and
+     * max_connection_scheduler_threads_num are ignored in this mode, the concurrency is limited by
+     * qe_max_connection.
+     */
+    @ConfField
+    public static boolean mysql_service_virtual_thread_enabled = false;
+
     /**
      * Cluster name will be shown as the title of web page
      */
@@ -790,6 +839,26 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true, masterOnly = true)
     public static int backup_job_default_timeout_ms = 86400 * 1000; // 1 day
 
+    /**
+     * Files larger than this size are transferred through broker in parts of this size.
+     * Parts of a downloaded file are read by several broker readers in parallel.
+     * Files are not split into parts if it's not positive.
+     */
+    @ConfField(mutable = true)
+    public static long backup_transfer_part_size_bytes = 64L * 1024 * 1024; // 64MB
+
+    /**
+     * Max number of parts of one file being transferred concurrently.
+     */
+    @ConfField(mutable = true)
+    public static int backup_transfer_concurrency = 4;
+
+    /**
+     * Max retry times of a failed part before the whole file transfer fails.
+     */
+    @ConfField(mutable = true)
+    public static int backup_transfer_part_max_retry_times = 3;
+
     /**
      * 'storage_high_watermark_usage_percent' limit the max capacity usage percent of a Backend storage path.
      * 'storage_min_left_capacity_bytes' limit the minimum left capacity of a Backend storage path.
@@ -836,6 +905,13 @@ public class Config extends ConfigBase {
     @ConfField
     public static boolean enable_auth_check = true;
 
+    /**
+     * If set to true, the global, database and table privileges of each user are compiled to a snapshot,
+     * and checked without lock. The snapshots are rebuilt once the privileges are changed.
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_auth_priv_snapshot = true;
+
     /**
      * If set to true, Planner will try to select replica of tablet on same host as this Frontend.
      * This may reduce network transmission in following case:
@@ -855,6 +931,25 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static int max_query_retry_time = 2;
 
+    /**
+     * The memory budget of the finished query profiles kept by FE, in bytes of the compressed profiles.
+     * The oldest profiles are spilled to tmp_dir if enable_profile_spill is true, or dropped otherwise.
+     */
+    @ConfField(mutable = true)
+    public static long profile_store_memory_budget_bytes = 256L * 1024 * 1024;
+
+    /**
+     * Whether to spill the profiles exceeding profile_store_memory_budget_bytes to tmp_dir/profile.
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_profile_spill = false;
+
+    /**
+     * The max bytes of the spilled profiles, the oldest spilled profiles are deleted when it's exceeded.
+     */
+    @ConfField(mutable = true)
+    public static long profile_spill_max_bytes = 1024L * 1024 * 1024;
+
     /**
      * The tryLock timeout configuration of catalog lock.
      * Normally it does not need to change, unless you need to test something.
@@ -890,6 +985,12 @@ public class Config extends ConfigBase {
     @ConfField
     public static long es_state_sync_interval_second = 10;
 
+    /**
+     * The max number of slices a shard of ES index is split into, see the table property `max_docs_per_slice`.
+     */
+    @ConfField(mutable = true)
+    public static int es_max_slices_per_shard = 8;
+
     /**
      * the factor of delay time before deciding to repair tablet.
      * if priority is VERY_HIGH, repair it immediately.
@@ -1042,16 +1143,25 @@ public class Config extends ConfigBase {
     public static boolean using_old_load_usage_pattern = false;
 
     /**
-     * This will limit the max recursion depth of hash distribution pruner.
-     * eg: where a in (5 elements) and b in (4 elements) and c in (3 elements) and d in (2 elements).
-     * a/b/c/d are distribution columns, so the recursion depth will be 5 * 4 * 3 * 2 = 120, larger than 100,
-     * So that distribution pruner will no work and just return all buckets.
-     * <p>
-     * Increase the depth can support distribution pruning for more elements, but may cost more CPU.
+     * Deprecated, replaced by max_distribution_pruner_hash_num.
      */
     @ConfField(mutable = true, masterOnly = false)
     public static int max_distribution_pruner_recursion_depth = 100;
 
+    /**
+     * This will limit the number of hash computations of hash distribution pruner.
+     * eg: where a in (5 elements) and b in (4 elements) and c in (3 elements).
+     * a/b/c are distribution columns, the hash of the prefixes are shared, so the number of hash computations
+     * will be 5 + 5 * 4 + 5 * 4 * 3 = 85. If it's larger than this limit, distribution pruner will not work
+     * and just return all buckets.
+     * The range predicate of an integer distribution column, such as a between 1 and 1000, is pruned as
+     * an in predicate of all the values in the range.
+     * <p>
+     * Increase the limit can support distribution pruning for more elements, but may cost more CPU.
+     */
+    @ConfField(mutable = true, masterOnly = false)
+    public static int max_distribution_pruner_hash_num = 100000;
+
     /**
      * If the jvm memory used percent(heap or old mem pool) exceed this threshold, checkpoint thread will
      * not work to avoid OOM.
@@ -1247,6 +1357,20 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true, masterOnly = true)
     public static boolean enable_statistic_collect = true;
 
+    /**
+     * Whether to collect the joint statistics of the multi-column distribution keys and unique keys
+     * besides the column groups specified by users
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static boolean enable_statistic_collect_column_group = true;
+
+    /**
+     * The max number of the scans whose row counts observed by the executions are kept for the optimizer,
+     * only used if the session variable enable_cbo_cardinality_feedback is true
+     */
+    @ConfField
+    public static long statistic_cardinality_feedback_cache_size = 10000;
+
     /**
      * whether ignore unknown log id
      * when fe rolls back to low version, there may be log id that low version fe can not recognise
@@ -1274,6 +1398,13 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true, masterOnly = true)
     public static long max_partitions_in_one_batch = 4096;
 
+    /**
+     * The interval of checking whether asynchronous materialized views need to be refreshed.
+     * A materialized view is refreshed once any of its base tables has new data loaded.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static long materialized_view_refresh_interval_seconds = 60;
+
     @ConfField
     public static long hive_meta_cache_refresh_interval_s = 3600L * 2L;
 
@@ -12,6 +12,9 @@ public class StarRocksFEMetaVersion {
     //support hive external read
     public static final int VERSION_3 = 3;
 
+    // persist uploaded info files of backup job
+    public static final int VERSION_4 = 4;
+
     // note: when increment meta version, should assign the latest version to VERSION_CURRENT
-    public static final int VERSION_CURRENT = VERSION_3;
+    public static final int VERSION_CURRENT = VERSION_4;
 }
@@ -32,6 +32,8 @@ import org.apache.logging.log4j.Logger;
 
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.RejectedExecutionHandler;
@@ -44,7 +46,7 @@ import java.util.concurrent.TimeUnit;
 /**
  * ThreadPoolManager is a helper class for construct daemon thread pool with limit thread and memory resource.
  * thread names in thread pool are formatted as poolName-ID, where ID is a unique, sequentially assigned integer.
- * it provide four functions to construct thread pool now.
+ * it provide five functions to construct thread pool now.
  * <p>
  * 1. newDaemonCacheThreadPool
  * Wrapper over newCachedThreadPool with additional maxNumThread limit.
@@ -54,6 +56,8 @@ import java.util.concurrent.TimeUnit;
  * Wrapper over ThreadPoolExecutor, user can use it to construct thread pool more flexibly.
  * 4. newDaemonScheduledThreadPool
  * Wrapper over ScheduledThreadPoolExecutor, but without delay task num limit and thread num limit now(NOTICE).
+ * 5. newDaemonVirtualThreadPool
+ * Wrapper over Executors.newThreadPerTaskExecutor with virtual threads, only available on JDK 21+.
  * <p>
  * All thread pool constructed by ThreadPoolManager will be added to the nameToThreadPoolMap,
  * so the thread pool name in fe must be unique.
@@ -62,6 +66,7 @@ import java.util.concurrent.TimeUnit;
  */
 
 public class ThreadPoolManager {
+    private static final Logger LOG = LogManager.getLogger(ThreadPoolManager.class);
 
     private static Map<String, ThreadPoolExecutor> nameToThreadPoolMap = Maps.newConcurrentMap();
 
@@ -146,6 +151,57 @@ public class ThreadPoolManager {
         return scheduledThreadPoolExecutor;
     }
 
+    public static boolean isVirtualThreadSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Create an executor which starts a new virtual thread for each task, the threads are named as poolName-ID.
+     * The virtual threads are always daemon, and there is no limit on the number of threads,
+     * the metrics of the pool are not registered.
+     * The api of virtual threads is called by reflection, because fe is compiled for java 8.
+     *
+     * @throws UnsupportedOperationException if the JDK doesn't support virtual threads
+     */
+    public static ExecutorService newDaemonVirtualThreadPool(String poolName) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> virtualBuilderClass = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            builder = virtualBuilderClass.getMethod("name", String.class, long.class)
+                    .invoke(builder, poolName + "-", 0L);
+            ThreadFactory threadFactory = (ThreadFactory) virtualBuilderClass.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("virtual thread is not supported by java "
+                    + System.getProperty("java.version"), e);
+        }
+    }
+
+    /**
+     * Create a virtual thread pool if useVirtualThread is true and the JDK supports it,
+     * otherwise fall back to newDaemonCacheThreadPool.
+     */
+    public static ExecutorService newDaemonCacheOrVirtualThreadPool(int maxNumThread, String poolName,
+                                                                    boolean needRegisterMetric,
+                                                                    boolean useVirtualThread) {
+        if (useVirtualThread) {
+            try {
+                ExecutorService executor = newDaemonVirtualThreadPool(poolName);
+                LOG.info("use virtual threads for thread pool {}", poolName);
+                return executor;
+            } catch (UnsupportedOperationException e) {
+                LOG.warn("virtual thread is not supported, use platform threads for thread pool {}", poolName, e);
+            }
+        }
+        return newDaemonCacheThreadPool(maxNumThread, poolName, needRegisterMetric);
+    }
+
     /**
      * Create a thread factory that names threads with a prefix and also sets the threads to daemon.
      */
@@ -0,0 +1,48 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.common.proc;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.starrocks.common.AnalysisException;
+import com.starrocks.common.util.MergedProfile;
+import com.starrocks.common.util.ProfileManager;
+
+/*
+ * show proc "/query_profiles"
+ * show proc "/query_profiles/{query_id}" shows the counters of the query merged across the fragment instances.
+ */
+public class QueryProfilesProcDir implements ProcDirInterface {
+    public static final ImmutableList<String> TITLE_NAMES = new ImmutableList.Builder<String>()
+            .addAll(ProfileManager.PROFILE_HEADERS).add("CompressedSize").add("Spilled").build();
+
+    @Override
+    public boolean register(String name, ProcNodeInterface node) {
+        return false;
+    }
+
+    @Override
+    public ProcNodeInterface lookup(String queryId) throws AnalysisException {
+        if (Strings.isNullOrEmpty(queryId)) {
+            return null;
+        }
+        MergedProfile mergedProfile = ProfileManager.getInstance().getMergedProfile(queryId);
+        if (mergedProfile == null) {
+            throw new AnalysisException("profile of query " + queryId + " does't exist.");
+        }
+        return () -> {
+            BaseProcResult result = new BaseProcResult();
+            result.setNames(MergedProfile.TITLE_NAMES);
+            result.setRows(mergedProfile.toRows());
+            return result;
+        };
+    }
+
+    @Override
+    public ProcResult fetchResult() throws AnalysisException {
+        BaseProcResult result = new BaseProcResult();
+        result.setNames(TITLE_NAMES);
+        result.setRows(ProfileManager.getInstance().getAllQueriesWithStorage());
+        return result;
+    }
+}
@@ -0,0 +1,209 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.common.util;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.common.Pair;
+import com.starrocks.thrift.TUnit;
+
+import java.util.List;
+import java.util.Map;
+
+/*
+ * MergedProfile aggregates the profiles of all the fragment instances of a query.
+ * The profiles of the instances of the same fragment have the same tree of plan nodes, the nodes with
+ * the same path are merged into one, and every counter of the node is aggregated to min, max, sum and
+ * skew, where skew = max / avg, so that the slow instance of a plan node can be found at a glance.
+ *
+ * Query
+ *   Summary
+ *   Execution Profile xxx
+ *     Fragment 0
+ *       Instance xxx (host=xxx)   -> merged into one node
+ *         OLAP_SCAN_NODE (id=0)
+ */
+public class MergedProfile {
+    private static final String EXECUTION_PROFILE_PREFIX = "Execution Profile";
+    private static final String FRAGMENT_PREFIX = "Fragment";
+
+    public static final List<String> TITLE_NAMES = Lists.newArrayList(
+            "Fragment", "Node", "Counter", "Min", "Max", "Sum", "Skew");
+
+    public static class CounterStat {
+        private final TUnit type;
+        private long min = Long.MAX_VALUE;
+        private long max = Long.MIN_VALUE;
+        private long sum = 0;
+        private int count = 0;
+
+        CounterStat(TUnit type) {
+            this.type = type;
+        }
+
+        void add(long value) {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            sum += value;
+            count++;
+        }
+
+        public long getMin() {
+            return min;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        // max / avg, 1.0 means no skew
+        public double getSkew() {
+            if (count == 0 || sum <= 0 || max <= 0) {
+                return 1.0;
+            }
+            return max / ((double) sum / count);
+        }
+    }
+
+    public static class Node {
+        private final String name;
+        private int instanceNum = 0;
+        // counter name -> stat, in the order of the first instance
+        private final Map<String, CounterStat> counters = Maps.newLinkedHashMap();
+        private final Map<String, Node> children = Maps.newLinkedHashMap();
+
+        Node(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getInstanceNum() {
+            return instanceNum;
+        }
+
+        public Map<String, CounterStat> getCounters() {
+            return counters;
+        }
+
+        public Map<String, Node> getChildren() {
+            return children;
+        }
+
+        private void merge(RuntimeProfile profile) {
+            instanceNum++;
+            mergeCounters(profile, "");
+            for (Pair<RuntimeProfile, Boolean> pair : profile.getChildList()) {
+                RuntimeProfile child = pair.first;
+                children.computeIfAbsent(child.getName(), Node::new).merge(child);
+            }
+        }
+
+        private void mergeCounters(RuntimeProfile profile, String parentCounterName) {
+            if (parentCounterName.isEmpty()) {
+                Counter totalTime = profile.getCounterTotalTime();
+                counters.computeIfAbsent("TotalTime", k -> new CounterStat(totalTime.getType()))
+                        .add(totalTime.getValue());
+            }
+            for (String counterName : profile.getChildCounterNames(parentCounterName)) {
+                Counter counter = profile.getCounterMap().get(counterName);
+                if (counter == null || counter == profile.getCounterTotalTime()) {
+                    continue;
+                }
+                counters.computeIfAbsent(counterName, k -> new CounterStat(counter.getType())).add(counter.getValue());
+                mergeCounters(profile, counterName);
+            }
+        }
+    }
+
+    // one merged node for each fragment
+    private final List<Node> fragments = Lists.newArrayList();
+
+    private MergedProfile() {
+    }
+
+    public static MergedProfile merge(RuntimeProfile queryProfile) {
+        MergedProfile mergedProfile = new MergedProfile();
+        for (Pair<RuntimeProfile, Boolean> executionPair : queryProfile.getChildList()) {
+            if (!executionPair.first.getName().startsWith(EXECUTION_PROFILE_PREFIX)) {
+                continue;
+            }
+            for (Pair<RuntimeProfile, Boolean> fragmentPair : executionPair.first.getChildList()) {
+                RuntimeProfile fragmentProfile = fragmentPair.first;
+                if (!fragmentProfile.getName().startsWith(FRAGMENT_PREFIX)) {
+                    continue;
+                }
+                Node fragment = new Node(fragmentProfile.getName());
+                for (Pair<RuntimeProfile, Boolean> instancePair : fragmentProfile.getChildList()) {
+                    fragment.merge(instancePair.first);
+                }
+                mergedProfile.fragments.add(fragment);
+            }
+        }
+        return mergedProfile;
+    }
+
+    public List<Node> getFragments() {
+        return fragments;
+    }
+
+    // rows of TITLE_NAMES
+    public List<List<String>> toRows() {
+        List<List<String>> rows = Lists.newArrayList();
+        for (Node fragment : fragments) {
+            toRows(fragment.getName(), fragment, "", rows);
+        }
+        return rows;
+    }
+
+    private static void toRows(String fragmentName, Node node, String path, List<List<String>> rows) {
+        for (Map.Entry<String, CounterStat> entry : node.counters.entrySet()) {
+            CounterStat stat = entry.getValue();
+            rows.add(Lists.newArrayList(fragmentName, path.isEmpty() ? "Instance" : path, entry.getKey(),
+                    RuntimeProfile.printCounter(stat.getMin(), stat.type),
+                    RuntimeProfile.printCounter(stat.getMax(), stat.type),
+                    RuntimeProfile.printCounter(stat.getSum(), stat.type),
+                    String.format("%.2f", stat.getSkew())));
+        }
+        for (Node child : node.children.values()) {
+            toRows(fragmentName, child, path.isEmpty() ? child.getName() : path + " > " + child.getName(), rows);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (Node fragment : fragments) {
+            builder.append(fragment.getName()).append(": (instances=").append(fragment.getInstanceNum()).append(")\n");
+            print(fragment, "  ", builder);
+        }
+        return builder.toString();
+    }
+
+    private static void print(Node node, String prefix, StringBuilder builder) {
+        for (Map.Entry<String, CounterStat> entry : node.counters.entrySet()) {
+            CounterStat stat = entry.getValue();
+            builder.append(prefix).append("   - ").append(entry.getKey())
+                    .append(": sum=").append(RuntimeProfile.printCounter(stat.getSum(), stat.type))
+                    .append(", min=").append(RuntimeProfile.printCounter(stat.getMin(), stat.type))
+                    .append(", max=").append(RuntimeProfile.printCounter(stat.getMax(), stat.type))
+                    .append(String.format(", skew=%.2f", stat.getSkew()))
+                    .append("\n");
+        }
+        for (Node child : node.children.values()) {
+            builder.append(prefix).append(child.getName()).append(": (instances=").append(child.getInstanceNum())
+                    .append(")\n");
+            print(child, prefix + "  ", builder);
+        }
+    }
+}
@@ -24,9 +24,17 @@ package com.starrocks.common.util;
 import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.starrocks.common.Config;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Deque;
@@ -38,6 +46,8 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
 /*
  * if you want to visit the atrribute(such as queryID,defaultDb)
@@ -47,11 +57,16 @@ import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
  * why the element in the finished profile arary is not RuntimeProfile,
  * the purpose is let coordinator can destruct earlier(the fragment profile is in Coordinator)
  *
+ * The profile is kept as the deflated binary form of the profile tree (see RuntimeProfile.write), which is
+ * an order of magnitude smaller than the printed one, and is printed or merged only when it's requested.
+ * The profiles are retained by profile_store_memory_budget_bytes, the oldest profiles are spilled to
+ * tmp_dir/profile if enable_profile_spill is true, or dropped otherwise. The spill files are written and
+ * deleted out of the lock, and the ones left by the last run are deleted when FE starts.
  */
 public class ProfileManager {
     private static final Logger LOG = LogManager.getLogger(ProfileManager.class);
     private static ProfileManager INSTANCE = null;
-    private static final int ARRAY_SIZE = 1000;
+    private static final String SPILL_DIR_NAME = "profile";
     public static final String QUERY_ID = "Query ID";
     public static final String START_TIME = "Start Time";
     public static final String END_TIME = "End Time";
@@ -66,17 +81,28 @@ public class ProfileManager {
             Arrays.asList(QUERY_ID, USER, DEFAULT_DB, SQL_STATEMENT, QUERY_TYPE,
                     START_TIME, END_TIME, TOTAL_TIME, QUERY_STATE));
 
-    private class ProfileElement {
+    private static class ProfileElement {
         public Map<String, String> infoStrings = Maps.newHashMap();
-        public String profileContent;
+        // null if the profile is spilled
+        public byte[] compressedProfile;
+        public int compressedSize;
+        // null if the profile is in memory, or is being written to the file
+        public File spillFile;
+        // the profile is dropped, the file being written should be deleted
+        public boolean dropped;
     }
 
-    // only protect profileDeque; profileMap is concurrent, no need to protect
+    // only protect profileDeque and spilledDeque; profileMap is concurrent, no need to protect
     private ReentrantReadWriteLock lock;
     private ReadLock readLock;
     private WriteLock writeLock;
 
+    // the profiles in memory and the spilled profiles, both from the oldest to the latest.
+    // the spilled profiles are always older than the profiles in memory.
     private Deque<ProfileElement> profileDeque;
+    private Deque<ProfileElement> spilledDeque;
+    private long memoryBytes = 0;
+    private long spilledBytes = 0;
     private Map<String, ProfileElement> profileMap; // from QueryId to RuntimeProfile
 
     public static ProfileManager getInstance() {
@@ -91,25 +117,53 @@ public class ProfileManager {
         readLock = lock.readLock();
         writeLock = lock.writeLock();
         profileDeque = new LinkedList<ProfileElement>();
+        spilledDeque = new LinkedList<ProfileElement>();
         profileMap = new ConcurrentHashMap<String, ProfileElement>();
+        // the spilled profiles of the last run are not loaded
+        File spillDir = new File(Config.tmp_dir, SPILL_DIR_NAME);
+        if (!Util.deleteDirectory(spillDir)) {
+            LOG.warn("failed to delete spilled profiles in {}", spillDir);
+        }
     }
 
-    public ProfileElement createElement(RuntimeProfile profile) {
+    private ProfileElement createElement(RuntimeProfile profile) throws IOException {
         ProfileElement element = new ProfileElement();
         RuntimeProfile summaryProfile = profile.getChildList().get(0).first;
         for (String header : PROFILE_HEADERS) {
             element.infoStrings.put(header, summaryProfile.getInfoString(header));
         }
-        element.profileContent = profile.toString();
+        element.compressedProfile = compress(profile);
+        element.compressedSize = element.compressedProfile.length;
         return element;
     }
 
-    public String pushProfile(RuntimeProfile profile) {
+    private static byte[] compress(RuntimeProfile profile) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            profile.write(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static RuntimeProfile decompress(byte[] compressedProfile) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new InflaterInputStream(new ByteArrayInputStream(compressedProfile)))) {
+            return RuntimeProfile.read(in);
+        }
+    }
+
+    public void pushProfile(RuntimeProfile profile) {
         if (profile == null) {
-            return "";
+            return;
         }
 
-        ProfileElement element = createElement(profile);
+        ProfileElement element;
+        try {
+            element = createElement(profile);
+        } catch (IOException e) {
+            LOG.warn("failed to compress profile", e);
+            return;
+        }
         String queryId = element.infoStrings.get(ProfileManager.QUERY_ID);
         // check when push in, which can ensure every element in the list has QUERY_ID column,
         // so there is no need to check when remove element from list.
@@ -118,35 +172,107 @@ public class ProfileManager {
                     + "may be forget to insert 'QUERY_ID' column into infoStrings");
         }
 
+        List<ProfileElement> toSpill = Lists.newArrayList();
+        List<File> toDelete = Lists.newArrayList();
         profileMap.put(queryId, element);
         writeLock.lock();
         try {
-            if (profileDeque.size() >= ARRAY_SIZE) {
-                profileMap.remove(profileDeque.getFirst().infoStrings.get(QUERY_ID));
-                profileDeque.removeFirst();
-            }
             profileDeque.addLast(element);
+            memoryBytes += element.compressedSize;
+            // keep the latest profile even if it exceeds the budget
+            while (memoryBytes > Config.profile_store_memory_budget_bytes && profileDeque.size() > 1) {
+                ProfileElement oldest = profileDeque.removeFirst();
+                memoryBytes -= oldest.compressedSize;
+                if (Config.enable_profile_spill) {
+                    // still read from memory until it's written to the file
+                    spilledDeque.addLast(oldest);
+                    spilledBytes += oldest.compressedSize;
+                    toSpill.add(oldest);
+                } else {
+                    profileMap.remove(oldest.infoStrings.get(QUERY_ID));
+                }
+            }
+            while (spilledBytes > Config.profile_spill_max_bytes && !spilledDeque.isEmpty()) {
+                ProfileElement oldest = spilledDeque.removeFirst();
+                spilledBytes -= oldest.compressedSize;
+                profileMap.remove(oldest.infoStrings.get(QUERY_ID));
+                oldest.dropped = true;
+                if (oldest.spillFile != null) {
+                    toDelete.add(oldest.spillFile);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+
+        // the files are written out of the lock, so the readers are not blocked by the disk
+        for (File file : toDelete) {
+            deleteSpillFile(file);
+        }
+        for (ProfileElement oldest : toSpill) {
+            spill(oldest);
+        }
+    }
+
+    private void spill(ProfileElement element) {
+        File dir = new File(Config.tmp_dir, SPILL_DIR_NAME);
+        File file = new File(dir, element.infoStrings.get(QUERY_ID) + ".profile");
+        boolean written = false;
+        try {
+            if (!dir.exists() && !dir.mkdirs()) {
+                throw new IOException("failed to create dir " + dir);
+            }
+            Files.write(file.toPath(), element.compressedProfile);
+            written = true;
+        } catch (IOException e) {
+            LOG.warn("failed to spill profile to {}", file, e);
+        }
+
+        boolean keepFile = false;
+        writeLock.lock();
+        try {
+            if (!element.dropped) {
+                if (written) {
+                    element.spillFile = file;
+                    element.compressedProfile = null;
+                    keepFile = true;
+                } else {
+                    spilledDeque.remove(element);
+                    spilledBytes -= element.compressedSize;
+                    profileMap.remove(element.infoStrings.get(QUERY_ID));
+                    element.dropped = true;
+                }
+            }
         } finally {
             writeLock.unlock();
         }
+        if (!keepFile) {
+            deleteSpillFile(file);
+        }
+    }
 
-        return element.profileContent;
+    private static void deleteSpillFile(File file) {
+        if (file != null && file.exists() && !file.delete()) {
+            LOG.warn("failed to delete spilled profile {}", file);
+        }
     }
 
     public List<List<String>> getAllQueries() {
         List<List<String>> result = Lists.newArrayList();
         readLock.lock();
         try {
-            Iterator reverse = profileDeque.descendingIterator();
-            while (reverse.hasNext()) {
-                ProfileElement element = (ProfileElement) reverse.next();
-                Map<String, String> infoStrings = element.infoStrings;
-
-                List<String> row = Lists.newArrayList();
-                for (String str : PROFILE_HEADERS) {
-                    row.add(infoStrings.get(str));
+            for (Deque<ProfileElement> deque : Arrays.asList(profileDeque, spilledDeque)) {
+                Iterator<ProfileElement> reverse = deque.descendingIterator();
+                while (reverse.hasNext()) {
+                    ProfileElement element = reverse.next();
+                    Map<String, String> infoStrings = element.infoStrings;
+
+                    List<String> row = Lists.newArrayList();
+                    for (String str : PROFILE_HEADERS) {
+                        row.add(infoStrings.get(str));
+                    }
+                    result.add(row);
                 }
-                result.add(row);
             }
         } finally {
             readLock.unlock();
@@ -154,17 +280,73 @@ public class ProfileManager {
         return result;
     }
 
-    public String getProfile(String queryID) {
+    // the compressed size and whether the profile is spilled, of all the queries in getAllQueries order
+    public List<List<String>> getAllQueriesWithStorage() {
+        List<List<String>> result = Lists.newArrayList();
+        readLock.lock();
+        try {
+            for (Deque<ProfileElement> deque : Arrays.asList(profileDeque, spilledDeque)) {
+                Iterator<ProfileElement> reverse = deque.descendingIterator();
+                while (reverse.hasNext()) {
+                    ProfileElement element = reverse.next();
+                    List<String> row = Lists.newArrayList();
+                    for (String str : PROFILE_HEADERS) {
+                        row.add(element.infoStrings.get(str));
+                    }
+                    row.add(String.valueOf(element.compressedSize));
+                    row.add(String.valueOf(element.spillFile != null));
+                    result.add(row);
+                }
+            }
+        } finally {
+            readLock.unlock();
+        }
+        return result;
+    }
+
+    public long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    public long getSpilledBytes() {
+        return spilledBytes;
+    }
+
+    public RuntimeProfile getRuntimeProfile(String queryID) {
+        byte[] compressedProfile;
+        File spillFile;
         readLock.lock();
         try {
             ProfileElement element = profileMap.get(queryID);
             if (element == null) {
                 return null;
             }
-
-            return element.profileContent;
+            compressedProfile = element.compressedProfile;
+            spillFile = element.spillFile;
         } finally {
             readLock.unlock();
         }
+
+        try {
+            if (compressedProfile == null) {
+                // the file may be deleted by now
+                compressedProfile = Files.readAllBytes(spillFile.toPath());
+            }
+            return decompress(compressedProfile);
+        } catch (IOException e) {
+            LOG.warn("failed to read profile of query {}", queryID, e);
+            return null;
+        }
+    }
+
+    public String getProfile(String queryID) {
+        RuntimeProfile profile = getRuntimeProfile(queryID);
+        return profile == null ? null : profile.toString();
+    }
+
+    // the counters aggregated across the fragment instances
+    public MergedProfile getMergedProfile(String queryID) {
+        RuntimeProfile profile = getRuntimeProfile(queryID);
+        return profile == null ? null : MergedProfile.merge(profile);
     }
 }
@@ -0,0 +1,135 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.common.util;
+
+import com.google.common.base.Preconditions;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded lock-free queue for multiple producers and multiple consumers.
+ *
+ * Every slot has a sequence number which tells whether the slot is ready to be written by the producer
+ * of position p (sequence == p) or ready to be read by the consumer of position p (sequence == p + 1).
+ * Producers and consumers claim a position by CAS on tail and head respectively, so neither of them
+ * ever blocks, offer returns false if the buffer is full and poll returns null if it is empty.
+ */
+public class RingBuffer<E> {
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    // next position to read
+    private final AtomicLong head = new AtomicLong(0);
+    // next position to write
+    private final AtomicLong tail = new AtomicLong(0);
+
+    /**
+     * @param capacity rounded up to the power of 2
+     */
+    public RingBuffer(int capacity) {
+        Preconditions.checkArgument(capacity > 0 && capacity <= (1 << 30), "invalid capacity " + capacity);
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.capacity = size;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return false if the buffer is full
+     */
+    public boolean offer(E element) {
+        Preconditions.checkNotNull(element);
+        long pos = tail.get();
+        while (true) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    elements.lazySet(index, element);
+                    // publish the element to the consumers
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                // the slot is not consumed yet since the last round
+                return false;
+            } else {
+                // another producer has taken the position
+                pos = tail.get();
+            }
+        }
+    }
+
+    /**
+     * @return null if the buffer is empty
+     */
+    public E poll() {
+        long pos = head.get();
+        while (true) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    E element = elements.get(index);
+                    elements.lazySet(index, null);
+                    // release the slot to the producer of the next round
+                    sequences.set(index, pos + capacity);
+                    return element;
+                }
+                pos = head.get();
+            } else if (diff < 0) {
+                return null;
+            } else {
+                pos = head.get();
+            }
+        }
+    }
+
+    /**
+     * Poll at most maxElements elements into the list.
+     *
+     * @return number of elements polled
+     */
+    public int drainTo(List<? super E> list, int maxElements) {
+        int num = 0;
+        while (num < maxElements) {
+            E element = poll();
+            if (element == null) {
+                break;
+            }
+            list.add(element);
+            num++;
+        }
+        return num;
+    }
+
+    /**
+     * The number of elements, it's only an estimate when the buffer is accessed concurrently.
+     */
+    public int size() {
+        // read head first, so that size is never negative
+        long headPos = head.get();
+        long tailPos = tail.get();
+        return (int) Math.max(0, Math.min(capacity, tailPos - headPos));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+}
@@ -26,6 +26,8 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.starrocks.common.Pair;
 import com.starrocks.common.Reference;
+import com.starrocks.common.io.Text;
+import com.starrocks.common.io.Writable;
 import com.starrocks.thrift.TCounter;
 import com.starrocks.thrift.TRuntimeProfileNode;
 import com.starrocks.thrift.TRuntimeProfileTree;
@@ -33,6 +35,9 @@ import com.starrocks.thrift.TUnit;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Formatter;
@@ -46,7 +51,7 @@ import java.util.TreeSet;
  * , named 'query thread', the other is to call
  * {@link com.starrocks.common.proc.CurrentQueryInfoProvider}.
  */
-public class RuntimeProfile {
+public class RuntimeProfile implements Writable {
     private static final Logger LOG = LogManager.getLogger(RuntimeProfile.class);
     private static String ROOT_COUNTER = "";
     private Counter counterTotalTime;
@@ -91,6 +96,16 @@ public class RuntimeProfile {
         return childMap;
     }
 
+    public String getName() {
+        return name;
+    }
+
+    // the names of the counters under parentCounterName, in the order of printing
+    public Set<String> getChildCounterNames(String parentCounterName) {
+        TreeSet<String> childCounters = childCounterMap.get(parentCounterName);
+        return childCounters == null ? Collections.emptySet() : childCounters;
+    }
+
     public Counter addCounter(String name, TUnit type, String parentCounterName) {
         Counter counter = this.counterMap.get(name);
         if (counter != null) {
@@ -240,7 +255,7 @@ public class RuntimeProfile {
         }
     }
 
-    private String printCounter(long value, TUnit type) {
+    static String printCounter(long value, TUnit type) {
         StringBuilder builder = new StringBuilder();
         long tmpValue = value;
         switch (type) {
@@ -381,5 +396,85 @@ public class RuntimeProfile {
     public String getInfoString(String key) {
         return infoStrings.get(key);
     }
+
+    // Write the whole profile tree in a compact binary form, which is much smaller than the printed one
+    @Override
+    public void write(DataOutput out) throws IOException {
+        Text.writeString(out, name);
+        out.writeDouble(localTimePercent);
+
+        out.writeInt(infoStringsDisplayOrder.size());
+        for (String key : infoStringsDisplayOrder) {
+            Text.writeString(out, key);
+            String value = infoStrings.get(key);
+            out.writeBoolean(value != null);
+            if (value != null) {
+                Text.writeString(out, value);
+            }
+        }
+
+        out.writeInt(counterMap.size());
+        for (Map.Entry<String, Counter> entry : counterMap.entrySet()) {
+            Text.writeString(out, entry.getKey());
+            out.writeInt(entry.getValue().getType().getValue());
+            out.writeLong(entry.getValue().getValue());
+        }
+
+        out.writeInt(childCounterMap.size());
+        for (Map.Entry<String, TreeSet<String>> entry : childCounterMap.entrySet()) {
+            Text.writeString(out, entry.getKey());
+            out.writeInt(entry.getValue().size());
+            for (String childCounterName : entry.getValue()) {
+                Text.writeString(out, childCounterName);
+            }
+        }
+
+        out.writeInt(childList.size());
+        for (Pair<RuntimeProfile, Boolean> pair : childList) {
+            out.writeBoolean(pair.second);
+            pair.first.write(out);
+        }
+    }
+
+    public static RuntimeProfile read(DataInput in) throws IOException {
+        RuntimeProfile profile = new RuntimeProfile(Text.readString(in));
+        profile.localTimePercent = in.readDouble();
+
+        int infoStringNum = in.readInt();
+        for (int i = 0; i < infoStringNum; i++) {
+            String key = Text.readString(in);
+            String value = in.readBoolean() ? Text.readString(in) : null;
+            profile.infoStrings.put(key, value);
+            profile.infoStringsDisplayOrder.add(key);
+        }
+
+        int counterNum = in.readInt();
+        for (int i = 0; i < counterNum; i++) {
+            String counterName = Text.readString(in);
+            Counter counter = new Counter(TUnit.findByValue(in.readInt()), in.readLong());
+            profile.counterMap.put(counterName, counter);
+        }
+        profile.counterTotalTime = profile.counterMap.get("TotalTime");
+
+        int parentCounterNum = in.readInt();
+        for (int i = 0; i < parentCounterNum; i++) {
+            String parentCounterName = Text.readString(in);
+            TreeSet<String> childCounters = new TreeSet<>();
+            int childCounterNum = in.readInt();
+            for (int j = 0; j < childCounterNum; j++) {
+                childCounters.add(Text.readString(in));
+            }
+            profile.childCounterMap.put(parentCounterName, childCounters);
+        }
+
+        int childNum = in.readInt();
+        for (int i = 0; i < childNum; i++) {
+            boolean indent = in.readBoolean();
+            RuntimeProfile child = read(in);
+            profile.childMap.put(child.name, child);
+            profile.childList.add(Pair.create(child, indent));
+        }
+        return profile;
+    }
 }
 
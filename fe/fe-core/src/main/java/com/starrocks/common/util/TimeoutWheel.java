@@ -0,0 +1,197 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.common.util;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A hashed timer wheel for the deadlines which are postponed much more often than they expire,
+ * such as the idle timeout of connections.
+ * <p>
+ * The wheel has slotNum slots of tickMs, an item whose deadline is in tick T is put into slot T % slotNum,
+ * and advance() only visits the slots of the elapsed ticks, so the cost of checking is proportional to the
+ * expiring items rather than all the items. An item with a deadline farther than a round is visited once
+ * per round.
+ * <p>
+ * reschedule() can be called by any thread. Postponing a deadline, which is the common case, is only a
+ * volatile write: the item stays in its slot and is moved when the slot is visited. Only an earlier deadline
+ * goes through a queue to the thread calling advance(), which is the only thread touching the slots.
+ */
+public class TimeoutWheel<T> {
+    public interface ExpireHandler<T> {
+        /**
+         * Called by the thread calling advance() when the deadline of item is reached.
+         *
+         * @return the next deadline of the item, or a non-positive value to remove the item from the wheel
+         */
+        long onExpire(T item, long nowMs);
+    }
+
+    public static class Entry<T> {
+        // cleared once the entry is removed, the entry may be left in a slot until the slot is visited
+        private volatile T item;
+        private final AtomicLong deadlineMs;
+        private final AtomicBoolean pending = new AtomicBoolean(true);
+        private volatile boolean removed = false;
+        // the deadline of the tick the entry is put in, MAX_VALUE if not put in any slot
+        private volatile long scheduledDeadlineMs = Long.MAX_VALUE;
+        // only accessed by the thread calling advance()
+        private long scheduledTick = -1;
+        private long visitedTick = -1;
+
+        private Entry(T item, long deadlineMs) {
+            this.item = item;
+            this.deadlineMs = new AtomicLong(deadlineMs);
+        }
+
+        /**
+         * @return null if the entry is removed
+         */
+        public T getItem() {
+            return item;
+        }
+
+        public long getDeadlineMs() {
+            return deadlineMs.get();
+        }
+
+        public boolean isRemoved() {
+            return removed;
+        }
+    }
+
+    private final long tickMs;
+    private final List<Entry<T>>[] slots;
+    private final ExpireHandler<T> handler;
+    // the entries added or rescheduled to an earlier deadline, waiting to be put in slots
+    private final Queue<Entry<T>> pendingEntries = new ConcurrentLinkedQueue<>();
+    // the last tick visited, only accessed by the thread calling advance()
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public TimeoutWheel(long tickMs, int slotNum, long nowMs, ExpireHandler<T> handler) {
+        Preconditions.checkArgument(tickMs > 0 && slotNum > 0);
+        this.tickMs = tickMs;
+        this.slots = new List[slotNum];
+        for (int i = 0; i < slotNum; i++) {
+            slots[i] = Lists.newArrayList();
+        }
+        this.handler = handler;
+        this.currentTick = nowMs / tickMs;
+    }
+
+    public Entry<T> add(T item, long deadlineMs) {
+        Entry<T> entry = new Entry<>(item, deadlineMs);
+        pendingEntries.offer(entry);
+        return entry;
+    }
+
+    public void reschedule(Entry<T> entry, long deadlineMs) {
+        entry.deadlineMs.set(deadlineMs);
+        // the entry will be moved to the later slot when its current slot is visited
+        if (deadlineMs < entry.scheduledDeadlineMs && entry.pending.compareAndSet(false, true)) {
+            pendingEntries.offer(entry);
+        }
+    }
+
+    // the entry is dropped when its slot is visited, but the item is released at once
+    public void remove(Entry<T> entry) {
+        entry.removed = true;
+        entry.item = null;
+    }
+
+    /**
+     * Visit the slots of the ticks elapsed until nowMs, and call the handler for the expired entries.
+     * Must be called by a single thread.
+     */
+    public void advance(long nowMs) {
+        drainPendingEntries();
+        long nowTick = nowMs / tickMs;
+        while (currentTick < nowTick) {
+            currentTick++;
+            visitSlot(nowMs);
+            // the entries rescheduled by the handler
+            drainPendingEntries();
+        }
+    }
+
+    private void drainPendingEntries() {
+        Entry<T> entry;
+        while ((entry = pendingEntries.poll()) != null) {
+            entry.pending.set(false);
+            if (!entry.removed) {
+                schedule(entry, entry.deadlineMs.get());
+            }
+        }
+    }
+
+    private void visitSlot(long nowMs) {
+        int slotIdx = (int) (currentTick % slots.length);
+        List<Entry<T>> entries = slots[slotIdx];
+        // the entries of the later rounds and the rescheduled entries may be put in this slot again
+        slots[slotIdx] = Lists.newArrayList();
+        long tickDeadlineMs = currentTick * tickMs;
+        for (Entry<T> entry : entries) {
+            // an entry may be left in the slots it was put in before, only visit it in the slot of scheduledTick
+            if (entry.removed || entry.scheduledTick % slots.length != slotIdx || entry.scheduledTick < currentTick
+                    || entry.visitedTick == currentTick) {
+                continue;
+            }
+            entry.visitedTick = currentTick;
+            if (entry.scheduledTick > currentTick) {
+                slots[slotIdx].add(entry);
+                continue;
+            }
+
+            long deadlineMs = entry.deadlineMs.get();
+            if (deadlineMs > tickDeadlineMs) {
+                // postponed
+                schedule(entry, deadlineMs);
+                continue;
+            }
+            T item = entry.item;
+            if (item == null) {
+                // removed by other thread
+                continue;
+            }
+            long nextDeadlineMs = handler.onExpire(item, nowMs);
+            if (nextDeadlineMs <= 0) {
+                remove(entry);
+            } else if (entry.deadlineMs.compareAndSet(deadlineMs, nextDeadlineMs)) {
+                schedule(entry, nextDeadlineMs);
+            } else {
+                // rescheduled by other thread during onExpire
+                schedule(entry, entry.deadlineMs.get());
+            }
+        }
+    }
+
+    private void schedule(Entry<T> entry, long deadlineMs) {
+        while (true) {
+            // never earlier than the next tick, and the tick is the first one not earlier than the deadline
+            long tick = Math.max(currentTick + 1, (deadlineMs + tickMs - 1) / tickMs);
+            if (tick != entry.scheduledTick) {
+                slots[(int) (tick % slots.length)].add(entry);
+                entry.scheduledTick = tick;
+            }
+            entry.scheduledDeadlineMs = tick * tickMs;
+            // reschedule() may set an earlier deadline before it sees the new scheduledDeadlineMs
+            long latestDeadlineMs = entry.deadlineMs.get();
+            if (latestDeadlineMs >= deadlineMs || (latestDeadlineMs + tickMs - 1) / tickMs >= tick) {
+                return;
+            }
+            deadlineMs = latestDeadlineMs;
+        }
+    }
+
+    public long getTickMs() {
+        return tickMs;
+    }
+}
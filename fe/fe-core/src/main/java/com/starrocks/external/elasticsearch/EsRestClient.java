@@ -37,6 +37,7 @@ import org.codehaus.jackson.map.SerializationConfig;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
@@ -144,6 +145,41 @@ public class EsRestClient {
         return EsShardPartitions.findShardPartitions(indexName, searchShards);
     }
 
+    /**
+     * Get the doc count of primary shards
+     *
+     * @param indexName
+     * @return index name -> (shard id -> doc count)
+     * @throws StarRocksESException
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Map<Integer, Long>> getShardDocCounts(String indexName) throws StarRocksESException {
+        Map<String, Object> indices = get(indexName + "/_stats/docs?level=shards", "indices");
+        if (indices == null) {
+            throw new StarRocksESException("request index [" + indexName + "] shard stats failure");
+        }
+        Map<String, Map<Integer, Long>> docCounts = new HashMap<>();
+        for (Map.Entry<String, Object> index : indices.entrySet()) {
+            Map<String, List<Map<String, Object>>> shards =
+                    (Map<String, List<Map<String, Object>>>) ((Map<String, Object>) index.getValue()).get("shards");
+            if (shards == null) {
+                continue;
+            }
+            Map<Integer, Long> shardDocCounts = new HashMap<>();
+            for (Map.Entry<String, List<Map<String, Object>>> shard : shards.entrySet()) {
+                for (Map<String, Object> shardStats : shard.getValue()) {
+                    Map<String, Object> routing = (Map<String, Object>) shardStats.get("routing");
+                    Map<String, Object> docs = (Map<String, Object>) shardStats.get("docs");
+                    if (routing != null && Boolean.TRUE.equals(routing.get("primary")) && docs != null) {
+                        shardDocCounts.put(Integer.parseInt(shard.getKey()), ((Number) docs.get("count")).longValue());
+                    }
+                }
+            }
+            docCounts.put(index.getKey(), shardDocCounts);
+        }
+        return docCounts;
+    }
+
     /**
      * execute request for specific path, it will try again nodes.length times if it fails
      *
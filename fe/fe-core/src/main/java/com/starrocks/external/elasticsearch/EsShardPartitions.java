@@ -111,6 +111,22 @@ public class EsShardPartitions {
         }
     }
 
+    /**
+     * Set the doc count of shards
+     *
+     * @param docCounts index name -> (shard id -> doc count)
+     */
+    public void addDocCounts(Map<String, Map<Integer, Long>> docCounts) {
+        for (List<EsShardRouting> singleShardRouting : shardRoutings.values()) {
+            for (EsShardRouting shardRouting : singleShardRouting) {
+                Map<Integer, Long> indexDocCounts = docCounts.get(shardRouting.getIndexName());
+                if (indexDocCounts != null && indexDocCounts.containsKey(shardRouting.getShardId())) {
+                    shardRouting.setDocCount(indexDocCounts.get(shardRouting.getShardId()));
+                }
+            }
+        }
+    }
+
     public TNetworkAddress randomAddress(Map<String, EsNodeInfo> nodesInfo) {
         // return a random value between 0 and 32767 : [0, 32767)
         int seed = new Random().nextInt(Short.MAX_VALUE) % nodesInfo.size();
@@ -34,6 +34,8 @@ public class EsShardRouting {
 
     private TNetworkAddress httpAddress;
     private final String nodeId;
+    // number of docs in the shard, -1 if unknown
+    private long docCount = -1;
 
     public EsShardRouting(String indexName, int shardId, boolean isPrimary, TNetworkAddress address, String nodeId) {
         this.indexName = indexName;
@@ -85,6 +87,14 @@ public class EsShardRouting {
         return nodeId;
     }
 
+    public long getDocCount() {
+        return docCount;
+    }
+
+    public void setDocCount(long docCount) {
+        this.docCount = docCount;
+    }
+
     @Override
     public String toString() {
         return "EsShardRouting{" +
@@ -94,6 +104,7 @@ public class EsShardRouting {
                 ", address=" + address +
                 ", httpAddress=" + httpAddress +
                 ", nodeId='" + nodeId + '\'' +
+                ", docCount=" + docCount +
                 '}';
     }
 }
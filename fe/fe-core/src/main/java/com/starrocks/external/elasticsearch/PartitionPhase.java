@@ -22,6 +22,8 @@
 package com.starrocks.external.elasticsearch;
 
 import com.starrocks.catalog.EsTable;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.util.Map;
 
@@ -30,6 +32,8 @@ import java.util.Map;
  */
 public class PartitionPhase implements SearchPhase {
 
+    private static final Logger LOG = LogManager.getLogger(PartitionPhase.class);
+
     private EsRestClient client;
     private EsShardPartitions shardPartitions;
     private Map<String, EsNodeInfo> nodesInfo;
@@ -42,6 +46,16 @@ public class PartitionPhase implements SearchPhase {
     public void execute(SearchContext context) throws StarRocksESException {
         shardPartitions = client.searchShards(context.sourceIndex());
         nodesInfo = client.getHttpNodes();
+        if (context.esTable().maxDocsPerSlice() > 0
+                && EsTable.TRANSPORT_HTTP.equals(context.esTable().getTransport()) && context.version() != null
+                && context.version().onOrAfter(EsMajorVersion.V_7_X)) {
+            // the doc counts are only used to split shards into slices, so it is fine to go on without them
+            try {
+                shardPartitions.addDocCounts(client.getShardDocCounts(context.sourceIndex()));
+            } catch (Exception e) {
+                LOG.warn("failed to get the doc count of shards of index [{}]", context.sourceIndex(), e);
+            }
+        }
     }
 
     @Override
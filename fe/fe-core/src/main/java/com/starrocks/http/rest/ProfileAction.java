@@ -21,6 +21,7 @@
 
 package com.starrocks.http.rest;
 
+import com.starrocks.common.util.MergedProfile;
 import com.starrocks.common.util.ProfileManager;
 import com.starrocks.http.ActionController;
 import com.starrocks.http.BaseRequest;
@@ -33,6 +34,8 @@ import io.netty.handler.codec.http.HttpResponseStatus;
 // It will be used in query monitor to collect profiles.   
 // Usage:
 //   wget http://fe_host:fe_http_port/api/profile?query_id=123456
+//   wget http://fe_host:fe_http_port/api/profile?query_id=123456&merged=true
+//     to get the counters merged across the fragment instances
 public class ProfileAction extends RestBaseAction {
 
     public ProfileAction(ActionController controller) {
@@ -51,7 +54,13 @@ public class ProfileAction extends RestBaseAction {
             sendResult(request, response, HttpResponseStatus.BAD_REQUEST);
             return;
         }
-        String queryProfileStr = ProfileManager.getInstance().getProfile(queryId);
+        String queryProfileStr;
+        if (Boolean.parseBoolean(request.getSingleParameter("merged"))) {
+            MergedProfile mergedProfile = ProfileManager.getInstance().getMergedProfile(queryId);
+            queryProfileStr = mergedProfile == null ? null : mergedProfile.toString();
+        } else {
+            queryProfileStr = ProfileManager.getInstance().getProfile(queryId);
+        }
         if (queryProfileStr != null) {
             response.getContent().append(queryProfileStr);
             sendResult(request, response);
@@ -71,6 +71,7 @@ import com.starrocks.persist.DropPartitionInfo;
 import com.starrocks.persist.DropResourceOperationLog;
 import com.starrocks.persist.GlobalVarPersistInfo;
 import com.starrocks.persist.HbPackage;
+import com.starrocks.persist.MaterializedViewRefreshInfo;
 import com.starrocks.persist.ModifyPartitionInfo;
 import com.starrocks.persist.ModifyTablePropertyOperationLog;
 import com.starrocks.persist.OperationType;
@@ -591,6 +592,11 @@ public class JournalEntity implements Writable {
                 isRead = true;
                 break;
             }
+            case OperationType.OP_REFRESH_MATERIALIZED_VIEW: {
+                data = MaterializedViewRefreshInfo.read(in);
+                isRead = true;
+                break;
+            }
             case OperationType.OP_ADD_ANALYZER_JOB: {
                 data = AnalyzeJob.read(in);
                 isRead = true;
@@ -42,6 +42,7 @@ import com.starrocks.metric.Metric.MetricUnit;
 import com.starrocks.monitor.jvm.JvmService;
 import com.starrocks.monitor.jvm.JvmStats;
 import com.starrocks.persist.EditLog;
+import com.starrocks.qe.AuditEventProcessor;
 import com.starrocks.service.ExecuteEnv;
 import com.starrocks.system.Backend;
 import com.starrocks.system.SystemInfoService;
@@ -86,9 +87,17 @@ public final class MetricRepo {
     public static LongCounterMetric COUNTER_ROUTINE_LOAD_RECEIVED_BYTES;
     public static LongCounterMetric COUNTER_ROUTINE_LOAD_ERROR_ROWS;
     public static LongCounterMetric COUNTER_ROUTINE_LOAD_PAUSED;
+    public static LongCounterMetric COUNTER_BACKUP_UPLOAD_BYTES;
+    public static LongCounterMetric COUNTER_BACKUP_DOWNLOAD_BYTES;
+    public static LongCounterMetric COUNTER_AUDIT_EVENT_DROPPED;
+    public static LongCounterMetric COUNTER_AUDIT_EVENT_SPILLED;
 
     public static Histogram HISTO_QUERY_LATENCY;
     public static Histogram HISTO_EDIT_LOG_WRITE_LATENCY;
+    public static Histogram HISTO_BACKUP_UPLOAD_THROUGHPUT;
+    public static Histogram HISTO_BACKUP_DOWNLOAD_THROUGHPUT;
+    public static Histogram HISTO_AUDIT_EVENT_DELIVERY_LATENCY;
+    public static final QueryPhaseHistograms HISTO_QUERY_PHASE_LATENCY = new QueryPhaseHistograms();
 
     // following metrics will be updated by metric calculator
     public static GaugeMetricImpl<Double> GAUGE_QUERY_PER_SECOND;
@@ -204,6 +213,20 @@ public final class MetricRepo {
         };
         STARROCKS_METRIC_REGISTER.addMetric(scheduledTabletNum);
 
+        // audit events waiting for the audit plugins
+        GaugeMetric<Long> auditEventQueueDepth = (GaugeMetric<Long>) new GaugeMetric<Long>(
+                "audit_event_queue_depth", MetricUnit.NOUNIT, "number of audit events waiting to be delivered") {
+            @Override
+            public Long getValue() {
+                AuditEventProcessor processor = Catalog.getCurrentAuditEventProcessor();
+                if (processor == null) {
+                    return 0L;
+                }
+                return processor.getQueueDepth();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(auditEventQueueDepth);
+
         // routine load jobs
         RoutineLoadManager routineLoadManger = Catalog.getCurrentCatalog().getRoutineLoadManager();
         for (RoutineLoadJob.JobState state : RoutineLoadJob.JobState.values()) {
@@ -335,11 +358,29 @@ public final class MetricRepo {
         COUNTER_ROUTINE_LOAD_ERROR_ROWS = new LongCounterMetric("routine_load_error_rows", MetricUnit.ROWS,
                 "total error rows of routine load");
         STARROCKS_METRIC_REGISTER.addMetric(COUNTER_ROUTINE_LOAD_ERROR_ROWS);
+        COUNTER_BACKUP_UPLOAD_BYTES = new LongCounterMetric("backup_upload_bytes", MetricUnit.BYTES,
+                "total bytes uploaded to repository by backup jobs");
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_BACKUP_UPLOAD_BYTES);
+        COUNTER_BACKUP_DOWNLOAD_BYTES = new LongCounterMetric("backup_download_bytes", MetricUnit.BYTES,
+                "total bytes downloaded from repository by restore jobs");
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_BACKUP_DOWNLOAD_BYTES);
+        COUNTER_AUDIT_EVENT_DROPPED = new LongCounterMetric("audit_event_dropped", MetricUnit.REQUESTS,
+                "total audit events dropped because the audit event buffer is full");
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_AUDIT_EVENT_DROPPED);
+        COUNTER_AUDIT_EVENT_SPILLED = new LongCounterMetric("audit_event_spilled", MetricUnit.REQUESTS,
+                "total audit events spilled to local file because the audit event buffer is full");
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_AUDIT_EVENT_SPILLED);
 
         // 3. histogram
         HISTO_QUERY_LATENCY = METRIC_REGISTER.histogram(MetricRegistry.name("query", "latency", "ms"));
         HISTO_EDIT_LOG_WRITE_LATENCY =
                 METRIC_REGISTER.histogram(MetricRegistry.name("editlog", "write", "latency", "ms"));
+        HISTO_BACKUP_UPLOAD_THROUGHPUT =
+                METRIC_REGISTER.histogram(MetricRegistry.name("backup", "upload", "throughput", "kbps"));
+        HISTO_BACKUP_DOWNLOAD_THROUGHPUT =
+                METRIC_REGISTER.histogram(MetricRegistry.name("backup", "download", "throughput", "kbps"));
+        HISTO_AUDIT_EVENT_DELIVERY_LATENCY =
+                METRIC_REGISTER.histogram(MetricRegistry.name("audit", "delivery", "latency", "ms"));
 
         // init system metrics
         initSystemMetrics();
@@ -476,6 +517,7 @@ public final class MetricRepo {
         for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
             visitor.visitHistogram(entry.getKey(), entry.getValue());
         }
+        HISTO_QUERY_PHASE_LATENCY.accept(visitor);
 
         // node info
         visitor.getNodeInfo();
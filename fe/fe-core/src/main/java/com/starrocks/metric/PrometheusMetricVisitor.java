@@ -199,6 +199,39 @@ public class PrometheusMetricVisitor extends MetricVisitor {
         return;
     }
 
+    @Override
+    public void visitHistogram(String name, List<MetricLabel> labels, Histogram histogram) {
+        final String fullName = prefix + "_" + name;
+        if (!metricNames.contains(fullName)) {
+            sb.append(HELP).append(fullName).append(" ").append("\n");
+            sb.append(TYPE).append(fullName).append(" ").append("summary\n");
+            metricNames.add(fullName);
+        }
+        String labelStr = labels.stream().map(l -> l.getKey() + "=\"" + escapeLabelValue(l.getValue()) + "\"")
+                .collect(Collectors.joining(", "));
+
+        Snapshot snapshot = histogram.getSnapshot();
+        appendQuantile(fullName, labelStr, "0.5", snapshot.getMedian());
+        appendQuantile(fullName, labelStr, "0.75", snapshot.get75thPercentile());
+        appendQuantile(fullName, labelStr, "0.95", snapshot.get95thPercentile());
+        appendQuantile(fullName, labelStr, "0.99", snapshot.get99thPercentile());
+        appendQuantile(fullName, labelStr, "0.999", snapshot.get999thPercentile());
+        sb.append(fullName).append("_sum{").append(labelStr).append("} ")
+                .append(histogram.getCount() * snapshot.getMean()).append("\n");
+        sb.append(fullName).append("_count{").append(labelStr).append("} ")
+                .append(histogram.getCount()).append("\n");
+    }
+
+    // escape the backslash, double-quote and line feed in label value, as required by the text exposition format
+    static String escapeLabelValue(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private void appendQuantile(String fullName, String labelStr, String quantile, double value) {
+        sb.append(fullName).append("{").append(labelStr).append(", quantile=\"").append(quantile).append("\"} ")
+                .append(value).append("\n");
+    }
+
     @Override
     public void getNodeInfo() {
         final String NODE_INFO = "node_info";
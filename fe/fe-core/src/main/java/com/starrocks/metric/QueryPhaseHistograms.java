@@ -0,0 +1,85 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.metric;
+
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
+import com.codahale.metrics.Histogram;
+import com.google.common.collect.Lists;
+import com.starrocks.mysql.privilege.UserResource;
+import com.starrocks.qe.QueryPhaseTracker;
+import com.starrocks.qe.QueryPhaseTracker.Phase;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The latency histograms of each query phase, labeled by statement type and resource group.
+ * MetricRegistry of codahale doesn't support labels, so the histograms are kept here and visited
+ * by MetricVisitor.visitHistogram(name, labels, histogram).
+ */
+public class QueryPhaseHistograms {
+    public static final String NAME = "query_phase_latency_us";
+    public static final String STMT_TYPE_LABEL = "stmt_type";
+    public static final String RESOURCE_GROUP_LABEL = "resource_group";
+    public static final String PHASE_LABEL = "phase";
+    // label value of the resource groups out of {low, normal, high}, keeps the label cardinality bounded
+    public static final String OTHER_RESOURCE_GROUP = "other";
+
+    // stmt type -> resource group -> histogram of each phase
+    private final Map<String, Map<String, Histogram[]>> histograms = new ConcurrentHashMap<>();
+
+    public void update(String stmtType, String resourceGroup, QueryPhaseTracker tracker) {
+        Histogram[] phaseHistograms = histograms.computeIfAbsent(stmtType, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(normalizeResourceGroup(resourceGroup), k -> createPhaseHistograms());
+        for (Phase phase : QueryPhaseTracker.PHASES) {
+            if (tracker.isEntered(phase)) {
+                phaseHistograms[phase.ordinal()].update(tracker.getMicros(phase));
+            }
+        }
+    }
+
+    // the session variable is set by the user, only the resource groups supported by UserResource
+    // are kept as label values and the others are merged into OTHER_RESOURCE_GROUP
+    static String normalizeResourceGroup(String resourceGroup) {
+        if (resourceGroup == null || !UserResource.isValidGroup(resourceGroup)) {
+            return OTHER_RESOURCE_GROUP;
+        }
+        return resourceGroup.toLowerCase();
+    }
+
+    private static Histogram[] createPhaseHistograms() {
+        Histogram[] phaseHistograms = new Histogram[QueryPhaseTracker.PHASES.length];
+        for (int i = 0; i < phaseHistograms.length; i++) {
+            phaseHistograms[i] = new Histogram(new ExponentiallyDecayingReservoir());
+        }
+        return phaseHistograms;
+    }
+
+    public Histogram getHistogram(String stmtType, String resourceGroup, Phase phase) {
+        Map<String, Histogram[]> groupHistograms = histograms.get(stmtType);
+        if (groupHistograms == null) {
+            return null;
+        }
+        Histogram[] phaseHistograms = groupHistograms.get(normalizeResourceGroup(resourceGroup));
+        return phaseHistograms == null ? null : phaseHistograms[phase.ordinal()];
+    }
+
+    public void accept(MetricVisitor visitor) {
+        for (Map.Entry<String, Map<String, Histogram[]>> stmtEntry : histograms.entrySet()) {
+            for (Map.Entry<String, Histogram[]> groupEntry : stmtEntry.getValue().entrySet()) {
+                for (Phase phase : QueryPhaseTracker.PHASES) {
+                    Histogram histogram = groupEntry.getValue()[phase.ordinal()];
+                    if (histogram.getCount() == 0) {
+                        continue;
+                    }
+                    List<MetricLabel> labels = Lists.newArrayList(
+                            new MetricLabel(STMT_TYPE_LABEL, stmtEntry.getKey()),
+                            new MetricLabel(RESOURCE_GROUP_LABEL, groupEntry.getKey()),
+                            new MetricLabel(PHASE_LABEL, phase.getLabel()));
+                    visitor.visitHistogram(NAME, labels, histogram);
+                }
+            }
+        }
+    }
+}
@@ -51,7 +51,8 @@ public class NMysqlServer extends MysqlServer {
 
     // default task service.
     private ExecutorService taskService = ThreadPoolManager
-            .newDaemonCacheThreadPool(Config.max_mysql_service_task_threads_num, "starrocks-mysql-nio-pool", true);
+            .newDaemonCacheOrVirtualThreadPool(Config.max_mysql_service_task_threads_num, "starrocks-mysql-nio-pool",
+                    true, Config.mysql_service_virtual_thread_enabled);
 
     public NMysqlServer(int port, ConnectScheduler connectScheduler) {
         this.port = port;
@@ -63,6 +63,7 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class Auth implements Writable {
@@ -73,6 +74,9 @@ public class Auth implements Writable {
     public static final String ROOT_USER = "root";
     public static final String ADMIN_USER = "admin";
 
+    // upper bound of cached priv snapshots, the others are built for each check
+    private static final int MAX_PRIV_SNAPSHOT_NUM = 10000;
+
     private UserPrivTable userPrivTable = new UserPrivTable();
     private DbPrivTable dbPrivTable = new DbPrivTable();
     private TablePrivTable tablePrivTable = new TablePrivTable();
@@ -83,6 +87,10 @@ public class Auth implements Writable {
 
     private ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
 
+    // compiled privs of each user identity, checked without lock.
+    // it's replaced by an empty map once any priv table is modified, see writeUnlock().
+    private volatile Map<UserIdentity, UserPrivSnapshot> privSnapshots = new ConcurrentHashMap<>();
+
     private void readLock() {
         lock.readLock().lock();
     }
@@ -96,9 +104,35 @@ public class Auth implements Writable {
     }
 
     private void writeUnlock() {
+        // GRANT, REVOKE, role changes, domain resolution... all modify the priv tables under the write lock,
+        // drop the snapshots before releasing it, so that no one can build a snapshot from the old tables.
+        invalidatePrivSnapshots();
         lock.writeLock().unlock();
     }
 
+    private void invalidatePrivSnapshots() {
+        privSnapshots = new ConcurrentHashMap<>();
+    }
+
+    private UserPrivSnapshot getPrivSnapshot(UserIdentity currentUser) {
+        UserPrivSnapshot snapshot = privSnapshots.get(currentUser);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        readLock();
+        try {
+            snapshot = UserPrivSnapshot.build(currentUser, userPrivTable, dbPrivTable, tablePrivTable);
+            // put it under the read lock, the priv tables can not be modified before it's in the map
+            Map<UserIdentity, UserPrivSnapshot> snapshots = privSnapshots;
+            if (snapshots.size() < MAX_PRIV_SNAPSHOT_NUM) {
+                snapshots.put(currentUser, snapshot);
+            }
+            return snapshot;
+        } finally {
+            readUnlock();
+        }
+    }
+
     public enum PrivLevel {
         GLOBAL, DATABASE, TABLE, RESOURCE
     }
@@ -329,6 +363,9 @@ public class Auth implements Writable {
      * if so, the database should be visible to this user.
      */
     private boolean checkTblWithDb(UserIdentity currentUser, String db) {
+        if (Config.enable_auth_priv_snapshot) {
+            return getPrivSnapshot(currentUser).hasPrivsOfDb(db);
+        }
         readLock();
         try {
             return tablePrivTable.hasPrivsOfDb(currentUser, db);
@@ -433,6 +470,10 @@ public class Auth implements Writable {
     }
 
     private boolean checkGlobalInternal(UserIdentity currentUser, PrivPredicate wanted, PrivBitSet savedPrivs) {
+        if (Config.enable_auth_priv_snapshot) {
+            savedPrivs.or(getPrivSnapshot(currentUser).getGlobalPrivs());
+            return Privilege.satisfy(savedPrivs, wanted);
+        }
         readLock();
         try {
             userPrivTable.getPrivs(currentUser, savedPrivs);
@@ -447,6 +488,10 @@ public class Auth implements Writable {
 
     private boolean checkDbInternal(UserIdentity currentUser, String db, PrivPredicate wanted,
                                     PrivBitSet savedPrivs) {
+        if (Config.enable_auth_priv_snapshot) {
+            savedPrivs.or(getPrivSnapshot(currentUser).getDbPrivs(db));
+            return Privilege.satisfy(savedPrivs, wanted);
+        }
         readLock();
         try {
             dbPrivTable.getPrivs(currentUser, db, savedPrivs);
@@ -461,6 +506,10 @@ public class Auth implements Writable {
 
     private boolean checkTblInternal(UserIdentity currentUser, String db, String tbl,
                                      PrivPredicate wanted, PrivBitSet savedPrivs) {
+        if (Config.enable_auth_priv_snapshot) {
+            savedPrivs.or(getPrivSnapshot(currentUser).getTblPrivs(db, tbl));
+            return Privilege.satisfy(savedPrivs, wanted);
+        }
         readLock();
         try {
             tablePrivTable.getPrivs(currentUser, db, tbl, savedPrivs);
@@ -493,6 +542,7 @@ public class Auth implements Writable {
         dbPrivTable.clear();
         tablePrivTable.clear();
         resourcePrivTable.clear();
+        invalidatePrivSnapshots();
     }
 
     // create user
@@ -1424,6 +1474,7 @@ public class Auth implements Writable {
             // init root and admin user
             initUser();
         }
+        invalidatePrivSnapshots();
     }
 
     @Override
@@ -0,0 +1,182 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.mysql.privilege;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.starrocks.analysis.UserIdentity;
+import com.starrocks.common.PatternMatcher;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * UserPrivSnapshot is the compiled global, database and table level privileges of one user identity.
+ * It's built from the priv tables under the read lock of Auth, and keeps a copy of the priv entries
+ * which match the user identity, in the same order as the priv tables, so the results are the same
+ * as looking up the priv tables. The results of the lookups are memorized, so checking the same db or
+ * table again is a hash lookup without any lock.
+ *
+ * The snapshot never changes once built, Auth drops all snapshots when the priv tables are modified.
+ */
+public class UserPrivSnapshot {
+    // upper bound of memorized results for each kind of lookup
+    private static final int MAX_MEMO_SIZE = 4096;
+    private static final PrivBitSet EMPTY_PRIVS = PrivBitSet.of();
+
+    private static class PatternPrivs {
+        // null means any db
+        private final PatternMatcher dbPattern;
+        // null for db priv
+        private final PatternMatcher tblPattern;
+        private final PrivBitSet privs;
+
+        PatternPrivs(PatternMatcher dbPattern, PatternMatcher tblPattern, PrivBitSet privs) {
+            this.dbPattern = dbPattern;
+            this.tblPattern = tblPattern;
+            this.privs = privs;
+        }
+
+        boolean matchDb(String db) {
+            return dbPattern == null || dbPattern.match(db);
+        }
+    }
+
+    private final PrivBitSet globalPrivs;
+    private final List<PatternPrivs> dbPrivs;
+    private final List<PatternPrivs> tblPrivs;
+
+    private final Map<String, PrivBitSet> dbPrivsMemo = new ConcurrentHashMap<>();
+    private final Map<String, PrivBitSet> tblPrivsMemo = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> hasTblPrivsMemo = new ConcurrentHashMap<>();
+
+    private UserPrivSnapshot(PrivBitSet globalPrivs, List<PatternPrivs> dbPrivs, List<PatternPrivs> tblPrivs) {
+        this.globalPrivs = globalPrivs;
+        this.dbPrivs = dbPrivs;
+        this.tblPrivs = tblPrivs;
+    }
+
+    /*
+     * Must be called under the read lock of Auth.
+     * The priv sets are copied, because they are modified in place by GRANT and REVOKE.
+     */
+    public static UserPrivSnapshot build(UserIdentity currentUser, UserPrivTable userPrivTable,
+                                         DbPrivTable dbPrivTable, TablePrivTable tablePrivTable) {
+        PrivBitSet globalPrivs = PrivBitSet.of();
+        userPrivTable.getPrivs(currentUser, globalPrivs);
+
+        ImmutableList.Builder<PatternPrivs> dbPrivs = ImmutableList.builder();
+        for (PrivEntry entry : dbPrivTable.entries) {
+            DbPrivEntry dbPrivEntry = (DbPrivEntry) entry;
+            if (dbPrivEntry.match(currentUser, true)) {
+                dbPrivs.add(new PatternPrivs(dbPrivEntry.isAnyDb() ? null : dbPrivEntry.getDbPattern(), null,
+                        dbPrivEntry.getPrivSet().copy()));
+            }
+        }
+
+        ImmutableList.Builder<PatternPrivs> tblPrivs = ImmutableList.builder();
+        for (PrivEntry entry : tablePrivTable.entries) {
+            TablePrivEntry tblPrivEntry = (TablePrivEntry) entry;
+            if (tblPrivEntry.match(currentUser, true)) {
+                Preconditions.checkState(!tblPrivEntry.isAnyDb());
+                tblPrivs.add(new PatternPrivs(tblPrivEntry.getDbPattern(), tblPrivEntry.getTblPattern(),
+                        tblPrivEntry.getPrivSet().copy()));
+            }
+        }
+        return new UserPrivSnapshot(globalPrivs, dbPrivs.build(), tblPrivs.build());
+    }
+
+    /*
+     * The returned priv set should not be modified.
+     */
+    public PrivBitSet getGlobalPrivs() {
+        return globalPrivs;
+    }
+
+    /*
+     * Return the privs of the first entry which matches db, same as DbPrivTable.getPrivs.
+     * The returned priv set should not be modified.
+     */
+    public PrivBitSet getDbPrivs(String db) {
+        if (db == null) {
+            return lookupDbPrivs(null);
+        }
+        PrivBitSet privs = dbPrivsMemo.get(db);
+        if (privs == null) {
+            privs = lookupDbPrivs(db);
+            memorize(dbPrivsMemo, db, privs);
+        }
+        return privs;
+    }
+
+    /*
+     * Return the privs of the first entry which matches db.tbl, same as TablePrivTable.getPrivs.
+     * The returned priv set should not be modified.
+     */
+    public PrivBitSet getTblPrivs(String db, String tbl) {
+        if (db == null || tbl == null) {
+            return lookupTblPrivs(db, tbl);
+        }
+        String key = tblKey(db, tbl);
+        PrivBitSet privs = tblPrivsMemo.get(key);
+        if (privs == null) {
+            privs = lookupTblPrivs(db, tbl);
+            memorize(tblPrivsMemo, key, privs);
+        }
+        return privs;
+    }
+
+    /*
+     * Same as TablePrivTable.hasPrivsOfDb
+     */
+    public boolean hasPrivsOfDb(String db) {
+        if (db == null) {
+            return lookupHasPrivsOfDb(null);
+        }
+        Boolean hasPrivs = hasTblPrivsMemo.get(db);
+        if (hasPrivs == null) {
+            hasPrivs = lookupHasPrivsOfDb(db);
+            memorize(hasTblPrivsMemo, db, hasPrivs);
+        }
+        return hasPrivs;
+    }
+
+    private PrivBitSet lookupDbPrivs(String db) {
+        for (PatternPrivs patternPrivs : dbPrivs) {
+            if (patternPrivs.matchDb(db)) {
+                return patternPrivs.privs;
+            }
+        }
+        return EMPTY_PRIVS;
+    }
+
+    private PrivBitSet lookupTblPrivs(String db, String tbl) {
+        for (PatternPrivs patternPrivs : tblPrivs) {
+            if (patternPrivs.matchDb(db) && patternPrivs.tblPattern.match(tbl)) {
+                return patternPrivs.privs;
+            }
+        }
+        return EMPTY_PRIVS;
+    }
+
+    private boolean lookupHasPrivsOfDb(String db) {
+        for (PatternPrivs patternPrivs : tblPrivs) {
+            if (patternPrivs.matchDb(db)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <V> void memorize(Map<String, V> memo, String key, V value) {
+        if (memo.size() < MAX_MEMO_SIZE) {
+            memo.put(key, value);
+        }
+    }
+
+    // db name can not contain '\0'
+    private static String tblKey(String db, String tbl) {
+        return db + '\0' + tbl;
+    }
+}
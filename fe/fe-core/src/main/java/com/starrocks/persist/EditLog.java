@@ -798,6 +798,11 @@ public class EditLog {
                     catalog.getAlterInstance().replaySwapTable(log);
                     break;
                 }
+                case OperationType.OP_REFRESH_MATERIALIZED_VIEW: {
+                    MaterializedViewRefreshInfo info = (MaterializedViewRefreshInfo) journal.getData();
+                    catalog.replayRefreshMaterializedView(info);
+                    break;
+                }
                 case OperationType.OP_ADD_ANALYZER_JOB: {
                     AnalyzeJob analyzeJob = (AnalyzeJob) journal.getData();
                     catalog.getAnalyzeManager().replayAddAnalyzeJob(analyzeJob);
@@ -1365,6 +1370,10 @@ public class EditLog {
         logEdit(OperationType.OP_SWAP_TABLE, log);
     }
 
+    public void logRefreshMaterializedView(MaterializedViewRefreshInfo info) {
+        logEdit(OperationType.OP_REFRESH_MATERIALIZED_VIEW, info);
+    }
+
     public void logAddAnalyzeJob(AnalyzeJob job) {
         logEdit(OperationType.OP_ADD_ANALYZER_JOB, job);
     }
@@ -0,0 +1,63 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+package com.starrocks.persist;
+
+import com.google.gson.annotations.SerializedName;
+import com.starrocks.common.io.Text;
+import com.starrocks.common.io.Writable;
+import com.starrocks.persist.gson.GsonUtils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Map;
+
+/*
+ * Log of a finished refresh of asynchronous materialized view,
+ * records the visible versions of base tables which the data of materialized view is consistent with.
+ */
+public class MaterializedViewRefreshInfo implements Writable {
+    @SerializedName(value = "dbId")
+    private final long dbId;
+    @SerializedName(value = "mvId")
+    private final long mvId;
+    // base table id -> (partition id -> visible version)
+    @SerializedName(value = "baseTableVisibleVersions")
+    private final Map<Long, Map<Long, Long>> baseTableVisibleVersions;
+    @SerializedName(value = "refreshTime")
+    private final long refreshTime;
+
+    public MaterializedViewRefreshInfo(long dbId, long mvId, Map<Long, Map<Long, Long>> baseTableVisibleVersions,
+                                       long refreshTime) {
+        this.dbId = dbId;
+        this.mvId = mvId;
+        this.baseTableVisibleVersions = baseTableVisibleVersions;
+        this.refreshTime = refreshTime;
+    }
+
+    public long getDbId() {
+        return dbId;
+    }
+
+    public long getMvId() {
+        return mvId;
+    }
+
+    public Map<Long, Map<Long, Long>> getBaseTableVisibleVersions() {
+        return baseTableVisibleVersions;
+    }
+
+    public long getRefreshTime() {
+        return refreshTime;
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        String json = GsonUtils.GSON.toJson(this);
+        Text.writeString(out, json);
+    }
+
+    public static MaterializedViewRefreshInfo read(DataInput in) throws IOException {
+        String json = Text.readString(in);
+        return GsonUtils.GSON.fromJson(json, MaterializedViewRefreshInfo.class);
+    }
+}
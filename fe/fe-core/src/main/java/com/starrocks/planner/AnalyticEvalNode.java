@@ -100,6 +100,12 @@ public class AnalyticEvalNode extends PlanNode {
         nullableTupleIds = Sets.newHashSet(input.getNullableTupleIds());
     }
 
+    @Override
+    protected boolean canPushDownRuntimeFilter(RuntimeFilterDescription description, int childIndex) {
+        // filtering the input rows by the threshold of the TopN above changes the results of the window functions
+        return !description.isBuildFromTopN();
+    }
+
     public List<Expr> getPartitionExprs() {
         return partitionExprs;
     }
@@ -25,7 +25,6 @@ import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
-import com.google.common.collect.Range;
 import com.google.common.collect.Sets;
 import com.starrocks.analysis.Analyzer;
 import com.starrocks.analysis.Expr;
@@ -34,9 +33,9 @@ import com.starrocks.analysis.TupleDescriptor;
 import com.starrocks.catalog.Catalog;
 import com.starrocks.catalog.EsTable;
 import com.starrocks.catalog.PartitionInfo;
-import com.starrocks.catalog.PartitionKey;
 import com.starrocks.catalog.RangePartitionInfo;
 import com.starrocks.common.AnalysisException;
+import com.starrocks.common.Config;
 import com.starrocks.common.UserException;
 import com.starrocks.external.elasticsearch.EsShardPartitions;
 import com.starrocks.external.elasticsearch.EsShardRouting;
@@ -248,28 +247,36 @@ public class EsScanNode extends ScanNode {
                     Collections.shuffle(candidateBeList);
                 }
 
-                // Locations
-                TScanRangeLocations locations = new TScanRangeLocations();
-                for (int i = 0; i < numBe && i < candidateBeList.size(); ++i) {
-                    TScanRangeLocation location = new TScanRangeLocation();
-                    Backend be = candidateBeList.get(i);
-                    location.setBackend_id(be.getId());
-                    location.setServer(new TNetworkAddress(be.getHost(), be.getBePort()));
-                    locations.addToLocations(location);
-                }
+                // a big shard is split into several slices, each slice is a scan range
+                int sliceMax = computeSliceNum(shardRouting.get(0).getDocCount());
+                for (int sliceId = 0; sliceId < sliceMax; ++sliceId) {
+                    // Locations, rotate the candidates to spread the slices over the colocated backends
+                    TScanRangeLocations locations = new TScanRangeLocations();
+                    for (int i = 0; i < numBe && i < candidateBeList.size(); ++i) {
+                        TScanRangeLocation location = new TScanRangeLocation();
+                        Backend be = candidateBeList.get((i + sliceId) % candidateBeList.size());
+                        location.setBackend_id(be.getId());
+                        location.setServer(new TNetworkAddress(be.getHost(), be.getBePort()));
+                        locations.addToLocations(location);
+                    }
 
-                // Generate on es scan range
-                TEsScanRange esScanRange = new TEsScanRange();
-                esScanRange.setEs_hosts(shardAllocations);
-                esScanRange.setIndex(shardRouting.get(0).getIndexName());
-                esScanRange.setType(table.getMappingType());
-                esScanRange.setShard_id(shardRouting.get(0).getShardId());
-                // Scan range
-                TScanRange scanRange = new TScanRange();
-                scanRange.setEs_scan_range(esScanRange);
-                locations.setScan_range(scanRange);
-                // result
-                result.add(locations);
+                    // Generate on es scan range
+                    TEsScanRange esScanRange = new TEsScanRange();
+                    esScanRange.setEs_hosts(shardAllocations);
+                    esScanRange.setIndex(shardRouting.get(0).getIndexName());
+                    esScanRange.setType(table.getMappingType());
+                    esScanRange.setShard_id(shardRouting.get(0).getShardId());
+                    if (sliceMax > 1) {
+                        esScanRange.setSlice_id(sliceId);
+                        esScanRange.setSlice_max(sliceMax);
+                    }
+                    // Scan range
+                    TScanRange scanRange = new TScanRange();
+                    scanRange.setEs_scan_range(esScanRange);
+                    locations.setScan_range(scanRange);
+                    // result
+                    result.add(locations);
+                }
             }
 
         }
@@ -284,6 +291,18 @@ public class EsScanNode extends ScanNode {
         return result;
     }
 
+    /**
+     * Compute the number of slices of a shard by its doc count, it is 1 if the doc count is unknown.
+     */
+    public int computeSliceNum(long docCount) {
+        long maxDocsPerSlice = table.maxDocsPerSlice();
+        if (docCount <= 0 || maxDocsPerSlice <= 0 || Config.es_max_slices_per_shard <= 1) {
+            return 1;
+        }
+        long sliceNum = (docCount + maxDocsPerSlice - 1) / maxDocsPerSlice;
+        return (int) Math.max(1, Math.min(sliceNum, Config.es_max_slices_per_shard));
+    }
+
     /**
      * if the index name is an alias or index pattern, then the es table is related
      * with one or more indices some indices could be pruned by using partition info
@@ -301,9 +320,8 @@ public class EsScanNode extends ScanNode {
         switch (partitionInfo.getType()) {
             case RANGE: {
                 RangePartitionInfo rangePartitionInfo = (RangePartitionInfo) partitionInfo;
-                Map<Long, Range<PartitionKey>> keyRangeById = rangePartitionInfo.getIdToRange(false);
-                partitionPruner = new RangePartitionPruner(keyRangeById, rangePartitionInfo.getPartitionColumns(),
-                        columnFilters);
+                partitionPruner = new RangePartitionPruner(rangePartitionInfo.getRangeIndex(),
+                        rangePartitionInfo.getPartitionColumns(), columnFilters);
                 return partitionPruner.prune();
             }
             case UNPARTITIONED: {
@@ -67,6 +67,10 @@ public class ExchangeNode extends PlanNode {
 
     private DistributionSpec.DistributionType distributionType;
 
+    // False if the child is shared by other exchange nodes, e.g. the cte producer shared by all the consumers.
+    // A runtime filter of one consumer pushed down to the child would filter out the rows of the others.
+    private boolean canPushDownRuntimeFiltersToChild = true;
+
     /**
      * Create ExchangeNode that consumes output of inputNode.
      * An ExchangeNode doesn't have an input node as a child, which is why we
@@ -106,6 +110,10 @@ public class ExchangeNode extends PlanNode {
         return distributionType;
     }
 
+    public void disableRuntimeFiltersPushDownToChild() {
+        this.canPushDownRuntimeFiltersToChild = false;
+    }
+
     @Override
     public final void computeTupleIds() {
         clearTupleIds();
@@ -201,7 +209,7 @@ public class ExchangeNode extends PlanNode {
     @Override
     public boolean pushDownRuntimeFilters(RuntimeFilterDescription description, Expr probeExpr) {
         boolean accept = false;
-        if (description.canPushAcrossExchangeNode()) {
+        if (canPushDownRuntimeFiltersToChild && description.canPushAcrossExchangeNode()) {
             description.enterExchangeNode();
             for (PlanNode node : children) {
                 if (node.pushDownRuntimeFilters(description, probeExpr)) {
@@ -22,35 +22,50 @@
 package com.starrocks.planner;
 
 import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
 import com.starrocks.analysis.InPredicate;
+import com.starrocks.analysis.IntLiteral;
 import com.starrocks.analysis.LiteralExpr;
 import com.starrocks.analysis.SlotRef;
 import com.starrocks.catalog.Column;
+import com.starrocks.catalog.Type;
 import com.starrocks.common.Config;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 /*
- * Prune the distribution by distribution columns' predicate, recursively.
- * It only supports binary equal predicate and in predicate with AND combination.
+ * Prune the distribution by distribution columns' predicate.
+ * It supports binary equal predicate, in predicate and the range predicate of integer columns
+ * with AND combination.
  * For example:
- *      where a = 1 and b in (2,3,4) and c in (5,6,7)
+ *      where a = 1 and b in (2,3,4) and c between 5 and 7
  *      a/b/c are distribution columns
  *
- * the config 'max_distribution_pruner_recursion_depth' will limit the max recursion depth of pruning.
- * the recursion depth is calculated by the product of element number of all predicates.
- * The above example's depth is 9(= 1 * 3 * 3)
+ * The bucket of a row is CRC32(hash value of a, hash value of b, hash value of c) % bucket num. The hash
+ * value of every value is computed only once, and the CRC32 of the prefix a is shared by all the keys
+ * starting with it, the CRC32 of the prefix (a, b) is shared by all the keys starting with it, and so on.
+ * So the number of CRC32 updates is 1 + 1 * 3 + 1 * 3 * 3 = 13 for the above example.
  *
- * If depth is larger than 'max_distribution_pruner_recursion_depth', all buckets will be return without pruning.
+ * The config 'max_distribution_pruner_hash_num' limits the number of CRC32 updates, if it is exceeded,
+ * all buckets will be returned without pruning. Once all buckets are selected, the pruning stops early.
  */
 public class HashDistributionPruner implements DistributionPruner {
-    private static final Logger LOG = LogManager.getLogger(HashDistributionPruner.class);
+    // CRC32 table of java.util.zip.CRC32, to continue the CRC of a prefix which CRC32 can't be copied
+    private static final int[] CRC_TABLE = new int[256];
+
+    static {
+        for (int n = 0; n < 256; n++) {
+            int c = n;
+            for (int k = 0; k < 8; k++) {
+                c = (c & 1) != 0 ? 0xEDB88320 ^ (c >>> 1) : c >>> 1;
+            }
+            CRC_TABLE[n] = c;
+        }
+    }
 
     // partition list, sort by the hash code
     private List<Long> bucketsList;
@@ -68,61 +83,204 @@ public class HashDistributionPruner implements DistributionPruner {
         this.hashMod = hashMod;
     }
 
-    // columnId: which column to compute
-    // hashKey: the key which to compute hash value
-    public Collection<Long> prune(int columnId, HashDistributionKey hashKey, int complex) {
-        if (columnId == distributionColumns.size()) {
-            // compute Hash Key
-            long hashValue = hashKey.getHashValue();
-            return Lists.newArrayList(bucketsList.get((int) ((hashValue & 0xffffffff) % hashMod)));
+    public Collection<Long> prune() {
+        List<Integer> bucketSeqs = pruneBucketSeqs();
+        if (bucketSeqs == null) {
+            return Lists.newArrayList(bucketsList);
+        }
+        List<Long> result = Lists.newArrayListWithCapacity(bucketSeqs.size());
+        for (int bucketSeq : bucketSeqs) {
+            result.add(bucketsList.get(bucketSeq));
+        }
+        return result;
+    }
+
+    /**
+     * @return the sequences of the selected buckets in ascending order, the sequence of a bucket is
+     * its index in bucketsList. null if all the buckets are selected.
+     */
+    public List<Integer> pruneBucketSeqs() {
+        List<List<byte[]>> columnHashValues = Lists.newArrayListWithCapacity(distributionColumns.size());
+        long keyNum = 1;
+        long hashNum = 0;
+        for (Column column : distributionColumns) {
+            List<byte[]> hashValues = getHashValues(column);
+            if (hashValues == null) {
+                return null;
+            }
+            keyNum *= hashValues.size();
+            hashNum += keyNum;
+            if (hashNum > Config.max_distribution_pruner_hash_num) {
+                return null;
+            }
+            columnHashValues.add(hashValues);
+        }
+
+        BitSet selected = new BitSet(hashMod);
+        selectBuckets(columnHashValues, 0, 0, selected);
+        if (selected.cardinality() >= hashMod) {
+            return null;
+        }
+        List<Integer> bucketSeqs = Lists.newArrayListWithCapacity(selected.cardinality());
+        for (int i = selected.nextSetBit(0); i >= 0; i = selected.nextSetBit(i + 1)) {
+            bucketSeqs.add(i);
+        }
+        return bucketSeqs;
+    }
+
+    // return false if all the buckets are selected, so there is no need to go on
+    private boolean selectBuckets(List<List<byte[]>> columnHashValues, int columnIdx, int prefixCrc,
+                                  BitSet selected) {
+        boolean isLastColumn = columnIdx == columnHashValues.size() - 1;
+        for (byte[] hashValue : columnHashValues.get(columnIdx)) {
+            int crc = updateCrc(prefixCrc, hashValue);
+            if (!isLastColumn) {
+                if (!selectBuckets(columnHashValues, columnIdx + 1, crc, selected)) {
+                    return false;
+                }
+                continue;
+            }
+            int bucketSeq = (int) ((crc & 0xffffffffL) % hashMod);
+            if (!selected.get(bucketSeq)) {
+                selected.set(bucketSeq);
+                if (selected.cardinality() >= hashMod) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // same as CRC32.update(), crc is the value of CRC32.getValue() before update
+    private static int updateCrc(int crc, byte[] bytes) {
+        int c = ~crc;
+        for (byte b : bytes) {
+            c = CRC_TABLE[(c ^ b) & 0xff] ^ (c >>> 8);
         }
-        Column keyColumn = distributionColumns.get(columnId);
-        PartitionColumnFilter filter = distributionColumnFilters.get(keyColumn.getName());
+        return ~c;
+    }
+
+    // return null if the values of the column can't be enumerated
+    private List<byte[]> getHashValues(Column column) {
+        PartitionColumnFilter filter = distributionColumnFilters.get(column.getName());
         if (null == filter) {
             // no filter in this column, no partition Key
-            // return all subPartition
-            return Lists.newArrayList(bucketsList);
+            return null;
+        }
+        Type type = column.getType();
+
+        // equal one value
+        if (filter.lowerBoundInclusive && filter.upperBoundInclusive
+                && filter.lowerBound != null && filter.upperBound != null
+                && 0 == filter.lowerBound.compareLiteral(filter.upperBound)) {
+            return Lists.<byte[]>newArrayList(toBytes(filter.lowerBound.getHashValue(type)));
         }
 
         List<LiteralExpr> inPredicateLiterals = filter.getInPredicateLiterals();
-        if (null == inPredicateLiterals ||
-                inPredicateLiterals.size() * complex > Config.max_distribution_pruner_recursion_depth) {
-            // equal one value
-            if (filter.lowerBoundInclusive && filter.upperBoundInclusive
-                    && filter.lowerBound != null && filter.upperBound != null
-                    && 0 == filter.lowerBound.compareLiteral(filter.upperBound)) {
-                hashKey.pushColumn(filter.lowerBound, keyColumn.getType());
-                Collection<Long> result = prune(columnId + 1, hashKey, complex);
-                hashKey.popColumn();
-                return result;
+        if (null != inPredicateLiterals) {
+            InPredicate inPredicate = filter.getInPredicate();
+            if (null != inPredicate && !(inPredicate.getChild(0) instanceof SlotRef)) {
+                return null;
             }
-            // return all SubPartition
-            return Lists.newArrayList(bucketsList);
+            if (inPredicateLiterals.size() > Config.max_distribution_pruner_hash_num) {
+                return null;
+            }
+            List<byte[]> hashValues = Lists.newArrayListWithCapacity(inPredicateLiterals.size());
+            for (LiteralExpr literal : inPredicateLiterals) {
+                hashValues.add(toBytes(literal.getHashValue(type)));
+            }
+            return hashValues;
         }
 
-        InPredicate inPredicate = filter.getInPredicate();
-        if (null != inPredicate && !(inPredicate.getChild(0) instanceof SlotRef)) {
-            // return all SubPartition
-            return Lists.newArrayList(bucketsList);
+        return getIntRangeHashValues(filter, type);
+    }
+
+    // enumerate the values of an integer column in [lowerBound, upperBound], the missing bound is the bound of type
+    private static List<byte[]> getIntRangeHashValues(PartitionColumnFilter filter, Type type) {
+        long min;
+        long max;
+        int byteSize;
+        switch (type.getPrimitiveType()) {
+            case TINYINT:
+                min = IntLiteral.TINY_INT_MIN;
+                max = IntLiteral.TINY_INT_MAX;
+                byteSize = 1;
+                break;
+            case SMALLINT:
+                min = IntLiteral.SMALL_INT_MIN;
+                max = IntLiteral.SMALL_INT_MAX;
+                byteSize = 2;
+                break;
+            case INT:
+                min = IntLiteral.INT_MIN;
+                max = IntLiteral.INT_MAX;
+                byteSize = 4;
+                break;
+            case BIGINT:
+                min = IntLiteral.BIG_INT_MIN;
+                max = Long.MAX_VALUE;
+                byteSize = 8;
+                break;
+            default:
+                return null;
+        }
+        if (filter.lowerBound != null) {
+            if (!(filter.lowerBound instanceof IntLiteral)) {
+                return null;
+            }
+            long lower = ((IntLiteral) filter.lowerBound).getLongValue();
+            if (!filter.lowerBoundInclusive && lower == Long.MAX_VALUE) {
+                return Lists.newArrayList();
+            }
+            min = Math.max(min, filter.lowerBoundInclusive ? lower : lower + 1);
+        }
+        if (filter.upperBound != null) {
+            if (!(filter.upperBound instanceof IntLiteral)) {
+                return null;
+            }
+            long upper = ((IntLiteral) filter.upperBound).getLongValue();
+            if (!filter.upperBoundInclusive && upper == Long.MIN_VALUE) {
+                return Lists.newArrayList();
+            }
+            max = Math.min(max, filter.upperBoundInclusive ? upper : upper - 1);
+        }
+        if (min > max) {
+            return Lists.newArrayList();
+        }
+        // max - min may overflow
+        if (max - min < 0 || max - min >= Config.max_distribution_pruner_hash_num) {
+            return null;
         }
 
-        Set<Long> resultSet = Sets.newHashSet();
-        int inElementNum = inPredicateLiterals.size();
-        int newComplex = inElementNum * complex;
-        for (LiteralExpr expr : inPredicateLiterals) {
-            hashKey.pushColumn(expr, keyColumn.getType());
-            Collection<Long> subList = prune(columnId + 1, hashKey, newComplex);
-            resultSet.addAll(subList);
-            hashKey.popColumn();
-            if (resultSet.size() >= bucketsList.size()) {
+        List<byte[]> hashValues = Lists.newArrayListWithCapacity((int) (max - min + 1));
+        for (long value = min; value <= max; value++) {
+            // same as IntLiteral.getHashValue()
+            ByteBuffer buffer = ByteBuffer.allocate(byteSize).order(ByteOrder.LITTLE_ENDIAN);
+            switch (byteSize) {
+                case 1:
+                    buffer.put((byte) value);
+                    break;
+                case 2:
+                    buffer.putShort((short) value);
+                    break;
+                case 4:
+                    buffer.putInt((int) value);
+                    break;
+                default:
+                    buffer.putLong(value);
+                    break;
+            }
+            hashValues.add(buffer.array());
+            if (value == Long.MAX_VALUE) {
                 break;
             }
         }
-        return resultSet;
+        return hashValues;
     }
 
-    public Collection<Long> prune() {
-        HashDistributionKey hashKey = new HashDistributionKey();
-        return prune(0, hashKey, 1);
+    private static byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.limit()];
+        System.arraycopy(buffer.array(), 0, bytes, 0, buffer.limit());
+        return bytes;
     }
 }
@@ -38,6 +38,7 @@ import com.starrocks.catalog.ColumnStats;
 import com.starrocks.common.IdGenerator;
 import com.starrocks.common.UserException;
 import com.starrocks.qe.ConnectContext;
+import com.starrocks.sql.optimizer.cost.RuntimeFilterEstimator;
 import com.starrocks.thrift.TEqJoinCondition;
 import com.starrocks.thrift.TExplainLevel;
 import com.starrocks.thrift.THashJoinNode;
@@ -156,6 +157,16 @@ public class HashJoinNode extends PlanNode {
     public void buildRuntimeFilters(IdGenerator<RuntimeFilterId> runtimeFilterIdIdGenerator,
                                     PlanNode inner, List<BinaryPredicate> eqJoinConjuncts,
                                     JoinOperator joinOp) {
+        buildRuntimeFilters(runtimeFilterIdIdGenerator, inner, eqJoinConjuncts, joinOp, null);
+    }
+
+    /**
+     * @param estimates the runtime filters estimated by the optimizer in the order of eqJoinConjuncts,
+     *                  the useless filters are skipped. null if not estimated.
+     */
+    public void buildRuntimeFilters(IdGenerator<RuntimeFilterId> runtimeFilterIdIdGenerator,
+                                    PlanNode inner, List<BinaryPredicate> eqJoinConjuncts,
+                                    JoinOperator joinOp, List<RuntimeFilterEstimator.Estimate> estimates) {
         if (!joinOp.isInnerJoin() && !joinOp.isLeftSemiJoin()) {
             return;
         }
@@ -173,7 +184,15 @@ public class HashJoinNode extends PlanNode {
         for (int i = 0; i < eqJoinConjuncts.size(); ++i) {
             BinaryPredicate joinConjunct = eqJoinConjuncts.get(i);
             joinConjunct.setUseVectorized(joinConjunct.isVectorized());
+            RuntimeFilterEstimator.Estimate estimate = estimates == null ? null : estimates.get(i);
+            if (estimate != null && estimate.isUseless()) {
+                continue;
+            }
             RuntimeFilterDescription rf = new RuntimeFilterDescription();
+            if (estimate != null && estimate.isKnown()) {
+                rf.setFilterType(estimate.getType());
+                rf.setProbeSelectivity(estimate.getSelectivity());
+            }
             rf.setFilterId(runtimeFilterIdIdGenerator.getNextId().asInt());
             rf.setExprOrder(i);
             rf.setJoinMode(distrMode);
@@ -203,6 +222,22 @@ public class HashJoinNode extends PlanNode {
         }
     }
 
+    @Override
+    protected boolean canPushDownRuntimeFilter(RuntimeFilterDescription description, int childIndex) {
+        if (!description.isBuildFromTopN()) {
+            return true;
+        }
+        // the rows of the null-supplying side filtered by the TopN above would be output with nulls instead
+        if (joinOp.isFullOuterJoin()) {
+            return false;
+        } else if (joinOp.isLeftOuterJoin()) {
+            return childIndex == 0;
+        } else if (joinOp.isRightOuterJoin()) {
+            return childIndex == 1;
+        }
+        return true;
+    }
+
     public List<BinaryPredicate> getEqJoinConjuncts() {
         return eqJoinConjuncts;
     }
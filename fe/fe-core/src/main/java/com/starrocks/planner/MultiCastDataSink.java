@@ -0,0 +1,83 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.planner;
+
+import com.google.common.collect.Lists;
+import com.starrocks.thrift.TDataSink;
+import com.starrocks.thrift.TDataSinkType;
+import com.starrocks.thrift.TExplainLevel;
+import com.starrocks.thrift.TMultiCastDataStreamSink;
+import com.starrocks.thrift.TPlanFragmentDestination;
+
+import java.util.List;
+
+/**
+ * Data sink that forwards the same data to several exchange nodes, the i-th stream sink
+ * sends to the i-th destinations, which are set by the coordinator.
+ */
+public class MultiCastDataSink extends DataSink {
+    private final List<DataStreamSink> dataStreamSinks = Lists.newArrayList();
+    private final List<List<TPlanFragmentDestination>> destinations = Lists.newArrayList();
+
+    public void addDataStreamSink(DataStreamSink sink) {
+        dataStreamSinks.add(sink);
+        destinations.add(Lists.newArrayList());
+    }
+
+    public List<DataStreamSink> getDataStreamSinks() {
+        return dataStreamSinks;
+    }
+
+    public List<List<TPlanFragmentDestination>> getDestinations() {
+        return destinations;
+    }
+
+    @Override
+    public void setFragment(PlanFragment fragment) {
+        super.setFragment(fragment);
+        dataStreamSinks.forEach(sink -> sink.setFragment(fragment));
+    }
+
+    @Override
+    public String getExplainString(String prefix, TExplainLevel explainLevel) {
+        StringBuilder strBuilder = new StringBuilder();
+        strBuilder.append(prefix).append("MultiCastDataSinks\n");
+        for (DataStreamSink sink : dataStreamSinks) {
+            strBuilder.append(sink.getExplainString(prefix, explainLevel)).append("\n");
+        }
+        return strBuilder.toString();
+    }
+
+    @Override
+    public String getVerboseExplain(String prefix) {
+        StringBuilder strBuilder = new StringBuilder();
+        strBuilder.append(prefix).append("MultiCastDataSinks\n");
+        for (DataStreamSink sink : dataStreamSinks) {
+            strBuilder.append(sink.getVerboseExplain(prefix));
+        }
+        return strBuilder.toString();
+    }
+
+    @Override
+    protected TDataSink toThrift() {
+        TDataSink result = new TDataSink(TDataSinkType.MULTI_CAST_DATA_STREAM_SINK);
+        TMultiCastDataStreamSink sink = new TMultiCastDataStreamSink();
+        for (DataStreamSink dataStreamSink : dataStreamSinks) {
+            sink.addToSinks(dataStreamSink.toThrift().getStream_sink());
+        }
+        sink.setDestinations(destinations);
+        result.setMulti_cast_stream_sink(sink);
+        return result;
+    }
+
+    // the exchange node ids of all the sinks, use getDataStreamSinks to get each of them
+    @Override
+    public PlanNodeId getExchNodeId() {
+        return null;
+    }
+
+    @Override
+    public DataPartition getOutputPartition() {
+        return null;
+    }
+}
@@ -0,0 +1,46 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.planner;
+
+import com.google.common.collect.Lists;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The fragment of a shared common table expression, which sends its result to the exchange nodes of
+ * all the consumers by a MultiCastDataSink.
+ */
+public class MultiCastPlanFragment extends PlanFragment {
+    private final List<ExchangeNode> destNodeList = Lists.newArrayList();
+
+    public MultiCastPlanFragment(PlanFragment planFragment) {
+        super(planFragment.getFragmentId(), planFragment.getPlanRoot(), planFragment.getDataPartition());
+        setParallelExecNum(planFragment.getParallelExecNum());
+        this.children.addAll(planFragment.getChildren());
+        setSink(new MultiCastDataSink());
+    }
+
+    public List<ExchangeNode> getDestNodeList() {
+        return destNodeList;
+    }
+
+    public List<PlanFragment> getDestFragmentList() {
+        return destNodeList.stream().map(PlanNode::getFragment).collect(Collectors.toList());
+    }
+
+    public MultiCastDataSink getMultiCastDataSink() {
+        return (MultiCastDataSink) getSink();
+    }
+
+    /**
+     * Send the result to the exchange node by a new stream sink of the multicast sink.
+     */
+    public void addDestination(ExchangeNode destNode) {
+        DataStreamSink streamSink = new DataStreamSink(destNode.getId());
+        streamSink.setPartition(DataPartition.RANDOM);
+        streamSink.setFragment(this);
+        getMultiCastDataSink().addDataStreamSink(streamSink);
+        destNodeList.add(destNode);
+    }
+}
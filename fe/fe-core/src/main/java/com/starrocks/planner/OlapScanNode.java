@@ -129,7 +129,9 @@ public class OlapScanNode extends ScanNode {
 
     private HashSet<Long> scanBackendIds = new HashSet<>();
 
-    private Map<Long, Integer> tabletId2BucketSeq = Maps.newHashMap();
+    // identify this scan in CardinalityFeedback, null if the row count of this scan is not fed back
+    private String cardinalityFeedbackKey = null;
+
     // a bucket seq may map to many tablets, and each tablet has a TScanRangeLocations.
     public ArrayListMultimap<Integer, TScanRangeLocations> bucketSeq2locations = ArrayListMultimap.create();
 
@@ -326,9 +328,9 @@ public class OlapScanNode extends ScanNode {
 
     private Collection<Long> partitionPrune(RangePartitionInfo partitionInfo, PartitionNames partitionNames)
             throws AnalysisException {
-        Map<Long, Range<PartitionKey>> keyRangeById = null;
+        PartitionPruner partitionPruner;
         if (partitionNames != null) {
-            keyRangeById = Maps.newHashMap();
+            Map<Long, Range<PartitionKey>> keyRangeById = Maps.newHashMap();
             for (String partName : partitionNames.getPartitionNames()) {
                 Partition part = olapTable.getPartition(partName, partitionNames.isTemp());
                 if (part == null) {
@@ -336,26 +338,27 @@ public class OlapScanNode extends ScanNode {
                 }
                 keyRangeById.put(part.getId(), partitionInfo.getRange(part.getId()));
             }
+            partitionPruner = new RangePartitionPruner(keyRangeById, partitionInfo.getPartitionColumns(),
+                    columnFilters);
         } else {
-            keyRangeById = partitionInfo.getIdToRange(false);
+            partitionPruner = new RangePartitionPruner(partitionInfo.getRangeIndex(),
+                    partitionInfo.getPartitionColumns(), columnFilters);
         }
-        PartitionPruner partitionPruner = new RangePartitionPruner(keyRangeById,
-                partitionInfo.getPartitionColumns(), columnFilters);
         return partitionPruner.prune();
     }
 
-    private Collection<Long> distributionPrune(
+    // return the sequences of the selected buckets, null if all the buckets are selected
+    private List<Integer> distributionPrune(
             MaterializedIndex table,
-            DistributionInfo distributionInfo) throws AnalysisException {
-        DistributionPruner distributionPruner = null;
+            DistributionInfo distributionInfo) {
         switch (distributionInfo.getType()) {
             case HASH: {
                 HashDistributionInfo info = (HashDistributionInfo) distributionInfo;
-                distributionPruner = new HashDistributionPruner(table.getTabletIdsInOrder(),
+                HashDistributionPruner distributionPruner = new HashDistributionPruner(table.getTabletIdsInOrder(),
                         info.getDistributionColumns(),
                         columnFilters,
                         info.getBucketNum());
-                return distributionPruner.prune();
+                return distributionPruner.pruneBucketSeqs();
             }
             case RANDOM: {
                 return null;
@@ -366,9 +369,13 @@ public class OlapScanNode extends ScanNode {
         }
     }
 
+    /**
+     * Add the scan ranges of tablets, the i-th tablet is in the bucket of bucketSeqs[i].
+     */
     public void addScanRangeLocations(Partition partition,
                                       MaterializedIndex index,
                                       List<Tablet> tablets,
+                                      List<Integer> bucketSeqs,
                                       long localBeId) throws UserException {
         int logNum = 0;
         int schemaHash = olapTable.getSchemaHashByIndexId(index.getId());
@@ -378,7 +385,8 @@ public class OlapScanNode extends ScanNode {
         String visibleVersionStr = String.valueOf(visibleVersion);
         String visibleVersionHashStr = String.valueOf(partition.getVisibleVersionHash());
 
-        for (Tablet tablet : tablets) {
+        for (int tabletIdx = 0; tabletIdx < tablets.size(); tabletIdx++) {
+            Tablet tablet = tablets.get(tabletIdx);
             long tabletId = tablet.getId();
             LOG.debug("{} tabletId={}", (logNum++), tabletId);
             TScanRangeLocations scanRangeLocations = new TScanRangeLocations();
@@ -449,7 +457,7 @@ public class OlapScanNode extends ScanNode {
             scanRange.setInternal_scan_range(internalRange);
             scanRangeLocations.setScan_range(scanRange);
 
-            bucketSeq2locations.put(tabletId2BucketSeq.get(tabletId), scanRangeLocations);
+            bucketSeq2locations.put(bucketSeqs.get(tabletIdx), scanRangeLocations);
 
             result.add(scanRangeLocations);
         }
@@ -525,28 +533,27 @@ public class OlapScanNode extends ScanNode {
         for (Long partitionId : selectedPartitionIds) {
             final Partition partition = olapTable.getPartition(partitionId);
             final MaterializedIndex selectedTable = partition.getIndex(selectedIndexId);
-            final List<Tablet> tablets = Lists.newArrayList();
-            final Collection<Long> tabletIds = distributionPrune(selectedTable, partition.getDistributionInfo());
-            LOG.debug("distribution prune tablets: {}", tabletIds);
-
-            List<Long> allTabletIds = selectedTable.getTabletIdsInOrder();
-            if (tabletIds != null) {
-                for (Long id : tabletIds) {
-                    tablets.add(selectedTable.getTablet(id));
+            final List<Tablet> allTablets = selectedTable.getTablets();
+            List<Integer> bucketSeqs = distributionPrune(selectedTable, partition.getDistributionInfo());
+            LOG.debug("distribution prune buckets: {}", bucketSeqs);
+            if (bucketSeqs == null) {
+                bucketSeqs = Lists.newArrayListWithCapacity(allTablets.size());
+                for (int i = 0; i < allTablets.size(); i++) {
+                    bucketSeqs.add(i);
                 }
-                scanTabletIds.addAll(tabletIds);
-            } else {
-                tablets.addAll(selectedTable.getTablets());
-                scanTabletIds.addAll(allTabletIds);
             }
 
-            for (int i = 0; i < allTabletIds.size(); i++) {
-                tabletId2BucketSeq.put(allTabletIds.get(i), i);
+            // the sequence of a bucket is the index of its tablet
+            final List<Tablet> tablets = Lists.newArrayListWithCapacity(bucketSeqs.size());
+            for (int bucketSeq : bucketSeqs) {
+                Tablet tablet = allTablets.get(bucketSeq);
+                tablets.add(tablet);
+                scanTabletIds.add(tablet.getId());
             }
 
-            totalTabletsNum += selectedTable.getTablets().size();
+            totalTabletsNum += allTablets.size();
             selectedTabletsNum += tablets.size();
-            addScanRangeLocations(partition, selectedTable, tablets, localBeId);
+            addScanRangeLocations(partition, selectedTable, tablets, bucketSeqs, localBeId);
         }
     }
 
@@ -853,11 +860,15 @@ public class OlapScanNode extends ScanNode {
         this.isPreAggregation = true;
     }
 
-    public void setTabletId2BucketSeq(Map<Long, Integer> tabletId2BucketSeq) {
-        this.tabletId2BucketSeq = tabletId2BucketSeq;
-    }
-
     public void setTotalTabletsNum(long totalTabletsNum) {
         this.totalTabletsNum = totalTabletsNum;
     }
+
+    public String getCardinalityFeedbackKey() {
+        return cardinalityFeedbackKey;
+    }
+
+    public void setCardinalityFeedbackKey(String cardinalityFeedbackKey) {
+        this.cardinalityFeedbackKey = cardinalityFeedbackKey;
+    }
 }
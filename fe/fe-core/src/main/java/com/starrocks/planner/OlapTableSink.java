@@ -265,11 +265,12 @@ public class OlapTableSink extends DataSink {
                 break;
             }
             case UNPARTITIONED: {
-                // there is no partition columns for single partition
-                Preconditions.checkArgument(table.getPartitions().size() == 1,
-                        "Number of table partitions is not 1 for unpartitioned table, partitionNum="
-                                + table.getPartitions().size());
-                Partition partition = table.getPartitions().iterator().next();
+                // there is no partition columns for single partition,
+                // the selected partition is either the formal partition or a temp partition
+                Preconditions.checkArgument(partitionIds.size() == 1,
+                        "Number of selected partitions is not 1 for unpartitioned table, partitionNum="
+                                + partitionIds.size());
+                Partition partition = table.getPartition(partitionIds.get(0));
 
                 TOlapTablePartition tPartition = new TOlapTablePartition();
                 tPartition.setId(partition.getId());
@@ -462,6 +462,12 @@ public class PlanFragment extends TreeNode<PlanFragment> {
                 buildRuntimeFilters.put(description.getFilterId(), description);
             }
         }
+        if (root instanceof SortNode) {
+            SortNode sortNode = (SortNode) root;
+            for (RuntimeFilterDescription description : sortNode.getBuildRuntimeFilters()) {
+                buildRuntimeFilters.put(description.getFilterId(), description);
+            }
+        }
 
         for (PlanNode node : root.getChildren()) {
             collectBuildRuntimeFilters(node);
@@ -493,6 +499,12 @@ public class PlanFragment extends TreeNode<PlanFragment> {
                 description.addMergeNode(host);
             }
         }
+        if (root instanceof SortNode) {
+            SortNode sortNode = (SortNode) root;
+            for (RuntimeFilterDescription description : sortNode.getBuildRuntimeFilters()) {
+                description.addMergeNode(host);
+            }
+        }
 
         for (PlanNode node : root.getChildren()) {
             setRuntimeFilterMergeNodeAddresses(node, host);
@@ -805,11 +805,17 @@ abstract public class PlanNode extends TreeNode<PlanNode> {
         return false;
     }
 
+    // whether the runtime filter can be pushed down to the child at childIndex
+    protected boolean canPushDownRuntimeFilter(RuntimeFilterDescription description, int childIndex) {
+        return true;
+    }
+
     public boolean pushDownRuntimeFilters(RuntimeFilterDescription description, Expr probeExpr) {
         // theoretically runtime filter can be applied on multiple child nodes.
         boolean accept = false;
-        for (PlanNode node : children) {
-            if (node.pushDownRuntimeFilters(description, probeExpr)) {
+        for (int i = 0; i < children.size(); i++) {
+            if (canPushDownRuntimeFilter(description, i)
+                    && children.get(i).pushDownRuntimeFilters(description, probeExpr)) {
                 accept = true;
             }
         }
@@ -31,6 +31,7 @@ import com.starrocks.analysis.LiteralExpr;
 import com.starrocks.analysis.NullLiteral;
 import com.starrocks.catalog.Column;
 import com.starrocks.catalog.PartitionKey;
+import com.starrocks.catalog.PartitionRangeIndex;
 import com.starrocks.catalog.Type;
 import com.starrocks.common.AnalysisException;
 import org.apache.logging.log4j.LogManager;
@@ -45,6 +46,8 @@ public class RangePartitionPruner implements PartitionPruner {
     private static final Logger LOG = LogManager.getLogger(RangePartitionPruner.class);
 
     private Map<Long, Range<PartitionKey>> partitionRangeMap;
+    // the shared range index of all formal partitions, if it is set, partitionRangeMap is not used
+    private PartitionRangeIndex partitionRangeIndex;
     private List<Column> partitionColumns;
     private Map<String, PartitionColumnFilter> partitionColumnFilters;
 
@@ -56,6 +59,14 @@ public class RangePartitionPruner implements PartitionPruner {
         partitionColumnFilters = filters;
     }
 
+    public RangePartitionPruner(PartitionRangeIndex rangeIndex,
+                                List<Column> columns,
+                                Map<String, PartitionColumnFilter> filters) {
+        partitionRangeIndex = rangeIndex;
+        partitionColumns = columns;
+        partitionColumnFilters = filters;
+    }
+
     private Collection<Long> prune(RangeMap<PartitionKey, Long> rangeMap,
                                    int columnIdx,
                                    PartitionKey minKey,
@@ -167,6 +178,19 @@ public class RangePartitionPruner implements PartitionPruner {
             return result;
         }
         Set<Long> resultSet = Sets.newHashSet();
+        if (columnIdx == partitionColumns.size() - 1) {
+            // the keys are points of all the partition columns now, and partition ranges never overlap,
+            // so look up the partition of each key directly
+            for (LiteralExpr expr : inPredicateLiterals) {
+                minKey.pushColumn(expr, keyColumn.getPrimitiveType());
+                Long partitionId = rangeMap.get(minKey);
+                if (partitionId != null) {
+                    resultSet.add(partitionId);
+                }
+                minKey.popColumn();
+            }
+            return resultSet;
+        }
         int newComplex = inPredicateLiterals.size() * complex;
         for (LiteralExpr expr : inPredicateLiterals) {
             minKey.pushColumn(expr, keyColumn.getPrimitiveType());
@@ -185,6 +209,9 @@ public class RangePartitionPruner implements PartitionPruner {
     public Collection<Long> prune() throws AnalysisException {
         PartitionKey minKey = new PartitionKey();
         PartitionKey maxKey = new PartitionKey();
+        if (partitionRangeIndex != null) {
+            return prune(partitionRangeIndex.getRangeMap(), 0, minKey, maxKey, 1);
+        }
         // Map to RangeMapTree
         RangeMap<PartitionKey, Long> rangeMap = TreeRangeMap.create();
         for (Map.Entry<Long, Range<PartitionKey>> entry : partitionRangeMap.entrySet()) {
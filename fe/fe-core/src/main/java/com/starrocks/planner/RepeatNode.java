@@ -221,6 +221,12 @@ public class RepeatNode extends PlanNode {
         return output.toString();
     }
 
+    @Override
+    protected boolean canPushDownRuntimeFilter(RuntimeFilterDescription description, int childIndex) {
+        // the subtotal rows are aggregated from all the input rows, not only the ones within the threshold
+        return !description.isBuildFromTopN();
+    }
+
     @Override
     public int getNumInstances() {
         return children.get(0).getNumInstances();
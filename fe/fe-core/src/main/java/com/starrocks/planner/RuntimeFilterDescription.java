@@ -18,6 +18,14 @@ import java.util.Map;
 // but comparing to thrift definition, this class has some handy methods and
 // `toExplainString()` for explaining sql
 public class RuntimeFilterDescription {
+    // the filter chosen by the optimizer, BE builds bloom filter with min-max for all of them
+    // and pushes down IN filter of the small build side to the local scans.
+    public enum FilterType {
+        IN,
+        MIN_MAX,
+        BLOOM
+    }
+
     private int filterId;
     private Expr buildExpr;
     private int exprOrder; // order of expr in eq conjuncts.
@@ -32,6 +40,14 @@ public class RuntimeFilterDescription {
     private static final int ProbeMinSize = 100 * 1024;
     private static final float ProbeMinSelectivity = 0.5f;
     private long buildCardinality;
+    // estimated by the optimizer, null if unknown
+    private FilterType filterType;
+    // estimated fraction of probe rows passing the filter, negative if unknown
+    private double probeSelectivity;
+    // built by a TopN node from its threshold of the first ordering expr instead of a hash join
+    private boolean buildFromTopN;
+    private boolean topNIsAsc;
+    private boolean topNNullsFirst;
 
     public RuntimeFilterDescription() {
         nodeIdToProbeExpr = new HashMap<>();
@@ -44,6 +60,9 @@ public class RuntimeFilterDescription {
         equalCount = 0;
         crossExchangeNodeTimes = 0;
         buildCardinality = 0;
+        filterType = null;
+        probeSelectivity = -1;
+        buildFromTopN = false;
     }
 
     public void setFilterId(int id) {
@@ -62,6 +81,32 @@ public class RuntimeFilterDescription {
         buildCardinality = value;
     }
 
+    public void setFilterType(FilterType type) {
+        filterType = type;
+    }
+
+    public FilterType getFilterType() {
+        return filterType;
+    }
+
+    public void setProbeSelectivity(double value) {
+        probeSelectivity = value;
+    }
+
+    public double getProbeSelectivity() {
+        return probeSelectivity;
+    }
+
+    public void setTopNOrder(boolean isAsc, boolean nullsFirst) {
+        buildFromTopN = true;
+        topNIsAsc = isAsc;
+        topNNullsFirst = nullsFirst;
+    }
+
+    public boolean isBuildFromTopN() {
+        return buildFromTopN;
+    }
+
     public boolean canProbeUse(PlanNode node) {
         // if we don't across exchange node, that's to say this is in local fragment instance.
         // we don't need to use adaptive strategy now. we are using a conservative way.
@@ -73,7 +118,9 @@ public class RuntimeFilterDescription {
         if (card < ProbeMinSize) {
             return false;
         }
-        float sel = (1.0f - buildCardinality * 1.0f / card);
+        // prefer the selectivity estimated from the column statistics to the row counts
+        float sel = probeSelectivity >= 0 ? (float) (1.0 - probeSelectivity) :
+                (1.0f - buildCardinality * 1.0f / card);
         if (sel < ProbeMinSelectivity) {
             return false;
         }
@@ -166,6 +213,16 @@ public class RuntimeFilterDescription {
         } else {
             sb.append(", build_expr = (").append(buildExpr.toSql()).append(")");
             sb.append(", remote = ").append(hasRemoteTargets);
+            if (buildFromTopN) {
+                sb.append(", topn = ").append(topNIsAsc ? "ASC" : "DESC")
+                        .append(topNNullsFirst ? " NULLS FIRST" : " NULLS LAST");
+            }
+            // the type is estimated by the optimizer for the cost only, it's not sent to BE,
+            // which decides the filter to build by itself
+            if (filterType != null) {
+                sb.append(", est_type = ").append(filterType);
+                sb.append(", est_selectivity = ").append(String.format("%.4f", probeSelectivity));
+            }
         }
         return sb.toString();
     }
@@ -187,6 +244,11 @@ public class RuntimeFilterDescription {
         if (senderFragmentInstanceId != null) {
             t.setSender_finst_id(senderFragmentInstanceId);
         }
+        if (buildFromTopN) {
+            t.setBuild_from_topn(true);
+            t.setTopn_is_asc(topNIsAsc);
+            t.setTopn_nulls_first(topNNullsFirst);
+        }
 
         assert (joinMode != HashJoinNode.DistributionMode.NONE);
         if (joinMode.equals(HashJoinNode.DistributionMode.BROADCAST)) {
@@ -32,6 +32,7 @@ import com.starrocks.analysis.SlotDescriptor;
 import com.starrocks.analysis.SlotId;
 import com.starrocks.analysis.SlotRef;
 import com.starrocks.analysis.SortInfo;
+import com.starrocks.common.IdGenerator;
 import com.starrocks.common.UserException;
 import com.starrocks.thrift.TExplainLevel;
 import com.starrocks.thrift.TPlanNode;
@@ -60,6 +61,9 @@ public class SortNode extends PlanNode {
     // info_.sortTupleSlotExprs_ substituted with the outputSmap_ for materialized slots in init().
     public List<Expr> resolvedTupleExprs;
 
+    // the runtime filters published by this TopN from its threshold, see buildRuntimeFilters
+    private final List<RuntimeFilterDescription> buildRuntimeFilters = Lists.newArrayList();
+
     public void setIsAnalyticSort(boolean v) {
         isAnalyticSort = v;
     }
@@ -116,6 +120,50 @@ public class SortNode extends PlanNode {
         return info;
     }
 
+    public List<RuntimeFilterDescription> getBuildRuntimeFilters() {
+        return buildRuntimeFilters;
+    }
+
+    /**
+     * Build the runtime filter of the first ordering expr. Once a TopN has got limit + offset rows, the
+     * rows behind its current threshold, which is the last of them, can't be in the result, so it
+     * publishes the threshold as a min/max predicate to the scans below, and tightens it while consuming
+     * more rows. The threshold of any instance is valid for all the rows, so the filter is sent to the
+     * scans of the other fragments by one instance, as the one built by a broadcast join.
+     */
+    public void buildRuntimeFilters(IdGenerator<RuntimeFilterId> runtimeFilterIdIdGenerator) {
+        if (!useTopN || limit == -1 || resolvedTupleExprs == null) {
+            return;
+        }
+        // resolvedTupleExprs starts with the exprs of the ordering slots evaluated on the child
+        Expr probeExpr = resolvedTupleExprs.get(0);
+        if (!probeExpr.getType().isScalarType()) {
+            return;
+        }
+
+        RuntimeFilterDescription rf = new RuntimeFilterDescription();
+        rf.setFilterId(runtimeFilterIdIdGenerator.getNextId().asInt());
+        rf.setBuildExpr(info.getOrderingExprs().get(0));
+        rf.setTopNOrder(info.getIsAscOrder().get(0), info.getNullsFirst().get(0));
+        rf.setJoinMode(HashJoinNode.DistributionMode.BROADCAST);
+        rf.setEqualCount(1);
+        rf.setBuildCardinality(limit + offset);
+
+        boolean accept = false;
+        for (PlanNode node : children) {
+            accept = accept || node.pushDownRuntimeFilters(rf, probeExpr);
+        }
+        if (accept) {
+            buildRuntimeFilters.add(rf);
+        }
+    }
+
+    @Override
+    protected boolean canPushDownRuntimeFilter(RuntimeFilterDescription description, int childIndex) {
+        // the filter of another TopN above would change the rows chosen by this one
+        return !description.isBuildFromTopN() || !useTopN;
+    }
+
     @Override
     public void getMaterializedIds(Analyzer analyzer, List<SlotId> ids) {
         super.getMaterializedIds(analyzer, ids);
@@ -168,6 +216,10 @@ public class SortNode extends PlanNode {
             msg.sort_node.setSort_tuple_slot_exprs(Expr.treesToThrift(info.getSortTupleSlotExprs()));
         }
         msg.sort_node.setHas_outer_join_child(hasNullableGenerateChild);
+        if (!buildRuntimeFilters.isEmpty()) {
+            msg.sort_node.setBuild_runtime_filters(
+                    RuntimeFilterDescription.toThriftRuntimeFilterDescriptions(buildRuntimeFilters));
+        }
         // For profile printing `SortKeys`
         Iterator<Expr> expr = info.getOrderingExprs().iterator();
         Iterator<Boolean> direction = info.getIsAscOrder().iterator();
@@ -206,6 +258,12 @@ public class SortNode extends PlanNode {
         }
         output.append("\n");
         output.append(detailPrefix).append("offset: ").append(offset).append("\n");
+        if (!buildRuntimeFilters.isEmpty()) {
+            output.append(detailPrefix).append("build runtime filters:\n");
+            for (RuntimeFilterDescription rf : buildRuntimeFilters) {
+                output.append(detailPrefix).append("- ").append(rf.toExplainString(-1)).append("\n");
+            }
+        }
         return output.toString();
     }
 
@@ -77,6 +77,9 @@ public class AuditEvent {
     public boolean isQuery = false;
     @AuditField(value = "feIp")
     public String feIp = "";
+    // the time of each phase in micros, e.g. parse=12,analyze=230,optimize=1520
+    @AuditField(value = "PhaseTimeUs")
+    public String phaseTime = "";
     @AuditField(value = "Stmt")
     public String stmt = "";
 
@@ -161,6 +164,11 @@ public class AuditEvent {
             return this;
         }
 
+        public AuditEventBuilder setPhaseTime(String phaseTime) {
+            auditEvent.phaseTime = phaseTime;
+            return this;
+        }
+
         public AuditEventBuilder setStmt(String stmt) {
             auditEvent.stmt = stmt;
             return this;
@@ -21,6 +21,8 @@
 
 package com.starrocks.plugin;
 
+import java.util.List;
+
 /**
  * Audit plugin interface describe.
  */
@@ -36,4 +38,16 @@ public interface AuditPlugin {
      * Because it will be called after each query. So it must be efficient.
      */
     public void exec(AuditEvent event);
+
+    /**
+     * process a batch of events, which have all passed eventFilter.
+     * The default implementation calls exec for each event, plugins which write events to
+     * an external system should override it to write the whole batch at once.
+     * It may be called by several threads at the same time if audit_event_consumer_num > 1.
+     */
+    public default void execBatch(List<AuditEvent> events) {
+        for (AuditEvent event : events) {
+            exec(event);
+        }
+    }
 }
@@ -21,7 +21,10 @@
 
 package com.starrocks.qe;
 
-import com.google.common.collect.Queues;
+import com.google.common.collect.Lists;
+import com.starrocks.common.Config;
+import com.starrocks.common.util.RingBuffer;
+import com.starrocks.metric.MetricRepo;
 import com.starrocks.plugin.AuditEvent;
 import com.starrocks.plugin.AuditPlugin;
 import com.starrocks.plugin.Plugin;
@@ -31,90 +34,274 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Class for processing all audit events.
  * It will receive audit events and handle them to all AUDIT type plugins.
+ *
+ * The events are put into a lock-free ring buffer, so the query threads are never blocked by a slow plugin.
+ * If the buffer is full, the event is handled by audit_event_overflow_policy. audit_event_consumer_num worker
+ * threads take the events from the buffer and deliver them to the plugins in batches.
+ * With the spill policy, the overflowed events are put into another ring buffer and written to the spill file
+ * by a dedicated thread, so the query threads are never blocked by the disk either.
  */
 public class AuditEventProcessor {
     private static final Logger LOG = LogManager.getLogger(AuditEventProcessor.class);
     private static final long UPDATE_PLUGIN_INTERVAL_MS = 60 * 1000; // 1min
+    // how long a worker sleeps if there is no event
+    private static final long IDLE_WAIT_MS = 10;
+
+    public enum OverflowPolicy {
+        DROP,
+        SAMPLE,
+        SPILL
+    }
+
+    private static class PendingEvent {
+        private final AuditEvent event;
+        // -1 for the event reloaded from the spill file
+        private final long enqueueTimeMs;
+
+        PendingEvent(AuditEvent event, long enqueueTimeMs) {
+            this.event = event;
+            this.enqueueTimeMs = enqueueTimeMs;
+        }
+    }
 
     private PluginMgr pluginMgr;
 
-    private List<Plugin> auditPlugins;
-    private long lastUpdateTime = 0;
+    private volatile List<Plugin> auditPlugins;
+    private volatile long lastUpdateTime = 0;
+
+    private final RingBuffer<PendingEvent> eventBuffer;
+    private final OverflowPolicy overflowPolicy;
+    private final AuditEventSpiller spiller;
+    // the events waiting to be spilled, null if the policy is not spill
+    private final RingBuffer<AuditEvent> spillBuffer;
+    private final AtomicLong sampleCounter = new AtomicLong(0);
+    private final AtomicLong droppedEventNum = new AtomicLong(0);
 
-    private BlockingQueue<AuditEvent> eventQueue = Queues.newLinkedBlockingDeque(10000);
-    private Thread workerThread;
+    private final List<Thread> workerThreads = Lists.newArrayList();
+    private Thread spillThread;
 
     private volatile boolean isStopped = false;
 
     public AuditEventProcessor(PluginMgr pluginMgr) {
         this.pluginMgr = pluginMgr;
+        this.eventBuffer = new RingBuffer<>(Math.max(1, Config.audit_event_buffer_size));
+        this.overflowPolicy = parseOverflowPolicy(Config.audit_event_overflow_policy);
+        if (overflowPolicy == OverflowPolicy.SPILL) {
+            this.spiller = new AuditEventSpiller(Config.audit_log_dir);
+            this.spillBuffer = new RingBuffer<>(Math.max(1, Config.audit_event_buffer_size));
+        } else {
+            this.spiller = null;
+            this.spillBuffer = null;
+        }
+    }
+
+    private static OverflowPolicy parseOverflowPolicy(String policy) {
+        try {
+            return OverflowPolicy.valueOf(policy.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            LOG.warn("invalid audit_event_overflow_policy: {}, use spill instead", policy);
+            return OverflowPolicy.SPILL;
+        }
     }
 
     public void start() {
-        workerThread = new Thread(new Worker(), "AuditEventProcessor");
-        workerThread.setDaemon(true);
-        workerThread.start();
+        int workerNum = Math.max(1, Config.audit_event_consumer_num);
+        for (int i = 0; i < workerNum; i++) {
+            // only the first worker reloads the spilled events, so they are read in order
+            Thread workerThread = new Thread(new Worker(i == 0), "AuditEventProcessor-" + i);
+            workerThread.setDaemon(true);
+            workerThread.start();
+            workerThreads.add(workerThread);
+        }
+        if (spiller != null) {
+            spillThread = new Thread(new SpillWorker(), "AuditEventSpiller");
+            spillThread.setDaemon(true);
+            spillThread.start();
+        }
     }
 
     public void stop() {
         isStopped = true;
-        if (workerThread != null) {
+        for (Thread workerThread : workerThreads) {
             try {
                 workerThread.join();
             } catch (InterruptedException e) {
                 LOG.warn("join worker join failed.", e);
             }
         }
+        if (spillThread != null) {
+            try {
+                spillThread.join();
+            } catch (InterruptedException e) {
+                LOG.warn("join spill thread failed.", e);
+            }
+        }
+        if (spiller != null) {
+            spiller.close();
+        }
     }
 
     public void handleAuditEvent(AuditEvent auditEvent) {
-        try {
-            eventQueue.put(auditEvent);
-        } catch (InterruptedException e) {
-            LOG.debug("encounter exception when handle audit event, ignore", e);
+        if (overflowPolicy == OverflowPolicy.SAMPLE && eventBuffer.size() > eventBuffer.capacity() / 2
+                && !isImportant(auditEvent)
+                && sampleCounter.getAndIncrement() % Math.max(1, Config.audit_event_sample_ratio) != 0) {
+            dropEvent();
+            return;
+        }
+        if (eventBuffer.offer(new PendingEvent(auditEvent, System.currentTimeMillis()))) {
+            return;
+        }
+        // the event is written to the spill file by the spill thread
+        if (spillBuffer != null && spillBuffer.offer(auditEvent)) {
+            return;
         }
+        dropEvent();
     }
 
-    public class Worker implements Runnable {
-        @Override
-        public void run() {
-            AuditEvent auditEvent;
-            while (!isStopped) {
-                // update audit plugin list every UPDATE_PLUGIN_INTERVAL_MS.
-                // because some of plugins may be installed or uninstalled at runtime.
+    // failed and slow queries are never sampled out
+    private static boolean isImportant(AuditEvent auditEvent) {
+        return auditEvent.type == AuditEvent.EventType.AFTER_QUERY
+                && (QueryState.MysqlStateType.ERR.name().equals(auditEvent.state)
+                || auditEvent.queryTime > Config.qe_slow_log_ms);
+    }
+
+    private void dropEvent() {
+        long num = droppedEventNum.incrementAndGet();
+        if (MetricRepo.isInit) {
+            MetricRepo.COUNTER_AUDIT_EVENT_DROPPED.increase(1L);
+        }
+        if (num % 10000 == 1) {
+            LOG.warn("audit event buffer is full, {} events are dropped", num);
+        }
+    }
+
+    public long getQueueDepth() {
+        return eventBuffer.size();
+    }
+
+    public long getDroppedEventNum() {
+        return droppedEventNum.get();
+    }
+
+    // update audit plugin list every UPDATE_PLUGIN_INTERVAL_MS.
+    // because some of plugins may be installed or uninstalled at runtime.
+    private List<Plugin> getAuditPlugins() {
+        if (auditPlugins == null || System.currentTimeMillis() - lastUpdateTime > UPDATE_PLUGIN_INTERVAL_MS) {
+            synchronized (this) {
                 if (auditPlugins == null || System.currentTimeMillis() - lastUpdateTime > UPDATE_PLUGIN_INTERVAL_MS) {
                     auditPlugins = pluginMgr.getActivePluginList(PluginType.AUDIT);
                     lastUpdateTime = System.currentTimeMillis();
                     LOG.debug("update audit plugins. num: {}", auditPlugins.size());
                 }
+            }
+        }
+        return auditPlugins;
+    }
+
+    private void deliver(List<PendingEvent> batch) {
+        for (Plugin plugin : getAuditPlugins()) {
+            AuditPlugin auditPlugin = (AuditPlugin) plugin;
+            // a new list for each plugin, the plugin may keep it
+            List<AuditEvent> events = Lists.newArrayListWithCapacity(batch.size());
+            for (PendingEvent pendingEvent : batch) {
+                if (auditPlugin.eventFilter(pendingEvent.event.type)) {
+                    events.add(pendingEvent.event);
+                }
+            }
+            if (events.isEmpty()) {
+                continue;
+            }
+            try {
+                auditPlugin.execBatch(events);
+            } catch (Exception e) {
+                LOG.debug("encounter exception when processing audit event.", e);
+            }
+        }
 
-                try {
-                    auditEvent = eventQueue.poll(5, TimeUnit.SECONDS);
-                    if (auditEvent == null) {
+        if (MetricRepo.isInit) {
+            long now = System.currentTimeMillis();
+            for (PendingEvent pendingEvent : batch) {
+                if (pendingEvent.enqueueTimeMs > 0) {
+                    MetricRepo.HISTO_AUDIT_EVENT_DELIVERY_LATENCY.update(now - pendingEvent.enqueueTimeMs);
+                }
+            }
+        }
+    }
+
+    public class Worker implements Runnable {
+        private final boolean reloadSpilledEvents;
+
+        public Worker(boolean reloadSpilledEvents) {
+            this.reloadSpilledEvents = reloadSpilledEvents;
+        }
+
+        @Override
+        public void run() {
+            List<PendingEvent> batch = Lists.newArrayList();
+            List<AuditEvent> reloadedEvents = Lists.newArrayList();
+            while (!isStopped) {
+                batch.clear();
+                int batchSize = Math.max(1, Config.audit_event_batch_size);
+                if (eventBuffer.drainTo(batch, batchSize) == 0) {
+                    // deliver the spilled events only when the buffer is drained
+                    if (reloadSpilledEvents && spiller != null) {
+                        reloadedEvents.clear();
+                        spiller.reload(reloadedEvents, batchSize);
+                        for (AuditEvent event : reloadedEvents) {
+                            batch.add(new PendingEvent(event, -1));
+                        }
+                    }
+                    if (batch.isEmpty()) {
+                        try {
+                            Thread.sleep(IDLE_WAIT_MS);
+                        } catch (InterruptedException e) {
+                            LOG.debug("encounter exception when waiting for audit event, ignore", e);
+                        }
                         continue;
                     }
-                } catch (InterruptedException e) {
-                    LOG.debug("encounter exception when getting audit event from queue, ignore", e);
-                    continue;
                 }
 
                 try {
-                    for (Plugin plugin : auditPlugins) {
-                        if (((AuditPlugin) plugin).eventFilter(auditEvent.type)) {
-                            ((AuditPlugin) plugin).exec(auditEvent);
-                        }
-                    }
+                    deliver(batch);
                 } catch (Exception e) {
                     LOG.debug("encounter exception when processing audit event.", e);
                 }
             }
         }
+    }
 
+    // write the overflowed events to the spill file, so the query threads don't wait for the disk
+    private class SpillWorker implements Runnable {
+        @Override
+        public void run() {
+            List<AuditEvent> batch = Lists.newArrayList();
+            while (true) {
+                batch.clear();
+                if (spillBuffer.drainTo(batch, Math.max(1, Config.audit_event_batch_size)) == 0) {
+                    // the remaining events are spilled before the processor is stopped
+                    if (isStopped) {
+                        break;
+                    }
+                    try {
+                        Thread.sleep(IDLE_WAIT_MS);
+                    } catch (InterruptedException e) {
+                        LOG.debug("encounter exception when waiting for audit event, ignore", e);
+                    }
+                    continue;
+                }
+                for (AuditEvent event : batch) {
+                    if (!spiller.spill(event)) {
+                        dropEvent();
+                    } else if (MetricRepo.isInit) {
+                        MetricRepo.COUNTER_AUDIT_EVENT_SPILLED.increase(1L);
+                    }
+                }
+            }
+        }
     }
 }
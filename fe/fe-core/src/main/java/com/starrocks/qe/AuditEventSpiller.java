@@ -0,0 +1,196 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.qe;
+
+import com.google.gson.Gson;
+import com.starrocks.common.Config;
+import com.starrocks.plugin.AuditEvent;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Spill the audit events which the event buffer of AuditEventProcessor can not hold to a local file,
+ * one json per line. Once the buffer is drained, the spill file is renamed to the replay file and
+ * the events in it are read back and delivered to the plugins, while new events are spilled to
+ * a new spill file. Each event is flushed to the file once it's spilled, and the files are left on disk
+ * across restarts, so the spilled events survive a crash of FE. They are not fsynced, so they may still
+ * be lost if the host crashes.
+ */
+public class AuditEventSpiller {
+    private static final Logger LOG = LogManager.getLogger(AuditEventSpiller.class);
+
+    private static final String SPILL_FILE_NAME = "audit_event.spill";
+    private static final String REPLAY_FILE_NAME = "audit_event.replay";
+    // GsonUtils.GSON only serializes the fields annotated by @SerializedName, which AuditEvent has none of
+    private static final Gson GSON = new Gson();
+
+    private final File spillFile;
+    private final File replayFile;
+
+    // spill() is called by the spill thread and rotate() by the worker reloading the events
+    private final ReentrantLock lock = new ReentrantLock();
+    // guarded by lock
+    private BufferedWriter writer;
+    private long spilledBytes;
+
+    // only accessed by the thread which reloads the events
+    private BufferedReader reader;
+
+    public AuditEventSpiller(String dir) {
+        this.spillFile = new File(dir, SPILL_FILE_NAME);
+        this.replayFile = new File(dir, REPLAY_FILE_NAME);
+        this.spilledBytes = spillFile.length();
+    }
+
+    /**
+     * @return false if the event is not spilled, because the spill file is too large or can not be written
+     */
+    public boolean spill(AuditEvent event) {
+        lock.lock();
+        try {
+            return spillInternal(event);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean spillInternal(AuditEvent event) {
+        if (spilledBytes >= Config.audit_event_spill_max_bytes) {
+            return false;
+        }
+        try {
+            if (writer == null) {
+                File dir = spillFile.getParentFile();
+                if (dir != null && !dir.exists()) {
+                    dir.mkdirs();
+                }
+                writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(spillFile, true),
+                        StandardCharsets.UTF_8));
+            }
+            String line = GSON.toJson(event);
+            writer.write(line);
+            writer.newLine();
+            // the buffer only holds this event, flush it so that it's not lost if FE crashes
+            writer.flush();
+            spilledBytes += line.length() + 1;
+            return true;
+        } catch (IOException e) {
+            LOG.warn("failed to spill audit event to {}", spillFile, e);
+            closeWriter();
+            return false;
+        }
+    }
+
+    /**
+     * Read at most maxNum spilled events. It should be called by only one thread.
+     *
+     * @return number of events read
+     */
+    public int reload(List<AuditEvent> events, int maxNum) {
+        if (reader == null && !openReplayFile()) {
+            return 0;
+        }
+        int num = 0;
+        try {
+            while (num < maxNum) {
+                String line = reader.readLine();
+                if (line == null) {
+                    finishReplay();
+                    break;
+                }
+                if (line.isEmpty()) {
+                    continue;
+                }
+                events.add(GSON.fromJson(line, AuditEvent.class));
+                num++;
+            }
+        } catch (Exception e) {
+            // skip the rest of a broken file
+            LOG.warn("failed to reload audit events from {}", replayFile, e);
+            finishReplay();
+        }
+        return num;
+    }
+
+    private boolean openReplayFile() {
+        if (!replayFile.exists() && !rotate()) {
+            return false;
+        }
+        try {
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(replayFile),
+                    StandardCharsets.UTF_8));
+            return true;
+        } catch (IOException e) {
+            LOG.warn("failed to open {}", replayFile, e);
+            return false;
+        }
+    }
+
+    // rename the spill file to the replay file, new events will be spilled to a new file
+    private boolean rotate() {
+        lock.lock();
+        try {
+            return rotateInternal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean rotateInternal() {
+        closeWriter();
+        if (!spillFile.exists()) {
+            return false;
+        }
+        if (!spillFile.renameTo(replayFile)) {
+            LOG.warn("failed to rename {} to {}", spillFile, replayFile);
+            return false;
+        }
+        spilledBytes = 0;
+        return true;
+    }
+
+    private void finishReplay() {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            LOG.warn("failed to close {}", replayFile, e);
+        }
+        reader = null;
+        if (!replayFile.delete()) {
+            LOG.warn("failed to delete {}", replayFile);
+        }
+    }
+
+    private void closeWriter() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            LOG.warn("failed to close {}", spillFile, e);
+        }
+        writer = null;
+    }
+
+    public void close() {
+        lock.lock();
+        try {
+            closeWriter();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
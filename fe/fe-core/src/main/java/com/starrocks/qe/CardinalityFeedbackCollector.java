@@ -0,0 +1,115 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.qe;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.starrocks.common.util.Counter;
+import com.starrocks.common.util.RuntimeProfile;
+import com.starrocks.planner.OlapScanNode;
+import com.starrocks.planner.PlanFragmentId;
+import com.starrocks.planner.ScanNode;
+import com.starrocks.sql.optimizer.statistics.CardinalityFeedback;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Collect the row counts of the olap scans of a query from the profiles reported by its fragment instances.
+ * Once all the instances of a fragment finish, the fragment is a completed stage whose scans have returned
+ * all their rows, the observed rows of a scan are compared with its estimate, and fed back to
+ * CardinalityFeedback if the estimate is misestimated by more than errorRatio times.
+ * <p>
+ * The scans which probe runtime filters are not collected, their row counts depend on the filters.
+ * <p>
+ * The plan node of a profile is identified by the "(id=N)" suffix of its name, which is the id of the
+ * plan node for the non-pipeline engine only.
+ */
+public class CardinalityFeedbackCollector {
+    private static final Logger LOG = LogManager.getLogger(CardinalityFeedbackCollector.class);
+
+    private static final Pattern PLAN_NODE_ID = Pattern.compile("\\(id=(\\d+)\\)$");
+    private static final String ROWS_RETURNED = "RowsReturned";
+
+    private final double errorRatio;
+    // plan node id -> the scan to collect
+    private final Map<Integer, OlapScanNode> scanNodes = Maps.newHashMap();
+    // fragment id -> the number of the unfinished instances
+    private final Map<PlanFragmentId, Integer> runningInstances = Maps.newHashMap();
+    // the fragments with failed or cancelled instances, whose row counts are incomplete
+    private final Set<PlanFragmentId> incompleteFragments = Sets.newHashSet();
+    // plan node id -> the rows returned by the finished instances
+    private final Map<Integer, Long> observedRows = Maps.newHashMap();
+    private boolean misestimated = false;
+
+    public CardinalityFeedbackCollector(List<ScanNode> scanNodes, double errorRatio) {
+        this.errorRatio = errorRatio;
+        for (ScanNode scanNode : scanNodes) {
+            // RowsReturned of a scan is counted after its runtime filters are applied, which are built by
+            // other plan nodes and not covered by its feedback key
+            if (scanNode instanceof OlapScanNode && ((OlapScanNode) scanNode).getCardinalityFeedbackKey() != null
+                    && scanNode.getProbeRuntimeFilters().isEmpty()) {
+                this.scanNodes.put(scanNode.getId().asInt(), (OlapScanNode) scanNode);
+            }
+        }
+    }
+
+    public synchronized void addInstance(PlanFragmentId fragmentId) {
+        runningInstances.merge(fragmentId, 1, Integer::sum);
+    }
+
+    public synchronized void finishInstance(PlanFragmentId fragmentId, RuntimeProfile profile, boolean success) {
+        if (!success) {
+            incompleteFragments.add(fragmentId);
+        } else {
+            collectRows(profile);
+        }
+
+        int running = runningInstances.merge(fragmentId, -1, Integer::sum);
+        if (running == 0 && !incompleteFragments.contains(fragmentId)) {
+            finishFragment(fragmentId);
+        }
+    }
+
+    // whether any scan of the finished fragments is misestimated
+    public synchronized boolean isMisestimated() {
+        return misestimated;
+    }
+
+    private void collectRows(RuntimeProfile profile) {
+        for (Map.Entry<String, RuntimeProfile> entry : profile.getChildMap().entrySet()) {
+            Matcher matcher = PLAN_NODE_ID.matcher(entry.getKey());
+            if (matcher.find()) {
+                int planNodeId = Integer.parseInt(matcher.group(1));
+                Counter rows = entry.getValue().getCounterMap().get(ROWS_RETURNED);
+                if (rows != null && scanNodes.containsKey(planNodeId)) {
+                    observedRows.merge(planNodeId, rows.getValue(), Long::sum);
+                }
+            }
+            collectRows(entry.getValue());
+        }
+    }
+
+    private void finishFragment(PlanFragmentId fragmentId) {
+        for (OlapScanNode scanNode : scanNodes.values()) {
+            if (!scanNode.getFragmentId().equals(fragmentId)) {
+                continue;
+            }
+            Long rows = observedRows.get(scanNode.getId().asInt());
+            if (rows == null || scanNode.getCardinality() < 0) {
+                continue;
+            }
+            if (CardinalityFeedback.isMisestimated(scanNode.getCardinality(), rows, errorRatio)) {
+                LOG.debug("scan {} of {} is estimated {} rows, but returns {} rows", scanNode.getId(),
+                        scanNode.getOlapTable().getName(), scanNode.getCardinality(), rows);
+                CardinalityFeedback.getInstance().addObservedRows(scanNode.getCardinalityFeedbackKey(), rows);
+                misestimated = true;
+            }
+        }
+    }
+}
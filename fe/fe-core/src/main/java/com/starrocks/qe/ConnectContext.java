@@ -114,6 +114,9 @@ public class ConnectContext {
 
     protected AuditEventBuilder auditEventBuilder = new AuditEventBuilder();
 
+    // the time of each phase of the current statement
+    protected QueryPhaseTracker phaseTracker = new QueryPhaseTracker();
+
     protected String remoteIP;
 
     // set with the randomstring extracted from the handshake data at connecting stage
@@ -210,6 +213,10 @@ public class ConnectContext {
         return auditEventBuilder;
     }
 
+    public QueryPhaseTracker getPhaseTracker() {
+        return phaseTracker;
+    }
+
     public void setThreadLocalInfo() {
         threadLocalInfo.set(this);
     }
@@ -285,6 +292,9 @@ public class ConnectContext {
     public void setStartTime() {
         startTime = System.currentTimeMillis();
         returnRows = 0;
+        if (connectScheduler != null) {
+            connectScheduler.scheduleTimeoutCheck(this);
+        }
     }
 
     public void updateReturnRows(int returnRows) {
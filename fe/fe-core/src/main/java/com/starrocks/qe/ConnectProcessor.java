@@ -141,7 +141,8 @@ public class ConnectProcessor {
                 .setScanRows(statistics == null ? 0 : statistics.scan_rows)
                 .setReturnRows(ctx.getReturnRows())
                 .setStmtId(ctx.getStmtId())
-                .setQueryId(ctx.getQueryId() == null ? "NaN" : ctx.getQueryId().toString());
+                .setQueryId(ctx.getQueryId() == null ? "NaN" : ctx.getQueryId().toString())
+                .setPhaseTime(ctx.getPhaseTracker().toString());
 
         if (ctx.getState().isQuery()) {
             MetricRepo.COUNTER_QUERY_ALL.increase(1L);
@@ -157,6 +158,11 @@ public class ConnectProcessor {
         } else {
             ctx.getAuditEventBuilder().setIsQuery(false);
         }
+        if (parsedStmt != null && ctx.getState().getStateType() != QueryState.MysqlStateType.ERR
+                && MetricRepo.isInit) {
+            MetricRepo.HISTO_QUERY_PHASE_LATENCY.update(parsedStmt.getClass().getSimpleName(),
+                    ctx.getSessionVariable().getResourceGroup(), ctx.getPhaseTracker());
+        }
 
         ctx.getAuditEventBuilder().setFeIp(FrontendOptions.getLocalHostAddress());
 
@@ -194,6 +200,7 @@ public class ConnectProcessor {
         }
         queryDetail.setEndTime(endTime);
         queryDetail.setLatency(elapseMs);
+        queryDetail.setPhaseLatency(ctx.getPhaseTracker().toMicrosMap());
         QueryDetailQueue.addAndRemoveTimeoutQueryDetail(queryDetail);
     }
 
@@ -226,12 +233,16 @@ public class ConnectProcessor {
         StatementBase parsedStmt = null;
         try {
             ctx.setQueryId(UUIDUtil.genUUID());
+            ctx.getPhaseTracker().reset();
+            long parseStartNanos = System.nanoTime();
             List<StatementBase> stmts = analyze(originStmt);
+            ctx.getPhaseTracker().end(QueryPhaseTracker.Phase.PARSE, parseStartNanos);
             for (int i = 0; i < stmts.size(); ++i) {
                 ctx.getState().reset();
                 if (i > 0) {
                     ctx.resetRetureRows();
                     ctx.setQueryId(UUIDUtil.genUUID());
+                    ctx.getPhaseTracker().reset();
                 }
                 parsedStmt = stmts.get(i);
                 parsedStmt.setOrigStmt(new OriginStatement(originStmt, i));
@@ -22,20 +22,20 @@
 package com.starrocks.qe;
 
 import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 import com.starrocks.catalog.Catalog;
 import com.starrocks.common.Config;
 import com.starrocks.common.ThreadPoolManager;
+import com.starrocks.common.util.TimeoutWheel;
+import com.starrocks.mysql.MysqlCommand;
 import com.starrocks.mysql.MysqlProto;
 import com.starrocks.mysql.nio.NConnectContext;
 import com.starrocks.mysql.privilege.PrivPredicate;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -43,45 +43,43 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 public class ConnectScheduler {
     private static final Logger LOG = LogManager.getLogger(ConnectScheduler.class);
+    private static final long TIMEOUT_CHECK_TICK_MS = 1000L;
+    // a round of the wheel is about 8.5 minutes
+    private static final int TIMEOUT_CHECK_SLOT_NUM = 512;
+
     private int maxConnections;
-    private int numberConnection;
+    private AtomicInteger numberConnection;
     private AtomicInteger nextConnectionId;
 
-    private Map<Long, ConnectContext> connectionMap = Maps.newHashMap();
-    private Map<String, AtomicInteger> connByUser = Maps.newHashMap();
+    // the registry is accessed by every connect and disconnect, so it's lock free,
+    // the number of connections is counted by atomic counters.
+    private Map<Long, TimeoutWheel.Entry<ConnectContext>> connectionMap = new ConcurrentHashMap<>();
+    private Map<String, AtomicInteger> connByUser = new ConcurrentHashMap<>();
     private ExecutorService executor = ThreadPoolManager
-            .newDaemonCacheThreadPool(Config.max_connection_scheduler_threads_num, "connect-scheduler-pool", true);
+            .newDaemonCacheOrVirtualThreadPool(Config.max_connection_scheduler_threads_num, "connect-scheduler-pool",
+                    true, Config.mysql_service_virtual_thread_enabled);
 
-    // Use a thread to check whether connection is timeout. Because
-    // 1. If use a scheduler, the task maybe a huge number when query is messy.
-    //    Let timeout is 10m, and 5000 qps, then there are up to 3000000 tasks in scheduler.
-    // 2. Use a thread to poll maybe lose some accurate, but is enough to us.
+    // Check the wait timeout and query timeout of the connections by a timer wheel, the deadline of a
+    // connection is updated when it starts a command, and the timer thread only visits the connections
+    // whose deadline is reached, instead of scanning all the connections every second.
+    private final TimeoutWheel<ConnectContext> timeoutWheel;
     private ScheduledExecutorService checkTimer = ThreadPoolManager.newDaemonScheduledThreadPool(1,
             "Connect-Scheduler-Check-Timer", true);
 
     public ConnectScheduler(int maxConnections) {
         this.maxConnections = maxConnections;
-        numberConnection = 0;
+        numberConnection = new AtomicInteger(0);
         nextConnectionId = new AtomicInteger(0);
-        checkTimer.scheduleAtFixedRate(new TimeoutChecker(), 0, 1000L, TimeUnit.MILLISECONDS);
+        timeoutWheel = new TimeoutWheel<>(TIMEOUT_CHECK_TICK_MS, TIMEOUT_CHECK_SLOT_NUM,
+                System.currentTimeMillis(), this::checkTimeout);
+        checkTimer.scheduleAtFixedRate(new TimeoutChecker(), 0, TIMEOUT_CHECK_TICK_MS, TimeUnit.MILLISECONDS);
     }
 
-    private class TimeoutChecker extends TimerTask {
+    private class TimeoutChecker implements Runnable {
         @Override
         public void run() {
             try {
-                long now = System.currentTimeMillis();
-                synchronized (ConnectScheduler.this) {
-                    //Because unregisterConnection will be callback in NMysqlChannel's close,
-                    //unregisterConnection will remove connectionMap (in the same thread)
-                    //This will result in a concurrentModifyException.
-                    //So here we copied the connectionIds to avoid removing iterator during operate iterator
-                    ArrayList<Long> connectionIds = new ArrayList<>(connectionMap.keySet());
-                    for (Long connectId : connectionIds) {
-                        ConnectContext connectContext = connectionMap.get(connectId);
-                        connectContext.checkTimeout(now);
-                    }
-                }
+                timeoutWheel.advance(System.currentTimeMillis());
             } catch (Throwable e) {
                 //Catch Exception to avoid thread exit
                 LOG.warn("Timeout checker exception, Internal error : " + e.getMessage());
@@ -89,6 +87,40 @@ public class ConnectScheduler {
         }
     }
 
+    // called by the timeout checker thread when the deadline of the connection is reached,
+    // returns the next deadline to check the connection.
+    private long checkTimeout(ConnectContext ctx, long now) {
+        // unregisterConnection will be called back in the same thread if the connection is killed,
+        // which only marks the entry removed, so it's safe to modify the registry here.
+        ctx.checkTimeout(now);
+        long startTime = ctx.getStartTime();
+        long deadline;
+        if (startTime <= 0) {
+            deadline = now + TIMEOUT_CHECK_TICK_MS;
+        } else if (ctx.getCommand() == MysqlCommand.COM_SLEEP) {
+            deadline = startTime + ctx.getSessionVariable().getWaitTimeoutS() * 1000L;
+        } else {
+            deadline = startTime + ctx.getSessionVariable().getQueryTimeoutS() * 1000L;
+        }
+        // the killed query may not be finished yet, check it again in the next tick as before
+        return Math.max(deadline, now + TIMEOUT_CHECK_TICK_MS);
+    }
+
+    // Called when the connection starts or finishes a command. The connection is checked at the earlier one of
+    // wait timeout and query timeout, because the command may change without updating the start time.
+    public void scheduleTimeoutCheck(ConnectContext ctx) {
+        TimeoutWheel.Entry<ConnectContext> entry = connectionMap.get((long) ctx.getConnectionId());
+        if (entry != null && entry.getItem() == ctx) {
+            timeoutWheel.reschedule(entry, getTimeoutDeadline(ctx));
+        }
+    }
+
+    private static long getTimeoutDeadline(ConnectContext ctx) {
+        long startTime = ctx.getStartTime() > 0 ? ctx.getStartTime() : System.currentTimeMillis();
+        return startTime + Math.min(ctx.getSessionVariable().getWaitTimeoutS(),
+                ctx.getSessionVariable().getQueryTimeoutS()) * 1000L;
+    }
+
     // submit one MysqlContext to this scheduler.
     // return true, if this connection has been successfully submitted, otherwise return false.
     // Caller should close ConnectContext if return false.
@@ -110,27 +142,27 @@ public class ConnectScheduler {
     }
 
     // Register one connection with its connection id.
-    public synchronized boolean registerConnection(ConnectContext ctx) {
-        if (numberConnection >= maxConnections) {
+    public boolean registerConnection(ConnectContext ctx) {
+        if (numberConnection.incrementAndGet() > maxConnections) {
+            numberConnection.decrementAndGet();
             return false;
         }
         // Check user
-        if (connByUser.get(ctx.getQualifiedUser()) == null) {
-            connByUser.put(ctx.getQualifiedUser(), new AtomicInteger(0));
-        }
-        int conns = connByUser.get(ctx.getQualifiedUser()).get();
-        if (conns >= ctx.getCatalog().getAuth().getMaxConn(ctx.getQualifiedUser())) {
+        AtomicInteger conns = connByUser.computeIfAbsent(ctx.getQualifiedUser(), k -> new AtomicInteger(0));
+        if (conns.incrementAndGet() > ctx.getCatalog().getAuth().getMaxConn(ctx.getQualifiedUser())) {
+            conns.decrementAndGet();
+            numberConnection.decrementAndGet();
             return false;
         }
-        numberConnection++;
-        connByUser.get(ctx.getQualifiedUser()).incrementAndGet();
-        connectionMap.put((long) ctx.getConnectionId(), ctx);
+        connectionMap.put((long) ctx.getConnectionId(), timeoutWheel.add(ctx, getTimeoutDeadline(ctx)));
         return true;
     }
 
-    public synchronized void unregisterConnection(ConnectContext ctx) {
-        if (connectionMap.remove((long) ctx.getConnectionId()) != null) {
-            numberConnection--;
+    public void unregisterConnection(ConnectContext ctx) {
+        TimeoutWheel.Entry<ConnectContext> entry = connectionMap.remove((long) ctx.getConnectionId());
+        if (entry != null) {
+            timeoutWheel.remove(entry);
+            numberConnection.decrementAndGet();
             AtomicInteger conns = connByUser.get(ctx.getQualifiedUser());
             if (conns != null) {
                 conns.decrementAndGet();
@@ -138,18 +170,24 @@ public class ConnectScheduler {
         }
     }
 
-    public synchronized ConnectContext getContext(long connectionId) {
-        return connectionMap.get(connectionId);
+    public ConnectContext getContext(long connectionId) {
+        TimeoutWheel.Entry<ConnectContext> entry = connectionMap.get(connectionId);
+        return entry == null ? null : entry.getItem();
     }
 
-    public synchronized int getConnectionNum() {
-        return numberConnection;
+    public int getConnectionNum() {
+        return numberConnection.get();
     }
 
-    public synchronized List<ConnectContext.ThreadInfo> listConnection(String user) {
+    public List<ConnectContext.ThreadInfo> listConnection(String user) {
         List<ConnectContext.ThreadInfo> infos = Lists.newArrayList();
 
-        for (ConnectContext ctx : connectionMap.values()) {
+        for (TimeoutWheel.Entry<ConnectContext> entry : connectionMap.values()) {
+            ConnectContext ctx = entry.getItem();
+            // unregistered concurrently
+            if (ctx == null) {
+                continue;
+            }
             // Check auth
             if (!ctx.getQualifiedUser().equals(user) &&
                     !Catalog.getCurrentCatalog().getAuth().checkGlobalPriv(ConnectContext.get(),
@@ -52,6 +52,8 @@ import com.starrocks.planner.ExchangeNode;
 import com.starrocks.planner.ExportSink;
 import com.starrocks.planner.HashJoinNode;
 import com.starrocks.planner.HdfsScanNode;
+import com.starrocks.planner.MultiCastDataSink;
+import com.starrocks.planner.MultiCastPlanFragment;
 import com.starrocks.planner.OlapScanNode;
 import com.starrocks.planner.PlanFragment;
 import com.starrocks.planner.PlanFragmentId;
@@ -182,6 +184,8 @@ public class Coordinator {
     private TUniqueId queryId;
     private final TResourceInfo tResourceInfo;
     private final boolean needReport;
+    // collect the row counts of the scans to feed them back to the optimizer, null if disabled
+    private CardinalityFeedbackCollector cardinalityFeedbackCollector;
     private final String clusterName;
     // force schedule local be for HybridBackendSelector
     // only for hive now
@@ -197,6 +201,9 @@ public class Coordinator {
     // fragment_id -> < be_id -> bucket_count >
     private final Map<PlanFragmentId, Map<Long, Integer>> fragmentIdToBackendIdBucketCountMap = Maps.newHashMap();
 
+    // null for the coordinators of load/export jobs, which are not run by a connection
+    private QueryPhaseTracker phaseTracker;
+
     // Used for query/insert
     public Coordinator(ConnectContext context, Analyzer analyzer, Planner planner) {
         this.isBlockQuery = planner.isBlockQuery();
@@ -224,6 +231,7 @@ public class Coordinator {
         nextInstanceId.setHi(queryId.hi);
         nextInstanceId.setLo(queryId.lo + 1);
         this.forceScheduleLocal = context.getSessionVariable().isForceScheduleLocal();
+        this.phaseTracker = context.getPhaseTracker();
     }
 
     // Used for new planner
@@ -254,6 +262,14 @@ public class Coordinator {
         nextInstanceId.setHi(queryId.hi);
         nextInstanceId.setLo(queryId.lo + 1);
         this.forceScheduleLocal = context.getSessionVariable().isForceScheduleLocal();
+        this.phaseTracker = context.getPhaseTracker();
+        if (context.getSessionVariable().isEnableCboCardinalityFeedback()
+                && !context.getSessionVariable().isEnablePipelineEngine()) {
+            this.cardinalityFeedbackCollector = new CardinalityFeedbackCollector(scanNodes,
+                    context.getSessionVariable().getCboCardinalityFeedbackErrorRatio());
+            // the rows of the scans are reported by the profiles of the instances
+            this.queryOptions.setIs_report_success(true);
+        }
     }
 
     // Used for broker load task/export task coordinator
@@ -352,6 +368,13 @@ public class Coordinator {
 
         // set inputFragments
         for (PlanFragment fragment : fragments) {
+            if (fragment instanceof MultiCastPlanFragment) {
+                for (PlanFragment destFragment : ((MultiCastPlanFragment) fragment).getDestFragmentList()) {
+                    fragmentExecParamsMap.get(destFragment.getFragmentId()).inputFragments
+                            .add(fragment.getFragmentId());
+                }
+                continue;
+            }
             if (!(fragment.getSink() instanceof DataStreamSink)) {
                 continue;
             }
@@ -415,6 +438,17 @@ public class Coordinator {
     // be for a query like 'SELECT 1').
     // A call to Exec() must precede all other member function calls.
     public void exec() throws Exception {
+        long startNanos = System.nanoTime();
+        try {
+            execInternal();
+        } finally {
+            if (phaseTracker != null) {
+                phaseTracker.end(QueryPhaseTracker.Phase.DEPLOY, startNanos);
+            }
+        }
+    }
+
+    private void execInternal() throws Exception {
         if (LOG.isDebugEnabled() && !scanNodes.isEmpty()) {
             LOG.debug("debug: in Coordinator::exec. query id: {}, planNode: {}",
                     DebugUtil.printId(queryId), scanNodes.get(0).treeToThrift());
@@ -510,6 +544,9 @@ public class Coordinator {
                     BackendExecState execState = new BackendExecState(fragment.getFragmentId(), instanceId++,
                             profileFragmentId, tParam, this.addressToBackendID);
                     backendExecStates.add(execState);
+                    if (cardinalityFeedbackCollector != null) {
+                        cardinalityFeedbackCollector.addInstance(fragment.getFragmentId());
+                    }
                     if (needCheckBackendState) {
                         needCheckBackendExecStates.add(execState);
                         if (LOG.isDebugEnabled()) {
@@ -742,7 +779,11 @@ public class Coordinator {
         RowBatch resultBatch;
         Status status = new Status();
 
+        long startNanos = System.nanoTime();
         resultBatch = receiver.getNext(status);
+        if (phaseTracker != null) {
+            phaseTracker.end(QueryPhaseTracker.Phase.EXECUTE, startNanos);
+        }
         if (!status.ok()) {
             LOG.warn("get next fail, need cancel. status {}, query id: {}", status.toString(),
                     DebugUtil.printId(queryId));
@@ -857,6 +898,10 @@ public class Coordinator {
         // compute destinations and # senders per exchange node
         // (the root fragment doesn't have a destination)
         for (FragmentExecParams params : fragmentExecParamsMap.values()) {
+            if (params.fragment instanceof MultiCastPlanFragment) {
+                computeMultiCastFragmentDestinations(params);
+                continue;
+            }
             PlanFragment destFragment = params.fragment.getDestFragment();
             if (destFragment == null) {
                 // root plan fragment
@@ -918,6 +963,30 @@ public class Coordinator {
         }
     }
 
+    // The multicast fragment sends to the exchange nodes of several fragments, one stream sink for each of them
+    private void computeMultiCastFragmentDestinations(FragmentExecParams params) throws Exception {
+        MultiCastPlanFragment multiCastFragment = (MultiCastPlanFragment) params.fragment;
+        MultiCastDataSink multiCastSink = multiCastFragment.getMultiCastDataSink();
+        for (int i = 0; i < multiCastFragment.getDestNodeList().size(); i++) {
+            ExchangeNode destNode = multiCastFragment.getDestNodeList().get(i);
+            FragmentExecParams destParams = fragmentExecParamsMap.get(destNode.getFragment().getFragmentId());
+
+            int exchId = destNode.getId().asInt();
+            destParams.perExchNumSenders.put(exchId,
+                    params.instanceExecParams.size() + destParams.perExchNumSenders.getOrDefault(exchId, 0));
+
+            List<TPlanFragmentDestination> destinations = multiCastSink.getDestinations().get(i);
+            destinations.clear();
+            for (FInstanceExecParam destInstanceParams : destParams.instanceExecParams) {
+                TPlanFragmentDestination dest = new TPlanFragmentDestination();
+                dest.fragment_instance_id = destInstanceParams.instanceId;
+                dest.server = toRpcHost(destInstanceParams.host);
+                dest.setBrpc_server(toBrpcHost(destInstanceParams.host));
+                destinations.add(dest);
+            }
+        }
+    }
+
     private boolean needScheduleByShuffleJoin(int fragmentId, DataSink sink) {
         if (isBucketShuffleJoin(fragmentId)) {
             if (sink instanceof DataStreamSink) {
@@ -1387,6 +1456,9 @@ public class Coordinator {
             if (params.isSetCommitInfos()) {
                 updateCommitInfos(params.getCommitInfos());
             }
+            if (cardinalityFeedbackCollector != null) {
+                cardinalityFeedbackCollector.finishInstance(execState.fragmentId, execState.profile, status.ok());
+            }
             profileDoneSignal.markedCountDown(params.getFragment_instance_id(), -1L);
         }
 
@@ -1478,6 +1550,12 @@ public class Coordinator {
         return profileDoneSignal.getCount() == 0;
     }
 
+    // whether the finished scans of this query returned much more or less rows than estimated, whose row
+    // counts have been fed back to the optimizer
+    public boolean isCardinalityMisestimated() {
+        return cardinalityFeedbackCollector != null && cardinalityFeedbackCollector.isMisestimated();
+    }
+
     // consistent with EXPLAIN's fragment index
     public List<QueryStatisticsItem.FragmentInstanceInfo> getFragmentInstanceInfos() {
         final List<QueryStatisticsItem.FragmentInstanceInfo> result =
@@ -1804,7 +1882,9 @@ public class Coordinator {
                 // For broker load, the ConnectContext.get() is null
                 if (ConnectContext.get() != null &&
                         ConnectContext.get().getSessionVariable().isEnablePipelineEngine()) {
-                    params.setIs_pipeline(fragment.getPlanRoot().canUsePipeLine());
+                    // The multicast sink is only supported by the non-pipeline engine
+                    params.setIs_pipeline(fragment.getPlanRoot().canUsePipeLine() &&
+                            !(fragment instanceof MultiCastPlanFragment));
                 }
                 paramsList.add(params);
             }
@@ -45,6 +45,7 @@ import com.starrocks.analysis.CreateClusterStmt;
 import com.starrocks.analysis.CreateDbStmt;
 import com.starrocks.analysis.CreateFileStmt;
 import com.starrocks.analysis.CreateFunctionStmt;
+import com.starrocks.analysis.CreateAsyncMaterializedViewStmt;
 import com.starrocks.analysis.CreateMaterializedViewStmt;
 import com.starrocks.analysis.CreateRepositoryStmt;
 import com.starrocks.analysis.CreateResourceStmt;
@@ -117,6 +118,8 @@ public class DdlExecutor {
             catalog.createTableLike((CreateTableLikeStmt) ddlStmt);
         } else if (ddlStmt instanceof DropTableStmt) {
             catalog.dropTable((DropTableStmt) ddlStmt);
+        } else if (ddlStmt instanceof CreateAsyncMaterializedViewStmt) {
+            catalog.createAsyncMaterializedView((CreateAsyncMaterializedViewStmt) ddlStmt);
         } else if (ddlStmt instanceof CreateMaterializedViewStmt) {
             catalog.createMaterializedView((CreateMaterializedViewStmt) ddlStmt);
         } else if (ddlStmt instanceof DropMaterializedViewStmt) {
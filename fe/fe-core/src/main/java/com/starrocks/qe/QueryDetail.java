@@ -22,6 +22,7 @@
 package com.starrocks.qe;
 
 import java.io.Serializable;
+import java.util.Map;
 
 public class QueryDetail implements Serializable {
     public enum QueryMemState {
@@ -59,6 +60,8 @@ public class QueryDetail implements Serializable {
     private String errorMessage;
     private String explain;
     private String profile;
+    // phase -> micros, set upon query finished
+    private Map<String, Long> phaseLatency;
 
     public QueryDetail() {
     }
@@ -101,6 +104,7 @@ public class QueryDetail implements Serializable {
         queryDetail.errorMessage = this.errorMessage;
         queryDetail.explain = this.explain;
         queryDetail.profile = this.profile;
+        queryDetail.phaseLatency = this.phaseLatency;
         return queryDetail;
     }
 
@@ -215,4 +219,12 @@ public class QueryDetail implements Serializable {
     public void setProfile(String profile) {
         this.profile = profile;
     }
+
+    public Map<String, Long> getPhaseLatency() {
+        return phaseLatency;
+    }
+
+    public void setPhaseLatency(Map<String, Long> phaseLatency) {
+        this.phaseLatency = phaseLatency;
+    }
 }
@@ -0,0 +1,102 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.qe;
+
+import com.google.common.collect.Maps;
+
+import java.util.Map;
+
+/**
+ * QueryPhaseTracker accumulates the wall time spent in each phase of the statement being executed by a
+ * connection, so that a slow statement can be broken down into parse, analyze, optimize, ... time.
+ * <p>
+ * It's owned by ConnectContext and only touched by the thread executing the statement, so a phase costs
+ * two System.nanoTime() calls and an array update, without any lock or allocation.
+ * Usage:
+ * <pre>
+ *     long startNanos = System.nanoTime();
+ *     ...
+ *     tracker.end(Phase.OPTIMIZE, startNanos);
+ * </pre>
+ */
+public class QueryPhaseTracker {
+    public enum Phase {
+        PARSE("parse"),
+        ANALYZE("analyze"),
+        OPTIMIZE("optimize"),
+        BUILD_FRAGMENT("build_fragment"),
+        // Coordinator.exec, schedule and deliver the fragment instances to backends
+        DEPLOY("deploy"),
+        // wait for the result batches in Coordinator.getNext
+        EXECUTE("execute"),
+        // send the result rows to the client
+        SEND_RESULT("send_result");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    public static final Phase[] PHASES = Phase.values();
+    private static final long NOT_ENTERED = -1;
+
+    private final long[] phaseNanos = new long[PHASES.length];
+
+    public QueryPhaseTracker() {
+        reset();
+    }
+
+    public void reset() {
+        for (int i = 0; i < phaseNanos.length; i++) {
+            phaseNanos[i] = NOT_ENTERED;
+        }
+    }
+
+    // the phase may be entered more than once, e.g. Coordinator.getNext, the time is accumulated
+    public void end(Phase phase, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        int idx = phase.ordinal();
+        phaseNanos[idx] = phaseNanos[idx] == NOT_ENTERED ? elapsed : phaseNanos[idx] + elapsed;
+    }
+
+    public boolean isEntered(Phase phase) {
+        return phaseNanos[phase.ordinal()] != NOT_ENTERED;
+    }
+
+    public long getMicros(Phase phase) {
+        long nanos = phaseNanos[phase.ordinal()];
+        return nanos == NOT_ENTERED ? 0 : nanos / 1000;
+    }
+
+    // phase label -> micros of the entered phases, in the order of phases
+    public Map<String, Long> toMicrosMap() {
+        Map<String, Long> result = Maps.newLinkedHashMap();
+        for (Phase phase : PHASES) {
+            if (isEntered(phase)) {
+                result.put(phase.getLabel(), getMicros(phase));
+            }
+        }
+        return result;
+    }
+
+    // like "parse=12,analyze=230,optimize=1520", in micros
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Phase phase : PHASES) {
+            if (isEntered(phase)) {
+                if (sb.length() > 0) {
+                    sb.append(",");
+                }
+                sb.append(phase.getLabel()).append("=").append(getMicros(phase));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -163,6 +163,7 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     public static final String CBO_MAX_REORDER_NODE_USE_EXHAUSTIVE = "cbo_max_reorder_node_use_exhaustive";
     public static final String CBO_ENABLE_DP_JOIN_REORDER = "cbo_enable_dp_join_reorder";
     public static final String CBO_MAX_REORDER_NODE_USE_DP = "cbo_max_reorder_node_use_dp";
+    public static final String CBO_MAX_REORDER_NODE_USE_DPHYP = "cbo_max_reorder_node_use_dphyp";
     public static final String CBO_ENABLE_GREEDY_JOIN_REORDER = "cbo_enable_greedy_join_reorder";
     // --------  New planner session variables end --------
 
@@ -174,6 +175,17 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
 
     public static final String RUNTIME_JOIN_FILTER_PUSH_DOWN_LIMIT = "runtime_join_filter_push_down_limit";
     public static final String ENABLE_GLOBAL_RUNTIME_FILTER = "enable_global_runtime_filter";
+    public static final String CBO_ENABLE_RUNTIME_FILTER_COST = "cbo_enable_runtime_filter_cost";
+    public static final String ENABLE_TOPN_RUNTIME_FILTER = "enable_topn_runtime_filter";
+    public static final String CBO_SKEW_HOT_KEYS = "cbo_skew_hot_keys";
+    public static final String CBO_SKEW_SALT_NUM = "cbo_skew_salt_num";
+    public static final String CBO_CTE_REUSE = "cbo_cte_reuse";
+    public static final String CBO_CTE_REUSE_RATE = "cbo_cte_reuse_rate";
+    public static final String CBO_PUSH_DOWN_AGGREGATE = "cbo_push_down_aggregate";
+    public static final String CBO_PUSH_DOWN_TOPN = "cbo_push_down_topn";
+    public static final String ENABLE_CBO_CARDINALITY_FEEDBACK = "enable_cbo_cardinality_feedback";
+    public static final String CBO_CARDINALITY_FEEDBACK_ERROR_RATIO = "cbo_cardinality_feedback_error_ratio";
+    public static final String ENABLE_MATERIALIZED_VIEW_REWRITE = "enable_materialized_view_rewrite";
 
     // use vectorized engine
     @VariableMgr.VarAttr(name = ENABLE_VECTORIZED_ENGINE, alias = "vectorized_engine_enable")
@@ -375,6 +387,11 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     @VariableMgr.VarAttr(name = CBO_MAX_REORDER_NODE_USE_DP)
     private long cboMaxReorderNodeUseDP = 10;
 
+    // the join reorder of more atoms than cbo_max_reorder_node_use_dp and not more than it
+    // enumerates the connected subgraphs only
+    @VariableMgr.VarAttr(name = CBO_MAX_REORDER_NODE_USE_DPHYP)
+    private long cboMaxReorderNodeUseDPHyp = 20;
+
     @VariableMgr.VarAttr(name = CBO_ENABLE_GREEDY_JOIN_REORDER)
     private boolean cboEnableGreedyJoinReorder = true;
 
@@ -425,6 +442,55 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     @VariableMgr.VarAttr(name = ENABLE_GLOBAL_RUNTIME_FILTER)
     private boolean enableGlobalRuntimeFilter = true;
 
+    // estimate the runtime filters by statistics, the probe rows filtered by them are
+    // deducted from the cost of hash join, and the useless filters are not built
+    @VariableMgr.VarAttr(name = CBO_ENABLE_RUNTIME_FILTER_COST)
+    private boolean cboEnableRuntimeFilterCost = false;
+
+    // the TopN with limit publishes its threshold as a runtime filter to the scans below it,
+    // see SortNode.buildRuntimeFilters. The backends don't build the filter yet, so it's a no-op until
+    // they do, except that the scans below a TopN wait for it up to runtime_filter_wait_timeout_ms in vain.
+    // Keep it off until then.
+    @VariableMgr.VarAttr(name = ENABLE_TOPN_RUNTIME_FILTER)
+    private boolean enableTopNRuntimeFilter = false;
+
+    // the hot keys of joins and aggregations, such as "tenant_id:1,2;region:EU", their rows
+    // are spread to cbo_skew_salt_num instances, see SkewRewriteRule
+    @VariableMgr.VarAttr(name = CBO_SKEW_HOT_KEYS)
+    private String cboSkewHotKeys = "";
+
+    @VariableMgr.VarAttr(name = CBO_SKEW_SALT_NUM)
+    private int cboSkewSaltNum = 8;
+
+    // share the common table expressions referenced more than once by multicast instead of inlining
+    // them, if the cost of inlining is cbo_cte_reuse_rate times higher than the cost of sharing
+    @VariableMgr.VarAttr(name = CBO_CTE_REUSE)
+    private boolean cboCteReuse = false;
+
+    @VariableMgr.VarAttr(name = CBO_CTE_REUSE_RATE)
+    private double cboCteReuseRate = 1.2;
+
+    // explore pushing down the aggregations through the joins by cost, see PushDownAggJoinRule
+    @VariableMgr.VarAttr(name = CBO_PUSH_DOWN_AGGREGATE)
+    private boolean cboPushDownAggregate = false;
+
+    // push down the TopN with limit through union all, the preserved side of outer joins and projections,
+    // see PushDownTopNUnionRule, PushDownTopNJoinRule and PushDownTopNProjectRule
+    @VariableMgr.VarAttr(name = CBO_PUSH_DOWN_TOPN)
+    private boolean cboPushDownTopN = false;
+
+    // compare the rows of the finished scans with their estimates, and feed the rows back to the optimizer
+    // if the estimate is cbo_cardinality_feedback_error_ratio times more or less than them, see CardinalityFeedback
+    @VariableMgr.VarAttr(name = ENABLE_CBO_CARDINALITY_FEEDBACK)
+    private boolean enableCboCardinalityFeedback = false;
+
+    @VariableMgr.VarAttr(name = CBO_CARDINALITY_FEEDBACK_ERROR_RATIO)
+    private double cboCardinalityFeedbackErrorRatio = 10;
+
+    // rewrite query to read the fresh asynchronous materialized views
+    @VariableMgr.VarAttr(name = ENABLE_MATERIALIZED_VIEW_REWRITE)
+    private boolean enableMaterializedViewRewrite = true;
+
     //In order to be compatible with the logic of the old planner,
     //When the column name is the same as the alias name,
     //the alias will be used as the groupby column if set to true.
@@ -642,6 +708,14 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
         return cboMaxReorderNodeUseDP;
     }
 
+    public void setCboMaxReorderNodeUseDP(long cboMaxReorderNodeUseDP) {
+        this.cboMaxReorderNodeUseDP = cboMaxReorderNodeUseDP;
+    }
+
+    public long getCboMaxReorderNodeUseDPHyp() {
+        return cboMaxReorderNodeUseDPHyp;
+    }
+
     public boolean isCboEnableGreedyJoinReorder() {
         return cboEnableGreedyJoinReorder;
     }
@@ -742,6 +816,94 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
         enableGlobalRuntimeFilter = value;
     }
 
+    public boolean isCboEnableRuntimeFilterCost() {
+        return cboEnableRuntimeFilterCost;
+    }
+
+    public void setCboEnableRuntimeFilterCost(boolean value) {
+        cboEnableRuntimeFilterCost = value;
+    }
+
+    public boolean isEnableTopNRuntimeFilter() {
+        return enableTopNRuntimeFilter;
+    }
+
+    public void setEnableTopNRuntimeFilter(boolean enableTopNRuntimeFilter) {
+        this.enableTopNRuntimeFilter = enableTopNRuntimeFilter;
+    }
+
+    public String getCboSkewHotKeys() {
+        return cboSkewHotKeys;
+    }
+
+    public void setCboSkewHotKeys(String cboSkewHotKeys) {
+        this.cboSkewHotKeys = cboSkewHotKeys;
+    }
+
+    public int getCboSkewSaltNum() {
+        return cboSkewSaltNum;
+    }
+
+    public void setCboSkewSaltNum(int cboSkewSaltNum) {
+        this.cboSkewSaltNum = cboSkewSaltNum;
+    }
+
+    public boolean isCboCteReuse() {
+        return cboCteReuse;
+    }
+
+    public void setCboCteReuse(boolean cboCteReuse) {
+        this.cboCteReuse = cboCteReuse;
+    }
+
+    public double getCboCteReuseRate() {
+        return cboCteReuseRate;
+    }
+
+    public void setCboCteReuseRate(double cboCteReuseRate) {
+        this.cboCteReuseRate = cboCteReuseRate;
+    }
+
+    public boolean isCboPushDownAggregate() {
+        return cboPushDownAggregate;
+    }
+
+    public void setCboPushDownAggregate(boolean cboPushDownAggregate) {
+        this.cboPushDownAggregate = cboPushDownAggregate;
+    }
+
+    public boolean isCboPushDownTopN() {
+        return cboPushDownTopN;
+    }
+
+    public void setCboPushDownTopN(boolean cboPushDownTopN) {
+        this.cboPushDownTopN = cboPushDownTopN;
+    }
+
+    public boolean isEnableCboCardinalityFeedback() {
+        return enableCboCardinalityFeedback;
+    }
+
+    public void setEnableCboCardinalityFeedback(boolean enableCboCardinalityFeedback) {
+        this.enableCboCardinalityFeedback = enableCboCardinalityFeedback;
+    }
+
+    public double getCboCardinalityFeedbackErrorRatio() {
+        return cboCardinalityFeedbackErrorRatio;
+    }
+
+    public void setCboCardinalityFeedbackErrorRatio(double cboCardinalityFeedbackErrorRatio) {
+        this.cboCardinalityFeedbackErrorRatio = cboCardinalityFeedbackErrorRatio;
+    }
+
+    public boolean isEnableMaterializedViewRewrite() {
+        return enableMaterializedViewRewrite;
+    }
+
+    public void setEnableMaterializedViewRewrite(boolean enableMaterializedViewRewrite) {
+        this.enableMaterializedViewRewrite = enableMaterializedViewRewrite;
+    }
+
     public boolean isEnablePipelineEngine() {
         return enablePipelineEngine;
     }
@@ -109,6 +109,7 @@ import com.starrocks.sql.plan.ExecPlan;
 import com.starrocks.statistic.AnalyzeJob;
 import com.starrocks.statistic.Constants;
 import com.starrocks.statistic.StatisticExecutor;
+import com.starrocks.statistic.StatisticUtils;
 import com.starrocks.task.LoadEtlTask;
 import com.starrocks.thrift.TDescriptorTable;
 import com.starrocks.thrift.TExplainLevel;
@@ -350,6 +351,7 @@ public class StmtExecutor {
                 }
 
                 int retryTime = Config.max_query_retry_time;
+                boolean replanned = false;
                 for (int i = 0; i < retryTime; i++) {
                     try {
                         //reset query id for each retry
@@ -391,6 +393,20 @@ public class StmtExecutor {
                         } else {
                             throw e;
                         }
+                    } catch (UserException e) {
+                        // The query may fail because of the misestimated cardinalities, e.g. exceed the memory
+                        // limit by broadcasting a much larger table than estimated. The observed cardinalities
+                        // of its finished stages have been fed back, plan it again with them and retry once.
+                        if (replanned || !execPlanBuildByNewPlanner || coord == null
+                                || !coord.isCardinalityMisestimated() || context.getMysqlChannel().isSend()) {
+                            throw e;
+                        }
+                        LOG.warn("query failed with misestimated cardinalities, re-plan and retry. error: {}, " +
+                                "stmt: {}", e.getMessage(), parsedStmt.getOrigStmt().originStmt);
+                        replanned = true;
+                        execPlan = new StatementPlanner().plan(parsedStmt, context);
+                        // the re-planned execution doesn't count as a retry
+                        retryTime++;
                     } finally {
                         QeProcessorImpl.INSTANCE.unregisterQuery(context.getExecutionId());
                     }
@@ -526,11 +542,9 @@ public class StmtExecutor {
     private void writeProfile(long beginTimeInNanoSecond) {
         initProfile(beginTimeInNanoSecond);
         profile.computeTimeInChildProfile();
-        StringBuilder builder = new StringBuilder();
-        profile.prettyPrint(builder, "");
-        String profileContent = ProfileManager.getInstance().pushProfile(profile);
+        ProfileManager.getInstance().pushProfile(profile);
         if (context.getQueryDetail() != null) {
-            context.getQueryDetail().setProfile(profileContent);
+            context.getQueryDetail().setProfile(profile.toString());
         }
     }
 
@@ -555,7 +569,17 @@ public class StmtExecutor {
     }
 
     // Analyze one statement to structure in memory.
+    // The legacy planner plans the statement while analyzing, so the plan time is also counted as analyze phase.
     public void analyze(TQueryOptions tQueryOptions) throws UserException {
+        long startNanos = System.nanoTime();
+        try {
+            analyzeInternal(tQueryOptions);
+        } finally {
+            context.getPhaseTracker().end(QueryPhaseTracker.Phase.ANALYZE, startNanos);
+        }
+    }
+
+    private void analyzeInternal(TQueryOptions tQueryOptions) throws UserException {
         LOG.info("begin to analyze stmt: {}, forwarded stmt id: {}", context.getStmtId(), context.getForwardedStmtId());
 
         // parsedStmt may already by set when constructing this StmtExecutor();
@@ -776,6 +800,7 @@ public class StmtExecutor {
             batch = coord.getNext();
             // for outfile query, there will be only one empty batch send back with eos flag
             if (batch.getBatch() != null && !isOutfileQuery) {
+                long sendStartNanos = System.nanoTime();
                 // For some language driver, getting error packet after fields packet will be recognized as a success result
                 // so We need to send fields after first batch arrived
                 if (!isSendFields) {
@@ -786,6 +811,7 @@ public class StmtExecutor {
                     channel.sendOnePacket(row);
                 }
                 context.updateReturnRows(batch.getBatch().getRows().size());
+                context.getPhaseTracker().end(QueryPhaseTracker.Phase.SEND_RESULT, sendStartNanos);
             }
             if (batch.isEos()) {
                 break;
@@ -1018,7 +1044,11 @@ public class StmtExecutor {
         try {
             statisticExecutor.collectStatisticSync(db.getId(), table.getId(), analyzeStmt.getColumnNames(),
                     analyzeStmt.isSample(), job.getSampleCollectRows());
+            statisticExecutor.collectColumnGroupStatisticSync(db.getId(), table.getId(),
+                    StatisticUtils.getColumnGroups((OlapTable) table, job.getColumns(), job.getColumnGroups()),
+                    analyzeStmt.isSample(), job.getSampleCollectRows());
             Catalog.getCurrentStatisticStorage().expireColumnStatistics(table, job.getColumns());
+            Catalog.getCurrentStatisticStorage().expireColumnGroupStatistics(table);
         } catch (Exception e) {
             job.setReason(e.getMessage());
             throw e;
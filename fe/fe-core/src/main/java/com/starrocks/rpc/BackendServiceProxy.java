@@ -48,6 +48,8 @@ import org.apache.thrift.TException;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class BackendServiceProxy {
     private static final Logger LOG = LogManager.getLogger(BackendServiceProxy.class);
@@ -55,6 +57,7 @@ public class BackendServiceProxy {
     private RpcClient rpcClient;
     // TODO(zc): use TNetworkAddress,
     private Map<TNetworkAddress, PBackendService> serviceMap;
+    private final Lock createProxyLock = new ReentrantLock();
 
     static {
         int javaRuntimeVersion = JdkUtils.getJavaVersionAsInteger(System.getProperty("java.version"));
@@ -73,24 +76,35 @@ public class BackendServiceProxy {
         }
         rpcOptions.setMaxWait(Config.brpc_idle_wait_max_time);
         rpcClient = new RpcClient(rpcOptions);
-        serviceMap = Maps.newHashMap();
+        serviceMap = Maps.newConcurrentMap();
     }
 
     public static BackendServiceProxy getInstance() {
         return SingletonHolder.INSTANCE;
     }
 
-    private synchronized PBackendService getProxy(TNetworkAddress address) {
+    // called by every rpc, so the existing proxy is got without lock. The proxy is created under a
+    // ReentrantLock instead of a monitor, which doesn't pin the virtual thread of the query.
+    private PBackendService getProxy(TNetworkAddress address) {
         PBackendService service = serviceMap.get(address);
         if (service != null) {
             return service;
         }
-        ProtobufRpcProxy<PBackendService> proxy = new ProtobufRpcProxy(rpcClient, PBackendService.class);
-        proxy.setHost(address.getHostname());
-        proxy.setPort(address.getPort());
-        service = proxy.proxy();
-        serviceMap.put(address, service);
-        return service;
+        createProxyLock.lock();
+        try {
+            service = serviceMap.get(address);
+            if (service != null) {
+                return service;
+            }
+            ProtobufRpcProxy<PBackendService> proxy = new ProtobufRpcProxy(rpcClient, PBackendService.class);
+            proxy.setHost(address.getHostname());
+            proxy.setPort(address.getPort());
+            service = proxy.proxy();
+            serviceMap.put(address, service);
+            return service;
+        } finally {
+            createProxyLock.unlock();
+        }
     }
 
     public Future<PExecPlanFragmentResult> execPlanFragmentAsync(
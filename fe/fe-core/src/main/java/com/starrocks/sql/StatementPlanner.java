@@ -9,6 +9,7 @@ import com.starrocks.catalog.Database;
 import com.starrocks.common.AnalysisException;
 import com.starrocks.planner.PlannerContext;
 import com.starrocks.qe.ConnectContext;
+import com.starrocks.qe.QueryPhaseTracker;
 import com.starrocks.sql.analyzer.PrivilegeChecker;
 import com.starrocks.sql.analyzer.relation.QueryRelation;
 import com.starrocks.sql.analyzer.relation.Relation;
@@ -27,11 +28,13 @@ import java.util.Map;
 
 public class StatementPlanner {
     public ExecPlan plan(StatementBase stmt, ConnectContext session) throws AnalysisException {
+        long analyzeStartNanos = System.nanoTime();
         com.starrocks.sql.analyzer.Analyzer analyzer =
                 new com.starrocks.sql.analyzer.Analyzer(session.getCatalog(), session);
         Relation relation = analyzer.analyze(stmt);
 
         PrivilegeChecker.check(stmt, session.getCatalog().getAuth(), session);
+        session.getPhaseTracker().end(QueryPhaseTracker.Phase.ANALYZE, analyzeStartNanos);
 
         if (stmt instanceof QueryStmt) {
             QueryStmt queryStmt = (QueryStmt) stmt;
@@ -101,6 +101,7 @@ public class Analyzer {
             }
         }
 
+        analyzeColumnGroups(analyzeTable, properties);
         return null;
     }
 
@@ -160,6 +161,34 @@ public class Analyzer {
             }
         }
 
+        if (AnalyzeJob.DEFAULT_ALL_ID != node.getTableId()) {
+            analyzeColumnGroups(MetaUtils.getStarRocksTable(session, node.getTableName()), properties);
+        } else {
+            analyzeColumnGroups(null, properties);
+        }
         return null;
     }
+
+    // The column groups must have at least two columns, and the columns must exist if the table is specified
+    private void analyzeColumnGroups(Table table, Map<String, String> properties) {
+        if (!properties.containsKey(AnalyzeJob.PROP_COLUMN_GROUPS_KEY)) {
+            return;
+        }
+
+        String columnGroups = properties.get(AnalyzeJob.PROP_COLUMN_GROUPS_KEY);
+        for (List<String> columnGroup : AnalyzeJob.parseColumnGroups(columnGroups)) {
+            if (columnGroup.size() < 2) {
+                throw new SemanticException("Column group '%s' must have at least two columns",
+                        String.join(",", columnGroup));
+            }
+            if (table == null) {
+                continue;
+            }
+            for (String colName : columnGroup) {
+                if (table.getColumn(colName) == null) {
+                    throw new SemanticException("Unknown column '%s' in '%s'", colName, table.getName());
+                }
+            }
+        }
+    }
 }
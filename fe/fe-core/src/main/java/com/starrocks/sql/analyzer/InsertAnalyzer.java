@@ -55,7 +55,8 @@ public class InsertAnalyzer {
             List<Long> targetPartitionIds = Lists.newArrayList();
 
             if (targetPartitionNames != null) {
-                if (targetTable.getPartitionInfo().getType() == PartitionType.UNPARTITIONED) {
+                if (targetTable.getPartitionInfo().getType() == PartitionType.UNPARTITIONED
+                        && !targetPartitionNames.isTemp()) {
                     throw new SemanticException("PARTITION clause is not valid for INSERT into unpartitioned table");
                 }
 
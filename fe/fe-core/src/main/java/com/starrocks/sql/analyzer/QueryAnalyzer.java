@@ -50,6 +50,7 @@ import com.starrocks.common.ErrorCode;
 import com.starrocks.common.ErrorReport;
 import com.starrocks.common.TreeNode;
 import com.starrocks.qe.ConnectContext;
+import com.starrocks.sql.analyzer.relation.CTERelation;
 import com.starrocks.sql.analyzer.relation.ExceptRelation;
 import com.starrocks.sql.analyzer.relation.IntersectRelation;
 import com.starrocks.sql.analyzer.relation.JoinRelation;
@@ -99,7 +100,14 @@ public class QueryAnalyzer {
     }
 
     public QueryRelation transformQueryStmt(QueryStmt stmt, Scope parent) {
-        Scope scope = analyzeCTE(stmt, parent);
+        List<CTERelation> cteRelations = new ArrayList<>();
+        Scope scope = analyzeCTE(stmt, parent, cteRelations);
+        QueryRelation queryRelation = transformQueryBody(stmt, scope);
+        queryRelation.setCteRelations(cteRelations);
+        return queryRelation;
+    }
+
+    private QueryRelation transformQueryBody(QueryStmt stmt, Scope scope) {
         if (stmt instanceof SelectStmt) {
             SelectStmt selectStmt = (SelectStmt) stmt;
 
@@ -371,7 +379,7 @@ public class QueryAnalyzer {
         return (SetOperationRelation) setOpRelation;
     }
 
-    private Scope analyzeCTE(QueryStmt stmt, Scope scope) {
+    private Scope analyzeCTE(QueryStmt stmt, Scope scope, List<CTERelation> cteRelations) {
         if (!stmt.hasWithClause()) {
             return scope;
         }
@@ -387,7 +395,9 @@ public class QueryAnalyzer {
              *  and the previous CTE can rewrite the existing table name.
              *  So here will save an increasing AnalyzeState to add cte scope
              */
-            cteScope.addNamedQueries(withQuery.getName(), query);
+            CTERelation cteRelation = new CTERelation(withQuery.getName(), query);
+            cteScope.addNamedQueries(withQuery.getName(), cteRelation);
+            cteRelations.add(cteRelation);
 
             /*
              * use cte column name as output scope of subquery relation fields
@@ -719,9 +729,11 @@ public class QueryAnalyzer {
         TableName tableName = tableRef.getAliasAsName();
 
         if (tableRef.getName() != null && Strings.isNullOrEmpty(tableName.getDb())) {
-            Optional<QueryRelation> withQuery = scope.getNamedQueries(tableRef.getName().getTbl());
+            Optional<CTERelation> withQuery = scope.getNamedQueries(tableRef.getName().getTbl());
             if (withQuery.isPresent()) {
-                QueryRelation qb = withQuery.get();
+                CTERelation cteRelation = withQuery.get();
+                cteRelation.addReference();
+                QueryRelation qb = cteRelation.getCteQuery();
 
                 /*
                  * use colLables as output scope of subquery relation fields
@@ -735,7 +747,7 @@ public class QueryAnalyzer {
                             originField.getOriginExpression()));
                 }
 
-                return new SubqueryRelation(tableRef.getAlias(), qb, outputFields.build());
+                return new SubqueryRelation(tableRef.getAlias(), qb, outputFields.build(), cteRelation);
             }
         }
 
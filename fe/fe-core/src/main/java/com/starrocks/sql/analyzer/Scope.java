@@ -2,7 +2,7 @@
 package com.starrocks.sql.analyzer;
 
 import com.starrocks.analysis.SlotRef;
-import com.starrocks.sql.analyzer.relation.QueryRelation;
+import com.starrocks.sql.analyzer.relation.CTERelation;
 
 import java.util.HashMap;
 import java.util.List;
@@ -18,7 +18,7 @@ public class Scope {
     private RelationId relationId;
     private RelationFields relationFields;
 
-    private Map<String, QueryRelation> namedQueries = new HashMap<>();
+    private Map<String, CTERelation> namedQueries = new HashMap<>();
 
     public Scope(RelationId relationId, RelationFields relation) {
         this.relationId = relationId;
@@ -86,11 +86,11 @@ public class Scope {
         return new ResolvedField(this, field, hierarchyFieldIndex);
     }
 
-    public void addNamedQueries(String name, QueryRelation view) {
+    public void addNamedQueries(String name, CTERelation view) {
         namedQueries.put(name, view);
     }
 
-    public Optional<QueryRelation> getNamedQueries(String name) {
+    public Optional<CTERelation> getNamedQueries(String name) {
         if (namedQueries.containsKey(name)) {
             return Optional.of(namedQueries.get(name));
         }
@@ -0,0 +1,63 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+package com.starrocks.sql.analyzer.relation;
+
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+
+import java.util.List;
+
+/**
+ * The definition of a common table expression in WITH clause, which is shared by all
+ * the SubqueryRelation referencing it.
+ */
+public class CTERelation {
+    private final String name;
+    private final QueryRelation cteQuery;
+    private int referenceCount = 0;
+    // Assigned by RelationTransformer if the cte is planned as cte producer and consumers,
+    // -1 means the cte is inlined
+    private int cteId = -1;
+    // The output columns of cte producer, the columns of consumers are mapped to them by position
+    private List<ColumnRefOperator> cteOutputColumns;
+
+    public CTERelation(String name, QueryRelation cteQuery) {
+        this.name = name;
+        this.cteQuery = cteQuery;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public QueryRelation getCteQuery() {
+        return cteQuery;
+    }
+
+    public int getReferenceCount() {
+        return referenceCount;
+    }
+
+    public void addReference() {
+        referenceCount++;
+    }
+
+    public int getCteId() {
+        return cteId;
+    }
+
+    public void setCteId(int cteId) {
+        this.cteId = cteId;
+    }
+
+    public List<ColumnRefOperator> getCteOutputColumns() {
+        return cteOutputColumns;
+    }
+
+    public void setCteOutputColumns(List<ColumnRefOperator> cteOutputColumns) {
+        this.cteOutputColumns = cteOutputColumns;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -7,6 +7,7 @@ import com.starrocks.analysis.Expr;
 import com.starrocks.sql.analyzer.FieldId;
 import com.starrocks.sql.analyzer.Scope;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -28,6 +29,11 @@ public abstract class QueryRelation extends Relation {
      */
     private final List<String> columnOutputNames;
 
+    /**
+     * The common table expressions defined by the WITH clause of this query, in definition order
+     */
+    private List<CTERelation> cteRelations = new ArrayList<>();
+
     public QueryRelation(List<Expr> outputExpr, Scope outputScope, List<String> columnOutputNames) {
         super(outputScope.getRelationFields());
         this.outputExpr = outputExpr;
@@ -56,6 +62,14 @@ public abstract class QueryRelation extends Relation {
         this.outputExpr = outputExpr;
     }
 
+    public List<CTERelation> getCteRelations() {
+        return cteRelations;
+    }
+
+    public void setCteRelations(List<CTERelation> cteRelations) {
+        this.cteRelations = cteRelations;
+    }
+
     public Map<Expr, FieldId> getColumnReferences() {
         return Maps.newHashMap();
     }
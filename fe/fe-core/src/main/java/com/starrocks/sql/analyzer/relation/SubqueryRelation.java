@@ -9,11 +9,18 @@ import java.util.List;
 public class SubqueryRelation extends Relation {
     private final String name;
     private final QueryRelation query;
+    // Not null if the subquery is a reference of common table expression
+    private final CTERelation cteRelation;
 
     public SubqueryRelation(String name, QueryRelation query, List<Field> relationFields) {
+        this(name, query, relationFields, null);
+    }
+
+    public SubqueryRelation(String name, QueryRelation query, List<Field> relationFields, CTERelation cteRelation) {
         super(new RelationFields(relationFields));
         this.name = name;
         this.query = query;
+        this.cteRelation = cteRelation;
         // The order by is meaningless in subquery
         if (this.query instanceof QuerySpecification && !((QuerySpecification) this.query).hasLimit()) {
             QuerySpecification qs = (QuerySpecification) this.query;
@@ -29,6 +36,10 @@ public class SubqueryRelation extends Relation {
         return query;
     }
 
+    public CTERelation getCteRelation() {
+        return cteRelation;
+    }
+
     @Override
     public String toString() {
         return name == null ? "anonymous" : name;
@@ -0,0 +1,25 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer;
+
+import com.google.common.collect.Maps;
+import com.starrocks.sql.optimizer.statistics.Statistics;
+
+import java.util.Map;
+
+/**
+ * The shared common table expressions of a query, the consumers derive their statistics
+ * from the statistics of the producer.
+ */
+public class CTEContext {
+    // cte id -> statistics of the cte producer
+    private final Map<Integer, Statistics> produceStatistics = Maps.newHashMap();
+
+    public void addProduceStatistics(int cteId, Statistics statistics) {
+        produceStatistics.put(cteId, statistics);
+    }
+
+    public Statistics getProduceStatistics(int cteId) {
+        return produceStatistics.get(cteId);
+    }
+}
@@ -24,6 +24,9 @@ import com.starrocks.sql.optimizer.operator.OperatorVisitor;
 import com.starrocks.sql.optimizer.operator.logical.LogicalOlapScanOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalAssertOneRowOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalCTEAnchorOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalCTEConsumeOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalCTEProduceOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalEsScanOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalExceptOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalFilterOperator;
@@ -779,6 +782,29 @@ public class ChildPropertyDeriver extends OperatorVisitor<Void, ExpressionContex
         return visitOperator(node, context);
     }
 
+    @Override
+    public Void visitPhysicalCTEAnchor(PhysicalCTEAnchorOperator node, ExpressionContext context) {
+        // The cte producer has no requirement, and pass through the requirements to the query consuming the cte
+        outputInputProps.add(new Pair<>(requirements, Lists.newArrayList(PhysicalPropertySet.EMPTY, requirements)));
+        return visitOperator(node, context);
+    }
+
+    @Override
+    public Void visitPhysicalCTEProduce(PhysicalCTEProduceOperator node, ExpressionContext context) {
+        outputInputProps.add(new Pair<>(PhysicalPropertySet.EMPTY, Lists.newArrayList(PhysicalPropertySet.EMPTY)));
+        return visitOperator(node, context);
+    }
+
+    @Override
+    public Void visitPhysicalCTEConsume(PhysicalCTEConsumeOperator node, ExpressionContext context) {
+        // The result of cte producer is sent to the consumer randomly, so it can't satisfy any local requirement
+        if (getRequiredLocalDesc().isPresent()) {
+            return visitOperator(node, context);
+        }
+        outputInputProps.add(new Pair<>(PhysicalPropertySet.EMPTY, Lists.newArrayList()));
+        return visitOperator(node, context);
+    }
+
     @Override
     public Void visitPhysicalFilter(PhysicalFilterOperator node, ExpressionContext context) {
         // Pass through the requirements to the child
@@ -5,6 +5,7 @@ package com.starrocks.sql.optimizer;
 import com.google.common.base.Preconditions;
 import com.starrocks.sql.optimizer.base.ColumnRefFactory;
 import com.starrocks.sql.optimizer.base.ColumnRefSet;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalCTEAnchorOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalOperator;
 import com.starrocks.sql.optimizer.rewrite.PhysicalOperatorTreeRewriteRule;
 
@@ -33,6 +34,14 @@ public class DeriveOutputColumnsRule extends OptExpressionVisitor<Void, Void> im
         PhysicalOperator physical = (PhysicalOperator) optExpression.getOp();
         requiredColumns.union(physical.getUsedColumns());
 
+        if (physical instanceof PhysicalCTEAnchorOperator) {
+            // The columns of cte producer are used by the consumers, so visit the consumers first
+            for (int i = optExpression.arity() - 1; i >= 0; --i) {
+                visit(optExpression.inputAt(i), context);
+            }
+            return null;
+        }
+
         for (OptExpression child : optExpression.getInputs()) {
             visit(child, context);
         }
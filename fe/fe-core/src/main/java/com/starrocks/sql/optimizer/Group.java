@@ -4,6 +4,7 @@ package com.starrocks.sql.optimizer;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.starrocks.common.Pair;
 import com.starrocks.sql.optimizer.base.LogicalProperty;
 import com.starrocks.sql.optimizer.base.PhysicalPropertySet;
@@ -13,6 +14,7 @@ import org.apache.logging.log4j.Logger;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * A group is a set of logically equivalent logical and
@@ -35,6 +37,11 @@ public class Group {
 
     private final List<GroupExpression> logicalExpressions;
     private final List<GroupExpression> physicalExpressions;
+    // The group expressions in memo taking this group as input, so merging or removing this group only
+    // visits them instead of all the group expressions. It's an identity set because the hash of group
+    // expression changes when its inputs are merged, and it may contain the group expressions removed from
+    // memo, which should be checked by the caller.
+    private final Set<GroupExpression> parentExpressions;
 
     private Statistics statistics;
     // confidence statistics record the statistics when group expression has lowest cost,
@@ -51,6 +58,7 @@ public class Group {
         this.id = groupId;
         logicalExpressions = Lists.newArrayList();
         physicalExpressions = Lists.newArrayList();
+        parentExpressions = Sets.newIdentityHashSet();
         lowestCostExpressions = Maps.newHashMap();
     }
 
@@ -86,6 +94,18 @@ public class Group {
         return physicalExpressions;
     }
 
+    public Set<GroupExpression> getParentExpressions() {
+        return parentExpressions;
+    }
+
+    public void addParentExpression(GroupExpression groupExpression) {
+        parentExpressions.add(groupExpression);
+    }
+
+    public void removeParentExpression(GroupExpression groupExpression) {
+        parentExpressions.remove(groupExpression);
+    }
+
     // A valid group should at least has one logical expression
     public GroupExpression getFirstLogicalExpression() {
         return logicalExpressions.get(0);
@@ -14,7 +14,6 @@ import com.starrocks.sql.optimizer.rule.RuleType;
 import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 
 /**
  * A group-expression is the same as an expression except
@@ -32,12 +31,16 @@ public class GroupExpression {
     private Group group;
     private final List<Group> inputs;
     private final Operator op;
+    // The hash of the operator tree is computed once, the operator in memo is immutable. The group
+    // expressions with different hash can't be equal, so it's compared before the operators.
+    private final int opHashCode;
     private final BitSet ruleMasks = new BitSet(RuleType.NUM_RULES.ordinal() + 1);
     private boolean statsDerived = false;
     private final Map<PhysicalPropertySet, Pair<Double, List<PhysicalPropertySet>>> lowestCostTable;
 
     public GroupExpression(Operator op, List<Group> inputs) {
         this.op = op;
+        this.opHashCode = op.hashCode();
         this.inputs = inputs;
         this.lowestCostTable = Maps.newHashMap();
     }
@@ -159,7 +162,12 @@ public class GroupExpression {
 
     @Override
     public int hashCode() {
-        return Objects.hash(op, inputs);
+        // the hash of group is its id
+        int hashCode = opHashCode;
+        for (Group input : inputs) {
+            hashCode = 31 * hashCode + input.getId();
+        }
+        return hashCode;
     }
 
     @Override
@@ -171,10 +179,7 @@ public class GroupExpression {
         if (this == rhs) {
             return true;
         }
-        if (!op.equals(rhs.getOp())) {
-            return false;
-        }
-        if (arity() != rhs.arity()) {
+        if (opHashCode != rhs.opHashCode || arity() != rhs.arity()) {
             return false;
         }
         for (int i = 0; i < arity(); ++i) {
@@ -182,7 +187,7 @@ public class GroupExpression {
                 return false;
             }
         }
-        return true;
+        return op.equals(rhs.getOp());
     }
 
     @Override
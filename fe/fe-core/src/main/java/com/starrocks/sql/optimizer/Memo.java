@@ -9,7 +9,6 @@ import com.starrocks.common.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -80,8 +79,8 @@ public class Memo {
     }
 
     public Pair<Boolean, GroupExpression> insertGroupExpression(GroupExpression groupExpression, Group targetGroup) {
-        if (groupExpressions.get(groupExpression) != null) {
-            GroupExpression existedGroupExpression = groupExpressions.get(groupExpression);
+        GroupExpression existedGroupExpression = groupExpressions.get(groupExpression);
+        if (existedGroupExpression != null) {
             Group existedGroup = existedGroupExpression.getGroup();
 
             if (needMerge(targetGroup, existedGroup)) {
@@ -97,6 +96,9 @@ public class Memo {
         }
 
         groupExpressions.put(groupExpression, groupExpression);
+        for (Group input : groupExpression.getInputs()) {
+            input.addParentExpression(groupExpression);
+        }
 
         targetGroup.addExpression(groupExpression);
 
@@ -157,33 +159,32 @@ public class Memo {
         }
 
         // If we change the GroupExpression child group, the hash value of GroupExpression
-        // will change, so we must reinsert the GroupExpression to groupExpressions map
+        // will change, so we must reinsert the GroupExpression to groupExpressions map.
+        // Only the parent expressions of srcGroup refer to it.
         List<GroupExpression> needReinsertedExpressions = Lists.newArrayList();
-        for (Iterator<Map.Entry<GroupExpression, GroupExpression>>
-                iterator = groupExpressions.entrySet().iterator(); iterator.hasNext(); ) {
-            GroupExpression groupExpr = iterator.next().getKey();
-
-            // 1 Find which group expression need to reinsert
-            int referSrcGroupIndex = -1;
+        for (GroupExpression groupExpr : srcGroup.getParentExpressions()) {
+            if (!isInMemo(groupExpr)) {
+                continue;
+            }
+            // 1 Remove the GroupExpression from the groupExpressions map
+            // 2 Change the child group from srcGroup to dstGroup
+            groupExpressions.remove(groupExpr);
             for (int i = 0; i < groupExpr.getInputs().size(); i++) {
                 if (groupExpr.getInputs().get(i) == srcGroup) {
-                    referSrcGroupIndex = i;
-                    break;
+                    groupExpr.getInputs().set(i, dstGroup);
                 }
             }
+            dstGroup.addParentExpression(groupExpr);
+            needReinsertedExpressions.add(groupExpr);
+        }
+        srcGroup.getParentExpressions().clear();
 
-            // 2 Remove the GroupExpression from the groupExpressions map
-            // 3 Change the child group from srcGroup to dstGroup
-            if (referSrcGroupIndex >= 0) {
-                iterator.remove();
-                groupExpr.getInputs().set(referSrcGroupIndex, dstGroup);
-                needReinsertedExpressions.add(groupExpr);
-            }
-
-            // 4 Change the group of GroupExpression
-            if (groupExpr.getGroup() == srcGroup) {
-                groupExpr.setGroup(dstGroup);
-            }
+        // 3 Change the group of GroupExpression
+        for (GroupExpression groupExpr : srcGroup.getLogicalExpressions()) {
+            groupExpr.setGroup(dstGroup);
+        }
+        for (GroupExpression groupExpr : srcGroup.getPhysicalExpressions()) {
+            groupExpr.setGroup(dstGroup);
         }
 
         for (GroupExpression groupExpression : needReinsertedExpressions) {
@@ -233,19 +234,31 @@ public class Memo {
     private void removeOneGroup(Group group) {
         groups.remove(group);
 
-        for (Iterator<Map.Entry<GroupExpression, GroupExpression>>
-                iterator = groupExpressions.entrySet().iterator(); iterator.hasNext(); ) {
-            GroupExpression groupExpr = iterator.next().getKey();
-            if (groupExpr.getGroup() == group) {
-                iterator.remove();
-                continue;
+        for (GroupExpression groupExpr : group.getLogicalExpressions()) {
+            removeFromMemo(groupExpr);
+        }
+        for (GroupExpression groupExpr : group.getPhysicalExpressions()) {
+            removeFromMemo(groupExpr);
+        }
+        for (GroupExpression groupExpr : Lists.newArrayList(group.getParentExpressions())) {
+            if (isInMemo(groupExpr)) {
+                groupExpr.getGroup().removeGroupExpression(groupExpr);
+                removeFromMemo(groupExpr);
             }
-            for (int i = 0; i < groupExpr.getInputs().size(); i++) {
-                if (groupExpr.getInputs().get(i) == group) {
-                    groupExpr.getGroup().removeGroupExpression(groupExpr);
-                    iterator.remove();
-                    break;
-                }
+        }
+        group.getParentExpressions().clear();
+    }
+
+    // The group expression may be a duplicate of the one in memo, which has been removed from memo
+    private boolean isInMemo(GroupExpression groupExpression) {
+        return groupExpressions.get(groupExpression) == groupExpression;
+    }
+
+    private void removeFromMemo(GroupExpression groupExpression) {
+        if (isInMemo(groupExpression)) {
+            groupExpressions.remove(groupExpression);
+            for (Group input : groupExpression.getInputs()) {
+                input.removeParentExpression(groupExpression);
             }
         }
     }
@@ -261,7 +274,7 @@ public class Memo {
 
     private void removeGroupInitLogicExpression(Group group) {
         GroupExpression initGroupExpression = group.getFirstLogicalExpression();
-        groupExpressions.remove(initGroupExpression);
+        removeFromMemo(initGroupExpression);
 
         Preconditions.checkState(group.isValidInitState());
 
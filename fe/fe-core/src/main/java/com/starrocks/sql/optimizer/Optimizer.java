@@ -4,7 +4,9 @@ package com.starrocks.sql.optimizer;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
+import com.starrocks.catalog.Catalog;
 import com.starrocks.qe.ConnectContext;
+import com.starrocks.qe.QueryPhaseTracker;
 import com.starrocks.sql.optimizer.base.ColumnRefFactory;
 import com.starrocks.sql.optimizer.base.ColumnRefSet;
 import com.starrocks.sql.optimizer.base.PhysicalPropertySet;
@@ -15,7 +17,10 @@ import com.starrocks.sql.optimizer.rewrite.ExchangeSortToMergeRule;
 import com.starrocks.sql.optimizer.rule.RuleSetType;
 import com.starrocks.sql.optimizer.rule.implementation.PreAggregateTurnOnRule;
 import com.starrocks.sql.optimizer.rule.join.ReorderJoinRule;
+import com.starrocks.sql.optimizer.rule.mv.AsyncMaterializedViewRule;
 import com.starrocks.sql.optimizer.rule.mv.MaterializedViewRule;
+import com.starrocks.sql.optimizer.rule.transformation.CTEReuseRule;
+import com.starrocks.sql.optimizer.rule.transformation.SkewRewriteRule;
 import com.starrocks.sql.optimizer.task.DeriveStatsTask;
 import com.starrocks.sql.optimizer.task.OptimizeGroupTask;
 import com.starrocks.sql.optimizer.task.TaskContext;
@@ -49,6 +54,7 @@ public class Optimizer {
                                   PhysicalPropertySet requiredProperty,
                                   ColumnRefSet requiredColumns,
                                   ColumnRefFactory columnRefFactory) {
+        long startNanos = System.nanoTime();
         // Phase 1: none
         // Phase 2: rewrite based on memo and group
         Memo memo = new Memo();
@@ -78,6 +84,34 @@ public class Optimizer {
                 memo.getRootGroup(), RuleSetType.PUSH_DOWN_PREDICATE));
         context.getTaskScheduler().executeTasks(rootTaskContext, memo.getRootGroup());
 
+        // Decide whether to share or inline the ctes after the predicates are pushed down to the
+        // consumers, and push down the common predicates of the consumers to the shared producers
+        if (connectContext.getSessionVariable().isCboCteReuse()) {
+            OptExpression tree = memo.getRootGroup().extractLogicalTree();
+            CTEReuseRule cteReuseRule = new CTEReuseRule();
+            cteReuseRule.transform(tree, context);
+            if (cteReuseRule.hasProduceFilter()) {
+                context.getTaskScheduler().pushTask(new TopDownRewriteTask(rootTaskContext,
+                        memo.getRootGroup(), RuleSetType.PUSH_DOWN_PREDICATE));
+                context.getTaskScheduler().executeTasks(rootTaskContext, memo.getRootGroup());
+            }
+        }
+
+        // Rewrite with asynchronous materialized views after the predicates are pushed down,
+        // and before the columns are pruned, so the rewritten plan is pruned as well
+        if (connectContext.getSessionVariable().isEnableMaterializedViewRewrite()
+                && !Catalog.getCurrentCatalog().getMaterializedViewIndex().isEmpty()) {
+            OptExpression tree = memo.getRootGroup().extractLogicalTree();
+            new AsyncMaterializedViewRule().transform(tree, context);
+        }
+
+        // Salt the hot keys before the columns are pruned, so the unused columns of the salt
+        // projections are pruned as well
+        if (!connectContext.getSessionVariable().getCboSkewHotKeys().isEmpty()) {
+            OptExpression tree = memo.getRootGroup().extractLogicalTree();
+            new SkewRewriteRule().transform(tree, context);
+        }
+
         context.getTaskScheduler().pushTask(new TopDownRewriteTask(rootTaskContext,
                 memo.getRootGroup(), RuleSetType.PRUNE_COLUMNS));
         context.getTaskScheduler().executeTasks(rootTaskContext, memo.getRootGroup());
@@ -141,6 +175,10 @@ public class Optimizer {
             context.getRuleSet().addPushDownJoinToAggRule();
         }
 
+        if (connectContext.getSessionVariable().isCboPushDownAggregate()) {
+            context.getRuleSet().addPushDownAggToJoinRule();
+        }
+
         context.getTaskScheduler().pushTask(new OptimizeGroupTask(
                 rootTaskContext, memo.getRootGroup()));
 
@@ -160,6 +198,7 @@ public class Optimizer {
 
         // Add project will case output change, re-derive output columns in property
         result = new DeriveOutputColumnsRule((ColumnRefSet) requiredColumns.clone()).rewrite(result, columnRefFactory);
+        connectContext.getPhaseTracker().end(QueryPhaseTracker.Phase.OPTIMIZE, startNanos);
         return result;
     }
 
@@ -24,6 +24,7 @@ public class OptimizerContext {
     private final ColumnRefFactory columnRefFactory;
     private SessionVariable sessionVariable;
     private DumpInfo dumpInfo;
+    private final CTEContext cteContext = new CTEContext();
 
     public OptimizerContext(Memo memo, ColumnRefFactory columnRefFactory) {
         this.memo = memo;
@@ -86,4 +87,8 @@ public class OptimizerContext {
     public DumpInfo getDumpInfo() {
         return dumpInfo;
     }
+
+    public CTEContext getCteContext() {
+        return cteContext;
+    }
 }
@@ -6,6 +6,8 @@ import com.google.common.base.Preconditions;
 import com.starrocks.sql.optimizer.ExpressionContext;
 import com.starrocks.sql.optimizer.operator.Operator;
 import com.starrocks.sql.optimizer.operator.OperatorVisitor;
+import com.starrocks.sql.optimizer.operator.logical.LogicalCTEAnchorOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalCTEConsumeOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalExceptOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalIntersectOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalJoinOperator;
@@ -88,6 +90,20 @@ public class LogicalProperty implements Property {
         public Integer visitLogicalTableFunction(LogicalTableFunctionOperator node, ExpressionContext context) {
             return 1;
         }
+
+        @Override
+        public Integer visitLogicalCTEAnchor(LogicalCTEAnchorOperator node, ExpressionContext context) {
+            return context.getChildLeftMostScanTabletsNum(1);
+        }
+
+        @Override
+        public Integer visitLogicalCTEConsume(LogicalCTEConsumeOperator node, ExpressionContext context) {
+            if (context.arity() == 0) {
+                // the shared cte is read from exchange, this is not 1 because avoid to generate 1 phase agg
+                return 2;
+            }
+            return context.getChildLeftMostScanTabletsNum(0);
+        }
     }
 
     static class OneInstanceExecutorVisitor extends OperatorVisitor<Boolean, ExpressionContext> {
@@ -140,5 +156,15 @@ public class LogicalProperty implements Property {
         public Boolean visitLogicalTableFunction(LogicalTableFunctionOperator node, ExpressionContext context) {
             return false;
         }
+
+        @Override
+        public Boolean visitLogicalCTEAnchor(LogicalCTEAnchorOperator node, ExpressionContext context) {
+            return context.isExecuteInOneInstance(1);
+        }
+
+        @Override
+        public Boolean visitLogicalCTEConsume(LogicalCTEConsumeOperator node, ExpressionContext context) {
+            return context.arity() != 0 && context.isExecuteInOneInstance(0);
+        }
     }
 }
@@ -9,12 +9,14 @@ import com.starrocks.sql.common.ErrorType;
 import com.starrocks.sql.common.StarRocksPlannerException;
 import com.starrocks.sql.optimizer.ExpressionContext;
 import com.starrocks.sql.optimizer.GroupExpression;
+import com.starrocks.sql.optimizer.Utils;
 import com.starrocks.sql.optimizer.base.DistributionSpec;
 import com.starrocks.sql.optimizer.operator.Operator;
 import com.starrocks.sql.optimizer.operator.OperatorType;
 import com.starrocks.sql.optimizer.operator.OperatorVisitor;
 import com.starrocks.sql.optimizer.operator.logical.LogicalOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalAssertOneRowOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalCTEConsumeOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalDistributionOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalHashAggregateOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalHashJoinOperator;
@@ -23,12 +25,15 @@ import com.starrocks.sql.optimizer.operator.physical.PhysicalOlapScanOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalProjectOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalTopNOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalWindowOperator;
+import com.starrocks.sql.optimizer.operator.scalar.BinaryPredicateOperator;
 import com.starrocks.sql.optimizer.operator.scalar.CallOperator;
 import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.rule.transformation.JoinPredicateUtils;
 import com.starrocks.sql.optimizer.statistics.ColumnStatistic;
 import com.starrocks.sql.optimizer.statistics.Statistics;
 import com.starrocks.statistic.Constants;
 
+import java.util.List;
 import java.util.Map;
 
 public class CostModel {
@@ -265,12 +270,31 @@ public class CostModel {
                                 statistics.getOutputSize()) * Constants.CrossJoinCostPenalty,
                         rightStatistics.getOutputSize() * Constants.CrossJoinCostPenalty, 0);
             } else {
-                return CostEstimate.of(leftStatistics.getOutputSize() + rightStatistics.getOutputSize() +
-                                statistics.getOutputSize(),
+                double probeSelectivity = estimateRuntimeFilterSelectivity(join, context);
+                return CostEstimate.of(leftStatistics.getOutputSize() * probeSelectivity +
+                                rightStatistics.getOutputSize() + statistics.getOutputSize(),
                         rightStatistics.getOutputSize(), 0);
             }
         }
 
+        // the fraction of the probe rows passing the runtime filters built by the join
+        private double estimateRuntimeFilterSelectivity(PhysicalHashJoinOperator join, ExpressionContext context) {
+            ConnectContext connectContext = ConnectContext.get();
+            if (connectContext == null || !connectContext.getSessionVariable().isCboEnableRuntimeFilterCost()) {
+                return 1;
+            }
+            if (!join.getJoinType().isInnerJoin() && !join.getJoinType().isLeftSemiJoin()) {
+                return 1;
+            }
+            List<BinaryPredicateOperator> eqOnPredicates = JoinPredicateUtils.getEqConj(
+                    context.getChildOutputColumns(0), context.getChildOutputColumns(1),
+                    Utils.extractConjuncts(join.getJoinPredicate()));
+            List<RuntimeFilterEstimator.Estimate> estimates = RuntimeFilterEstimator.estimate(
+                    context.getChildOutputColumns(0), context.getChildStatistics(0),
+                    context.getChildStatistics(1), eqOnPredicates);
+            return RuntimeFilterEstimator.estimateProbeSelectivity(estimates);
+        }
+
         @Override
         public CostEstimate visitPhysicalAssertOneRow(PhysicalAssertOneRowOperator node, ExpressionContext context) {
             //TODO: Add cost estimate
@@ -284,5 +308,15 @@ public class CostModel {
 
             return CostEstimate.ofCpu(statistics.getOutputSize());
         }
+
+        @Override
+        public CostEstimate visitPhysicalCTEConsume(PhysicalCTEConsumeOperator node, ExpressionContext context) {
+            // The consumer reads the result of cte producer by exchange, the cost of producer is
+            // only counted once in the cte anchor
+            Statistics statistics = context.getStatistics();
+            Preconditions.checkNotNull(statistics);
+
+            return CostEstimate.of(statistics.getOutputSize(), 0, statistics.getOutputSize());
+        }
     }
 }
@@ -0,0 +1,161 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.cost;
+
+import com.google.common.collect.Lists;
+import com.starrocks.planner.RuntimeFilterDescription;
+import com.starrocks.sql.optimizer.base.ColumnRefSet;
+import com.starrocks.sql.optimizer.operator.scalar.BinaryPredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+import com.starrocks.sql.optimizer.statistics.ColumnStatistic;
+import com.starrocks.sql.optimizer.statistics.Statistics;
+
+import java.util.List;
+
+/**
+ * Estimate the runtime filters built by the equal predicates of a hash join from the statistics
+ * of the build side and the probe side. The selectivity of a filter is the fraction of the probe
+ * rows passing it:
+ * <ul>
+ *   <li>IN filter, the build side has few distinct values, it's exact, so the selectivity is
+ *   the fraction of the probe values contained in the build values.</li>
+ *   <li>MIN_MAX filter, the selectivity is the overlap of the build value range and the probe
+ *   value range, it's chosen if it filters almost as many rows as the bloom filter.</li>
+ *   <li>BLOOM filter, the selectivity is the contained fraction plus the false positives.</li>
+ * </ul>
+ */
+public class RuntimeFilterEstimator {
+    // the max distinct values of the build side to use IN filter
+    public static final double IN_FILTER_MAX_VALUES = 1024;
+    // false positive probability of the bloom filter
+    public static final double BLOOM_FILTER_FPP = 0.05;
+    // use min-max filter if its selectivity is at most this much larger than the bloom filter
+    public static final double MIN_MAX_FILTER_TOLERANCE = 0.05;
+    // the filter is useless if more probe rows than this fraction pass it
+    public static final double USELESS_FILTER_SELECTIVITY = 0.9;
+
+    public static class Estimate {
+        private static final Estimate UNKNOWN = new Estimate(RuntimeFilterDescription.FilterType.BLOOM, 1, false);
+
+        private final RuntimeFilterDescription.FilterType type;
+        private final double selectivity;
+        private final boolean known;
+
+        Estimate(RuntimeFilterDescription.FilterType type, double selectivity, boolean known) {
+            this.type = type;
+            this.selectivity = selectivity;
+            this.known = known;
+        }
+
+        public static Estimate unknown() {
+            return UNKNOWN;
+        }
+
+        public RuntimeFilterDescription.FilterType getType() {
+            return type;
+        }
+
+        public double getSelectivity() {
+            return selectivity;
+        }
+
+        public boolean isKnown() {
+            return known;
+        }
+
+        // the filter is built anyway without statistics
+        public boolean isUseless() {
+            return known && selectivity > USELESS_FILTER_SELECTIVITY;
+        }
+
+        @Override
+        public String toString() {
+            return known ? type + "(" + selectivity + ")" : "UNKNOWN";
+        }
+    }
+
+    /**
+     * Estimate the filter built by buildColumn with buildRows rows and applied on probeColumn.
+     */
+    public static Estimate estimate(ColumnStatistic buildColumn, double buildRows, ColumnStatistic probeColumn) {
+        if (buildColumn == null || probeColumn == null || buildColumn.isUnknown() || probeColumn.isUnknown()) {
+            return Estimate.unknown();
+        }
+        double buildValues = Math.max(1, Math.min(buildColumn.getDistinctValuesCount(), buildRows));
+        double probeValues = Math.max(1, probeColumn.getDistinctValuesCount());
+        double containSelectivity = Math.min(1, buildValues / probeValues);
+        // null never matches an equal predicate
+        double notNullFraction = 1 - probeColumn.getNullsFraction();
+
+        if (buildValues <= IN_FILTER_MAX_VALUES) {
+            return new Estimate(RuntimeFilterDescription.FilterType.IN, containSelectivity * notNullFraction, true);
+        }
+
+        double rangeSelectivity = estimateRangeSelectivity(buildColumn, probeColumn);
+        double bloomSelectivity = containSelectivity + (1 - containSelectivity) * BLOOM_FILTER_FPP;
+        if (rangeSelectivity <= bloomSelectivity + MIN_MAX_FILTER_TOLERANCE) {
+            return new Estimate(RuntimeFilterDescription.FilterType.MIN_MAX, rangeSelectivity * notNullFraction, true);
+        }
+        // bloom filter checks the min-max range too
+        return new Estimate(RuntimeFilterDescription.FilterType.BLOOM,
+                Math.min(rangeSelectivity, bloomSelectivity) * notNullFraction, true);
+    }
+
+    // the fraction of the probe value range covered by the build value range, assuming uniform distribution
+    private static double estimateRangeSelectivity(ColumnStatistic buildColumn, ColumnStatistic probeColumn) {
+        double probeMin = probeColumn.getMinValue();
+        double probeMax = probeColumn.getMaxValue();
+        double buildMin = buildColumn.getMinValue();
+        double buildMax = buildColumn.getMaxValue();
+        if (Double.isInfinite(probeMin) || Double.isInfinite(probeMax) || Double.isNaN(probeMin) ||
+                Double.isNaN(probeMax) || Double.isInfinite(buildMin) || Double.isInfinite(buildMax) ||
+                Double.isNaN(buildMin) || Double.isNaN(buildMax) || probeMax <= probeMin) {
+            return 1;
+        }
+        double overlap = Math.min(probeMax, buildMax) - Math.max(probeMin, buildMin);
+        if (overlap < 0) {
+            return 0;
+        }
+        return Math.min(1, overlap / (probeMax - probeMin));
+    }
+
+    /**
+     * Estimate the filters of the equal predicates in order, the column of a predicate in probeColumns
+     * is the probe column.
+     */
+    public static List<Estimate> estimate(ColumnRefSet probeColumns, Statistics probeStatistics,
+                                          Statistics buildStatistics, List<BinaryPredicateOperator> eqPredicates) {
+        List<Estimate> estimates = Lists.newArrayList();
+        for (BinaryPredicateOperator predicate : eqPredicates) {
+            ScalarOperator probe = predicate.getChild(0);
+            ScalarOperator build = predicate.getChild(1);
+            if (!probeColumns.contains(probe.getUsedColumns())) {
+                probe = predicate.getChild(1);
+                build = predicate.getChild(0);
+            }
+            if (!probe.isColumnRef() || !build.isColumnRef()) {
+                estimates.add(Estimate.unknown());
+                continue;
+            }
+            ColumnStatistic probeColumn = probeStatistics.getColumnStatistics().get((ColumnRefOperator) probe);
+            ColumnStatistic buildColumn = buildStatistics.getColumnStatistics().get((ColumnRefOperator) build);
+            estimates.add(estimate(buildColumn, buildStatistics.getOutputRowCount(), probeColumn));
+        }
+        return estimates;
+    }
+
+    /**
+     * The fraction of the probe rows passing all the useful filters. The join keys are usually correlated,
+     * so it's the selectivity of the most selective filter.
+     */
+    public static double estimateProbeSelectivity(List<Estimate> estimates) {
+        double selectivity = 1;
+        for (Estimate estimate : estimates) {
+            if (estimate.isKnown() && !estimate.isUseless()) {
+                selectivity = Math.min(selectivity, estimate.getSelectivity());
+            }
+        }
+        return selectivity;
+    }
+}
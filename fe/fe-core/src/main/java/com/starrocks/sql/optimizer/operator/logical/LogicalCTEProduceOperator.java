@@ -0,0 +1,63 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.operator.logical;
+
+import com.starrocks.sql.optimizer.ExpressionContext;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.OptExpressionVisitor;
+import com.starrocks.sql.optimizer.base.ColumnRefSet;
+import com.starrocks.sql.optimizer.operator.OperatorType;
+import com.starrocks.sql.optimizer.operator.OperatorVisitor;
+
+import java.util.Objects;
+
+/**
+ * Produce the result of a common table expression once for all the consumers with the same cte id
+ */
+public class LogicalCTEProduceOperator extends LogicalOperator {
+    private final int cteId;
+
+    public LogicalCTEProduceOperator(int cteId) {
+        super(OperatorType.LOGICAL_CTE_PRODUCE);
+        this.cteId = cteId;
+    }
+
+    public int getCteId() {
+        return cteId;
+    }
+
+    @Override
+    public ColumnRefSet getOutputColumns(ExpressionContext expressionContext) {
+        return expressionContext.getChildLogicalProperty(0).getOutputColumns();
+    }
+
+    @Override
+    public <R, C> R accept(OperatorVisitor<R, C> visitor, C context) {
+        return visitor.visitLogicalCTEProduce(this, context);
+    }
+
+    @Override
+    public <R, C> R accept(OptExpressionVisitor<R, C> visitor, OptExpression optExpression, C context) {
+        return visitor.visitLogicalCTEProduce(optExpression, context);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        if (!super.equals(o)) {
+            return false;
+        }
+        LogicalCTEProduceOperator that = (LogicalCTEProduceOperator) o;
+        return cteId == that.cteId;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), cteId);
+    }
+}
@@ -0,0 +1,69 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.operator.physical;
+
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.OptExpressionVisitor;
+import com.starrocks.sql.optimizer.base.ColumnRefSet;
+import com.starrocks.sql.optimizer.operator.OperatorType;
+import com.starrocks.sql.optimizer.operator.OperatorVisitor;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+
+import java.util.Map;
+import java.util.Objects;
+
+public class PhysicalCTEConsumeOperator extends PhysicalOperator {
+    private final int cteId;
+
+    // consumer column -> producer column
+    private final Map<ColumnRefOperator, ColumnRefOperator> cteOutputColumnRefMap;
+
+    public PhysicalCTEConsumeOperator(int cteId, Map<ColumnRefOperator, ColumnRefOperator> cteOutputColumnRefMap) {
+        super(OperatorType.PHYSICAL_CTE_CONSUME);
+        this.cteId = cteId;
+        this.cteOutputColumnRefMap = cteOutputColumnRefMap;
+    }
+
+    public int getCteId() {
+        return cteId;
+    }
+
+    public Map<ColumnRefOperator, ColumnRefOperator> getCteOutputColumnRefMap() {
+        return cteOutputColumnRefMap;
+    }
+
+    @Override
+    public ColumnRefSet getUsedColumns() {
+        ColumnRefSet set = super.getUsedColumns();
+        cteOutputColumnRefMap.values().forEach(set::union);
+        return set;
+    }
+
+    @Override
+    public <R, C> R accept(OperatorVisitor<R, C> visitor, C context) {
+        return visitor.visitPhysicalCTEConsume(this, context);
+    }
+
+    @Override
+    public <R, C> R accept(OptExpressionVisitor<R, C> visitor, OptExpression optExpression, C context) {
+        return visitor.visitPhysicalCTEConsume(optExpression, context);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        PhysicalCTEConsumeOperator that = (PhysicalCTEConsumeOperator) o;
+        return cteId == that.cteId && limit == that.limit && Objects.equals(predicate, that.predicate) &&
+                Objects.equals(cteOutputColumnRefMap, that.cteOutputColumnRefMap);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(opType, cteId, cteOutputColumnRefMap.keySet());
+    }
+}
@@ -16,6 +16,7 @@ import com.starrocks.sql.optimizer.operator.OperatorType;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Objects;
@@ -334,6 +335,20 @@ public final class ConstantOperator extends ScalarOperator implements Comparable
             childString = getBoolean() ? "1" : "0";
         }
 
+        if (desc.isFixedPointType() && !isNull) {
+            // same as BE, floating and decimal values are truncated toward zero, overflow is left to BE
+            if (type.isFloatingPointType()) {
+                childString = BigDecimal.valueOf(getDouble()).setScale(0, RoundingMode.DOWN).toPlainString();
+            } else if (type.isDecimalOfAnyVersion()) {
+                childString = getDecimal().setScale(0, RoundingMode.DOWN).toPlainString();
+            }
+        }
+
+        if (type.isStringType() && desc.isNumericType()) {
+            // BE skips the leading and trailing whitespaces when parsing numbers
+            childString = childString.trim();
+        }
+
         if (desc.isBoolean()) {
             if ("FALSE".equalsIgnoreCase(childString) || "0".equalsIgnoreCase(childString)) {
                 return ConstantOperator.createBoolean(false);
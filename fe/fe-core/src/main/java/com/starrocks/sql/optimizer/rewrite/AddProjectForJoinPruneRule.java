@@ -9,6 +9,7 @@ import com.starrocks.sql.optimizer.base.ColumnRefFactory;
 import com.starrocks.sql.optimizer.base.ColumnRefSet;
 import com.starrocks.sql.optimizer.base.LogicalProperty;
 import com.starrocks.sql.optimizer.operator.OperatorType;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalCTEAnchorOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalHashJoinOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalProjectOperator;
@@ -79,6 +80,14 @@ public class AddProjectForJoinPruneRule implements PhysicalOperatorTreeRewriteRu
             }
         }
 
+        if (root.getOp() instanceof PhysicalCTEAnchorOperator) {
+            // The columns of cte producer are used by the consumers, so visit the consumers first
+            for (int i = root.arity() - 1; i >= 0; --i) {
+                root.setChild(i, addProject(root.inputAt(i), usedColumns, factory));
+            }
+            return root;
+        }
+
         for (int i = 0; i < root.arity(); ++i) {
             root.setChild(i, addProject(root.inputAt(i), usedColumns, factory));
         }
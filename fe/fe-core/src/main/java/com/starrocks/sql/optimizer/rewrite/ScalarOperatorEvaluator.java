@@ -3,10 +3,7 @@
 package com.starrocks.sql.optimizer.rewrite;
 
 import com.google.common.base.Joiner;
-import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
 import com.starrocks.catalog.Catalog;
 import com.starrocks.catalog.Function;
 import com.starrocks.catalog.ScalarType;
@@ -20,13 +17,14 @@ import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
-import java.util.Set;
 
 /**
  * Use for execute constant functions
@@ -141,13 +139,32 @@ public enum ScalarOperatorEvaluator {
         return root;
     }
 
+    /*
+     * FunctionInvoker calls the function through a method handle, which is bound to the method once at
+     * registration. The handle takes the arguments as an Object[] and returns a ConstantOperator, so
+     * invokeExact is a direct call without the access check and boxing of Method.invoke.
+     */
     private static class FunctionInvoker {
+        private static final MethodType INVOKE_TYPE = MethodType.methodType(ConstantOperator.class, Object[].class);
+
         private final Method method;
         private final FunctionSignature signature;
+        private final MethodHandle handle;
+        private final int paramCount;
+        // the last parameter is ConstantOperator...
+        private final boolean isVarArgs;
 
         public FunctionInvoker(Method method, FunctionSignature signature) {
             this.method = method;
             this.signature = signature;
+            this.paramCount = method.getParameterCount();
+            this.isVarArgs = paramCount > 0 && method.getParameterTypes()[paramCount - 1].isArray();
+            try {
+                this.handle = MethodHandles.publicLookup().unreflect(method).asFixedArity()
+                        .asSpreader(Object[].class, paramCount).asType(INVOKE_TYPE);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("failed to create invoker of " + signature, e);
+            }
         }
 
         public Method getMethod() {
@@ -160,45 +177,47 @@ public enum ScalarOperatorEvaluator {
 
         // Function doesn't support array type
         public ConstantOperator invoke(List<ScalarOperator> args) throws AnalysisException {
-            final List<Object> invokeArgs = createInvokeArgs(args);
+            final Object[] invokeArgs = createInvokeArgs(args);
             try {
-                return (ConstantOperator) method.invoke(null, invokeArgs.toArray());
-            } catch (InvocationTargetException | IllegalAccessException | IllegalArgumentException e) {
+                return (ConstantOperator) handle.invokeExact(invokeArgs);
+            } catch (AnalysisException e) {
+                throw e;
+            } catch (Exception e) {
                 throw new AnalysisException(e.getLocalizedMessage());
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                // invokeExact declares Throwable, but the functions only throw exceptions or errors
+                throw new IllegalStateException(e);
             }
         }
 
-        private List<Object> createInvokeArgs(List<ScalarOperator> args) throws AnalysisException {
-            final List<Object> invokeArgs = Lists.newArrayList();
-            for (int index = 0; index < method.getParameterTypes().length; index++) {
-                final Class<?> argType = method.getParameterTypes()[index];
-
-                if (argType.isArray()) {
-                    Preconditions.checkArgument(method.getParameterTypes().length == index + 1);
-                    final List<ConstantOperator> variableArgs = Lists.newArrayList();
-                    Set<Type> checkSet = Sets.newHashSet();
-
-                    for (int variableArgIndex = index; variableArgIndex < args.size(); variableArgIndex++) {
-                        ConstantOperator arg = (ConstantOperator) args.get(variableArgIndex);
-                        variableArgs.add(arg);
-                        checkSet.add(arg.getType());
-                    }
+        private Object[] createInvokeArgs(List<ScalarOperator> args) throws AnalysisException {
+            final Object[] invokeArgs = new Object[paramCount];
+            int fixedCount = isVarArgs ? paramCount - 1 : paramCount;
+            if (args.size() < fixedCount) {
+                throw new AnalysisException("Function's args does't match.");
+            }
+            for (int index = 0; index < fixedCount; index++) {
+                invokeArgs[index] = args.get(index);
+            }
 
+            if (isVarArgs) {
+                ConstantOperator[] variableArgs = new ConstantOperator[args.size() - fixedCount];
+                Type variableArgType = null;
+                for (int index = fixedCount; index < args.size(); index++) {
+                    ConstantOperator arg = (ConstantOperator) args.get(index);
                     // Array data must keep same kinds
-                    if (checkSet.size() > 1) {
+                    if (variableArgType != null && !variableArgType.equals(arg.getType())) {
                         throw new AnalysisException("Function's args does't match.");
                     }
-
-                    ConstantOperator[] argsArray = new ConstantOperator[variableArgs.size()];
-                    argsArray = variableArgs.toArray(argsArray);
-                    invokeArgs.add(argsArray);
-                } else {
-                    invokeArgs.add(args.get(index));
+                    variableArgType = arg.getType();
+                    variableArgs[index - fixedCount] = arg;
                 }
+                invokeArgs[fixedCount] = variableArgs;
             }
             return invokeArgs;
         }
-
     }
 
     private static class FunctionSignature {
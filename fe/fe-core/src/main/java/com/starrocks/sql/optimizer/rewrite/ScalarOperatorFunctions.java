@@ -35,8 +35,10 @@ import com.starrocks.sql.optimizer.operator.scalar.ConstantOperator;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.ZoneOffset;
@@ -49,6 +51,9 @@ import java.util.Set;
  * Constant Functions List
  */
 public class ScalarOperatorFunctions {
+    // to_days('1970-01-01')
+    private static final long DAYS_FROM_0000_TO_1970 = 719528;
+
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     private static final Set<String> SUPPORT_DATETIME_FORMATTER =
@@ -174,17 +179,139 @@ public class ScalarOperatorFunctions {
         return ConstantOperator.createInt(arg.getDatetime().getMonthValue());
     }
 
-    @FEFunction(name = "day", argTypes = {"DATETIME"}, returnType = "INT")
+    @FEFunction.List(list = {
+            @FEFunction(name = "day", argTypes = {"DATETIME"}, returnType = "INT"),
+            @FEFunction(name = "dayofmonth", argTypes = {"DATETIME"}, returnType = "INT")
+    })
     public static ConstantOperator day(ConstantOperator arg) {
         return ConstantOperator.createInt(arg.getDatetime().getDayOfMonth());
     }
 
-    @FEFunction(name = "date", argTypes = {"DATETIME"}, returnType = "DATE")
+    @FEFunction(name = "quarter", argTypes = {"DATETIME"}, returnType = "INT")
+    public static ConstantOperator quarter(ConstantOperator arg) {
+        return ConstantOperator.createInt((arg.getDatetime().getMonthValue() - 1) / 3 + 1);
+    }
+
+    @FEFunction(name = "dayofweek", argTypes = {"DATETIME"}, returnType = "INT")
+    public static ConstantOperator dayOfWeek(ConstantOperator arg) {
+        // 1 = Sunday, 2 = Monday, ..., 7 = Saturday
+        return ConstantOperator.createInt(arg.getDatetime().getDayOfWeek().getValue() % 7 + 1);
+    }
+
+    @FEFunction(name = "dayofyear", argTypes = {"DATETIME"}, returnType = "INT")
+    public static ConstantOperator dayOfYear(ConstantOperator arg) {
+        return ConstantOperator.createInt(arg.getDatetime().getDayOfYear());
+    }
+
+    @FEFunction(name = "hour", argTypes = {"DATETIME"}, returnType = "INT")
+    public static ConstantOperator hour(ConstantOperator arg) {
+        return ConstantOperator.createInt(arg.getDatetime().getHour());
+    }
+
+    @FEFunction(name = "minute", argTypes = {"DATETIME"}, returnType = "INT")
+    public static ConstantOperator minute(ConstantOperator arg) {
+        return ConstantOperator.createInt(arg.getDatetime().getMinute());
+    }
+
+    @FEFunction(name = "second", argTypes = {"DATETIME"}, returnType = "INT")
+    public static ConstantOperator second(ConstantOperator arg) {
+        return ConstantOperator.createInt(arg.getDatetime().getSecond());
+    }
+
+    @FEFunction.List(list = {
+            @FEFunction(name = "date", argTypes = {"DATETIME"}, returnType = "DATE"),
+            @FEFunction(name = "to_date", argTypes = {"DATETIME"}, returnType = "DATE")
+    })
     public static ConstantOperator date(ConstantOperator arg) {
         LocalDateTime datetime = LocalDateTime.of(arg.getDate().toLocalDate(), LocalTime.MIN);
         return ConstantOperator.createDate(datetime);
     }
 
+    @FEFunction(name = "weeks_add", argTypes = {"DATETIME", "INT"}, returnType = "DATETIME")
+    public static ConstantOperator weeksAdd(ConstantOperator date, ConstantOperator week) {
+        return ConstantOperator.createDatetime(date.getDatetime().plusWeeks(week.getInt()));
+    }
+
+    @FEFunction(name = "weeks_sub", argTypes = {"DATETIME", "INT"}, returnType = "DATETIME")
+    public static ConstantOperator weeksSub(ConstantOperator date, ConstantOperator week) {
+        return ConstantOperator.createDatetime(date.getDatetime().minusWeeks(week.getInt()));
+    }
+
+    @FEFunction(name = "years_diff", argTypes = {"DATETIME", "DATETIME"}, returnType = "BIGINT")
+    public static ConstantOperator yearsDiff(ConstantOperator first, ConstantOperator second) {
+        LocalDateTime l = first.getDatetime();
+        LocalDateTime r = second.getDatetime();
+        // same as BE, the year is not complete if the rest of l is less than the rest of r
+        long year = l.getYear() - r.getYear();
+        long restL = (l.getMonthValue() * 100L + l.getDayOfMonth()) * 1000000L + timeOfDay(l);
+        long restR = (r.getMonthValue() * 100L + r.getDayOfMonth()) * 1000000L + timeOfDay(r);
+        if (year >= 0) {
+            year -= restL < restR ? 1 : 0;
+        } else {
+            year += restL > restR ? 1 : 0;
+        }
+        return ConstantOperator.createBigint(year);
+    }
+
+    @FEFunction(name = "months_diff", argTypes = {"DATETIME", "DATETIME"}, returnType = "BIGINT")
+    public static ConstantOperator monthsDiff(ConstantOperator first, ConstantOperator second) {
+        LocalDateTime l = first.getDatetime();
+        LocalDateTime r = second.getDatetime();
+        long month = (l.getYear() - r.getYear()) * 12L + (l.getMonthValue() - r.getMonthValue());
+        long restL = l.getDayOfMonth() * 1000000L + timeOfDay(l);
+        long restR = r.getDayOfMonth() * 1000000L + timeOfDay(r);
+        if (month >= 0) {
+            month -= restL < restR ? 1 : 0;
+        } else {
+            month += restL > restR ? 1 : 0;
+        }
+        return ConstantOperator.createBigint(month);
+    }
+
+    private static long timeOfDay(LocalDateTime dt) {
+        return dt.getHour() * 10000L + dt.getMinute() * 100L + dt.getSecond();
+    }
+
+    @FEFunction(name = "weeks_diff", argTypes = {"DATETIME", "DATETIME"}, returnType = "BIGINT")
+    public static ConstantOperator weeksDiff(ConstantOperator first, ConstantOperator second) {
+        return ConstantOperator.createBigint(ChronoUnit.WEEKS.between(second.getDatetime(), first.getDatetime()));
+    }
+
+    @FEFunction(name = "days_diff", argTypes = {"DATETIME", "DATETIME"}, returnType = "BIGINT")
+    public static ConstantOperator daysDiff(ConstantOperator first, ConstantOperator second) {
+        return ConstantOperator.createBigint(ChronoUnit.DAYS.between(second.getDatetime(), first.getDatetime()));
+    }
+
+    @FEFunction(name = "hours_diff", argTypes = {"DATETIME", "DATETIME"}, returnType = "BIGINT")
+    public static ConstantOperator hoursDiff(ConstantOperator first, ConstantOperator second) {
+        return ConstantOperator.createBigint(ChronoUnit.HOURS.between(second.getDatetime(), first.getDatetime()));
+    }
+
+    @FEFunction(name = "minutes_diff", argTypes = {"DATETIME", "DATETIME"}, returnType = "BIGINT")
+    public static ConstantOperator minutesDiff(ConstantOperator first, ConstantOperator second) {
+        return ConstantOperator.createBigint(ChronoUnit.MINUTES.between(second.getDatetime(), first.getDatetime()));
+    }
+
+    @FEFunction(name = "seconds_diff", argTypes = {"DATETIME", "DATETIME"}, returnType = "BIGINT")
+    public static ConstantOperator secondsDiff(ConstantOperator first, ConstantOperator second) {
+        return ConstantOperator.createBigint(ChronoUnit.SECONDS.between(second.getDatetime(), first.getDatetime()));
+    }
+
+    @FEFunction(name = "to_days", argTypes = {"DATE"}, returnType = "INT")
+    public static ConstantOperator toDays(ConstantOperator arg) {
+        return ConstantOperator.createInt((int) (arg.getDate().toLocalDate().toEpochDay() + DAYS_FROM_0000_TO_1970));
+    }
+
+    @FEFunction(name = "from_days", argTypes = {"INT"}, returnType = "DATE")
+    public static ConstantOperator fromDays(ConstantOperator arg) throws AnalysisException {
+        LocalDate date = LocalDate.ofEpochDay(arg.getInt() - DAYS_FROM_0000_TO_1970);
+        // BE returns null for the invalid date, let BE process
+        if (date.getYear() < 1 || date.getYear() > 9999) {
+            throw new AnalysisException("from_days out of range: " + arg.getInt());
+        }
+        return ConstantOperator.createDate(date.atStartOfDay());
+    }
+
     @FEFunction.List(list = {
             @FEFunction(name = "unix_timestamp", argTypes = {"DATETIME"}, returnType = "INT"),
             @FEFunction(name = "unix_timestamp", argTypes = {"DATE"}, returnType = "INT")
@@ -242,11 +369,52 @@ public class ScalarOperatorFunctions {
      * Math function
      */
 
-    @FEFunction(name = "floor", argTypes = {"DOUBLE"}, returnType = "BIGINT")
+    @FEFunction.List(list = {
+            @FEFunction(name = "floor", argTypes = {"DOUBLE"}, returnType = "BIGINT"),
+            @FEFunction(name = "dfloor", argTypes = {"DOUBLE"}, returnType = "BIGINT")
+    })
     public static ConstantOperator floor(ConstantOperator expr) {
         return ConstantOperator.createBigint((long) Math.floor(expr.getDouble()));
     }
 
+    @FEFunction.List(list = {
+            @FEFunction(name = "ceil", argTypes = {"DOUBLE"}, returnType = "BIGINT"),
+            @FEFunction(name = "ceiling", argTypes = {"DOUBLE"}, returnType = "BIGINT"),
+            @FEFunction(name = "dceil", argTypes = {"DOUBLE"}, returnType = "BIGINT")
+    })
+    public static ConstantOperator ceil(ConstantOperator expr) throws AnalysisException {
+        return ConstantOperator.createBigint(toBigintExactly(Math.ceil(expr.getDouble())));
+    }
+
+    @FEFunction.List(list = {
+            @FEFunction(name = "round", argTypes = {"DOUBLE"}, returnType = "BIGINT"),
+            @FEFunction(name = "dround", argTypes = {"DOUBLE"}, returnType = "BIGINT")
+    })
+    public static ConstantOperator round(ConstantOperator expr) throws AnalysisException {
+        // same as BE, round half away from zero
+        double value = expr.getDouble();
+        return ConstantOperator.createBigint(toBigintExactly(value + (value < 0 ? -0.5 : 0.5)));
+    }
+
+    @FEFunction(name = "sign", argTypes = {"DOUBLE"}, returnType = "FLOAT")
+    public static ConstantOperator sign(ConstantOperator expr) {
+        double value = expr.getDouble();
+        return ConstantOperator.createFloat(value > 0 ? 1.0 : (value < 0 ? -1.0 : 0.0));
+    }
+
+    @FEFunction(name = "pi", argTypes = {}, returnType = "DOUBLE")
+    public static ConstantOperator pi() {
+        return ConstantOperator.createDouble(Math.PI);
+    }
+
+    // the result of BE is undefined if the value can't be represented by bigint, let BE process
+    private static long toBigintExactly(double value) throws AnalysisException {
+        if (Double.isNaN(value) || value < Long.MIN_VALUE || value >= -(double) Long.MIN_VALUE) {
+            throw new AnalysisException("Value out of range of bigint: " + value);
+        }
+        return (long) value;
+    }
+
     /**
      * Arithmetic function
      */
@@ -397,6 +565,98 @@ public class ScalarOperatorFunctions {
         return ConstantOperator.createVarchar(resultBuilder.toString());
     }
 
+    @FEFunction(name = "upper", argTypes = {"VARCHAR"}, returnType = "VARCHAR")
+    public static ConstantOperator upper(ConstantOperator str) {
+        return ConstantOperator.createVarchar(toggleAsciiCase(str.getVarchar(), true));
+    }
+
+    @FEFunction(name = "lower", argTypes = {"VARCHAR"}, returnType = "VARCHAR")
+    public static ConstantOperator lower(ConstantOperator str) {
+        return ConstantOperator.createVarchar(toggleAsciiCase(str.getVarchar(), false));
+    }
+
+    // BE only converts the ascii letters, the other characters are kept
+    private static String toggleAsciiCase(String str, boolean toUpper) {
+        char[] chars = str.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            char c = chars[i];
+            if (toUpper && c >= 'a' && c <= 'z') {
+                chars[i] = (char) (c - 'a' + 'A');
+            } else if (!toUpper && c >= 'A' && c <= 'Z') {
+                chars[i] = (char) (c - 'A' + 'a');
+            }
+        }
+        return new String(chars);
+    }
+
+    @FEFunction(name = "length", argTypes = {"VARCHAR"}, returnType = "INT")
+    public static ConstantOperator length(ConstantOperator str) {
+        // length in bytes
+        return ConstantOperator.createInt(str.getVarchar().getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @FEFunction.List(list = {
+            @FEFunction(name = "char_length", argTypes = {"VARCHAR"}, returnType = "INT"),
+            @FEFunction(name = "character_length", argTypes = {"VARCHAR"}, returnType = "INT")
+    })
+    public static ConstantOperator charLength(ConstantOperator str) {
+        String value = str.getVarchar();
+        return ConstantOperator.createInt(value.codePointCount(0, value.length()));
+    }
+
+    @FEFunction(name = "ascii", argTypes = {"VARCHAR"}, returnType = "INT")
+    public static ConstantOperator ascii(ConstantOperator str) {
+        // the first byte of the string
+        byte[] bytes = str.getVarchar().getBytes(StandardCharsets.UTF_8);
+        return ConstantOperator.createInt(bytes.length == 0 ? 0 : bytes[0] & 0xff);
+    }
+
+    @FEFunction(name = "starts_with", argTypes = {"VARCHAR", "VARCHAR"}, returnType = "BOOLEAN")
+    public static ConstantOperator startsWith(ConstantOperator str, ConstantOperator prefix) {
+        return ConstantOperator.createBoolean(str.getVarchar().startsWith(prefix.getVarchar()));
+    }
+
+    @FEFunction(name = "ends_with", argTypes = {"VARCHAR", "VARCHAR"}, returnType = "BOOLEAN")
+    public static ConstantOperator endsWith(ConstantOperator str, ConstantOperator suffix) {
+        return ConstantOperator.createBoolean(str.getVarchar().endsWith(suffix.getVarchar()));
+    }
+
+    // BE only trims the spaces, not the other whitespaces
+    @FEFunction(name = "trim", argTypes = {"VARCHAR"}, returnType = "VARCHAR")
+    public static ConstantOperator trim(ConstantOperator str) {
+        String value = str.getVarchar();
+        int end = trailingSpaceStart(value);
+        return ConstantOperator.createVarchar(value.substring(Math.min(leadingSpaceEnd(value), end), end));
+    }
+
+    @FEFunction(name = "ltrim", argTypes = {"VARCHAR"}, returnType = "VARCHAR")
+    public static ConstantOperator ltrim(ConstantOperator str) {
+        String value = str.getVarchar();
+        return ConstantOperator.createVarchar(value.substring(leadingSpaceEnd(value)));
+    }
+
+    @FEFunction(name = "rtrim", argTypes = {"VARCHAR"}, returnType = "VARCHAR")
+    public static ConstantOperator rtrim(ConstantOperator str) {
+        String value = str.getVarchar();
+        return ConstantOperator.createVarchar(value.substring(0, trailingSpaceStart(value)));
+    }
+
+    private static int leadingSpaceEnd(String str) {
+        int i = 0;
+        while (i < str.length() && str.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int trailingSpaceStart(String str) {
+        int i = str.length();
+        while (i > 0 && str.charAt(i - 1) == ' ') {
+            i--;
+        }
+        return i;
+    }
+
     @FEFunction.List(list = {
             @FEFunction(name = "ifnull", argTypes = {"VARCHAR", "VARCHAR"}, returnType = "VARCHAR"),
             @FEFunction(name = "ifnull", argTypes = {"TINYINT", "TINYINT"}, returnType = "TINYINT"),
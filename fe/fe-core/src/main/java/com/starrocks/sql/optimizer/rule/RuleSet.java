@@ -6,6 +6,9 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.starrocks.sql.optimizer.rule.implementation.AssertOneRowImplementationRule;
+import com.starrocks.sql.optimizer.rule.implementation.CTEAnchorImplementationRule;
+import com.starrocks.sql.optimizer.rule.implementation.CTEConsumeImplementationRule;
+import com.starrocks.sql.optimizer.rule.implementation.CTEProduceImplementationRule;
 import com.starrocks.sql.optimizer.rule.implementation.EsScanImplementationRule;
 import com.starrocks.sql.optimizer.rule.implementation.ExceptImplementationRule;
 import com.starrocks.sql.optimizer.rule.implementation.FilterImplementationRule;
@@ -44,6 +47,7 @@ import com.starrocks.sql.optimizer.rule.transformation.MergeTwoProjectRule;
 import com.starrocks.sql.optimizer.rule.transformation.PartitionPruneRule;
 import com.starrocks.sql.optimizer.rule.transformation.PruneAggregateColumnsRule;
 import com.starrocks.sql.optimizer.rule.transformation.PruneAssertOneRowRule;
+import com.starrocks.sql.optimizer.rule.transformation.PruneCTEConsumeColumnsRule;
 import com.starrocks.sql.optimizer.rule.transformation.PruneExceptColumnsRule;
 import com.starrocks.sql.optimizer.rule.transformation.PruneFilterColumnsRule;
 import com.starrocks.sql.optimizer.rule.transformation.PruneIntersectColumnsRule;
@@ -57,6 +61,7 @@ import com.starrocks.sql.optimizer.rule.transformation.PruneTopNColumnsRule;
 import com.starrocks.sql.optimizer.rule.transformation.PruneUnionColumnsRule;
 import com.starrocks.sql.optimizer.rule.transformation.PruneValuesColumnsRule;
 import com.starrocks.sql.optimizer.rule.transformation.PruneWindowColumnsRule;
+import com.starrocks.sql.optimizer.rule.transformation.PushDownAggJoinRule;
 import com.starrocks.sql.optimizer.rule.transformation.PushDownApplyAggFilterRule;
 import com.starrocks.sql.optimizer.rule.transformation.PushDownApplyAggProjectFilterRule;
 import com.starrocks.sql.optimizer.rule.transformation.PushDownApplyFilterRule;
@@ -68,6 +73,7 @@ import com.starrocks.sql.optimizer.rule.transformation.PushDownLimitDirectRule;
 import com.starrocks.sql.optimizer.rule.transformation.PushDownLimitJoinRule;
 import com.starrocks.sql.optimizer.rule.transformation.PushDownLimitUnionRule;
 import com.starrocks.sql.optimizer.rule.transformation.PushDownPredicateAggRule;
+import com.starrocks.sql.optimizer.rule.transformation.PushDownPredicateCTEConsumeRule;
 import com.starrocks.sql.optimizer.rule.transformation.PushDownPredicateDirectRule;
 import com.starrocks.sql.optimizer.rule.transformation.PushDownPredicateExceptRule;
 import com.starrocks.sql.optimizer.rule.transformation.PushDownPredicateIntersectRule;
@@ -77,6 +83,9 @@ import com.starrocks.sql.optimizer.rule.transformation.PushDownPredicateScanRule
 import com.starrocks.sql.optimizer.rule.transformation.PushDownPredicateTableFunctionRule;
 import com.starrocks.sql.optimizer.rule.transformation.PushDownPredicateUnionRule;
 import com.starrocks.sql.optimizer.rule.transformation.PushDownPredicateWindowRule;
+import com.starrocks.sql.optimizer.rule.transformation.PushDownTopNJoinRule;
+import com.starrocks.sql.optimizer.rule.transformation.PushDownTopNProjectRule;
+import com.starrocks.sql.optimizer.rule.transformation.PushDownTopNUnionRule;
 import com.starrocks.sql.optimizer.rule.transformation.QuantifiedApply2JoinRule;
 import com.starrocks.sql.optimizer.rule.transformation.QuantifiedApply2OuterJoinRule;
 import com.starrocks.sql.optimizer.rule.transformation.RewriteBitmapCountDistinctRule;
@@ -111,7 +120,10 @@ public class RuleSet {
             new ValuesImplementationRule(),
             new RepeatImplementationRule(),
             new FilterImplementationRule(),
-            new TableFunctionImplementationRule()
+            new TableFunctionImplementationRule(),
+            new CTEAnchorImplementationRule(),
+            new CTEProduceImplementationRule(),
+            new CTEConsumeImplementationRule()
     );
 
     private final List<Rule> transformRules = Lists.newArrayList();
@@ -124,6 +136,9 @@ public class RuleSet {
                 new PushDownLimitDirectRule(),
                 new PushDownLimitUnionRule(),
                 new PushDownLimitJoinRule(),
+                new PushDownTopNUnionRule(),
+                new PushDownTopNJoinRule(),
+                new PushDownTopNProjectRule(),
                 MergeLimitDirectRule.AGGREGATE,
                 MergeLimitDirectRule.OLAP_SCAN,
                 MergeLimitDirectRule.SCHEMA_SCAN,
@@ -135,7 +150,8 @@ public class RuleSet {
                 MergeLimitDirectRule.EXCEPT,
                 MergeLimitDirectRule.VALUES,
                 MergeLimitDirectRule.FILTER,
-                MergeLimitDirectRule.TABLE_FUNCTION
+                MergeLimitDirectRule.TABLE_FUNCTION,
+                MergeLimitDirectRule.CTE_CONSUME
         ));
 
         rewriteRules.put(RuleSetType.PARTITION_PRUNE, ImmutableList.of(
@@ -164,7 +180,8 @@ public class RuleSet {
                 new PruneExceptColumnsRule(),
                 new PruneRepeatColumnsRule(),
                 new PruneValuesColumnsRule(),
-                new PruneTableFunctionColumnRule()
+                new PruneTableFunctionColumnRule(),
+                new PruneCTEConsumeColumnsRule()
         ));
 
         rewriteRules.put(RuleSetType.SCALAR_OPERATOR_REUSE, ImmutableList.of(
@@ -185,6 +202,7 @@ public class RuleSet {
                 new PushDownPredicateExceptRule(),
                 new PushDownPredicateIntersectRule(),
                 new PushDownPredicateTableFunctionRule(),
+                new PushDownPredicateCTEConsumeRule(),
                 MergePredicateScanRule.HIVE_SCAN,
                 MergePredicateScanRule.SCHEMA_SCAN,
                 MergePredicateScanRule.MYSQL_SCAN,
@@ -232,6 +250,10 @@ public class RuleSet {
         transformRules.add(PushDownJoinAggRule.getInstance());
     }
 
+    public void addPushDownAggToJoinRule() {
+        transformRules.add(PushDownAggJoinRule.getInstance());
+    }
+
     public void addJoinCommutativityWithOutInnerRule() {
         transformRules.add(JoinCommutativityWithOutInnerRule.getInstance());
     }
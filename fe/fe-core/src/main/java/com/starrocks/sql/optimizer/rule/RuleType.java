@@ -14,6 +14,7 @@ public enum RuleType {
     TF_SPLIT_AGGREGATE,
     TF_SPLIT_TOPN,
     TF_PUSH_DOWN_JOIN_AGG,
+    TF_PUSH_DOWN_AGG_JOIN,
 
     TF_MERGE_LIMIT_DIRECT,
     TF_MERGE_LIMIT_WITH_SORT,
@@ -23,6 +24,9 @@ public enum RuleType {
     TF_PUSH_DOWN_LIMIT,
     TF_PUSH_DOWN_LIMIT_UNION,
     TF_PUSH_DOWN_LIMIT_JOIN,
+    TF_PUSH_DOWN_TOPN_UNION,
+    TF_PUSH_DOWN_TOPN_JOIN,
+    TF_PUSH_DOWN_TOPN_PROJECT,
     TF_PUSH_DOWN_PREDICATE_SCAN,
     TF_PUSH_DOWN_PREDICATE_AGG,
     TF_PUSH_DOWN_PREDICATE_WINDOW,
@@ -77,6 +81,14 @@ public enum RuleType {
 
     TF_MATERIALIZED_VIEW,
 
+    TF_ASYNC_MATERIALIZED_VIEW,
+
+    TF_SKEW_REWRITE,
+
+    TF_CTE_REUSE,
+    TF_PUSH_DOWN_PREDICATE_CTE_CONSUME,
+    TF_PRUNE_CTE_CONSUME_COLUMNS,
+
     TF_REWRITE_MULTI_DISTINCT,
     TF_REWRITE_BITMAP_COUNT_DISTINCT,
     TF_REWRITE_HLL_COUNT_DISTINCT,
@@ -101,6 +113,9 @@ public enum RuleType {
     IMP_REPEAT,
     IMP_FILTER,
     IMP_TABLE_FUNCTION,
+    IMP_CTE_ANCHOR,
+    IMP_CTE_PRODUCE,
+    IMP_CTE_CONSUME,
 
     NUM_RULES;
 
@@ -193,7 +193,7 @@ public abstract class JoinOrder {
         ExpressionContext expressionContext = new ExpressionContext(expr);
         StatisticsCalculator statisticsCalculator = new StatisticsCalculator(
                 expressionContext, expr.getOutputColumns(),
-                context.getColumnRefFactory(), context.getDumpInfo());
+                context.getColumnRefFactory(), context);
         statisticsCalculator.estimatorStats();
         expr.setStatistics(expressionContext.getStatistics());
     }
@@ -0,0 +1,453 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.rule.join;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.OptimizerContext;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Reorder multi join node by dynamic programming over the connected subgraphs of the join graph,
+ * refer to "Analysis of Two Existing and One New Dynamic Programming Algorithm for the Generation
+ * of Optimal Bushy Join Trees without Cross Products" (DPccp) by Moerkotte and Neumann.
+ * <p>
+ * Unlike {@link JoinReorderDP}, which tries all the partitions of every subset of the atoms, only the
+ * pairs of a connected subgraph and a connected complement joined by an edge are enumerated, and every
+ * pair is enumerated exactly once. A set of atoms is a bitmask of long, and the best plan of every set
+ * is kept in an open addressing hash table of primitive arrays.
+ * <p>
+ * To keep every pair cheap, the row count of a set is estimated by the independence assumption, which is
+ * the product of the row counts of its atoms and the selectivities of the atom pairs in it, and the
+ * selectivity of an atom pair is derived from the statistics of their join. The cost is the sum of the
+ * row counts of all the joins as {@link JoinOrder#computeCost}. The statistics of the joins are only
+ * calculated for the best plan.
+ * <p>
+ * The plan of a greedy algorithm gives an upper bound of the cost, the plans of the sets whose cost is
+ * larger than it are pruned. If the enumeration exceeds the time limit, the greedy plan is used.
+ */
+public class JoinReorderDPHyp extends JoinOrder {
+    private OptExpression bestExpr;
+
+    public JoinReorderDPHyp(OptimizerContext context) {
+        super(context);
+    }
+
+    @Override
+    protected void enumerate() {
+        Preconditions.checkState(atomSize < Long.SIZE, "too many atoms: " + atomSize);
+        List<GroupInfo> atoms = joinLevels.get(1).groups;
+
+        double[] atomRows = new double[atomSize];
+        double[] atomCosts = new double[atomSize];
+        for (int i = 0; i < atomSize; i++) {
+            atomRows[i] = atoms.get(i).bestExprInfo.rowCount;
+            atomCosts[i] = atoms.get(i).bestExprInfo.cost;
+        }
+        Enumerator enumerator = new Enumerator(atomSize, atomRows, atomCosts);
+
+        for (Edge edge : edges) {
+            if (edge.vertexes.cardinality() > 1) {
+                enumerator.addEdge(toMask(edge.vertexes));
+            }
+        }
+        // the selectivity of the atom pairs joined by the edges of two vertexes
+        for (int i = 0; i < atomSize; i++) {
+            for (int j = i + 1; j < atomSize; j++) {
+                long pair = (1L << i) | (1L << j);
+                if (!hasBinaryEdge(pair)) {
+                    continue;
+                }
+                ExpressionInfo joinExpr = buildJoinExpr(atoms.get(i), atoms.get(j));
+                joinExpr.expr.deriveLogicalPropertyItself();
+                calculateStatistics(joinExpr.expr);
+                double rows = joinExpr.expr.getStatistics().getOutputRowCount();
+                enumerator.addSelectivity(pair, rows / Math.max(1, atomRows[i]) / Math.max(1, atomRows[j]));
+            }
+        }
+
+        long timeoutMs = context.getSessionVariable().getOptimizerExecuteTimeout();
+        enumerator.enumerate(System.currentTimeMillis() + timeoutMs / 2);
+        bestExpr = buildPlan(enumerator, enumerator.getAllAtoms()).bestExprInfo.expr;
+    }
+
+    @Override
+    public List<OptExpression> getResult() {
+        return Lists.newArrayList(bestExpr);
+    }
+
+    private boolean hasBinaryEdge(long pair) {
+        for (Edge edge : edges) {
+            if (toMask(edge.vertexes) == pair) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long toMask(BitSet bitSet) {
+        long[] words = bitSet.toLongArray();
+        return words.length == 0 ? 0 : words[0];
+    }
+
+    private GroupInfo buildPlan(Enumerator enumerator, long atomMask) {
+        if (Long.bitCount(atomMask) == 1) {
+            return joinLevels.get(1).groups.get(Long.numberOfTrailingZeros(atomMask));
+        }
+        long leftMask = enumerator.getBestLeft(atomMask);
+        GroupInfo leftGroup = buildPlan(enumerator, leftMask);
+        GroupInfo rightGroup = buildPlan(enumerator, atomMask & ~leftMask);
+
+        ExpressionInfo joinExpr = buildJoinExpr(leftGroup, rightGroup);
+        joinExpr.expr.deriveLogicalPropertyItself();
+        calculateStatistics(joinExpr.expr);
+        computeCost(joinExpr, false);
+
+        GroupInfo groupInfo = new GroupInfo(BitSet.valueOf(new long[] {atomMask}));
+        groupInfo.bestExprInfo = joinExpr;
+        groupInfo.lowestExprCost = joinExpr.cost;
+        return groupInfo;
+    }
+
+    /**
+     * Enumerate the csg-cmp pairs of the join graph of at most 63 atoms, and find the best plan of
+     * every connected set.
+     */
+    static class Enumerator {
+        // check the time limit every TIME_CHECK_INTERVAL pairs
+        private static final int TIME_CHECK_INTERVAL = 4096;
+        private static final double UPPER_BOUND_TOLERANCE = 1 + 1e-9;
+
+        private final int atomSize;
+        private final double[] atomLogRows;
+        private final long[] neighbors;
+        private final List<Long> selectivityPairs = Lists.newArrayList();
+        private final List<Double> logSelectivities = Lists.newArrayList();
+        private long[] pairMasks;
+        private double[] pairLogSelectivities;
+
+        private final PlanTable planTable = new PlanTable();
+        // the plan of greedy algorithm, used if the enumeration is timeout
+        private final PlanTable greedyPlanTable = new PlanTable();
+        private double upperBound = Double.MAX_VALUE;
+
+        private long deadline;
+        private long pairNum = 0;
+        private boolean timeout = false;
+
+        Enumerator(int atomSize, double[] atomRows, double[] atomCosts) {
+            this.atomSize = atomSize;
+            this.atomLogRows = new double[atomSize];
+            this.neighbors = new long[atomSize];
+            for (int i = 0; i < atomSize; i++) {
+                atomLogRows[i] = Math.log(Math.max(1, atomRows[i]));
+                for (PlanTable table : Arrays.asList(planTable, greedyPlanTable)) {
+                    int idx = table.insert(1L << i, atomLogRows[i]);
+                    table.costs[idx] = atomCosts[i];
+                }
+            }
+        }
+
+        // the atoms of mask are connected with each other
+        void addEdge(long mask) {
+            for (long bits = mask; bits != 0; bits &= bits - 1) {
+                int atom = Long.numberOfTrailingZeros(bits);
+                neighbors[atom] |= mask & ~(1L << atom);
+            }
+        }
+
+        void addSelectivity(long pair, double selectivity) {
+            selectivityPairs.add(pair);
+            logSelectivities.add(Math.log(Math.max(Double.MIN_NORMAL, Math.min(1, selectivity))));
+        }
+
+        long getAllAtoms() {
+            return (1L << atomSize) - 1;
+        }
+
+        boolean isTimeout() {
+            return timeout;
+        }
+
+        long getPairNum() {
+            return pairNum;
+        }
+
+        double getBestCost(long atomMask) {
+            int idx = getFinalTable().find(atomMask);
+            return idx < 0 ? Double.MAX_VALUE : getFinalTable().costs[idx];
+        }
+
+        long getBestLeft(long atomMask) {
+            PlanTable table = getFinalTable();
+            return table.lefts[table.find(atomMask)];
+        }
+
+        private PlanTable getFinalTable() {
+            return timeout || !planTable.hasPlan(getAllAtoms()) ? greedyPlanTable : planTable;
+        }
+
+        void enumerate(long deadline) {
+            this.deadline = deadline;
+            pairMasks = new long[selectivityPairs.size()];
+            pairLogSelectivities = new double[selectivityPairs.size()];
+            for (int i = 0; i < pairMasks.length; i++) {
+                pairMasks[i] = selectivityPairs.get(i);
+                pairLogSelectivities[i] = logSelectivities.get(i);
+            }
+            connectComponents();
+
+            upperBound = greedy() * UPPER_BOUND_TOLERANCE;
+            for (int i = atomSize - 1; i >= 0 && !timeout; i--) {
+                long atom = 1L << i;
+                emitCsg(atom);
+                // the atoms not larger than i are excluded
+                enumerateCsgRec(atom, (atom << 1) - 1);
+            }
+        }
+
+        // connect the components of the join graph by cross joins
+        private void connectComponents() {
+            long visited = 0;
+            long representatives = 0;
+            for (int i = 0; i < atomSize; i++) {
+                if ((visited & (1L << i)) != 0) {
+                    continue;
+                }
+                representatives |= 1L << i;
+                long component = 1L << i;
+                long frontier = component;
+                while (frontier != 0) {
+                    long next = getNeighbors(frontier) & ~component;
+                    component |= next;
+                    frontier = next;
+                }
+                visited |= component;
+            }
+            if (Long.bitCount(representatives) > 1) {
+                addEdge(representatives);
+            }
+        }
+
+        private long getNeighbors(long atomMask) {
+            long result = 0;
+            for (long bits = atomMask; bits != 0; bits &= bits - 1) {
+                result |= neighbors[Long.numberOfTrailingZeros(bits)];
+            }
+            return result & ~atomMask;
+        }
+
+        private double getLogRows(long atomMask) {
+            double logRows = 0;
+            for (long bits = atomMask; bits != 0; bits &= bits - 1) {
+                logRows += atomLogRows[Long.numberOfTrailingZeros(bits)];
+            }
+            for (int i = 0; i < pairMasks.length; i++) {
+                if ((pairMasks[i] & ~atomMask) == 0) {
+                    logRows += pairLogSelectivities[i];
+                }
+            }
+            return Math.max(0, logRows);
+        }
+
+        // join the two connected sets with the lowest row count until all atoms are joined, return the cost
+        private double greedy() {
+            List<Long> sets = Lists.newArrayList();
+            for (int i = 0; i < atomSize; i++) {
+                sets.add(1L << i);
+            }
+            while (sets.size() > 1) {
+                int bestLeft = -1;
+                int bestRight = -1;
+                double bestLogRows = Double.MAX_VALUE;
+                for (int i = 0; i < sets.size(); i++) {
+                    long neighborMask = getNeighbors(sets.get(i));
+                    for (int j = i + 1; j < sets.size(); j++) {
+                        if ((neighborMask & sets.get(j)) == 0) {
+                            continue;
+                        }
+                        double logRows = getLogRows(sets.get(i) | sets.get(j));
+                        if (logRows < bestLogRows) {
+                            bestLogRows = logRows;
+                            bestLeft = i;
+                            bestRight = j;
+                        }
+                    }
+                }
+                long left = sets.get(bestLeft);
+                long right = sets.get(bestRight);
+                double childCost = greedyPlanTable.costs[greedyPlanTable.find(left)]
+                        + greedyPlanTable.costs[greedyPlanTable.find(right)];
+                greedyPlanTable.update(left, childCost, greedyPlanTable.insert(left | right, bestLogRows));
+                sets.set(bestLeft, left | right);
+                sets.remove(bestRight);
+            }
+            return greedyPlanTable.costs[greedyPlanTable.find(sets.get(0))];
+        }
+
+        private void emitCsg(long csg) {
+            if (!planTable.hasPlan(csg)) {
+                // pruned
+                return;
+            }
+            int minAtom = Long.numberOfTrailingZeros(csg);
+            long excluded = csg | ((1L << (minAtom + 1)) - 1);
+            long neighborMask = getNeighbors(csg) & ~excluded;
+            for (long bits = neighborMask; bits != 0 && !timeout; ) {
+                int atom = Long.SIZE - 1 - Long.numberOfLeadingZeros(bits);
+                long cmp = 1L << atom;
+                bits &= ~cmp;
+                emitCsgCmp(csg, cmp);
+                enumerateCmpRec(csg, cmp, excluded | (neighborMask & ((cmp << 1) - 1)));
+            }
+        }
+
+        private void enumerateCsgRec(long csg, long excluded) {
+            long neighborMask = getNeighbors(csg) & ~excluded;
+            if (neighborMask == 0) {
+                return;
+            }
+            // the subsets in increasing order, so a subset is always visited before its supersets
+            for (long subset = -neighborMask & neighborMask; subset != 0 && !timeout;
+                    subset = (subset - neighborMask) & neighborMask) {
+                emitCsg(csg | subset);
+            }
+            for (long subset = -neighborMask & neighborMask; subset != 0 && !timeout;
+                    subset = (subset - neighborMask) & neighborMask) {
+                enumerateCsgRec(csg | subset, excluded | neighborMask);
+            }
+        }
+
+        private void enumerateCmpRec(long csg, long cmp, long excluded) {
+            long neighborMask = getNeighbors(cmp) & ~excluded;
+            if (neighborMask == 0) {
+                return;
+            }
+            for (long subset = -neighborMask & neighborMask; subset != 0 && !timeout;
+                    subset = (subset - neighborMask) & neighborMask) {
+                if (planTable.hasPlan(cmp | subset)) {
+                    emitCsgCmp(csg, cmp | subset);
+                }
+            }
+            excluded |= neighborMask;
+            for (long subset = -neighborMask & neighborMask; subset != 0 && !timeout;
+                    subset = (subset - neighborMask) & neighborMask) {
+                enumerateCmpRec(csg, cmp | subset, excluded);
+            }
+        }
+
+        private void emitCsgCmp(long csg, long cmp) {
+            if (++pairNum % TIME_CHECK_INTERVAL == 0 && System.currentTimeMillis() > deadline) {
+                timeout = true;
+                return;
+            }
+            int csgIdx = planTable.find(csg);
+            int cmpIdx = planTable.find(cmp);
+            if (csgIdx < 0 || cmpIdx < 0) {
+                return;
+            }
+            double childCost = planTable.costs[csgIdx] + planTable.costs[cmpIdx];
+            if (childCost > upperBound) {
+                return;
+            }
+            long atomMask = csg | cmp;
+            int idx = planTable.find(atomMask);
+            if (idx < 0) {
+                idx = planTable.insert(atomMask, getLogRows(atomMask));
+            }
+            if (childCost + planTable.rows[idx] <= upperBound) {
+                planTable.update(csg, childCost, idx);
+            }
+        }
+    }
+
+    /**
+     * Open addressing hash table from a set of atoms to its best plan, the empty set is never a key.
+     */
+    private static class PlanTable {
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private long[] keys = new long[INITIAL_CAPACITY];
+        private double[] rows = new double[INITIAL_CAPACITY];
+        private double[] costs = new double[INITIAL_CAPACITY];
+        // the left child of the best plan, right child is key & ~left
+        private long[] lefts = new long[INITIAL_CAPACITY];
+        private int size = 0;
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+
+        int find(long key) {
+            int mask = keys.length - 1;
+            for (int idx = hash(key) & mask; keys[idx] != 0; idx = (idx + 1) & mask) {
+                if (keys[idx] == key) {
+                    return idx;
+                }
+            }
+            return -1;
+        }
+
+        boolean hasPlan(long key) {
+            int idx = find(key);
+            return idx >= 0 && costs[idx] < Double.MAX_VALUE;
+        }
+
+        // insert a set without plan, return its index
+        int insert(long key, double logRows) {
+            if ((size + 1) * 2 > keys.length) {
+                resize();
+            }
+            int mask = keys.length - 1;
+            int idx = hash(key) & mask;
+            while (keys[idx] != 0) {
+                idx = (idx + 1) & mask;
+            }
+            keys[idx] = key;
+            rows[idx] = Math.exp(logRows);
+            costs[idx] = Double.MAX_VALUE;
+            size++;
+            return idx;
+        }
+
+        // join left and the rest atoms as the plan of idx if it's better
+        void update(long left, double childCost, int idx) {
+            double cost = rows[idx] + childCost;
+            if (cost < costs[idx]) {
+                costs[idx] = cost;
+                lefts[idx] = left;
+            }
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            double[] oldRows = rows;
+            double[] oldCosts = costs;
+            long[] oldLefts = lefts;
+            int capacity = oldKeys.length * 2;
+            keys = new long[capacity];
+            rows = new double[capacity];
+            costs = new double[capacity];
+            lefts = new long[capacity];
+            int mask = capacity - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] == 0) {
+                    continue;
+                }
+                int idx = hash(oldKeys[i]) & mask;
+                while (keys[idx] != 0) {
+                    idx = (idx + 1) & mask;
+                }
+                keys[idx] = oldKeys[i];
+                rows[idx] = oldRows[i];
+                costs[idx] = oldCosts[i];
+                lefts[idx] = oldLefts[i];
+            }
+        }
+    }
+}
@@ -81,11 +81,18 @@ public class ReorderJoinRule extends Rule {
 
                 enumerate(new JoinReorderLeftDeep(context), context, innerJoinRoot, multiJoinNode);
 
-                if (multiJoinNode.getAtoms().size() <= context.getSessionVariable().getCboMaxReorderNodeUseDP()
-                        && context.getSessionVariable().isCboEnableDPJoinReorder()) {
-                    //10 table join reorder takes more than 100ms,
-                    //so the join reorder using dp is currently controlled below 10.
-                    enumerate(new JoinReorderDP(context), context, innerJoinRoot, multiJoinNode);
+                int atomSize = multiJoinNode.getAtoms().size();
+                if (context.getSessionVariable().isCboEnableDPJoinReorder()) {
+                    if (atomSize <= context.getSessionVariable().getCboMaxReorderNodeUseDP()) {
+                        //10 table join reorder takes more than 100ms,
+                        //so the join reorder using dp is currently controlled below 10.
+                        enumerate(new JoinReorderDP(context), context, innerJoinRoot, multiJoinNode);
+                    } else if (atomSize <= context.getSessionVariable().getCboMaxReorderNodeUseDPHyp()
+                            && atomSize < Long.SIZE) {
+                        // only the connected subgraphs are enumerated, so the join graphs of snowflake
+                        // schema with much more tables can still be reordered by dp
+                        enumerate(new JoinReorderDPHyp(context), context, innerJoinRoot, multiJoinNode);
+                    }
                 }
 
                 if (context.getSessionVariable().isCboEnableGreedyJoinReorder()) {
@@ -0,0 +1,571 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.rule.mv;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.starrocks.analysis.Expr;
+import com.starrocks.analysis.SqlParser;
+import com.starrocks.analysis.SqlScanner;
+import com.starrocks.analysis.StatementBase;
+import com.starrocks.catalog.Catalog;
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.Function;
+import com.starrocks.catalog.FunctionSet;
+import com.starrocks.catalog.MaterializedViewDefinition;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Table;
+import com.starrocks.catalog.Type;
+import com.starrocks.common.Pair;
+import com.starrocks.common.util.SqlParserUtils;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.sql.analyzer.relation.QueryRelation;
+import com.starrocks.sql.analyzer.relation.Relation;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.OptimizerContext;
+import com.starrocks.sql.optimizer.Utils;
+import com.starrocks.sql.optimizer.base.ColumnRefFactory;
+import com.starrocks.sql.optimizer.operator.Operator;
+import com.starrocks.sql.optimizer.operator.OperatorType;
+import com.starrocks.sql.optimizer.operator.logical.LogicalAggregationOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalFilterOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalOlapScanOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalProjectOperator;
+import com.starrocks.sql.optimizer.operator.pattern.Pattern;
+import com.starrocks.sql.optimizer.operator.scalar.CallOperator;
+import com.starrocks.sql.optimizer.operator.scalar.CastOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+import com.starrocks.sql.optimizer.rule.Rule;
+import com.starrocks.sql.optimizer.rule.RuleType;
+import com.starrocks.sql.optimizer.transformer.LogicalPlan;
+import com.starrocks.sql.optimizer.transformer.RelationTransformer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Rewrite the select-project-join-group by blocks of query to read the fresh asynchronous
+ * materialized views, whose base tables are exactly the tables of the block.
+ * <p>
+ * A materialized view can answer a block if:
+ * 1. Every column equivalence of the view holds in the block, and every residual predicate of
+ * the view is also a predicate of the block. The rest predicates of the block are compensated
+ * on the view, so they must be computable from the output columns of the view.
+ * 2. The output expressions of the block are computable from the output columns of the view.
+ * 3. If the view has aggregation, the grouping keys of the block are computable from the grouping keys
+ * of the view, and the aggregate functions are either same as the view, or can be rolled up
+ * from the view: sum from sum, count from sum of count, min and max from min and max.
+ */
+public class AsyncMaterializedViewRule extends Rule {
+    private static final Logger LOG = LogManager.getLogger(AsyncMaterializedViewRule.class);
+
+    private OptimizerContext context;
+    private ColumnRefFactory factory;
+
+    public AsyncMaterializedViewRule() {
+        super(RuleType.TF_ASYNC_MATERIALIZED_VIEW, Pattern.create(OperatorType.PATTERN));
+    }
+
+    @Override
+    public List<OptExpression> transform(OptExpression input, OptimizerContext context) {
+        if (ConnectContext.get() == null) {
+            return Collections.emptyList();
+        }
+        this.context = context;
+        this.factory = context.getColumnRefFactory();
+        rewrite(input);
+        return Collections.emptyList();
+    }
+
+    private void rewrite(OptExpression expression) {
+        Operator op = expression.getOp();
+        if (op instanceof LogicalAggregationOperator || op instanceof LogicalProjectOperator) {
+            SPJGBlock block = SPJGBlock.extract(expression);
+            // rewriting a single table without aggregation brings little benefit
+            if (block != null && (block.hasAggregation() || block.getScans().size() > 1)) {
+                for (OlapTable mv : findCandidates(block)) {
+                    OptExpression newExpression = rewriteBlock(block, mv);
+                    if (newExpression != null) {
+                        context.getMemo().replaceRewriteExpression(
+                                expression.getGroupExpression().getGroup(), newExpression);
+                        return;
+                    }
+                }
+            }
+        }
+        for (OptExpression child : expression.getInputs()) {
+            rewrite(child);
+        }
+    }
+
+    // find the fresh materialized views with the same base tables as block, the smallest comes first
+    private List<OlapTable> findCandidates(SPJGBlock block) {
+        List<OlapTable> candidates = Lists.newArrayList();
+        Set<Long> tableIds = block.getTableIds();
+        long tableId = block.getScans().get(0).getOlapTable().getId();
+        Catalog catalog = Catalog.getCurrentCatalog();
+        for (Pair<Long, Long> dbIdAndMvId : catalog.getMaterializedViewIndex().getMaterializedViews(tableId)) {
+            Database db = catalog.getDb(dbIdAndMvId.first);
+            if (db == null) {
+                continue;
+            }
+            db.readLock();
+            try {
+                Table table = db.getTable(dbIdAndMvId.second);
+                if (!(table instanceof OlapTable)) {
+                    continue;
+                }
+                MaterializedViewDefinition definition = ((OlapTable) table).getMaterializedViewDefinition();
+                if (definition != null && Sets.newHashSet(definition.getBaseTableIds()).equals(tableIds)
+                        && definition.isFresh(db)) {
+                    candidates.add((OlapTable) table);
+                }
+            } finally {
+                db.readUnlock();
+            }
+        }
+        candidates.sort(Comparator.comparingLong(OlapTable::getRowCount));
+        return candidates;
+    }
+
+    private OptExpression rewriteBlock(SPJGBlock queryBlock, OlapTable mv) {
+        ViewContext view = buildViewContext(queryBlock, mv);
+        // the aggregated view can not answer the query without aggregation
+        if (view == null || (view.block.hasAggregation() && !queryBlock.hasAggregation())) {
+            return null;
+        }
+
+        List<ScalarOperator> compensations = matchPredicates(queryBlock, view);
+        if (compensations == null) {
+            return null;
+        }
+        List<ScalarOperator> scanPredicates = Lists.newArrayList();
+        for (ScalarOperator compensation : compensations) {
+            ScalarOperator predicate = view.rewrite(compensation);
+            if (predicate == null) {
+                return null;
+            }
+            scanPredicates.add(predicate);
+        }
+        if (!scanPredicates.isEmpty()) {
+            view.scan.setPredicate(Utils.compoundAnd(scanPredicates));
+        }
+        OptExpression scanExpression = new OptExpression(view.scan);
+
+        if (!queryBlock.hasAggregation()) {
+            return rewriteProject(queryBlock, view, scanExpression);
+        } else if (!view.block.hasAggregation()) {
+            return rewriteAggregation(queryBlock, view, scanExpression);
+        } else {
+            OptExpression result = rewriteExactAggregation(queryBlock, view, scanExpression);
+            if (result == null) {
+                result = rollupAggregation(queryBlock, view, scanExpression);
+            }
+            return result;
+        }
+    }
+
+    /*
+     * Return the predicates need to be compensated on the view, or null if the view is not able to answer the query.
+     */
+    private List<ScalarOperator> matchPredicates(SPJGBlock queryBlock, ViewContext view) {
+        SPJGBlock.ColumnEquivalence queryEquivalence = queryBlock.getEquivalence();
+        SPJGBlock.ColumnEquivalence viewEquivalence = view.block.getEquivalence();
+        List<ScalarOperator> compensations = Lists.newArrayList();
+
+        for (ScalarOperator conjunct : view.block.getConjuncts()) {
+            if (SPJGBlock.isColumnEquality(conjunct) && !queryEquivalence.isEquivalent(
+                    (ColumnRefOperator) conjunct.getChild(0), (ColumnRefOperator) conjunct.getChild(1))) {
+                return null;
+            }
+        }
+        for (ScalarOperator conjunct : queryBlock.getConjuncts()) {
+            if (SPJGBlock.isColumnEquality(conjunct) && !viewEquivalence.isEquivalent(
+                    (ColumnRefOperator) conjunct.getChild(0), (ColumnRefOperator) conjunct.getChild(1))) {
+                compensations.add(conjunct);
+            }
+        }
+
+        Set<ScalarOperator> viewResiduals = Sets.newHashSet();
+        for (ScalarOperator residual : view.block.getResiduals()) {
+            viewResiduals.add(queryEquivalence.normalize(residual));
+        }
+        Set<ScalarOperator> queryResiduals = Sets.newHashSet();
+        for (ScalarOperator residual : queryBlock.getResiduals()) {
+            ScalarOperator normalized = queryEquivalence.normalize(residual);
+            queryResiduals.add(normalized);
+            if (!viewResiduals.contains(normalized)) {
+                compensations.add(residual);
+            }
+        }
+        if (!queryResiduals.containsAll(viewResiduals)) {
+            return null;
+        }
+        return compensations;
+    }
+
+    // query without aggregation on view without aggregation
+    private OptExpression rewriteProject(SPJGBlock queryBlock, ViewContext view, OptExpression scanExpression) {
+        Map<ColumnRefOperator, ScalarOperator> projection = Maps.newHashMap();
+        for (Map.Entry<ColumnRefOperator, ScalarOperator> entry : queryBlock.getOutputs().entrySet()) {
+            ScalarOperator rewritten = view.rewrite(entry.getValue());
+            if (rewritten == null) {
+                return null;
+            }
+            projection.put(entry.getKey(), rewritten);
+        }
+        return OptExpression.create(new LogicalProjectOperator(projection), scanExpression);
+    }
+
+    // query with aggregation on view without aggregation
+    private OptExpression rewriteAggregation(SPJGBlock queryBlock, ViewContext view, OptExpression scanExpression) {
+        Map<ColumnRefOperator, ScalarOperator> projection = Maps.newHashMap();
+        for (Map.Entry<ColumnRefOperator, ScalarOperator> entry : queryBlock.getGroupingKeys().entrySet()) {
+            ScalarOperator rewritten = view.rewrite(entry.getValue());
+            if (rewritten == null) {
+                return null;
+            }
+            projection.put(entry.getKey(), rewritten);
+        }
+        Map<ColumnRefOperator, CallOperator> aggregations = Maps.newHashMap();
+        for (Map.Entry<ColumnRefOperator, CallOperator> entry : queryBlock.getAggregations().entrySet()) {
+            CallOperator call = rewriteAggregateArguments(entry.getValue(), view, projection);
+            if (call == null) {
+                return null;
+            }
+            aggregations.put(entry.getKey(), call);
+        }
+        return buildAggregation(queryBlock, view, projection, aggregations, scanExpression);
+    }
+
+    /*
+     * Query with aggregation on view with same grouping keys, the aggregations of view can be used directly
+     */
+    private OptExpression rewriteExactAggregation(SPJGBlock queryBlock, ViewContext view,
+                                                  OptExpression scanExpression) {
+        Map<ColumnRefOperator, ScalarOperator> projection = Maps.newHashMap();
+        Set<ColumnRefOperator> usedKeys = Sets.newHashSet();
+        for (Map.Entry<ColumnRefOperator, ScalarOperator> entry : queryBlock.getGroupingKeys().entrySet()) {
+            ColumnRefOperator column = view.findColumn(entry.getValue());
+            if (column == null) {
+                return null;
+            }
+            usedKeys.add(column);
+            projection.put(entry.getKey(), castIfNeeded(column, entry.getKey().getType()));
+        }
+        if (!usedKeys.equals(Sets.newHashSet(view.columns.values()))) {
+            return null;
+        }
+
+        for (Map.Entry<ColumnRefOperator, CallOperator> entry : queryBlock.getAggregations().entrySet()) {
+            ColumnRefOperator column = null;
+            for (Map.Entry<CallOperator, ColumnRefOperator> viewAggregation : view.aggregations.entrySet()) {
+                if (isSameAggregation(entry.getValue(), viewAggregation.getKey(), view)) {
+                    column = viewAggregation.getValue();
+                    break;
+                }
+            }
+            if (column == null) {
+                return null;
+            }
+            projection.put(entry.getKey(), castIfNeeded(column, entry.getKey().getType()));
+        }
+
+        OptExpression result = OptExpression.create(new LogicalProjectOperator(projection), scanExpression);
+        if (queryBlock.getAggregation().getPredicate() != null) {
+            result = OptExpression.create(new LogicalFilterOperator(queryBlock.getAggregation().getPredicate()),
+                    result);
+        }
+        return result;
+    }
+
+    /*
+     * Query with aggregation on view with more grouping keys, aggregate the aggregations of view again
+     */
+    private OptExpression rollupAggregation(SPJGBlock queryBlock, ViewContext view, OptExpression scanExpression) {
+        Map<ColumnRefOperator, ScalarOperator> projection = Maps.newHashMap();
+        for (Map.Entry<ColumnRefOperator, ScalarOperator> entry : queryBlock.getGroupingKeys().entrySet()) {
+            ScalarOperator rewritten = view.rewrite(entry.getValue());
+            if (rewritten == null) {
+                return null;
+            }
+            projection.put(entry.getKey(), rewritten);
+        }
+
+        Map<ColumnRefOperator, CallOperator> aggregations = Maps.newHashMap();
+        for (Map.Entry<ColumnRefOperator, CallOperator> entry : queryBlock.getAggregations().entrySet()) {
+            CallOperator call = entry.getValue();
+            CallOperator rollup = null;
+            if (isDuplicateInsensitive(call)) {
+                // recompute on the grouping keys of view
+                rollup = rewriteAggregateArguments(call, view, projection);
+            }
+            // sum of counts is null instead of 0 if there is no row, which only matters without grouping keys
+            if (rollup == null && !(call.getFnName().equals(FunctionSet.COUNT)
+                    && queryBlock.getGroupingKeys().isEmpty())) {
+                rollup = rollupAggregateFunction(call, view, projection);
+            }
+            if (rollup == null) {
+                return null;
+            }
+            aggregations.put(entry.getKey(), rollup);
+        }
+        return buildAggregation(queryBlock, view, projection, aggregations, scanExpression);
+    }
+
+    private CallOperator rollupAggregateFunction(CallOperator call, ViewContext view,
+                                                 Map<ColumnRefOperator, ScalarOperator> projection) {
+        String rollupFunction;
+        switch (call.getFnName()) {
+            case FunctionSet.SUM:
+            case FunctionSet.COUNT:
+                rollupFunction = FunctionSet.SUM;
+                break;
+            case FunctionSet.MIN:
+            case FunctionSet.MAX:
+                rollupFunction = call.getFnName();
+                break;
+            default:
+                return null;
+        }
+        if (call.isDistinct()) {
+            return null;
+        }
+        for (Map.Entry<CallOperator, ColumnRefOperator> viewAggregation : view.aggregations.entrySet()) {
+            if (!isSameAggregation(call, viewAggregation.getKey(), view)) {
+                continue;
+            }
+            ColumnRefOperator column = viewAggregation.getValue();
+            Function fn = Expr.getBuiltinFunction(rollupFunction, new Type[] {column.getType()},
+                    Function.CompareMode.IS_NONSTRICT_SUPERTYPE_OF);
+            if (fn == null || !fn.getReturnType().equals(call.getType())) {
+                return null;
+            }
+            projection.put(column, column);
+            return new CallOperator(rollupFunction, call.getType(), Lists.newArrayList(column), fn);
+        }
+        return null;
+    }
+
+    // rewrite the arguments of aggregate function on the output columns of view
+    private CallOperator rewriteAggregateArguments(CallOperator call, ViewContext view,
+                                                   Map<ColumnRefOperator, ScalarOperator> projection) {
+        List<ScalarOperator> arguments = Lists.newArrayList();
+        for (ScalarOperator argument : call.getChildren()) {
+            ScalarOperator rewritten = view.rewrite(argument);
+            if (rewritten == null) {
+                return null;
+            }
+            if (rewritten.isConstant()) {
+                arguments.add(rewritten);
+                continue;
+            }
+            ColumnRefOperator column;
+            if (rewritten instanceof ColumnRefOperator) {
+                column = (ColumnRefOperator) rewritten;
+            } else {
+                column = factory.create(rewritten, rewritten.getType(), rewritten.isNullable());
+            }
+            projection.put(column, rewritten);
+            arguments.add(column);
+        }
+        return new CallOperator(call.getFnName(), call.getType(), arguments, call.getFunction(), call.isDistinct());
+    }
+
+    private OptExpression buildAggregation(SPJGBlock queryBlock, ViewContext view,
+                                           Map<ColumnRefOperator, ScalarOperator> projection,
+                                           Map<ColumnRefOperator, CallOperator> aggregations,
+                                           OptExpression scanExpression) {
+        if (projection.isEmpty()) {
+            // like count(*), output a column to keep the rows
+            ColumnRefOperator column = Utils.findSmallestColumnRef(view.scan.getOutputColumns());
+            projection.put(column, column);
+        }
+        LogicalAggregationOperator aggregation = new LogicalAggregationOperator(
+                Lists.newArrayList(queryBlock.getAggregation().getGroupingKeys()), aggregations);
+        aggregation.setPredicate(queryBlock.getAggregation().getPredicate());
+        return OptExpression.create(aggregation,
+                OptExpression.create(new LogicalProjectOperator(projection), scanExpression));
+    }
+
+    private boolean isSameAggregation(CallOperator queryCall, CallOperator viewCall, ViewContext view) {
+        if (!queryCall.getFnName().equals(viewCall.getFnName()) || queryCall.isDistinct() != viewCall.isDistinct()
+                || queryCall.getChildren().size() != viewCall.getChildren().size()) {
+            return false;
+        }
+        SPJGBlock.ColumnEquivalence equivalence = view.block.getEquivalence();
+        for (int i = 0; i < queryCall.getChildren().size(); i++) {
+            if (!equivalence.normalize(queryCall.getChild(i)).equals(equivalence.normalize(viewCall.getChild(i)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // the aggregate functions whose result does not change with the duplicate rows
+    private boolean isDuplicateInsensitive(CallOperator call) {
+        return call.isDistinct() || call.getFnName().equals(FunctionSet.MIN) || call.getFnName().equals(FunctionSet.MAX)
+                || call.getFnName().equals(FunctionSet.MULTI_DISTINCT_COUNT)
+                || call.getFnName().equals(FunctionSet.MULTI_DISTINCT_SUM);
+    }
+
+    private static ScalarOperator castIfNeeded(ColumnRefOperator column, Type type) {
+        if (column.getType().equals(type)) {
+            return column;
+        }
+        return new CastOperator(type, column);
+    }
+
+    /*
+     * Plan the definition of materialized view, and express it on the scan columns of query block.
+     */
+    private ViewContext buildViewContext(SPJGBlock queryBlock, OlapTable mv) {
+        MaterializedViewDefinition definition = mv.getMaterializedViewDefinition();
+        ConnectContext session = ConnectContext.get();
+        LogicalPlan plan;
+        List<String> outputNames;
+        try {
+            SqlScanner input = new SqlScanner(new StringReader(definition.getDefinition()),
+                    session.getSessionVariable().getSqlMode());
+            StatementBase stmt = SqlParserUtils.getFirstStmt(new SqlParser(input));
+            Relation relation = new com.starrocks.sql.analyzer.Analyzer(session.getCatalog(), session).analyze(stmt);
+            outputNames = ((QueryRelation) relation).getColumnOutputNames();
+            plan = new RelationTransformer(factory).transform((QueryRelation) relation);
+        } catch (Exception e) {
+            LOG.warn("failed to plan the definition of materialized view {}", mv.getName(), e);
+            return null;
+        }
+
+        OptExpression root = plan.getRoot();
+        Map<ColumnRefOperator, ScalarOperator> topProjection = Maps.newHashMap();
+        if (root.getOp() instanceof LogicalProjectOperator
+                && root.inputAt(0).getOp() instanceof LogicalAggregationOperator) {
+            topProjection.putAll(((LogicalProjectOperator) root.getOp()).getColumnRefMap());
+            root = root.inputAt(0);
+        }
+        SPJGBlock viewBlock = SPJGBlock.extract(root);
+        if (viewBlock == null || !viewBlock.getTableIds().equals(queryBlock.getTableIds())
+                || (viewBlock.hasAggregation() && viewBlock.getAggregation().getPredicate() != null)) {
+            return null;
+        }
+
+        // map the scan columns of view to the scan columns of query by column name
+        Map<ColumnRefOperator, ScalarOperator> columnMapping = Maps.newHashMap();
+        for (LogicalOlapScanOperator viewScan : viewBlock.getScans()) {
+            Map<String, ColumnRefOperator> queryColumns = Maps.newHashMap();
+            for (LogicalOlapScanOperator queryScan : queryBlock.getScans()) {
+                if (queryScan.getOlapTable().getId() == viewScan.getOlapTable().getId()) {
+                    for (Map.Entry<ColumnRefOperator, Column> entry : queryScan.getColumnRefMap().entrySet()) {
+                        queryColumns.put(entry.getValue().getName(), entry.getKey());
+                    }
+                }
+            }
+            for (Map.Entry<ColumnRefOperator, Column> entry : viewScan.getColumnRefMap().entrySet()) {
+                ColumnRefOperator queryColumn = queryColumns.get(entry.getValue().getName());
+                if (queryColumn != null) {
+                    columnMapping.put(entry.getKey(), queryColumn);
+                }
+            }
+        }
+        viewBlock.replaceColumns(columnMapping);
+
+        ViewContext view = new ViewContext(viewBlock, buildScan(mv));
+        for (int i = 0; i < plan.getOutputColumn().size(); i++) {
+            ColumnRefOperator output = plan.getOutputColumn().get(i);
+            ColumnRefOperator column = view.nameToColumn.get(outputNames.get(i));
+            if (column == null) {
+                return null;
+            }
+            if (!viewBlock.hasAggregation()) {
+                ScalarOperator expression = viewBlock.getOutputs().get(output);
+                if (expression != null) {
+                    view.addColumn(expression, column);
+                }
+                continue;
+            }
+            ScalarOperator expression = topProjection.getOrDefault(output, output);
+            if (viewBlock.getGroupingKeys().containsKey(expression)) {
+                view.addColumn(viewBlock.getGroupingKeys().get(expression), column);
+            } else if (viewBlock.getAggregations().containsKey(expression)) {
+                view.aggregations.put(viewBlock.getAggregations().get(expression), column);
+            }
+        }
+        return view;
+    }
+
+    private LogicalOlapScanOperator buildScan(OlapTable mv) {
+        List<ColumnRefOperator> outputs = Lists.newArrayList();
+        Map<ColumnRefOperator, Column> columnRefMap = Maps.newHashMap();
+        ImmutableMap.Builder<Column, Integer> columnToIds = ImmutableMap.builder();
+        int relationId = factory.getNextRelationId();
+        for (Column column : mv.getBaseSchema()) {
+            ColumnRefOperator columnRef = factory.create(column.getName(), column.getType(), column.isAllowNull());
+            factory.updateColumnToRelationIds(columnRef.getId(), relationId);
+            factory.updateColumnRefToColumns(columnRef, column, mv);
+            outputs.add(columnRef);
+            columnRefMap.put(columnRef, column);
+            columnToIds.put(column, columnRef.getId());
+        }
+        return new LogicalOlapScanOperator(mv, outputs, columnRefMap, columnToIds.build());
+    }
+
+    private static class ViewContext {
+        private final SPJGBlock block;
+        private final LogicalOlapScanOperator scan;
+        private final Map<String, ColumnRefOperator> nameToColumn = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        // normalized expression -> output column of view, the grouping keys only if view has aggregation
+        private final Map<ScalarOperator, ColumnRefOperator> columns = Maps.newHashMap();
+        // aggregate function -> output column of view
+        private final Map<CallOperator, ColumnRefOperator> aggregations = Maps.newHashMap();
+
+        ViewContext(SPJGBlock block, LogicalOlapScanOperator scan) {
+            this.block = block;
+            this.scan = scan;
+            for (ColumnRefOperator column : scan.getOutputColumns()) {
+                nameToColumn.put(column.getName(), column);
+            }
+        }
+
+        void addColumn(ScalarOperator expression, ColumnRefOperator column) {
+            columns.put(block.getEquivalence().normalize(expression), column);
+        }
+
+        ColumnRefOperator findColumn(ScalarOperator expression) {
+            return columns.get(block.getEquivalence().normalize(expression));
+        }
+
+        /*
+         * Rewrite the expression on query scan columns to the expression on view columns,
+         * return null if it is not computable from view.
+         */
+        ScalarOperator rewrite(ScalarOperator expression) {
+            ColumnRefOperator column = findColumn(expression);
+            if (column != null) {
+                return castIfNeeded(column, expression.getType());
+            }
+            if (expression instanceof ColumnRefOperator) {
+                return null;
+            }
+            ScalarOperator result = expression.clone();
+            for (int i = 0; i < result.getChildren().size(); i++) {
+                ScalarOperator child = rewrite(result.getChild(i));
+                if (child == null) {
+                    return null;
+                }
+                result.setChild(i, child);
+            }
+            return result;
+        }
+    }
+}
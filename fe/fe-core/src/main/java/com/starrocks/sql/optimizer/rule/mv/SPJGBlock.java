@@ -0,0 +1,291 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.rule.mv;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.Utils;
+import com.starrocks.sql.optimizer.operator.AggType;
+import com.starrocks.sql.optimizer.operator.Operator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalAggregationOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalFilterOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalJoinOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalOlapScanOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalProjectOperator;
+import com.starrocks.sql.optimizer.operator.scalar.BinaryPredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.CallOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+import com.starrocks.sql.optimizer.rewrite.ReplaceColumnRefRewriter;
+import com.starrocks.sql.optimizer.rewrite.ScalarOperatorRewriter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SPJGBlock is a select-project-join-group by block of logical plan, whose expressions are all
+ * inlined down to the output columns of its olap scans:
+ * [Aggregate] -> (Project | Filter | inner or cross Join)* -> OlapScan
+ * <p>
+ * The conjuncts of the block are divided into column equivalence classes, which come from
+ * the column equality predicates, and the other residual predicates.
+ */
+public class SPJGBlock {
+    private final List<LogicalOlapScanOperator> scans = Lists.newArrayList();
+    private final List<ScalarOperator> conjuncts = Lists.newArrayList();
+
+    // output column -> expression on scan columns, for block without aggregation
+    private Map<ColumnRefOperator, ScalarOperator> outputs;
+
+    // for block with aggregation
+    private LogicalAggregationOperator aggregation;
+    // grouping key -> expression on scan columns
+    private final Map<ColumnRefOperator, ScalarOperator> groupingKeys = Maps.newLinkedHashMap();
+    // aggregate output -> aggregate function with arguments on scan columns
+    private final Map<ColumnRefOperator, CallOperator> aggregations = Maps.newLinkedHashMap();
+
+    private final ColumnEquivalence equivalence = new ColumnEquivalence();
+    private final List<ScalarOperator> residuals = Lists.newArrayList();
+
+    private SPJGBlock() {
+    }
+
+    public List<LogicalOlapScanOperator> getScans() {
+        return scans;
+    }
+
+    public Set<Long> getTableIds() {
+        Set<Long> tableIds = Sets.newHashSet();
+        for (LogicalOlapScanOperator scan : scans) {
+            tableIds.add(scan.getOlapTable().getId());
+        }
+        return tableIds;
+    }
+
+    public List<ScalarOperator> getConjuncts() {
+        return conjuncts;
+    }
+
+    public boolean hasAggregation() {
+        return aggregation != null;
+    }
+
+    public LogicalAggregationOperator getAggregation() {
+        return aggregation;
+    }
+
+    public Map<ColumnRefOperator, ScalarOperator> getOutputs() {
+        return outputs;
+    }
+
+    public Map<ColumnRefOperator, ScalarOperator> getGroupingKeys() {
+        return groupingKeys;
+    }
+
+    public Map<ColumnRefOperator, CallOperator> getAggregations() {
+        return aggregations;
+    }
+
+    public ColumnEquivalence getEquivalence() {
+        return equivalence;
+    }
+
+    public List<ScalarOperator> getResiduals() {
+        return residuals;
+    }
+
+    /*
+     * Extract the block rooted at root, root must be an aggregate or a project.
+     * Return null if the plan is not a SPJG block.
+     */
+    public static SPJGBlock extract(OptExpression root) {
+        SPJGBlock block = new SPJGBlock();
+        Operator op = root.getOp();
+        if (op instanceof LogicalAggregationOperator) {
+            LogicalAggregationOperator aggOp = (LogicalAggregationOperator) op;
+            if (aggOp.getType() != AggType.GLOBAL || aggOp.isSplit() || aggOp.hasLimit()) {
+                return null;
+            }
+            Map<ColumnRefOperator, ScalarOperator> inputs = block.extractSPJ(root.inputAt(0));
+            if (inputs == null) {
+                return null;
+            }
+            block.aggregation = aggOp;
+            for (ColumnRefOperator key : aggOp.getGroupingKeys()) {
+                block.groupingKeys.put(key, inline(key, inputs));
+            }
+            for (Map.Entry<ColumnRefOperator, CallOperator> entry : aggOp.getAggregations().entrySet()) {
+                block.aggregations.put(entry.getKey(), (CallOperator) inline(entry.getValue(), inputs));
+            }
+        } else if (op instanceof LogicalProjectOperator) {
+            block.outputs = block.extractSPJ(root);
+            if (block.outputs == null) {
+                return null;
+            }
+        } else {
+            return null;
+        }
+
+        Set<Long> tableIds = block.getTableIds();
+        if (tableIds.size() != block.scans.size()) {
+            // self join is not supported
+            return null;
+        }
+        block.classifyConjuncts();
+        return block;
+    }
+
+    /*
+     * Return the mapping from output columns of the plan to the expressions on scan columns,
+     * the output columns of olap scan are not included. Return null if the plan is not supported.
+     */
+    private Map<ColumnRefOperator, ScalarOperator> extractSPJ(OptExpression expr) {
+        Operator op = expr.getOp();
+        if (op instanceof LogicalOlapScanOperator) {
+            LogicalOlapScanOperator scan = (LogicalOlapScanOperator) op;
+            if (scan.hasLimit() || scan.getPartitionNames() != null
+                    || (scan.getHintsTabletIds() != null && !scan.getHintsTabletIds().isEmpty())) {
+                return null;
+            }
+            scans.add(scan);
+            addConjuncts(scan.getPredicate(), Maps.newHashMap());
+            return Maps.newHashMap();
+        } else if (op instanceof LogicalProjectOperator) {
+            LogicalProjectOperator project = (LogicalProjectOperator) op;
+            Map<ColumnRefOperator, ScalarOperator> inputs = extractSPJ(expr.inputAt(0));
+            if (inputs == null || project.hasLimit() || project.getPredicate() != null) {
+                return null;
+            }
+            Map<ColumnRefOperator, ScalarOperator> outputs = Maps.newHashMap();
+            for (Map.Entry<ColumnRefOperator, ScalarOperator> entry : project.getColumnRefMap().entrySet()) {
+                outputs.put(entry.getKey(), inline(entry.getValue(), inputs));
+            }
+            return outputs;
+        } else if (op instanceof LogicalFilterOperator) {
+            LogicalFilterOperator filter = (LogicalFilterOperator) op;
+            Map<ColumnRefOperator, ScalarOperator> inputs = extractSPJ(expr.inputAt(0));
+            if (inputs == null || filter.hasLimit()) {
+                return null;
+            }
+            addConjuncts(filter.getPredicate(), inputs);
+            return inputs;
+        } else if (op instanceof LogicalJoinOperator) {
+            LogicalJoinOperator join = (LogicalJoinOperator) op;
+            if (!join.isInnerOrCrossJoin() || join.hasLimit()) {
+                return null;
+            }
+            Map<ColumnRefOperator, ScalarOperator> left = extractSPJ(expr.inputAt(0));
+            Map<ColumnRefOperator, ScalarOperator> right = extractSPJ(expr.inputAt(1));
+            if (left == null || right == null) {
+                return null;
+            }
+            left.putAll(right);
+            addConjuncts(join.getOnPredicate(), left);
+            addConjuncts(join.getPredicate(), left);
+            return left;
+        }
+        return null;
+    }
+
+    private void addConjuncts(ScalarOperator predicate, Map<ColumnRefOperator, ScalarOperator> inputs) {
+        if (predicate == null) {
+            return;
+        }
+        ScalarOperator inlined = inline(predicate, inputs);
+        inlined = new ScalarOperatorRewriter().rewrite(inlined, ScalarOperatorRewriter.DEFAULT_REWRITE_RULES);
+        conjuncts.addAll(Utils.extractConjuncts(inlined));
+    }
+
+    private void classifyConjuncts() {
+        for (ScalarOperator conjunct : conjuncts) {
+            if (isColumnEquality(conjunct)) {
+                equivalence.union((ColumnRefOperator) conjunct.getChild(0), (ColumnRefOperator) conjunct.getChild(1));
+            } else {
+                residuals.add(conjunct);
+            }
+        }
+    }
+
+    public static boolean isColumnEquality(ScalarOperator conjunct) {
+        return conjunct instanceof BinaryPredicateOperator
+                && ((BinaryPredicateOperator) conjunct).getBinaryType() == BinaryPredicateOperator.BinaryType.EQ
+                && conjunct.getChild(0) instanceof ColumnRefOperator
+                && conjunct.getChild(1) instanceof ColumnRefOperator;
+    }
+
+    public static ScalarOperator inline(ScalarOperator operator, Map<ColumnRefOperator, ScalarOperator> inputs) {
+        return operator.clone().accept(new ReplaceColumnRefRewriter(inputs), null);
+    }
+
+    /*
+     * Replace the expressions of block with rewriter, used to express the block on the columns of another plan.
+     */
+    public void replaceColumns(Map<ColumnRefOperator, ScalarOperator> columnMapping) {
+        List<ScalarOperator> newConjuncts = Lists.newArrayList();
+        for (ScalarOperator conjunct : conjuncts) {
+            newConjuncts.add(inline(conjunct, columnMapping));
+        }
+        conjuncts.clear();
+        conjuncts.addAll(newConjuncts);
+        if (outputs != null) {
+            outputs.replaceAll((k, v) -> inline(v, columnMapping));
+        }
+        groupingKeys.replaceAll((k, v) -> inline(v, columnMapping));
+        aggregations.replaceAll((k, v) -> (CallOperator) inline(v, columnMapping));
+
+        equivalence.clear();
+        residuals.clear();
+        classifyConjuncts();
+    }
+
+    /**
+     * Union-find of equivalent columns
+     */
+    public static class ColumnEquivalence {
+        private final Map<ColumnRefOperator, ColumnRefOperator> parents = Maps.newHashMap();
+
+        public ColumnRefOperator find(ColumnRefOperator column) {
+            ColumnRefOperator parent = parents.get(column);
+            if (parent == null) {
+                return column;
+            }
+            ColumnRefOperator root = find(parent);
+            parents.put(column, root);
+            return root;
+        }
+
+        public void union(ColumnRefOperator left, ColumnRefOperator right) {
+            ColumnRefOperator leftRoot = find(left);
+            ColumnRefOperator rightRoot = find(right);
+            if (leftRoot.equals(rightRoot)) {
+                return;
+            }
+            // always use the column with smallest id as root, to make the normalized expressions stable
+            if (leftRoot.getId() < rightRoot.getId()) {
+                parents.put(rightRoot, leftRoot);
+            } else {
+                parents.put(leftRoot, rightRoot);
+            }
+        }
+
+        public boolean isEquivalent(ColumnRefOperator left, ColumnRefOperator right) {
+            return find(left).equals(find(right));
+        }
+
+        // replace every column with the root of its equivalence class
+        public ScalarOperator normalize(ScalarOperator operator) {
+            Map<ColumnRefOperator, ScalarOperator> mapping = Maps.newHashMap();
+            for (ColumnRefOperator column : Utils.extractColumnRef(operator)) {
+                mapping.put(column, find(column));
+            }
+            return inline(operator, mapping);
+        }
+
+        public void clear() {
+            parents.clear();
+        }
+    }
+}
@@ -0,0 +1,200 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.rule.transformation;
+
+import com.google.common.collect.Lists;
+import com.starrocks.sql.optimizer.ExpressionContext;
+import com.starrocks.sql.optimizer.Memo;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.OptimizerContext;
+import com.starrocks.sql.optimizer.Utils;
+import com.starrocks.sql.optimizer.operator.OperatorType;
+import com.starrocks.sql.optimizer.operator.logical.LogicalCTEAnchorOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalCTEConsumeOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalCTEProduceOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalFilterOperator;
+import com.starrocks.sql.optimizer.operator.pattern.Pattern;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+import com.starrocks.sql.optimizer.rewrite.ReplaceColumnRefRewriter;
+import com.starrocks.sql.optimizer.rule.Rule;
+import com.starrocks.sql.optimizer.rule.RuleType;
+import com.starrocks.sql.optimizer.statistics.StatisticsCalculator;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decide whether to share or inline each common table expression by cost.
+ * <p>
+ * The cte referenced more than once is transformed to:
+ * <pre>
+ *          CTEAnchor
+ *         /         \
+ *   CTEProduce      ... CTEConsume ... CTEConsume ...
+ *       |                   |              |
+ *   cte plan           inlined plan    inlined plan
+ * </pre>
+ * The cost of inlining is the rows processed by all the inlined plans, and the cost of sharing is
+ * the rows processed by the cte plan once plus the rows sent to each consumer. The cte is shared if
+ * the cost of inlining is larger than the cost of sharing multiplied by cbo_cte_reuse_rate.
+ * <p>
+ * If shared, the inlined plans are removed from the consumers, and if all the consumers have
+ * predicates, the disjunction of them is pushed down to the producer. Otherwise, the consumers are
+ * replaced by the inlined plans and the anchor is replaced by its right child.
+ * <p>
+ * The inner cte is decided first, which may be consumed by the outer ones.
+ */
+public class CTEReuseRule extends Rule {
+    private boolean hasProduceFilter = false;
+
+    public CTEReuseRule() {
+        super(RuleType.TF_CTE_REUSE, Pattern.create(OperatorType.PATTERN));
+    }
+
+    // Whether some predicates are pushed to the producers, which need to be pushed down again
+    public boolean hasProduceFilter() {
+        return hasProduceFilter;
+    }
+
+    @Override
+    public List<OptExpression> transform(OptExpression input, OptimizerContext context) {
+        List<Integer> cteIds = Lists.newArrayList();
+        collectAnchors(input, cteIds);
+
+        Memo memo = context.getMemo();
+        for (int i = cteIds.size() - 1; i >= 0; --i) {
+            int cteId = cteIds.get(i);
+            OptExpression anchor = findAnchor(memo.getRootGroup().extractLogicalTree(), cteId);
+            if (anchor == null) {
+                continue;
+            }
+            List<OptExpression> consumes = Lists.newArrayList();
+            collectConsumes(anchor.inputAt(1), cteId, consumes);
+
+            calculateStatistics(anchor, context);
+            OptExpression produce = anchor.inputAt(0);
+
+            double inlineCost = 0;
+            double reuseCost = cost(produce.inputAt(0));
+            for (OptExpression consume : consumes) {
+                inlineCost += cost(consume.inputAt(0));
+                reuseCost += produce.getStatistics().getOutputRowCount();
+            }
+
+            if (consumes.size() > 1 &&
+                    inlineCost > reuseCost * context.getSessionVariable().getCboCteReuseRate()) {
+                reuse(memo, produce, consumes);
+            } else {
+                inline(memo, anchor, consumes);
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    private void reuse(Memo memo, OptExpression produce, List<OptExpression> consumes) {
+        ScalarOperator producePredicate = null;
+        boolean allHavePredicate = true;
+        for (OptExpression consumeExpression : consumes) {
+            LogicalCTEConsumeOperator consume = (LogicalCTEConsumeOperator) consumeExpression.getOp();
+            LogicalCTEConsumeOperator newConsume =
+                    new LogicalCTEConsumeOperator(consume.getCteId(), consume.getCteOutputColumnRefMap());
+            newConsume.setPredicate(consume.getPredicate());
+            newConsume.setLimit(consume.getLimit());
+            memo.replaceRewriteExpression(consumeExpression.getGroupExpression().getGroup(),
+                    OptExpression.create(newConsume));
+
+            if (consume.getPredicate() == null) {
+                allHavePredicate = false;
+            } else {
+                Map<ColumnRefOperator, ScalarOperator> columnRefMap = new HashMap<>(consume.getCteOutputColumnRefMap());
+                ScalarOperator predicate = consume.getPredicate().clone()
+                        .accept(new ReplaceColumnRefRewriter(columnRefMap), null);
+                producePredicate = Utils.compoundOr(producePredicate, predicate);
+            }
+        }
+
+        if (allHavePredicate && producePredicate != null) {
+            LogicalCTEProduceOperator produceOperator = (LogicalCTEProduceOperator) produce.getOp();
+            OptExpression filter = OptExpression.create(new LogicalFilterOperator(producePredicate),
+                    produce.getInputs());
+            memo.replaceRewriteExpression(produce.getGroupExpression().getGroup(),
+                    OptExpression.create(new LogicalCTEProduceOperator(produceOperator.getCteId()), filter));
+            hasProduceFilter = true;
+        }
+    }
+
+    private void inline(Memo memo, OptExpression anchor, List<OptExpression> consumes) {
+        for (OptExpression consume : consumes) {
+            memo.replaceRewriteExpression(consume.getGroupExpression().getGroup(), consume.inputAt(0));
+        }
+        memo.replaceRewriteExpression(anchor.getGroupExpression().getGroup(), anchor.inputAt(1));
+    }
+
+    // the rows processed by the plan
+    private double cost(OptExpression expression) {
+        double cost = expression.getStatistics().getOutputRowCount();
+        for (OptExpression child : expression.getInputs()) {
+            cost += cost(child);
+        }
+        return cost;
+    }
+
+    private void calculateStatistics(OptExpression expression, OptimizerContext context) {
+        if (expression.getStatistics() != null) {
+            return;
+        }
+
+        // The producer is calculated before the consumers, whose statistics are derived from it
+        for (OptExpression child : expression.getInputs()) {
+            calculateStatistics(child, context);
+        }
+
+        ExpressionContext expressionContext = new ExpressionContext(expression);
+        StatisticsCalculator statisticsCalculator = new StatisticsCalculator(
+                expressionContext, expression.getOutputColumns(), context.getColumnRefFactory(), context);
+        statisticsCalculator.estimatorStats();
+        expression.setStatistics(expressionContext.getStatistics());
+
+        if (expression.getOp() instanceof LogicalCTEProduceOperator) {
+            context.getCteContext().addProduceStatistics(
+                    ((LogicalCTEProduceOperator) expression.getOp()).getCteId(), expression.getStatistics());
+        }
+    }
+
+    private static void collectAnchors(OptExpression expression, List<Integer> cteIds) {
+        if (expression.getOp() instanceof LogicalCTEAnchorOperator) {
+            cteIds.add(((LogicalCTEAnchorOperator) expression.getOp()).getCteId());
+        }
+        for (OptExpression child : expression.getInputs()) {
+            collectAnchors(child, cteIds);
+        }
+    }
+
+    private static OptExpression findAnchor(OptExpression expression, int cteId) {
+        if (expression.getOp() instanceof LogicalCTEAnchorOperator &&
+                ((LogicalCTEAnchorOperator) expression.getOp()).getCteId() == cteId) {
+            return expression;
+        }
+        for (OptExpression child : expression.getInputs()) {
+            OptExpression anchor = findAnchor(child, cteId);
+            if (anchor != null) {
+                return anchor;
+            }
+        }
+        return null;
+    }
+
+    private static void collectConsumes(OptExpression expression, int cteId, List<OptExpression> consumes) {
+        if (expression.getOp() instanceof LogicalCTEConsumeOperator &&
+                ((LogicalCTEConsumeOperator) expression.getOp()).getCteId() == cteId) {
+            consumes.add(expression);
+            return;
+        }
+        for (OptExpression child : expression.getInputs()) {
+            collectConsumes(child, cteId, consumes);
+        }
+    }
+}
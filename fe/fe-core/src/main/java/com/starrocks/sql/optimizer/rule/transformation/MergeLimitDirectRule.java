@@ -29,6 +29,7 @@ public class MergeLimitDirectRule extends TransformationRule {
     public static final MergeLimitDirectRule FILTER = new MergeLimitDirectRule(OperatorType.LOGICAL_FILTER);
     public static final MergeLimitDirectRule TABLE_FUNCTION =
             new MergeLimitDirectRule(OperatorType.LOGICAL_TABLE_FUNCTION);
+    public static final MergeLimitDirectRule CTE_CONSUME = new MergeLimitDirectRule(OperatorType.LOGICAL_CTE_CONSUME);
 
     private MergeLimitDirectRule(OperatorType logicalOperatorType) {
         super(RuleType.TF_MERGE_LIMIT_DIRECT, Pattern.create(OperatorType.LOGICAL_LIMIT)
@@ -79,9 +79,9 @@ public class PartitionPruneRule extends TransformationRule {
 
     private Collection<Long> partitionPrune(OlapTable olapTable, RangePartitionInfo partitionInfo,
                                             LogicalOlapScanOperator operator) {
-        Map<Long, Range<PartitionKey>> keyRangeById;
+        PartitionPruner partitionPruner;
         if (operator.getPartitionNames() != null) {
-            keyRangeById = Maps.newHashMap();
+            Map<Long, Range<PartitionKey>> keyRangeById = Maps.newHashMap();
             for (String partName : operator.getPartitionNames().getPartitionNames()) {
                 Partition part = olapTable.getPartition(partName, operator.getPartitionNames().isTemp());
                 if (part == null) {
@@ -89,11 +89,12 @@ public class PartitionPruneRule extends TransformationRule {
                 }
                 keyRangeById.put(part.getId(), partitionInfo.getRange(part.getId()));
             }
+            partitionPruner = new RangePartitionPruner(keyRangeById,
+                    partitionInfo.getPartitionColumns(), operator.getColumnFilters());
         } else {
-            keyRangeById = partitionInfo.getIdToRange(false);
+            partitionPruner = new RangePartitionPruner(partitionInfo.getRangeIndex(),
+                    partitionInfo.getPartitionColumns(), operator.getColumnFilters());
         }
-        PartitionPruner partitionPruner = new RangePartitionPruner(keyRangeById,
-                partitionInfo.getPartitionColumns(), operator.getColumnFilters());
         try {
             return partitionPruner.prune();
         } catch (AnalysisException e) {
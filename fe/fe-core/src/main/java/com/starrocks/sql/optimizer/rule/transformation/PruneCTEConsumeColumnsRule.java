@@ -0,0 +1,63 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.rule.transformation;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.OptimizerContext;
+import com.starrocks.sql.optimizer.Utils;
+import com.starrocks.sql.optimizer.base.ColumnRefSet;
+import com.starrocks.sql.optimizer.operator.OperatorType;
+import com.starrocks.sql.optimizer.operator.logical.LogicalCTEConsumeOperator;
+import com.starrocks.sql.optimizer.operator.pattern.Pattern;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.rule.RuleType;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prune the output columns of the shared cte consumer, and require the mapped columns from
+ * the cte producer, the producer is pruned after all the consumers because the cte anchor
+ * rewrites the query consuming the cte first.
+ */
+public class PruneCTEConsumeColumnsRule extends TransformationRule {
+    public PruneCTEConsumeColumnsRule() {
+        super(RuleType.TF_PRUNE_CTE_CONSUME_COLUMNS, Pattern.create(OperatorType.LOGICAL_CTE_CONSUME));
+    }
+
+    @Override
+    public List<OptExpression> transform(OptExpression input, OptimizerContext context) {
+        LogicalCTEConsumeOperator consume = (LogicalCTEConsumeOperator) input.getOp();
+        ColumnRefSet requiredOutputColumns = context.getTaskContext().get(0).getRequiredColumns();
+        if (consume.getPredicate() != null) {
+            requiredOutputColumns.union(consume.getPredicate().getUsedColumns());
+        }
+
+        Map<ColumnRefOperator, ColumnRefOperator> newMap = Maps.newHashMap();
+        consume.getCteOutputColumnRefMap().forEach((consumer, producer) -> {
+            if (requiredOutputColumns.contains(consumer)) {
+                newMap.put(consumer, producer);
+            }
+        });
+
+        // The consumer must output at least one column, such as for count(*)
+        if (newMap.isEmpty()) {
+            ColumnRefOperator smallest =
+                    Utils.findSmallestColumnRef(Lists.newArrayList(consume.getCteOutputColumnRefMap().keySet()));
+            newMap.put(smallest, consume.getCteOutputColumnRefMap().get(smallest));
+        }
+        newMap.values().forEach(requiredOutputColumns::union);
+
+        if (newMap.size() == consume.getCteOutputColumnRefMap().size()) {
+            return Collections.emptyList();
+        }
+
+        LogicalCTEConsumeOperator newConsume = new LogicalCTEConsumeOperator(consume.getCteId(), newMap);
+        newConsume.setPredicate(consume.getPredicate());
+        newConsume.setLimit(consume.getLimit());
+        return Lists.newArrayList(OptExpression.create(newConsume, input.getInputs()));
+    }
+}
@@ -0,0 +1,315 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.rule.transformation;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.analysis.Expr;
+import com.starrocks.analysis.JoinOperator;
+import com.starrocks.catalog.Function;
+import com.starrocks.catalog.FunctionSet;
+import com.starrocks.catalog.Type;
+import com.starrocks.sql.optimizer.ExpressionContext;
+import com.starrocks.sql.optimizer.Group;
+import com.starrocks.sql.optimizer.GroupExpression;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.OptimizerContext;
+import com.starrocks.sql.optimizer.base.ColumnRefFactory;
+import com.starrocks.sql.optimizer.base.ColumnRefSet;
+import com.starrocks.sql.optimizer.operator.AggType;
+import com.starrocks.sql.optimizer.operator.OperatorType;
+import com.starrocks.sql.optimizer.operator.logical.LogicalAggregationOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalJoinOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalProjectOperator;
+import com.starrocks.sql.optimizer.operator.pattern.Pattern;
+import com.starrocks.sql.optimizer.operator.scalar.CallOperator;
+import com.starrocks.sql.optimizer.operator.scalar.CastOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+import com.starrocks.sql.optimizer.rule.RuleType;
+import com.starrocks.sql.optimizer.statistics.ColumnStatistic;
+import com.starrocks.sql.optimizer.statistics.Statistics;
+import com.starrocks.sql.optimizer.statistics.StatisticsCalculator;
+import com.starrocks.sql.optimizer.statistics.StatisticsEstimateUtils;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Eager aggregation, push down a partial aggregation through the join to the child whose columns are
+ * aggregated, so the join processes the groups instead of the rows of the child.
+ * <pre>
+ *     Aggregation (group by keys)          Aggregation (group by keys, rollup of partial)
+ *          |                                    |
+ *         Join (on)             =>             Join (on)
+ *        /    \                               /    \
+ *     Left    Right            Aggregation (group by keys and join columns of left, partial)  Right
+ *                                   |
+ *                                 Left
+ * </pre>
+ * The lower aggregation groups by the grouping keys and the join columns of the child, so all the rows
+ * of a group are joined with the same rows of the other child, and the partial results are rolled up:
+ * sum of sum or count, min of min, max of max, and avg is divided by the sum of sum and the sum of count.
+ * <p>
+ * The aggregation is pushed to both children of inner join, and to the preserved child of outer join.
+ * It's only pushed if the rows reduced by the lower aggregation, estimated by the distinct values of
+ * its grouping keys versus the join cardinality, pay for the additional aggregation, and the alternative
+ * is chosen by the cost of the memo.
+ */
+public class PushDownAggJoinRule extends TransformationRule {
+    private static final PushDownAggJoinRule INSTANCE = new PushDownAggJoinRule();
+
+    private PushDownAggJoinRule() {
+        super(RuleType.TF_PUSH_DOWN_AGG_JOIN, Pattern.create(OperatorType.LOGICAL_AGGR).addChildren(
+                Pattern.create(OperatorType.LOGICAL_JOIN, OperatorType.PATTERN_LEAF, OperatorType.PATTERN_LEAF)));
+    }
+
+    public static PushDownAggJoinRule getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public boolean check(OptExpression input, OptimizerContext context) {
+        LogicalAggregationOperator aggregation = (LogicalAggregationOperator) input.getOp();
+        LogicalJoinOperator join = (LogicalJoinOperator) input.inputAt(0).getOp();
+        if (aggregation.getType() != AggType.GLOBAL || aggregation.isSplit() ||
+                aggregation.getGroupingKeys().isEmpty() || join.hasLimit()) {
+            return false;
+        }
+        JoinOperator joinType = join.getJoinType();
+        if (!joinType.isInnerJoin() && !joinType.isLeftOuterJoin() && !joinType.isRightOuterJoin()) {
+            return false;
+        }
+        for (CallOperator call : aggregation.getAggregations().values()) {
+            if (call.isDistinct()) {
+                return false;
+            }
+            switch (call.getFnName()) {
+                case FunctionSet.SUM:
+                case FunctionSet.COUNT:
+                case FunctionSet.MIN:
+                case FunctionSet.MAX:
+                    break;
+                case FunctionSet.AVG:
+                    // the avg of decimal can't be computed from the rollup of sum and count with the same scale
+                    if (!call.getType().equals(Type.DOUBLE) || aggregation.getPredicate() != null ||
+                            aggregation.hasLimit()) {
+                        return false;
+                    }
+                    break;
+                default:
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public List<OptExpression> transform(OptExpression input, OptimizerContext context) {
+        LogicalJoinOperator join = (LogicalJoinOperator) input.inputAt(0).getOp();
+        List<OptExpression> result = Lists.newArrayList();
+        for (int child = 0; child < 2; ++child) {
+            // the rows of the null supplying child can't be aggregated before the join
+            if ((child == 0 && join.getJoinType().isRightOuterJoin()) ||
+                    (child == 1 && join.getJoinType().isLeftOuterJoin())) {
+                continue;
+            }
+            OptExpression pushed = pushDown(input, child, context);
+            if (pushed != null) {
+                result.add(pushed);
+            }
+        }
+        return result;
+    }
+
+    private OptExpression pushDown(OptExpression input, int child, OptimizerContext context) {
+        LogicalAggregationOperator aggregation = (LogicalAggregationOperator) input.getOp();
+        OptExpression joinExpression = input.inputAt(0);
+        LogicalJoinOperator join = (LogicalJoinOperator) joinExpression.getOp();
+        Group childGroup = joinExpression.inputAt(child).getGroupExpression().getGroup();
+        // the child has been aggregated
+        if (childGroup.getFirstLogicalExpression().getOp() instanceof LogicalAggregationOperator) {
+            return null;
+        }
+        ColumnRefSet childColumns = childGroup.getLogicalProperty().getOutputColumns();
+        for (CallOperator call : aggregation.getAggregations().values()) {
+            if (!childColumns.contains(call.getUsedColumns())) {
+                return null;
+            }
+        }
+
+        ColumnRefFactory factory = context.getColumnRefFactory();
+        ColumnRefSet lowerKeySet = new ColumnRefSet(aggregation.getGroupingKeys());
+        if (join.getOnPredicate() != null) {
+            lowerKeySet.union(join.getOnPredicate().getUsedColumns());
+        }
+        if (join.getPredicate() != null) {
+            lowerKeySet.union(join.getPredicate().getUsedColumns());
+        }
+        lowerKeySet.intersect(childColumns);
+        List<ColumnRefOperator> lowerKeys = Lists.newArrayList();
+        for (int id : lowerKeySet.getColumnIds()) {
+            lowerKeys.add(factory.getColumnRef(id));
+        }
+        if (lowerKeys.isEmpty() || !isBeneficial(childGroup, joinExpression.getGroupExpression().getGroup(),
+                lowerKeys, context)) {
+            return null;
+        }
+
+        Map<ColumnRefOperator, CallOperator> lowerAggregations = Maps.newHashMap();
+        Map<ColumnRefOperator, CallOperator> upperAggregations = Maps.newHashMap();
+        Map<ColumnRefOperator, ScalarOperator> averages = Maps.newHashMap();
+        for (Map.Entry<ColumnRefOperator, CallOperator> entry : aggregation.getAggregations().entrySet()) {
+            CallOperator call = entry.getValue();
+            if (call.getFnName().equals(FunctionSet.AVG)) {
+                ColumnRefOperator sum = pushDownAggregation(FunctionSet.SUM, call.getChild(0),
+                        lowerAggregations, upperAggregations, factory);
+                ColumnRefOperator count = pushDownAggregation(FunctionSet.COUNT, call.getChild(0),
+                        lowerAggregations, upperAggregations, factory);
+                if (sum == null || count == null) {
+                    return null;
+                }
+                averages.put(entry.getKey(), divide(sum, count));
+                continue;
+            }
+            ColumnRefOperator partial = factory.create(call, call.getType(), call.isNullable());
+            CallOperator rollup = rollupAggregation(call, partial);
+            if (rollup == null) {
+                return null;
+            }
+            lowerAggregations.put(partial, call);
+            upperAggregations.put(entry.getKey(), rollup);
+        }
+
+        OptExpression lower = OptExpression.create(new LogicalAggregationOperator(lowerKeys, lowerAggregations),
+                joinExpression.inputAt(child));
+        LogicalJoinOperator newJoin = new LogicalJoinOperator(join.getJoinType(), join.getOnPredicate(),
+                join.getLimit(), join.getJoinHint());
+        newJoin.setPredicate(join.getPredicate());
+        List<ColumnRefOperator> joinOutputs = Lists.newArrayList(aggregation.getGroupingKeys());
+        for (CallOperator rollup : upperAggregations.values()) {
+            joinOutputs.add((ColumnRefOperator) rollup.getChild(0));
+        }
+        newJoin.setPruneOutputColumns(joinOutputs);
+        OptExpression newJoinExpression = child == 0 ?
+                OptExpression.create(newJoin, lower, joinExpression.inputAt(1)) :
+                OptExpression.create(newJoin, joinExpression.inputAt(0), lower);
+
+        LogicalAggregationOperator upper = new LogicalAggregationOperator(
+                Lists.newArrayList(aggregation.getGroupingKeys()), upperAggregations);
+        upper.setPredicate(aggregation.getPredicate());
+        upper.setLimit(aggregation.getLimit());
+        OptExpression upperExpression = OptExpression.create(upper, newJoinExpression);
+        if (averages.isEmpty()) {
+            return upperExpression;
+        }
+
+        Map<ColumnRefOperator, ScalarOperator> projection = Maps.newHashMap();
+        for (ColumnRefOperator key : aggregation.getGroupingKeys()) {
+            projection.put(key, key);
+        }
+        for (ColumnRefOperator output : aggregation.getAggregations().keySet()) {
+            projection.put(output, averages.getOrDefault(output, output));
+        }
+        return OptExpression.create(new LogicalProjectOperator(projection), upperExpression);
+    }
+
+    // Push down the aggregation of the argument, return the output of its rollup in the upper aggregation
+    private static ColumnRefOperator pushDownAggregation(String fnName, ScalarOperator argument,
+                                                         Map<ColumnRefOperator, CallOperator> lowerAggregations,
+                                                         Map<ColumnRefOperator, CallOperator> upperAggregations,
+                                                         ColumnRefFactory factory) {
+        Function fn = Expr.getBuiltinFunction(fnName, new Type[] {argument.getType()},
+                Function.CompareMode.IS_NONSTRICT_SUPERTYPE_OF);
+        if (fn == null) {
+            return null;
+        }
+        CallOperator call = new CallOperator(fnName, fn.getReturnType(), Lists.newArrayList(argument), fn);
+        ColumnRefOperator partial = factory.create(call, call.getType(), call.isNullable());
+        CallOperator rollup = rollupAggregation(call, partial);
+        if (rollup == null) {
+            return null;
+        }
+        ColumnRefOperator output = factory.create(rollup, rollup.getType(), rollup.isNullable());
+        lowerAggregations.put(partial, call);
+        upperAggregations.put(output, rollup);
+        return output;
+    }
+
+    // aggregate the partial results: sum of sum or count, min of min and max of max
+    private static CallOperator rollupAggregation(CallOperator call, ColumnRefOperator partial) {
+        String rollupFunction;
+        switch (call.getFnName()) {
+            case FunctionSet.SUM:
+            case FunctionSet.COUNT:
+                rollupFunction = FunctionSet.SUM;
+                break;
+            case FunctionSet.MIN:
+            case FunctionSet.MAX:
+                rollupFunction = call.getFnName();
+                break;
+            default:
+                return null;
+        }
+        Function fn = Expr.getBuiltinFunction(rollupFunction, new Type[] {partial.getType()},
+                Function.CompareMode.IS_NONSTRICT_SUPERTYPE_OF);
+        if (fn == null || !fn.getReturnType().equals(call.getType())) {
+            return null;
+        }
+        return new CallOperator(rollupFunction, call.getType(), Lists.newArrayList(partial), fn);
+    }
+
+    private static ScalarOperator divide(ColumnRefOperator sum, ColumnRefOperator count) {
+        Function fn = Expr.getBuiltinFunction(FunctionSet.DIVIDE, new Type[] {Type.DOUBLE, Type.DOUBLE},
+                Function.CompareMode.IS_IDENTICAL);
+        ScalarOperator dividend = sum.getType().equals(Type.DOUBLE) ? sum : new CastOperator(Type.DOUBLE, sum);
+        return new CallOperator(FunctionSet.DIVIDE, Type.DOUBLE,
+                Lists.newArrayList(dividend, new CastOperator(Type.DOUBLE, count)), fn);
+    }
+
+    // Without push down, the join processes the rows of the child and the aggregation processes the rows
+    // of the join. With push down, the lower aggregation processes the rows of the child, the join processes
+    // the groups of it, and the upper aggregation processes the rows of the join reduced by the same ratio:
+    //   child + groups + join * groups / child < child + join, i.e. groups < child * join / (child + join)
+    private static boolean isBeneficial(Group childGroup, Group joinGroup, List<ColumnRefOperator> lowerKeys,
+                                        OptimizerContext context) {
+        Statistics childStatistics = deriveStatistics(childGroup, context);
+        Statistics joinStatistics = deriveStatistics(joinGroup, context);
+        double childRows = childStatistics.getOutputRowCount();
+        double joinRows = joinStatistics.getOutputRowCount();
+        if (childRows <= 1 || joinRows < 1) {
+            return false;
+        }
+
+        double groups = StatisticsEstimateUtils.estimateDistinctValuesByColumnGroups(childStatistics, lowerKeys);
+        if (Double.isNaN(groups)) {
+            groups = 1;
+            for (ColumnRefOperator key : lowerKeys) {
+                ColumnStatistic statistic = childStatistics.getColumnStatistic(key);
+                if (statistic.isUnknown()) {
+                    return false;
+                }
+                groups *= statistic.getDistinctValuesCount();
+            }
+            groups = Math.min(groups, childRows);
+        }
+        return groups < childRows * joinRows / (childRows + joinRows);
+    }
+
+    // The statistics of the groups created by exploration may not be derived yet
+    private static Statistics deriveStatistics(Group group, OptimizerContext context) {
+        if (group.getStatistics() != null) {
+            return group.getStatistics();
+        }
+        GroupExpression expression = group.getFirstLogicalExpression();
+        for (Group child : expression.getInputs()) {
+            deriveStatistics(child, context);
+        }
+        ExpressionContext expressionContext = new ExpressionContext(expression);
+        StatisticsCalculator statisticsCalculator = new StatisticsCalculator(expressionContext,
+                group.getLogicalProperty().getOutputColumns(), context.getColumnRefFactory(), context);
+        statisticsCalculator.estimatorStats();
+        group.setStatistics(expressionContext.getStatistics());
+        return group.getStatistics();
+    }
+}
@@ -0,0 +1,47 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.rule.transformation;
+
+import com.google.common.collect.Lists;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.OptimizerContext;
+import com.starrocks.sql.optimizer.Utils;
+import com.starrocks.sql.optimizer.operator.OperatorType;
+import com.starrocks.sql.optimizer.operator.logical.LogicalCTEConsumeOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalFilterOperator;
+import com.starrocks.sql.optimizer.operator.pattern.Pattern;
+import com.starrocks.sql.optimizer.rule.RuleType;
+
+import java.util.List;
+
+/**
+ * Push down the predicate to the inlined plan of cte consumer, and record the predicate in the
+ * consumer, which is used to push down the common predicates of all the consumers to the cte
+ * producer if the cte is shared.
+ */
+public class PushDownPredicateCTEConsumeRule extends TransformationRule {
+    public PushDownPredicateCTEConsumeRule() {
+        super(RuleType.TF_PUSH_DOWN_PREDICATE_CTE_CONSUME, Pattern.create(OperatorType.LOGICAL_FILTER)
+                .addChildren(Pattern.create(OperatorType.LOGICAL_CTE_CONSUME, OperatorType.PATTERN_LEAF)));
+    }
+
+    @Override
+    public boolean check(OptExpression input, OptimizerContext context) {
+        return !((LogicalCTEConsumeOperator) input.inputAt(0).getOp()).hasLimit();
+    }
+
+    @Override
+    public List<OptExpression> transform(OptExpression input, OptimizerContext context) {
+        LogicalFilterOperator filter = (LogicalFilterOperator) input.getOp();
+        OptExpression consumeExpression = input.inputAt(0);
+        LogicalCTEConsumeOperator consume = (LogicalCTEConsumeOperator) consumeExpression.getOp();
+
+        LogicalCTEConsumeOperator newConsume =
+                new LogicalCTEConsumeOperator(consume.getCteId(), consume.getCteOutputColumnRefMap());
+        newConsume.setPredicate(Utils.compoundAnd(consume.getPredicate(), filter.getPredicate()));
+
+        OptExpression newFilter = OptExpression.create(new LogicalFilterOperator(filter.getPredicate()),
+                consumeExpression.getInputs());
+        return Lists.newArrayList(OptExpression.create(newConsume, newFilter));
+    }
+}
@@ -0,0 +1,86 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.rule.transformation;
+
+import com.google.common.collect.Lists;
+import com.starrocks.analysis.JoinOperator;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.OptimizerContext;
+import com.starrocks.sql.optimizer.base.ColumnRefSet;
+import com.starrocks.sql.optimizer.operator.OperatorType;
+import com.starrocks.sql.optimizer.operator.logical.LogicalJoinOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalTopNOperator;
+import com.starrocks.sql.optimizer.operator.pattern.Pattern;
+import com.starrocks.sql.optimizer.rule.RuleType;
+
+import java.util.List;
+
+/**
+ * Push down the TopN with limit to the preserved side of the outer join, if it's ordered by the columns
+ * of the preserved side only. Every row of the preserved side is output at least once, so the top
+ * limit + offset rows of the join are joined from the top limit + offset rows of the preserved side.
+ * <p>
+ * TopN(limit, offset)              TopN(limit, offset)
+ *       |                                 |
+ *   Left Join          ->             Left Join
+ *    /     \                          /        \
+ *   A       B         TopN(limit + offset)      B
+ *                                   |
+ *                                   A
+ */
+public class PushDownTopNJoinRule extends TransformationRule {
+    public PushDownTopNJoinRule() {
+        super(RuleType.TF_PUSH_DOWN_TOPN_JOIN, Pattern.create(OperatorType.LOGICAL_TOPN)
+                .addChildren(Pattern.create(OperatorType.LOGICAL_JOIN, OperatorType.PATTERN_MULTI_LEAF)));
+    }
+
+    @Override
+    public boolean check(OptExpression input, OptimizerContext context) {
+        if (!context.getSessionVariable().isCboPushDownTopN()) {
+            return false;
+        }
+        LogicalTopNOperator topN = (LogicalTopNOperator) input.getOp();
+        LogicalJoinOperator join = (LogicalJoinOperator) input.inputAt(0).getOp();
+        if (!topN.hasLimit() || !topN.getSortPhase().isFinal() || topN.isSplit() ||
+                join.hasLimit() || join.getPredicate() != null) {
+            return false;
+        }
+
+        int preservedIdx = getPreservedChildIdx(join.getJoinType());
+        if (preservedIdx < 0) {
+            return false;
+        }
+        OptExpression preservedChild = input.inputAt(0).inputAt(preservedIdx);
+        ColumnRefSet preservedColumns = preservedChild.getLogicalProperty().getOutputColumns();
+        if (!preservedColumns.contains(topN.getRequiredChildInputColumns())) {
+            return false;
+        }
+        return !PushDownTopNUnionRule.hasTopN(preservedChild, topN.getOrderByElements(),
+                topN.getLimit() + topN.getOffset());
+    }
+
+    @Override
+    public List<OptExpression> transform(OptExpression input, OptimizerContext context) {
+        LogicalTopNOperator topN = (LogicalTopNOperator) input.getOp();
+        OptExpression joinExpression = input.inputAt(0);
+        LogicalJoinOperator join = (LogicalJoinOperator) joinExpression.getOp();
+
+        int preservedIdx = getPreservedChildIdx(join.getJoinType());
+        List<OptExpression> newJoinChild = Lists.newArrayList(joinExpression.getInputs());
+        OptExpression pushDownTopN = OptExpression.create(new LogicalTopNOperator(topN.getOrderByElements(),
+                topN.getLimit() + topN.getOffset(), 0), newJoinChild.get(preservedIdx));
+        newJoinChild.set(preservedIdx, pushDownTopN);
+
+        OptExpression newJoin = OptExpression.create(join, newJoinChild);
+        return Lists.newArrayList(OptExpression.create(topN, newJoin));
+    }
+
+    private int getPreservedChildIdx(JoinOperator joinType) {
+        if (joinType.isLeftOuterJoin()) {
+            return 0;
+        } else if (joinType.isRightOuterJoin()) {
+            return 1;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,71 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.rule.transformation;
+
+import com.google.common.collect.Lists;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.OptimizerContext;
+import com.starrocks.sql.optimizer.base.Ordering;
+import com.starrocks.sql.optimizer.operator.OperatorType;
+import com.starrocks.sql.optimizer.operator.logical.LogicalProjectOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalTopNOperator;
+import com.starrocks.sql.optimizer.operator.pattern.Pattern;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+import com.starrocks.sql.optimizer.rule.RuleType;
+
+import java.util.List;
+
+/**
+ * Push down the TopN with limit below the projection, if it's ordered by the columns passed through the
+ * projection, so that the projection is evaluated on the top rows only, and the TopN may be pushed down
+ * further to the union or the join below.
+ * <p>
+ * TopN(limit, offset)         Project
+ *       |                        |
+ *    Project         ->   TopN(limit, offset)
+ *       |                        |
+ *       A                        A
+ */
+public class PushDownTopNProjectRule extends TransformationRule {
+    public PushDownTopNProjectRule() {
+        super(RuleType.TF_PUSH_DOWN_TOPN_PROJECT, Pattern.create(OperatorType.LOGICAL_TOPN)
+                .addChildren(Pattern.create(OperatorType.LOGICAL_PROJECT, OperatorType.PATTERN_LEAF)));
+    }
+
+    @Override
+    public boolean check(OptExpression input, OptimizerContext context) {
+        if (!context.getSessionVariable().isCboPushDownTopN()) {
+            return false;
+        }
+        LogicalTopNOperator topN = (LogicalTopNOperator) input.getOp();
+        LogicalProjectOperator project = (LogicalProjectOperator) input.inputAt(0).getOp();
+        if (!topN.hasLimit() || !topN.getSortPhase().isFinal() || topN.isSplit() || project.hasLimit()) {
+            return false;
+        }
+
+        for (Ordering ordering : topN.getOrderByElements()) {
+            if (!(project.getColumnRefMap().get(ordering.getColumnRef()) instanceof ColumnRefOperator)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public List<OptExpression> transform(OptExpression input, OptimizerContext context) {
+        LogicalTopNOperator topN = (LogicalTopNOperator) input.getOp();
+        OptExpression projectExpression = input.inputAt(0);
+        LogicalProjectOperator project = (LogicalProjectOperator) projectExpression.getOp();
+
+        List<Ordering> orderings = Lists.newArrayList();
+        for (Ordering ordering : topN.getOrderByElements()) {
+            ScalarOperator column = project.getColumnRefMap().get(ordering.getColumnRef());
+            orderings.add(new Ordering((ColumnRefOperator) column, ordering.isAscending(), ordering.isNullsFirst()));
+        }
+
+        OptExpression newTopN = OptExpression.create(
+                new LogicalTopNOperator(orderings, topN.getLimit(), topN.getOffset()), projectExpression.getInputs());
+        return Lists.newArrayList(OptExpression.create(project, newTopN));
+    }
+}
@@ -0,0 +1,100 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.rule.transformation;
+
+import com.google.common.collect.Lists;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.OptimizerContext;
+import com.starrocks.sql.optimizer.base.Ordering;
+import com.starrocks.sql.optimizer.operator.OperatorType;
+import com.starrocks.sql.optimizer.operator.logical.LogicalTopNOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalUnionOperator;
+import com.starrocks.sql.optimizer.operator.pattern.Pattern;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.rule.RuleType;
+
+import java.util.List;
+
+/**
+ * Push down the TopN with limit to every child of UNION ALL, the top limit + offset rows of the union
+ * must be in the top limit + offset rows of its children.
+ * <p>
+ * TopN(limit, offset)              TopN(limit, offset)
+ *       |                                 |
+ *   Union All          ->             Union All
+ *    /     \                          /        \
+ *   A       B         TopN(limit + offset)   TopN(limit + offset)
+ *                                   |                 |
+ *                                   A                 B
+ */
+public class PushDownTopNUnionRule extends TransformationRule {
+    public PushDownTopNUnionRule() {
+        super(RuleType.TF_PUSH_DOWN_TOPN_UNION, Pattern.create(OperatorType.LOGICAL_TOPN)
+                .addChildren(Pattern.create(OperatorType.LOGICAL_UNION, OperatorType.PATTERN_MULTI_LEAF)));
+    }
+
+    @Override
+    public boolean check(OptExpression input, OptimizerContext context) {
+        if (!context.getSessionVariable().isCboPushDownTopN()) {
+            return false;
+        }
+        LogicalTopNOperator topN = (LogicalTopNOperator) input.getOp();
+        LogicalUnionOperator union = (LogicalUnionOperator) input.inputAt(0).getOp();
+        if (!topN.hasLimit() || !topN.getSortPhase().isFinal() || topN.isSplit() ||
+                !union.isUnionAll() || union.hasLimit() || union.getPredicate() != null) {
+            return false;
+        }
+
+        long limit = topN.getLimit() + topN.getOffset();
+        for (int i = 0; i < union.getChildOutputColumns().size(); i++) {
+            if (!hasTopN(input.inputAt(0).inputAt(i), getChildOrderings(topN, union, i), limit)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public List<OptExpression> transform(OptExpression input, OptimizerContext context) {
+        LogicalTopNOperator topN = (LogicalTopNOperator) input.getOp();
+        OptExpression unionExpression = input.inputAt(0);
+        LogicalUnionOperator union = (LogicalUnionOperator) unionExpression.getOp();
+
+        long limit = topN.getLimit() + topN.getOffset();
+        List<OptExpression> newUnionChild = Lists.newArrayList();
+        for (int i = 0; i < unionExpression.arity(); i++) {
+            OptExpression unionChild = unionExpression.inputAt(i);
+            List<Ordering> orderings = getChildOrderings(topN, union, i);
+            if (hasTopN(unionChild, orderings, limit)) {
+                newUnionChild.add(unionChild);
+            } else {
+                newUnionChild.add(OptExpression.create(new LogicalTopNOperator(orderings, limit, 0), unionChild));
+            }
+        }
+
+        OptExpression newUnion = OptExpression.create(union, newUnionChild);
+        return Lists.newArrayList(OptExpression.create(topN, newUnion));
+    }
+
+    // map the orderings of the union output columns to the output columns of its child
+    private List<Ordering> getChildOrderings(LogicalTopNOperator topN, LogicalUnionOperator union, int childIdx) {
+        List<ColumnRefOperator> outputColumns = union.getOutputColumnRefOp();
+        List<ColumnRefOperator> childOutputColumns = union.getChildOutputColumns().get(childIdx);
+        List<Ordering> orderings = Lists.newArrayList();
+        for (Ordering ordering : topN.getOrderByElements()) {
+            ColumnRefOperator column = childOutputColumns.get(outputColumns.indexOf(ordering.getColumnRef()));
+            orderings.add(new Ordering(column, ordering.isAscending(), ordering.isNullsFirst()));
+        }
+        return orderings;
+    }
+
+    // whether the TopN has been pushed down to the child
+    static boolean hasTopN(OptExpression child, List<Ordering> orderings, long limit) {
+        if (child.getOp().getOpType() != OperatorType.LOGICAL_TOPN) {
+            return false;
+        }
+        LogicalTopNOperator topN = (LogicalTopNOperator) child.getOp();
+        return topN.hasLimit() && topN.getOffset() == 0 && topN.getLimit() <= limit &&
+                topN.getOrderByElements().equals(orderings);
+    }
+}
@@ -0,0 +1,348 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.rule.transformation;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.starrocks.analysis.Expr;
+import com.starrocks.analysis.JoinOperator;
+import com.starrocks.catalog.Function;
+import com.starrocks.catalog.FunctionSet;
+import com.starrocks.catalog.Type;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.OptimizerContext;
+import com.starrocks.sql.optimizer.Utils;
+import com.starrocks.sql.optimizer.base.ColumnRefFactory;
+import com.starrocks.sql.optimizer.base.ColumnRefSet;
+import com.starrocks.sql.optimizer.operator.AggType;
+import com.starrocks.sql.optimizer.operator.Operator;
+import com.starrocks.sql.optimizer.operator.OperatorType;
+import com.starrocks.sql.optimizer.operator.logical.LogicalAggregationOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalJoinOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalProjectOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalValuesOperator;
+import com.starrocks.sql.optimizer.operator.pattern.Pattern;
+import com.starrocks.sql.optimizer.operator.scalar.BinaryPredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.CallOperator;
+import com.starrocks.sql.optimizer.operator.scalar.CastOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ConstantOperator;
+import com.starrocks.sql.optimizer.operator.scalar.InPredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.IsNullPredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+import com.starrocks.sql.optimizer.rule.Rule;
+import com.starrocks.sql.optimizer.rule.RuleType;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Spread the rows of the hot keys over several instances by a salt column, the hot keys are
+ * specified by the session variable cbo_skew_hot_keys, such as "tenant_id:1,2;region:EU", which
+ * means the columns named tenant_id with value 1 or 2 and the columns named region with value EU.
+ * <p>
+ * Skew join, for inner and left outer join on a hot key of the left child:
+ * <pre>
+ *          Join (k = k' and salt = salt')
+ *         /                        \
+ *   Project (salt = if(k in hot,    Project (salt' = if(s is null, 0, s))
+ *           random in [0, n), 0))          |
+ *       |                           Left Outer Join (k' = h)
+ *     Left                          /         \
+ *                                Right     Values (h, s: hot values x 0 ... n-1)
+ * </pre>
+ * The left rows of hot keys are shuffled to n instances by the random salt, and the right rows of hot
+ * keys are copied once for every salt by the small values of (hot value, salt), so they are broadcast to
+ * the n instances. The other right rows aren't copied and have salt 0, so they are shuffled as before.
+ * <p>
+ * Salted aggregation, for aggregation grouping by a hot key with sum, count, min and max:
+ * <pre>
+ *   Aggregation (group by keys, rollup of partial)
+ *       |
+ *   Aggregation (group by keys and salt, partial)
+ *       |
+ *   Project (salt = if(k in hot, random in [0, n), 0))
+ * </pre>
+ * The salt columns are named skew_salt, which are shown in EXPLAIN.
+ */
+public class SkewRewriteRule extends Rule {
+    public static final String SALT_COLUMN_NAME = "skew_salt";
+
+    private ColumnRefFactory factory;
+    private Map<String, List<String>> hotKeys;
+    private int saltNum;
+
+    public SkewRewriteRule() {
+        super(RuleType.TF_SKEW_REWRITE, Pattern.create(OperatorType.PATTERN));
+    }
+
+    @Override
+    public List<OptExpression> transform(OptExpression input, OptimizerContext context) {
+        this.factory = context.getColumnRefFactory();
+        this.hotKeys = parseHotKeys(context.getSessionVariable().getCboSkewHotKeys());
+        this.saltNum = context.getSessionVariable().getCboSkewSaltNum();
+        if (hotKeys.isEmpty() || saltNum <= 1) {
+            return Collections.emptyList();
+        }
+        rewrite(input, context);
+        return Collections.emptyList();
+    }
+
+    /**
+     * Parse "column:value,value;column:value" to the lower case column names and their hot values.
+     */
+    public static Map<String, List<String>> parseHotKeys(String hotKeys) {
+        Map<String, List<String>> result = Maps.newHashMap();
+        for (String item : Splitter.on(';').omitEmptyStrings().trimResults().split(hotKeys)) {
+            int pos = item.indexOf(':');
+            if (pos <= 0) {
+                continue;
+            }
+            List<String> values = Splitter.on(',').omitEmptyStrings().trimResults()
+                    .splitToList(item.substring(pos + 1));
+            if (!values.isEmpty()) {
+                result.computeIfAbsent(item.substring(0, pos).trim().toLowerCase(), k -> Lists.newArrayList())
+                        .addAll(values);
+            }
+        }
+        return result;
+    }
+
+    private void rewrite(OptExpression expression, OptimizerContext context) {
+        Operator op = expression.getOp();
+        OptExpression newExpression = null;
+        if (op instanceof LogicalJoinOperator) {
+            newExpression = rewriteJoin(expression);
+        } else if (op instanceof LogicalAggregationOperator) {
+            newExpression = rewriteAggregation(expression);
+        }
+        if (newExpression != null) {
+            context.getMemo().replaceRewriteExpression(expression.getGroupExpression().getGroup(), newExpression);
+        }
+        for (OptExpression child : expression.getInputs()) {
+            rewrite(child, context);
+        }
+    }
+
+    // the hot values of the column, null if it's not a hot key
+    private List<String> getHotValues(ScalarOperator column) {
+        if (!(column instanceof ColumnRefOperator)) {
+            return null;
+        }
+        return hotKeys.get(((ColumnRefOperator) column).getName().toLowerCase());
+    }
+
+    // the distinct constants of the hot values which can be cast to the type
+    private static List<ScalarOperator> castHotValues(List<String> values, Type type) {
+        Set<ScalarOperator> constants = Sets.newLinkedHashSet();
+        for (String value : values) {
+            try {
+                constants.add(ConstantOperator.createVarchar(value).castTo(type));
+            } catch (Exception e) {
+                // the value is not of the type
+            }
+        }
+        return Lists.newArrayList(constants);
+    }
+
+    private static ScalarOperator buildIn(ScalarOperator column, List<ScalarOperator> values) {
+        List<ScalarOperator> arguments = Lists.newArrayList(column);
+        arguments.addAll(values);
+        return new InPredicateOperator(false, arguments);
+    }
+
+    // if(condition, thenValue, elseValue) of int, null if the function is missing
+    private static ScalarOperator buildIntIf(ScalarOperator condition, ScalarOperator thenValue,
+                                             ScalarOperator elseValue) {
+        Function ifFn = Expr.getBuiltinFunction(FunctionSet.IF, new Type[] {Type.BOOLEAN, Type.INT, Type.INT},
+                Function.CompareMode.IS_NONSTRICT_SUPERTYPE_OF);
+        if (ifFn == null) {
+            return null;
+        }
+        return new CallOperator(FunctionSet.IF, Type.INT, Lists.newArrayList(condition, thenValue, elseValue), ifFn);
+    }
+
+    // if(column in hot values, cast(rand() * saltNum as int), 0), null if any function is missing
+    private ScalarOperator buildSalt(ScalarOperator column, List<ScalarOperator> values) {
+        Function rand = Expr.getBuiltinFunction(FunctionSet.RAND, new Type[] {},
+                Function.CompareMode.IS_IDENTICAL);
+        Function multiply = Expr.getBuiltinFunction(FunctionSet.MULTIPLY, new Type[] {Type.DOUBLE, Type.DOUBLE},
+                Function.CompareMode.IS_IDENTICAL);
+        if (rand == null || multiply == null) {
+            return null;
+        }
+        ScalarOperator random = new CallOperator(FunctionSet.RAND, Type.DOUBLE, Lists.newArrayList(), rand);
+        ScalarOperator scaled = new CallOperator(FunctionSet.MULTIPLY, Type.DOUBLE,
+                Lists.newArrayList(random, ConstantOperator.createDouble(saltNum)), multiply);
+        return buildIntIf(buildIn(column, values), new CastOperator(Type.INT, scaled), ConstantOperator.createInt(0));
+    }
+
+    // project the output columns of input and the salt
+    private OptExpression projectSalt(OptExpression input, ColumnRefSet outputColumns, ColumnRefOperator salt,
+                                      ScalarOperator saltExpr) {
+        Map<ColumnRefOperator, ScalarOperator> projection = Maps.newHashMap();
+        for (int id : outputColumns.getColumnIds()) {
+            ColumnRefOperator column = factory.getColumnRef(id);
+            projection.put(column, column);
+        }
+        projection.put(salt, saltExpr);
+        return OptExpression.create(new LogicalProjectOperator(projection), input);
+    }
+
+    private OptExpression rewriteJoin(OptExpression input) {
+        LogicalJoinOperator join = (LogicalJoinOperator) input.getOp();
+        JoinOperator joinType = join.getJoinType();
+        if ((!joinType.isInnerJoin() && !joinType.isLeftOuterJoin()) ||
+                "BROADCAST".equalsIgnoreCase(join.getJoinHint())) {
+            return null;
+        }
+        ColumnRefSet leftColumns = input.inputAt(0).getOutputColumns();
+        ColumnRefSet rightColumns = input.inputAt(1).getOutputColumns();
+        List<BinaryPredicateOperator> eqPredicates = JoinPredicateUtils.getEqConj(leftColumns, rightColumns,
+                Utils.extractConjuncts(join.getOnPredicate()));
+
+        for (BinaryPredicateOperator predicate : eqPredicates) {
+            if (predicate.getBinaryType() != BinaryPredicateOperator.BinaryType.EQ) {
+                continue;
+            }
+            ScalarOperator leftKey = predicate.getChild(0);
+            ScalarOperator rightKey = predicate.getChild(1);
+            if (!leftColumns.contains(leftKey.getUsedColumns())) {
+                leftKey = predicate.getChild(1);
+                rightKey = predicate.getChild(0);
+            }
+            List<String> values = getHotValues(leftKey);
+            if (values == null) {
+                continue;
+            }
+            // the keys may be of different types, each side is compared with the constants of its own type
+            List<ScalarOperator> leftHotValues = castHotValues(values, leftKey.getType());
+            List<ScalarOperator> rightHotValues = castHotValues(values, rightKey.getType());
+            if (leftHotValues.isEmpty() || rightHotValues.isEmpty()) {
+                continue;
+            }
+            ScalarOperator leftSaltExpr = buildSalt(leftKey, leftHotValues);
+            if (leftSaltExpr == null) {
+                return null;
+            }
+
+            ColumnRefOperator leftSalt = factory.create(SALT_COLUMN_NAME, Type.INT, false);
+            OptExpression left = projectSalt(input.inputAt(0), leftColumns, leftSalt, leftSaltExpr);
+
+            // copy the right rows of hot keys for every salt by the values of (hot value, salt),
+            // the other right rows don't match any value and are not copied
+            ColumnRefOperator hotValue = factory.create("skew_hot_value", rightKey.getType(), false);
+            ColumnRefOperator copySalt = factory.create(SALT_COLUMN_NAME, Type.INT, true);
+            List<List<ScalarOperator>> rows = Lists.newArrayList();
+            for (ScalarOperator value : rightHotValues) {
+                for (int i = 0; i < saltNum; i++) {
+                    rows.add(Lists.newArrayList(value, ConstantOperator.createInt(i)));
+                }
+            }
+            OptExpression salts = OptExpression.create(
+                    new LogicalValuesOperator(Lists.newArrayList(hotValue, copySalt), rows));
+            OptExpression copied = OptExpression.create(new LogicalJoinOperator(JoinOperator.LEFT_OUTER_JOIN,
+                            new BinaryPredicateOperator(BinaryPredicateOperator.BinaryType.EQ, rightKey, hotValue)),
+                    input.inputAt(1), salts);
+            ColumnRefOperator rightSalt = factory.create(SALT_COLUMN_NAME, Type.INT, false);
+            ScalarOperator rightSaltExpr = buildIntIf(new IsNullPredicateOperator(copySalt),
+                    ConstantOperator.createInt(0), copySalt);
+            if (rightSaltExpr == null) {
+                return null;
+            }
+            OptExpression right = projectSalt(copied, rightColumns, rightSalt, rightSaltExpr);
+
+            ScalarOperator onPredicate = Utils.compoundAnd(join.getOnPredicate(),
+                    new BinaryPredicateOperator(BinaryPredicateOperator.BinaryType.EQ, leftSalt, rightSalt));
+            LogicalJoinOperator newJoin = new LogicalJoinOperator(joinType, onPredicate, join.getLimit(),
+                    join.getJoinHint());
+            newJoin.setPredicate(join.getPredicate());
+            return OptExpression.create(newJoin, left, right);
+        }
+        return null;
+    }
+
+    private OptExpression rewriteAggregation(OptExpression input) {
+        LogicalAggregationOperator aggregation = (LogicalAggregationOperator) input.getOp();
+        if (aggregation.getType() != AggType.GLOBAL || aggregation.isSplit() ||
+                aggregation.getSingleDistinctFunctionPos() != -1) {
+            return null;
+        }
+        ColumnRefOperator hotKey = null;
+        List<ScalarOperator> hotValues = null;
+        for (ColumnRefOperator key : aggregation.getGroupingKeys()) {
+            List<String> values = getHotValues(key);
+            if (values != null) {
+                hotValues = castHotValues(values, key.getType());
+                if (!hotValues.isEmpty()) {
+                    hotKey = key;
+                    break;
+                }
+            }
+        }
+        if (hotKey == null) {
+            return null;
+        }
+
+        Map<ColumnRefOperator, CallOperator> partialAggregations = Maps.newHashMap();
+        Map<ColumnRefOperator, CallOperator> rollupAggregations = Maps.newHashMap();
+        for (Map.Entry<ColumnRefOperator, CallOperator> entry : aggregation.getAggregations().entrySet()) {
+            CallOperator call = entry.getValue();
+            ColumnRefOperator partial = factory.create(call, call.getType(), call.isNullable());
+            CallOperator rollup = rollupAggregation(call, partial);
+            if (rollup == null) {
+                return null;
+            }
+            partialAggregations.put(partial, call);
+            rollupAggregations.put(entry.getKey(), rollup);
+        }
+
+        ScalarOperator saltExpr = buildSalt(hotKey, hotValues);
+        if (saltExpr == null) {
+            return null;
+        }
+        ColumnRefOperator salt = factory.create(SALT_COLUMN_NAME, Type.INT, false);
+        OptExpression project = projectSalt(input.inputAt(0), input.inputAt(0).getOutputColumns(), salt, saltExpr);
+
+        List<ColumnRefOperator> partialKeys = Lists.newArrayList(aggregation.getGroupingKeys());
+        partialKeys.add(salt);
+        OptExpression partialExpression = OptExpression.create(
+                new LogicalAggregationOperator(partialKeys, partialAggregations), project);
+
+        LogicalAggregationOperator rollupOperator = new LogicalAggregationOperator(
+                Lists.newArrayList(aggregation.getGroupingKeys()), rollupAggregations);
+        rollupOperator.setPredicate(aggregation.getPredicate());
+        rollupOperator.setLimit(aggregation.getLimit());
+        return OptExpression.create(rollupOperator, partialExpression);
+    }
+
+    // aggregate the partial results: sum of sum or count, min of min and max of max
+    private static CallOperator rollupAggregation(CallOperator call, ColumnRefOperator partial) {
+        if (call.isDistinct()) {
+            return null;
+        }
+        String rollupFunction;
+        switch (call.getFnName()) {
+            case FunctionSet.SUM:
+            case FunctionSet.COUNT:
+                rollupFunction = FunctionSet.SUM;
+                break;
+            case FunctionSet.MIN:
+            case FunctionSet.MAX:
+                rollupFunction = call.getFnName();
+                break;
+            default:
+                return null;
+        }
+        Function fn = Expr.getBuiltinFunction(rollupFunction, new Type[] {partial.getType()},
+                Function.CompareMode.IS_NONSTRICT_SUPERTYPE_OF);
+        if (fn == null || !fn.getReturnType().equals(call.getType())) {
+            return null;
+        }
+        return new CallOperator(rollupFunction, call.getType(), Lists.newArrayList(partial), fn);
+    }
+}
@@ -32,6 +32,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -120,6 +121,29 @@ public class CachedStatisticStorage implements StatisticStorage {
             .maximumSize(Config.statistic_cache_columns)
             .buildAsync(loader);
 
+    private final AsyncCacheLoader<Long, List<ColumnGroupStatistic>> columnGroupLoader =
+            new AsyncCacheLoader<Long, List<ColumnGroupStatistic>>() {
+                @Override
+                public @NonNull CompletableFuture<List<ColumnGroupStatistic>> asyncLoad(@NonNull Long tableId,
+                                                                                      @NonNull Executor executor) {
+                    return CompletableFuture.supplyAsync(() -> {
+                        List<ColumnGroupStatistic> result = new ArrayList<>();
+                        for (TStatisticData data : statisticExecutor.queryColumnGroupStatisticSync(tableId)) {
+                            result.add(new ColumnGroupStatistic(ColumnGroupStatistic.decodeName(data.columnName),
+                                    data.countDistinct));
+                        }
+                        return result;
+                    }, executor);
+                }
+            };
+
+    // The column group statistics of a table are few, so they are cached by table
+    AsyncLoadingCache<Long, List<ColumnGroupStatistic>> cachedColumnGroupStatistics = Caffeine.newBuilder()
+            .expireAfterWrite(Config.statistic_collect_interval_sec * 2, TimeUnit.SECONDS)
+            .refreshAfterWrite(Config.statistic_collect_interval_sec, TimeUnit.SECONDS)
+            .maximumSize(Config.statistic_cache_columns)
+            .buildAsync(columnGroupLoader);
+
     @Override
     public void expireColumnStatistics(Table table, List<String> columns) {
         List<CacheKey> allKeys = Lists.newArrayList();
@@ -335,6 +359,38 @@ public class CachedStatisticStorage implements StatisticStorage {
         this.cachedStatistics.synchronous().put(new CacheKey(table.getId(), column), Optional.of(columnStatistic));
     }
 
+    @Override
+    public List<ColumnGroupStatistic> getColumnGroupStatistics(Table table) {
+        Preconditions.checkState(table != null);
+        if (getConnectSessionVariable().getEnableMockTpch()) {
+            return Collections.emptyList();
+        }
+
+        if (StatisticUtils.statisticTableBlackListCheck(table.getId())) {
+            return Collections.emptyList();
+        }
+
+        Table statisticsTable = StatisticUtils.getStatisticsTable();
+        if (statisticsTable == null) {
+            return Collections.emptyList();
+        }
+
+        CompletableFuture<List<ColumnGroupStatistic>> result = cachedColumnGroupStatistics.get(table.getId());
+        if (result.isDone()) {
+            try {
+                return result.get();
+            } catch (Exception e) {
+                LOG.warn(e);
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void expireColumnGroupStatistics(Table table) {
+        cachedColumnGroupStatistics.synchronous().invalidate(table.getId());
+    }
+
     static class CacheKey {
         private final long tableId;
         private final String column;
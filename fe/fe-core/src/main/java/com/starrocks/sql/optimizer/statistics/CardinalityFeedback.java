@@ -0,0 +1,94 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.statistics;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.common.Config;
+import com.starrocks.sql.optimizer.Utils;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+import com.starrocks.sql.optimizer.rewrite.ReplaceColumnRefRewriter;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The row counts of the olap scans observed by the previous executions, which are used instead of the
+ * estimated row counts by the optimizer, so that a query whose scans are badly misestimated is planned
+ * with the real cardinalities next time, e.g. when it's retried.
+ * <p>
+ * A scan is identified by its table, index, partitions and predicates, the column refs of the predicates
+ * are replaced by the names of their columns because the ids of the column refs differ in every query.
+ * The observed row counts expire with the column statistics, see Config.statistic_update_interval_sec.
+ */
+public class CardinalityFeedback {
+    private static final CardinalityFeedback INSTANCE = new CardinalityFeedback();
+
+    // scan key -> observed row count
+    private final Cache<String, Long> observedRows = CacheBuilder.newBuilder()
+            .maximumSize(Config.statistic_cardinality_feedback_cache_size)
+            .expireAfterWrite(Config.statistic_update_interval_sec, TimeUnit.SECONDS)
+            .build();
+
+    private CardinalityFeedback() {
+    }
+
+    public static CardinalityFeedback getInstance() {
+        return INSTANCE;
+    }
+
+    public Long getObservedRows(String scanKey) {
+        return scanKey == null ? null : observedRows.getIfPresent(scanKey);
+    }
+
+    public void addObservedRows(String scanKey, long rows) {
+        observedRows.put(scanKey, rows);
+    }
+
+    public void clear() {
+        observedRows.invalidateAll();
+    }
+
+    /**
+     * Whether the estimated row count is more than errorRatio times larger or smaller than the observed one
+     */
+    public static boolean isMisestimated(double estimatedRows, double observedRows, double errorRatio) {
+        double estimated = Math.max(estimatedRows, 1);
+        double observed = Math.max(observedRows, 1);
+        return Math.max(estimated / observed, observed / estimated) > errorRatio;
+    }
+
+    /**
+     * The key of an olap scan. Returns null if the scan has a limit, whose observed row count is
+     * meaningless.
+     */
+    public static String buildScanKey(OlapTable table, long selectedIndexId, Collection<Long> selectedPartitionIds,
+                                      Map<ColumnRefOperator, Column> columnRefMap, ScalarOperator predicate,
+                                      long limit) {
+        if (limit != -1) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder();
+        key.append(table.getId()).append('/').append(selectedIndexId).append('/');
+        key.append(selectedPartitionIds.stream().sorted().map(String::valueOf).collect(Collectors.joining(",")));
+        if (predicate != null) {
+            Map<ColumnRefOperator, ScalarOperator> columnNames = Maps.newHashMap();
+            for (Map.Entry<ColumnRefOperator, Column> entry : columnRefMap.entrySet()) {
+                ColumnRefOperator columnRef = entry.getKey();
+                columnNames.put(columnRef, new ColumnRefOperator(0, columnRef.getType(), entry.getValue().getName(),
+                        columnRef.isNullable()));
+            }
+            ScalarOperator normalized = predicate.clone().accept(new ReplaceColumnRefRewriter(columnNames), null);
+            key.append('/');
+            key.append(Utils.extractConjuncts(normalized).stream().map(ScalarOperator::toString).sorted()
+                    .collect(Collectors.joining(" AND ")));
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,54 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.statistics;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+
+import java.util.List;
+
+/**
+ * The joint statistic of a group of correlated columns, e.g. (country, city) or a composite join key.
+ * <p>
+ * Only the joint distinct values count is kept, the functional dependencies between the columns are
+ * implied by it: column a determines column b if ndv(a, b) equals ndv(a).
+ * <p>
+ * It's stored in the statistics table as a column statistic, whose column name is the names of the
+ * columns joined by SEPARATOR, which can't appear in a column name.
+ */
+public class ColumnGroupStatistic {
+    public static final String SEPARATOR = "*";
+
+    private final List<String> columnNames;
+    private final double distinctValuesCount;
+
+    public ColumnGroupStatistic(List<String> columnNames, double distinctValuesCount) {
+        this.columnNames = columnNames;
+        this.distinctValuesCount = distinctValuesCount;
+    }
+
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    public double getDistinctValuesCount() {
+        return distinctValuesCount;
+    }
+
+    public static boolean isColumnGroup(String name) {
+        return name.contains(SEPARATOR);
+    }
+
+    public static String encodeName(List<String> columnNames) {
+        return Joiner.on(SEPARATOR).join(columnNames);
+    }
+
+    public static List<String> decodeName(String name) {
+        return Splitter.on(SEPARATOR).splitToList(name);
+    }
+
+    @Override
+    public String toString() {
+        return "(" + String.join(", ", columnNames) + "): " + distinctValuesCount;
+    }
+}
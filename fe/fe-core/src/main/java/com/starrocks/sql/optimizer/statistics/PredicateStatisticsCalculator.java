@@ -15,6 +15,7 @@ import com.starrocks.sql.optimizer.operator.scalar.IsNullPredicateOperator;
 import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
 import com.starrocks.sql.optimizer.operator.scalar.ScalarOperatorVisitor;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalDouble;
@@ -24,7 +25,34 @@ public class PredicateStatisticsCalculator {
         if (predicate == null) {
             return statistics;
         }
-        return predicate.accept(new PredicateStatisticsCalculatingVisitor(statistics), null);
+        Statistics result = predicate.accept(new PredicateStatisticsCalculatingVisitor(statistics), null);
+        return adjustByColumnGroups(predicate, statistics, result);
+    }
+
+    // The equivalence predicates on correlated columns, e.g. country = 'China' and city = 'Beijing', select
+    // more rows than multiplying the selectivity of each of them, adjust it by the joint distinct values
+    private static Statistics adjustByColumnGroups(ScalarOperator predicate, Statistics inputStatistics,
+                                                   Statistics outputStatistics) {
+        if (inputStatistics.getColumnGroupStatistics().isEmpty()) {
+            return outputStatistics;
+        }
+
+        List<ColumnRefOperator> eqColumns = new ArrayList<>();
+        for (ScalarOperator conjunct : Utils.extractConjuncts(predicate)) {
+            if (conjunct instanceof BinaryPredicateOperator && !conjunct.isNotEvalEstimate() &&
+                    ((BinaryPredicateOperator) conjunct).getBinaryType() == BinaryPredicateOperator.BinaryType.EQ &&
+                    conjunct.getChild(0).isColumnRef() && conjunct.getChild(1).isConstantRef()) {
+                eqColumns.add((ColumnRefOperator) conjunct.getChild(0));
+            }
+        }
+        if (eqColumns.size() < 2) {
+            return outputStatistics;
+        }
+
+        double correlation = StatisticsEstimateUtils.estimateColumnGroupCorrelation(inputStatistics, eqColumns);
+        double rowCount = Math.min(outputStatistics.getOutputRowCount() * correlation,
+                inputStatistics.getOutputRowCount());
+        return Statistics.buildFrom(outputStatistics).setOutputRowCount(rowCount).build();
     }
 
     private static class PredicateStatisticsCalculatingVisitor extends ScalarOperatorVisitor<Statistics, Void> {
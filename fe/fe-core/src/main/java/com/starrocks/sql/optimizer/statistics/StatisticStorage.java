@@ -4,6 +4,7 @@ package com.starrocks.sql.optimizer.statistics;
 
 import com.starrocks.catalog.Table;
 
+import java.util.Collections;
 import java.util.List;
 
 public interface StatisticStorage {
@@ -14,4 +15,11 @@ public interface StatisticStorage {
     void expireColumnStatistics(Table table, List<String> columns);
 
     void addColumnStatistic(Table table, String column, ColumnStatistic columnStatistic);
+
+    default List<ColumnGroupStatistic> getColumnGroupStatistics(Table table) {
+        return Collections.emptyList();
+    }
+
+    default void expireColumnGroupStatistics(Table table) {
+    }
 }
@@ -14,11 +14,20 @@ import static java.lang.Double.NaN;
 public class Statistics {
     private final double outputRowCount;
     private final Map<ColumnRefOperator, ColumnStatistic> columnStatistics;
+    // The joint distinct values count of correlated columns, see ColumnGroupStatistic
+    private final Map<ColumnRefSet, Double> columnGroupStatistics;
 
     public Statistics(double outputRowCount,
                       Map<ColumnRefOperator, ColumnStatistic> columnStatistics) {
+        this(outputRowCount, columnStatistics, new HashMap<>());
+    }
+
+    public Statistics(double outputRowCount,
+                      Map<ColumnRefOperator, ColumnStatistic> columnStatistics,
+                      Map<ColumnRefSet, Double> columnGroupStatistics) {
         this.outputRowCount = outputRowCount;
         this.columnStatistics = columnStatistics;
+        this.columnGroupStatistics = columnGroupStatistics;
     }
 
     public double getOutputRowCount() {
@@ -40,6 +49,21 @@ public class Statistics {
         return columnStatistics;
     }
 
+    public Map<ColumnRefSet, Double> getColumnGroupStatistics() {
+        return columnGroupStatistics;
+    }
+
+    // Return the column groups whose columns are all contained in the columns
+    public Map<ColumnRefSet, Double> getColumnGroupStatistics(ColumnRefSet columns) {
+        Map<ColumnRefSet, Double> result = new HashMap<>();
+        for (Map.Entry<ColumnRefSet, Double> entry : columnGroupStatistics.entrySet()) {
+            if (columns.contains(entry.getKey())) {
+                result.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return result;
+    }
+
     public ColumnRefSet getUsedColumns() {
         ColumnRefSet usedColumns = new ColumnRefSet();
         for (Map.Entry<ColumnRefOperator, ColumnStatistic> entry : columnStatistics.entrySet()) {
@@ -49,7 +73,7 @@ public class Statistics {
     }
 
     public static Builder buildFrom(Statistics other) {
-        return new Builder(other.getOutputRowCount(), other.columnStatistics);
+        return new Builder(other.getOutputRowCount(), other.columnStatistics, other.columnGroupStatistics);
     }
 
     public static Builder builder() {
@@ -59,14 +83,17 @@ public class Statistics {
     public static final class Builder {
         private double outputRowCount;
         private final Map<ColumnRefOperator, ColumnStatistic> columnStatistics;
+        private final Map<ColumnRefSet, Double> columnGroupStatistics;
 
         public Builder() {
-            this(NaN, new HashMap<>());
+            this(NaN, new HashMap<>(), new HashMap<>());
         }
 
-        private Builder(double outputRowCount, Map<ColumnRefOperator, ColumnStatistic> columnStatistics) {
+        private Builder(double outputRowCount, Map<ColumnRefOperator, ColumnStatistic> columnStatistics,
+                        Map<ColumnRefSet, Double> columnGroupStatistics) {
             this.outputRowCount = outputRowCount;
             this.columnStatistics = new HashMap<>(columnStatistics);
+            this.columnGroupStatistics = new HashMap<>(columnGroupStatistics);
         }
 
         public Builder setOutputRowCount(double outputRowCount) {
@@ -89,8 +116,18 @@ public class Statistics {
             return this;
         }
 
+        public Builder addColumnGroupStatistic(ColumnRefSet columns, double distinctValuesCount) {
+            this.columnGroupStatistics.put(columns, distinctValuesCount);
+            return this;
+        }
+
+        public Builder addColumnGroupStatistics(Map<ColumnRefSet, Double> columnGroupStatistics) {
+            this.columnGroupStatistics.putAll(columnGroupStatistics);
+            return this;
+        }
+
         public Statistics build() {
-            return new Statistics(outputRowCount, columnStatistics);
+            return new Statistics(outputRowCount, columnStatistics, columnGroupStatistics);
         }
     }
 }
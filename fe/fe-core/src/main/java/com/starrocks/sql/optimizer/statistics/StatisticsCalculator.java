@@ -27,8 +27,10 @@ import com.starrocks.external.hive.HiveTableStats;
 import com.starrocks.qe.ConnectContext;
 import com.starrocks.sql.common.ErrorType;
 import com.starrocks.sql.common.StarRocksPlannerException;
+import com.starrocks.sql.optimizer.CTEContext;
 import com.starrocks.sql.optimizer.ExpressionContext;
 import com.starrocks.sql.optimizer.Group;
+import com.starrocks.sql.optimizer.OptimizerContext;
 import com.starrocks.sql.optimizer.Utils;
 import com.starrocks.sql.optimizer.base.ColumnRefFactory;
 import com.starrocks.sql.optimizer.base.ColumnRefSet;
@@ -37,6 +39,9 @@ import com.starrocks.sql.optimizer.operator.Operator;
 import com.starrocks.sql.optimizer.operator.OperatorVisitor;
 import com.starrocks.sql.optimizer.operator.logical.LogicalAggregationOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalAssertOneRowOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalCTEAnchorOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalCTEConsumeOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalCTEProduceOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalEsScanOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalExceptOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalFilterOperator;
@@ -55,6 +60,9 @@ import com.starrocks.sql.optimizer.operator.logical.LogicalUnionOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalValuesOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalWindowOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalAssertOneRowOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalCTEAnchorOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalCTEConsumeOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalCTEProduceOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalEsScanOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalExceptOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalFilterOperator;
@@ -86,10 +94,12 @@ import org.mortbay.log.Log;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.function.Function;
@@ -109,15 +119,33 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
     private final ColumnRefSet requiredCols;
     private final ColumnRefFactory columnRefFactory;
     private final DumpInfo dumpInfo;
+    private final CTEContext cteContext;
 
     public StatisticsCalculator(ExpressionContext expressionContext,
                                 ColumnRefSet requiredCols,
                                 ColumnRefFactory columnRefFactory,
                                 DumpInfo dumpInfo) {
+        this(expressionContext, requiredCols, columnRefFactory, dumpInfo, new CTEContext());
+    }
+
+    public StatisticsCalculator(ExpressionContext expressionContext,
+                                ColumnRefSet requiredCols,
+                                ColumnRefFactory columnRefFactory,
+                                OptimizerContext optimizerContext) {
+        this(expressionContext, requiredCols, columnRefFactory, optimizerContext.getDumpInfo(),
+                optimizerContext.getCteContext());
+    }
+
+    private StatisticsCalculator(ExpressionContext expressionContext,
+                                 ColumnRefSet requiredCols,
+                                 ColumnRefFactory columnRefFactory,
+                                 DumpInfo dumpInfo,
+                                 CTEContext cteContext) {
         this.expressionContext = expressionContext;
         this.requiredCols = requiredCols;
         this.columnRefFactory = columnRefFactory;
         this.dumpInfo = dumpInfo;
+        this.cteContext = cteContext;
     }
 
     public void estimatorStats() {
@@ -151,7 +179,8 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
 
         Statistics statistics = builder.build();
         if (limit != -1 && limit < statistics.getOutputRowCount()) {
-            statistics = new Statistics(limit, statistics.getColumnStatistics());
+            statistics = new Statistics(limit, statistics.getColumnStatistics(),
+                    statistics.getColumnGroupStatistics());
         }
 
         context.setStatistics(statistics);
@@ -160,14 +189,37 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
 
     @Override
     public Void visitLogicalOlapScan(LogicalOlapScanOperator node, ExpressionContext context) {
-        return computeOlapScanNode(node, context, node.getOlapTable(), node.getSelectedPartitionId(),
+        computeOlapScanNode(node, context, node.getOlapTable(), node.getSelectedPartitionId(),
                 node.getColumnToIds());
+        return applyCardinalityFeedback(context, node.getOlapTable(), node.getSelectedIndexId(),
+                node.getSelectedPartitionId(), node.getColumnRefMap(), node.getPredicate(), node.getLimit());
     }
 
     @Override
     public Void visitPhysicalOlapScan(PhysicalOlapScanOperator node, ExpressionContext context) {
-        return computeOlapScanNode(node, context, node.getTable(), node.getSelectedPartitionId(),
+        computeOlapScanNode(node, context, node.getTable(), node.getSelectedPartitionId(),
                 node.getColumnToIds());
+        return applyCardinalityFeedback(context, node.getTable(), node.getSelectedIndexId(),
+                node.getSelectedPartitionId(), node.getColumnRefMap(), node.getPredicate(), node.getLimit());
+    }
+
+    // use the row count observed by the previous executions of the same scan if there is any
+    private Void applyCardinalityFeedback(ExpressionContext context, OlapTable table, long selectedIndexId,
+                                          Collection<Long> selectedPartitionIds,
+                                          Map<ColumnRefOperator, Column> columnRefMap,
+                                          ScalarOperator predicate, long limit) {
+        ConnectContext connectContext = ConnectContext.get();
+        if (connectContext == null || !connectContext.getSessionVariable().isEnableCboCardinalityFeedback()) {
+            return null;
+        }
+        String scanKey = CardinalityFeedback.buildScanKey(table, selectedIndexId, selectedPartitionIds,
+                columnRefMap, predicate, limit);
+        Long observedRows = CardinalityFeedback.getInstance().getObservedRows(scanKey);
+        if (observedRows != null) {
+            context.setStatistics(Statistics.buildFrom(context.getStatistics())
+                    .setOutputRowCount(Math.max(observedRows, 1)).build());
+        }
+        return null;
     }
 
     private Void computeOlapScanNode(Operator node, ExpressionContext context, Table table,
@@ -178,6 +230,7 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
         long tableRowCount = getTableRowCount(table, node);
         // 2. get required columns statistics
         Statistics.Builder builder = estimateScanColumns(table);
+        estimateScanColumnGroups(table, builder);
         // 3. deal with column statistics for partition prune
         OlapTable olapTable = (OlapTable) table;
         ColumnStatistic partitionStatistic = adjustPartitionStatistic(selectedPartitionIds, olapTable);
@@ -285,6 +338,28 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
         return builder;
     }
 
+    private void estimateScanColumnGroups(Table table, Statistics.Builder builder) {
+        List<ColumnGroupStatistic> columnGroupStatistics =
+                Catalog.getCurrentStatisticStorage().getColumnGroupStatistics(table);
+        if (columnGroupStatistics.isEmpty()) {
+            return;
+        }
+
+        Map<String, ColumnRefOperator> requiredColumns = new HashMap<>();
+        for (int columnId : requiredCols.getColumnIds()) {
+            ColumnRefOperator columnRefOperator = columnRefFactory.getColumnRef(columnId);
+            requiredColumns.put(columnRefOperator.getName().toLowerCase(), columnRefOperator);
+        }
+        for (ColumnGroupStatistic columnGroupStatistic : columnGroupStatistics) {
+            List<ColumnRefOperator> columns = columnGroupStatistic.getColumnNames().stream()
+                    .map(name -> requiredColumns.get(name.toLowerCase())).collect(Collectors.toList());
+            if (columns.stream().allMatch(Objects::nonNull)) {
+                builder.addColumnGroupStatistic(new ColumnRefSet(columns),
+                        columnGroupStatistic.getDistinctValuesCount());
+            }
+        }
+    }
+
     @Override
     public Void visitLogicalMysqlScan(LogicalMysqlScanOperator node, ExpressionContext context) {
         return computeMysqlScanNode(node, context, node.getTable());
@@ -518,6 +593,15 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
             builder.addColumnStatistic(requiredColumnRefOperator,
                     ExpressionStatisticCalculator.calculate(mapOperator, inputStatistics));
         }
+        // the column groups of the columns passed through
+        ColumnRefSet passedColumns = new ColumnRefSet();
+        for (int columnId : requiredCols.getColumnIds()) {
+            ColumnRefOperator columnRefOperator = columnRefFactory.getColumnRef(columnId);
+            if (columnRefOperator.equals(columnRefMap.get(columnRefOperator))) {
+                passedColumns.union(columnId);
+            }
+        }
+        builder.addColumnGroupStatistics(inputStatistics.getColumnGroupStatistics(passedColumns));
         context.setStatistics(builder.build());
         return visitOperator(context.getOp(), context);
     }
@@ -571,6 +655,7 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
             }
         }
         builder.addColumnStatistics(groupStatisticsMap);
+        builder.addColumnGroupStatistics(inputStatistics.getColumnGroupStatistics(new ColumnRefSet(groupBys)));
         rowCount = min(inputStatistics.getOutputRowCount(), rowCount);
         builder.setOutputRowCount(rowCount);
 
@@ -605,6 +690,8 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
 
         builder.addColumnStatistics(leftStatistics.getColumnStatistics());
         builder.addColumnStatistics(rightStatistics.getColumnStatistics());
+        builder.addColumnGroupStatistics(leftStatistics.getColumnGroupStatistics());
+        builder.addColumnGroupStatistics(rightStatistics.getColumnGroupStatistics());
         List<BinaryPredicateOperator> eqOnPredicates = JoinPredicateUtils.getEqConj(leftStatistics.getUsedColumns(),
                 rightStatistics.getUsedColumns(),
                 Utils.extractConjuncts(joinOnPredicate));
@@ -636,6 +723,8 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
         }
         if (innerRowCount == -1) {
             innerRowCount = estimateInnerRowCount(builder.build(), eqOnPredicates);
+            innerRowCount = estimateInnerRowCountByColumnGroups(leftStatistics, rightStatistics, eqOnPredicates,
+                    innerRowCount);
         }
 
         switch (joinType) {
@@ -687,7 +776,8 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
         }
 
         if (limit != -1 && limit < estimateStatistics.getOutputRowCount()) {
-            estimateStatistics = new Statistics(limit, estimateStatistics.getColumnStatistics());
+            estimateStatistics = new Statistics(limit, estimateStatistics.getColumnStatistics(),
+                    estimateStatistics.getColumnGroupStatistics());
         }
 
         if (outputColumns == null) {
@@ -707,6 +797,8 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
         Statistics.Builder joinBuilder = Statistics.builder();
         joinBuilder.setOutputRowCount(estimateStatistics.getOutputRowCount());
         joinBuilder.addColumnStatistics(outputColumnStatisticMap);
+        joinBuilder.addColumnGroupStatistics(
+                estimateStatistics.getColumnGroupStatistics(new ColumnRefSet(outputColumns)));
 
         context.setStatistics(joinBuilder.build());
         return visitOperator(context.getOp(), context);
@@ -897,6 +989,59 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
         return result;
     }
 
+    // The keys of multi-column join are usually correlated, e.g. (country, city), so the distinct values of
+    // the keys is estimated by the joint distinct values of column groups if there is any
+    private double estimateInnerRowCountByColumnGroups(Statistics leftStatistics, Statistics rightStatistics,
+                                                       List<BinaryPredicateOperator> eqOnPredicates,
+                                                       double innerRowCount) {
+        if (eqOnPredicates.size() < 2 || (leftStatistics.getColumnGroupStatistics().isEmpty() &&
+                rightStatistics.getColumnGroupStatistics().isEmpty())) {
+            return innerRowCount;
+        }
+
+        List<ColumnRefOperator> leftKeys = new ArrayList<>();
+        List<ColumnRefOperator> rightKeys = new ArrayList<>();
+        ColumnRefSet leftColumns = leftStatistics.getUsedColumns();
+        for (BinaryPredicateOperator predicate : eqOnPredicates) {
+            if (!predicate.getChild(0).isColumnRef() || !predicate.getChild(1).isColumnRef()) {
+                return innerRowCount;
+            }
+            ColumnRefOperator first = (ColumnRefOperator) predicate.getChild(0);
+            ColumnRefOperator second = (ColumnRefOperator) predicate.getChild(1);
+            if (leftColumns.contains(first)) {
+                leftKeys.add(first);
+                rightKeys.add(second);
+            } else {
+                leftKeys.add(second);
+                rightKeys.add(first);
+            }
+        }
+
+        double leftDistinctValues =
+                StatisticsEstimateUtils.estimateDistinctValuesByColumnGroups(leftStatistics, leftKeys);
+        double rightDistinctValues =
+                StatisticsEstimateUtils.estimateDistinctValuesByColumnGroups(rightStatistics, rightKeys);
+        if (Double.isNaN(leftDistinctValues) && Double.isNaN(rightDistinctValues)) {
+            return innerRowCount;
+        }
+        if (Double.isNaN(leftDistinctValues)) {
+            leftDistinctValues = estimateIndependentDistinctValues(leftStatistics, leftKeys);
+        }
+        if (Double.isNaN(rightDistinctValues)) {
+            rightDistinctValues = estimateIndependentDistinctValues(rightStatistics, rightKeys);
+        }
+        return leftStatistics.getOutputRowCount() * rightStatistics.getOutputRowCount() /
+                Math.max(1, Math.max(leftDistinctValues, rightDistinctValues));
+    }
+
+    private double estimateIndependentDistinctValues(Statistics statistics, List<ColumnRefOperator> columns) {
+        double distinctValues = 1;
+        for (ColumnRefOperator column : new HashSet<>(columns)) {
+            distinctValues *= statistics.getColumnStatistic(column).getDistinctValuesCount();
+        }
+        return Math.min(distinctValues, Math.max(1, statistics.getOutputRowCount()));
+    }
+
     public Statistics estimateByEqOnPredicates(Statistics statistics, BinaryPredicateOperator divingPredicate,
                                                Collection<BinaryPredicateOperator> remainingEqOnPredicate) {
         Statistics estimateStatistics = estimateStatistics(ImmutableList.of(divingPredicate), statistics);
@@ -928,6 +1073,7 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
         Statistics.Builder builder = Statistics.builder();
         Statistics inputStatistics = context.getChildStatistics(0);
         builder.addColumnStatistics(inputStatistics.getColumnStatistics());
+        builder.addColumnGroupStatistics(inputStatistics.getColumnGroupStatistics());
         builder.setOutputRowCount(inputStatistics.getOutputRowCount());
         return visitOperator(node, context, builder);
     }
@@ -968,6 +1114,7 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
 
         Statistics.Builder builder = Statistics.builder();
         builder.addColumnStatistics(inputStatistics.getColumnStatistics());
+        builder.addColumnGroupStatistics(inputStatistics.getColumnGroupStatistics());
         builder.setOutputRowCount(inputStatistics.getOutputRowCount());
         return visitOperator(node, context, builder);
     }
@@ -997,6 +1144,72 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
         return visitOperator(context.getOp(), context);
     }
 
+    @Override
+    public Void visitLogicalCTEAnchor(LogicalCTEAnchorOperator node, ExpressionContext context) {
+        return computeCTEAnchorNode(context);
+    }
+
+    @Override
+    public Void visitPhysicalCTEAnchor(PhysicalCTEAnchorOperator node, ExpressionContext context) {
+        return computeCTEAnchorNode(context);
+    }
+
+    private Void computeCTEAnchorNode(ExpressionContext context) {
+        // The output of cte anchor is the output of the query consuming the cte
+        context.setStatistics(context.getChildStatistics(1));
+        return visitOperator(context.getOp(), context);
+    }
+
+    @Override
+    public Void visitLogicalCTEProduce(LogicalCTEProduceOperator node, ExpressionContext context) {
+        return computeCTEProduceNode(context);
+    }
+
+    @Override
+    public Void visitPhysicalCTEProduce(PhysicalCTEProduceOperator node, ExpressionContext context) {
+        return computeCTEProduceNode(context);
+    }
+
+    private Void computeCTEProduceNode(ExpressionContext context) {
+        context.setStatistics(context.getChildStatistics(0));
+        return visitOperator(context.getOp(), context);
+    }
+
+    @Override
+    public Void visitLogicalCTEConsume(LogicalCTEConsumeOperator node, ExpressionContext context) {
+        return computeCTEConsumeNode(node, context, node.getCteId(), node.getCteOutputColumnRefMap());
+    }
+
+    @Override
+    public Void visitPhysicalCTEConsume(PhysicalCTEConsumeOperator node, ExpressionContext context) {
+        return computeCTEConsumeNode(node, context, node.getCteId(), node.getCteOutputColumnRefMap());
+    }
+
+    private Void computeCTEConsumeNode(Operator node, ExpressionContext context, int cteId,
+                                       Map<ColumnRefOperator, ColumnRefOperator> cteOutputColumnRefMap) {
+        if (context.arity() == 1) {
+            // The cte is not decided to be shared yet, use the statistics of the inlined plan,
+            // the predicate of consumer has been pushed down to the inlined plan
+            context.setStatistics(context.getChildStatistics(0));
+            return visitOperator(node, context);
+        }
+
+        Statistics.Builder builder = Statistics.builder();
+        Statistics produceStatistics = cteContext.getProduceStatistics(cteId);
+        if (produceStatistics == null) {
+            cteOutputColumnRefMap.keySet().forEach(c -> builder.addColumnStatistic(c, ColumnStatistic.unknown()));
+            builder.setOutputRowCount(1);
+            return visitOperator(node, context, builder);
+        }
+
+        for (Map.Entry<ColumnRefOperator, ColumnRefOperator> entry : cteOutputColumnRefMap.entrySet()) {
+            ColumnStatistic statistic = produceStatistics.getColumnStatistics().get(entry.getValue());
+            builder.addColumnStatistic(entry.getKey(), statistic == null ? ColumnStatistic.unknown() : statistic);
+        }
+        builder.setOutputRowCount(produceStatistics.getOutputRowCount());
+        return visitOperator(node, context, builder);
+    }
+
     public Statistics estimateStatistics(List<ScalarOperator> predicateList, Statistics statistics) {
         if (predicateList.isEmpty()) {
             return statistics;
@@ -2,6 +2,14 @@
 
 package com.starrocks.sql.optimizer.statistics;
 
+import com.starrocks.sql.optimizer.base.ColumnRefSet;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
 public class StatisticsEstimateUtils {
     public static ColumnStatistic unionColumnStatistic(ColumnStatistic left, double leftRowCount, ColumnStatistic right,
                                                        double rightRowCount) {
@@ -32,4 +40,93 @@ public class StatisticsEstimateUtils {
                 .setDistinctValuesCount(newRange.getDistinctValues());
         return builder.build();
     }
+
+    // Estimate the joint distinct values of the columns by the column groups covering them, which is
+    // the product of the distinct values of the groups and the uncovered columns.
+    // Return NaN if there is no column group or some uncovered column is unknown.
+    public static double estimateDistinctValuesByColumnGroups(Statistics statistics,
+                                                              List<ColumnRefOperator> columns) {
+        columns = columns.stream().distinct().collect(Collectors.toList());
+        List<ColumnRefSet> groups = coverByColumnGroups(statistics, new ColumnRefSet(columns));
+        if (groups.isEmpty()) {
+            return Double.NaN;
+        }
+
+        ColumnRefSet covered = new ColumnRefSet();
+        double distinctValues = 1;
+        for (ColumnRefSet group : groups) {
+            covered.union(group);
+            distinctValues *= getColumnGroupDistinctValues(statistics, group, columns);
+        }
+        for (ColumnRefOperator column : columns) {
+            if (covered.contains(column)) {
+                continue;
+            }
+            ColumnStatistic columnStatistic = statistics.getColumnStatistic(column);
+            if (columnStatistic.isUnknown()) {
+                return Double.NaN;
+            }
+            distinctValues *= columnStatistic.getDistinctValuesCount();
+            covered.union(column);
+        }
+        return Math.max(1, Math.min(distinctValues, statistics.getOutputRowCount()));
+    }
+
+    // The ratio of the rows selected by the equivalence predicates of the correlated columns to the rows
+    // estimated by multiplying the selectivity of each predicate, which is not less than 1
+    public static double estimateColumnGroupCorrelation(Statistics statistics, List<ColumnRefOperator> columns) {
+        columns = columns.stream().distinct().collect(Collectors.toList());
+        double correlation = 1;
+        for (ColumnRefSet group : coverByColumnGroups(statistics, new ColumnRefSet(columns))) {
+            double independentDistinctValues = 1;
+            for (ColumnRefOperator column : columns) {
+                if (group.contains(column)) {
+                    independentDistinctValues *= statistics.getColumnStatistic(column).getDistinctValuesCount();
+                }
+            }
+            correlation *= independentDistinctValues / getColumnGroupDistinctValues(statistics, group, columns);
+        }
+        return correlation;
+    }
+
+    // The disjoint column groups contained in the columns with known column statistics, the larger group first
+    private static List<ColumnRefSet> coverByColumnGroups(Statistics statistics, ColumnRefSet columns) {
+        ColumnRefSet knownColumns = new ColumnRefSet();
+        for (int id : columns.getColumnIds()) {
+            statistics.getColumnStatistics().entrySet().stream()
+                    .filter(entry -> entry.getKey().getId() == id && !entry.getValue().isUnknown())
+                    .findAny().ifPresent(entry -> knownColumns.union(id));
+        }
+
+        List<ColumnRefSet> groups = new ArrayList<>(statistics.getColumnGroupStatistics(knownColumns).keySet());
+        groups.sort(Comparator.comparingInt(ColumnRefSet::cardinality).reversed());
+
+        List<ColumnRefSet> result = new ArrayList<>();
+        ColumnRefSet covered = new ColumnRefSet();
+        for (ColumnRefSet group : groups) {
+            if (group.cardinality() > 1 && !covered.isIntersect(group)) {
+                result.add(group);
+                covered.union(group);
+            }
+        }
+        return result;
+    }
+
+    // The joint distinct values of the group is between the max and the product of the distinct values of
+    // its columns, and not larger than the row count
+    private static double getColumnGroupDistinctValues(Statistics statistics, ColumnRefSet group,
+                                                       List<ColumnRefOperator> columns) {
+        double maxDistinctValues = 1;
+        double productDistinctValues = 1;
+        for (ColumnRefOperator column : columns) {
+            if (group.contains(column)) {
+                double distinctValues = statistics.getColumnStatistic(column).getDistinctValuesCount();
+                maxDistinctValues = Math.max(maxDistinctValues, distinctValues);
+                productDistinctValues *= distinctValues;
+            }
+        }
+        double distinctValues = Math.min(statistics.getColumnGroupStatistics().get(group),
+                Math.max(1, statistics.getOutputRowCount()));
+        return Math.max(maxDistinctValues, Math.min(distinctValues, productDistinctValues));
+    }
 }
@@ -22,6 +22,7 @@ import com.starrocks.sql.analyzer.Field;
 import com.starrocks.sql.analyzer.RelationFields;
 import com.starrocks.sql.analyzer.RelationId;
 import com.starrocks.sql.analyzer.Scope;
+import com.starrocks.sql.analyzer.relation.CTERelation;
 import com.starrocks.sql.analyzer.relation.ExceptRelation;
 import com.starrocks.sql.analyzer.relation.IntersectRelation;
 import com.starrocks.sql.analyzer.relation.JoinRelation;
@@ -44,6 +45,9 @@ import com.starrocks.sql.optimizer.base.SetQualifier;
 import com.starrocks.sql.optimizer.operator.Operator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalAggregationOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalApplyOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalCTEAnchorOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalCTEConsumeOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalCTEProduceOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalEsScanOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalExceptOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalHiveScanOperator;
@@ -77,15 +81,19 @@ public class RelationTransformer extends RelationVisitor<OptExprBuilder, Express
     private List<ColumnRefOperator> outputColumn;
     private List<ColumnRefOperator> correlation = new ArrayList<>();
     private final ExpressionMapping outer;
+    // Whether transform the statement, or the subquery in expression
+    private final boolean isStatement;
 
     public RelationTransformer(ColumnRefFactory columnRefFactory) {
         this.columnRefFactory = columnRefFactory;
         this.outer = new ExpressionMapping(new Scope(RelationId.anonymous(), new RelationFields()));
+        this.isStatement = true;
     }
 
     public RelationTransformer(ColumnRefFactory columnRefFactory, ExpressionMapping outer) {
         this.columnRefFactory = columnRefFactory;
         this.outer = outer;
+        this.isStatement = false;
     }
 
     public LogicalPlan transform(Relation relation) {
@@ -98,10 +106,48 @@ public class RelationTransformer extends RelationVisitor<OptExprBuilder, Express
                 querySpecification.setLimit(new LimitElement(selectLimit));
             }
         }
+        List<CTERelation> sharedCTEs = prepareSharedCTEs(relation);
+        List<OptExprBuilder> cteProducers = new ArrayList<>();
+        for (CTERelation cte : sharedCTEs) {
+            // The later cte may consume the former ones, so they are transformed in definition order
+            cte.setCteId(columnRefFactory.getNextRelationId());
+            RelationTransformer transformer = new RelationTransformer(columnRefFactory);
+            cteProducers.add(transformer.visit(cte.getCteQuery()));
+            cte.setCteOutputColumns(transformer.outputColumn);
+        }
+
         OptExprBuilder optExprBuilder = visit(relation);
+        for (int i = sharedCTEs.size() - 1; i >= 0; --i) {
+            int cteId = sharedCTEs.get(i).getCteId();
+            OptExprBuilder produce = new OptExprBuilder(new LogicalCTEProduceOperator(cteId),
+                    Lists.newArrayList(cteProducers.get(i)), cteProducers.get(i).getExpressionMapping());
+            optExprBuilder = new OptExprBuilder(new LogicalCTEAnchorOperator(cteId),
+                    Lists.newArrayList(produce, optExprBuilder), optExprBuilder.getExpressionMapping());
+        }
         return new LogicalPlan(optExprBuilder, outputColumn, correlation);
     }
 
+    /*
+     * The common table expressions of the statement referenced more than once are planned as cte
+     * producer and consumers, the optimizer decides whether to share or inline them by cost.
+     * The ctes of subqueries are always inlined.
+     */
+    private List<CTERelation> prepareSharedCTEs(Relation relation) {
+        List<CTERelation> sharedCTEs = new ArrayList<>();
+        if (!(relation instanceof QueryRelation)) {
+            return sharedCTEs;
+        }
+        boolean enableCTEReuse = isStatement && ConnectContext.get() != null &&
+                ConnectContext.get().getSessionVariable().isCboCteReuse();
+        for (CTERelation cte : ((QueryRelation) relation).getCteRelations()) {
+            cte.setCteId(-1);
+            if (enableCTEReuse && cte.getReferenceCount() > 1) {
+                sharedCTEs.add(cte);
+            }
+        }
+        return sharedCTEs;
+    }
+
     @Override
     public OptExprBuilder visitQuery(QueryRelation node, ExpressionMapping context) {
         throw new StarRocksPlannerException("query block not materialized", ErrorType.INTERNAL_ERROR);
@@ -269,6 +315,16 @@ public class RelationTransformer extends RelationVisitor<OptExprBuilder, Express
     @Override
     public OptExprBuilder visitSubquery(SubqueryRelation node, ExpressionMapping context) {
         OptExprBuilder builder = visit(node.getQuery());
+        CTERelation cte = node.getCteRelation();
+        if (cte != null && cte.getCteId() >= 0) {
+            // Keep the inlined plan as the child of consumer, the optimizer removes it if the cte is shared
+            Map<ColumnRefOperator, ColumnRefOperator> cteOutputColumnRefMap = new HashMap<>();
+            for (int i = 0; i < outputColumn.size(); ++i) {
+                cteOutputColumnRefMap.put(outputColumn.get(i), cte.getCteOutputColumns().get(i));
+            }
+            builder = new OptExprBuilder(new LogicalCTEConsumeOperator(cte.getCteId(), cteOutputColumnRefMap),
+                    Lists.newArrayList(builder), builder.getExpressionMapping());
+        }
         return new OptExprBuilder(builder.getRoot().getOp(), builder.getInputs(),
                 new ExpressionMapping(new Scope(RelationId.of(node), node.getRelationFields()), outputColumn));
     }
@@ -4,6 +4,7 @@ package com.starrocks.sql.plan;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.starrocks.analysis.AggregateInfo;
 import com.starrocks.analysis.Analyzer;
 import com.starrocks.analysis.AssertNumRowsElement;
@@ -43,6 +44,7 @@ import com.starrocks.planner.ExchangeNode;
 import com.starrocks.planner.HashJoinNode;
 import com.starrocks.planner.HdfsScanNode;
 import com.starrocks.planner.IntersectNode;
+import com.starrocks.planner.MultiCastPlanFragment;
 import com.starrocks.planner.MysqlScanNode;
 import com.starrocks.planner.OlapScanNode;
 import com.starrocks.planner.PlanFragment;
@@ -57,6 +59,7 @@ import com.starrocks.planner.SortNode;
 import com.starrocks.planner.TableFunctionNode;
 import com.starrocks.planner.UnionNode;
 import com.starrocks.qe.ConnectContext;
+import com.starrocks.qe.QueryPhaseTracker;
 import com.starrocks.service.FrontendOptions;
 import com.starrocks.sql.common.StarRocksPlannerException;
 import com.starrocks.sql.optimizer.OptExpression;
@@ -69,8 +72,11 @@ import com.starrocks.sql.optimizer.base.GatherDistributionSpec;
 import com.starrocks.sql.optimizer.base.HashDistributionSpec;
 import com.starrocks.sql.optimizer.base.OrderSpec;
 import com.starrocks.sql.optimizer.base.Ordering;
+import com.starrocks.sql.optimizer.cost.RuntimeFilterEstimator;
 import com.starrocks.sql.optimizer.operator.OperatorType;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalAssertOneRowOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalCTEConsumeOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalCTEProduceOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalDistributionOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalEsScanOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalFilterOperator;
@@ -93,6 +99,7 @@ import com.starrocks.sql.optimizer.operator.scalar.CallOperator;
 import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
 import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
 import com.starrocks.sql.optimizer.rule.transformation.JoinPredicateUtils;
+import com.starrocks.sql.optimizer.statistics.CardinalityFeedback;
 import com.starrocks.thrift.TPartitionType;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -121,6 +128,7 @@ public class PlanFragmentBuilder {
     public ExecPlan createPhysicalPlan(OptExpression plan, PlannerContext plannerContext, ConnectContext connectContext,
                                        List<ColumnRefOperator> outputColumns, ColumnRefFactory columnRefFactory,
                                        List<String> colNames) {
+        long startNanos = System.nanoTime();
         ExecPlan execPlan = new ExecPlan(plannerContext, connectContext, colNames);
         createOutputFragment(new PhysicalPlanTranslator(columnRefFactory).visit(plan, execPlan), execPlan,
                 outputColumns);
@@ -136,6 +144,7 @@ public class PlanFragmentBuilder {
             throw new StarRocksPlannerException("Create fragment fail, " + e.getMessage(), INTERNAL_ERROR);
         }
 
+        connectContext.getPhaseTracker().end(QueryPhaseTracker.Phase.BUILD_FRAGMENT, startNanos);
         return execPlan;
     }
 
@@ -196,6 +205,8 @@ public class PlanFragmentBuilder {
     private static class PhysicalPlanTranslator extends OptExpressionVisitor<PlanFragment, ExecPlan> {
         private final ColumnRefFactory columnRefFactory;
         private final IdGenerator<RuntimeFilterId> runtimeFilterIdIdGenerator = RuntimeFilterId.createGenerator();
+        // cte id -> the fragment of cte producer
+        private final Map<Integer, MultiCastPlanFragment> cteProduceFragments = Maps.newHashMap();
 
         public PhysicalPlanTranslator(ColumnRefFactory columnRefFactory) {
             this.columnRefFactory = columnRefFactory;
@@ -283,16 +294,21 @@ public class PlanFragmentBuilder {
                         node.getSelectedIndexId());
                 long selectedIndexId = node.getSelectedIndexId();
                 long totalTabletsNum = 0;
+                Set<Long> selectedTabletIds = Sets.newHashSet(node.getSelectedTabletId());
                 // Compatible with old tablet selected, copy from "OlapScanNode::computeTabletInfo"
                 // we can remove code when refactor tablet select
                 for (Long partitionId : node.getSelectedPartitionId()) {
                     final Partition partition = referenceTable.getPartition(partitionId);
                     final MaterializedIndex selectedTable = partition.getIndex(selectedIndexId);
 
+                    // the sequence of a bucket is the index of its tablet
+                    final List<Tablet> allTablets = selectedTable.getTablets();
                     final List<Tablet> tablets = Lists.newArrayList();
-                    for (Long id : node.getSelectedTabletId()) {
-                        if (selectedTable.getTablet(id) != null) {
-                            tablets.add(selectedTable.getTablet(id));
+                    final List<Integer> bucketSeqs = Lists.newArrayList();
+                    for (int i = 0; i < allTablets.size(); i++) {
+                        if (selectedTabletIds.contains(allTablets.get(i).getId())) {
+                            tablets.add(allTablets.get(i));
+                            bucketSeqs.add(i);
                         }
                     }
 
@@ -302,15 +318,8 @@ public class PlanFragmentBuilder {
                                 .getBackendIdByHost(FrontendOptions.getLocalHostAddress());
                     }
 
-                    List<Long> allTabletIds = selectedTable.getTabletIdsInOrder();
-                    Map<Long, Integer> tabletId2BucketSeq = Maps.newHashMap();
-                    for (int i = 0; i < allTabletIds.size(); i++) {
-                        tabletId2BucketSeq.put(allTabletIds.get(i), i);
-                    }
-
-                    totalTabletsNum += selectedTable.getTablets().size();
-                    scanNode.setTabletId2BucketSeq(tabletId2BucketSeq);
-                    scanNode.addScanRangeLocations(partition, selectedTable, tablets, localBeId);
+                    totalTabletsNum += allTablets.size();
+                    scanNode.addScanRangeLocations(partition, selectedTable, tablets, bucketSeqs, localBeId);
                 }
                 scanNode.setTotalTabletsNum(totalTabletsNum);
             } catch (UserException e) {
@@ -342,6 +351,13 @@ public class PlanFragmentBuilder {
             // set isPreAggregation
             scanNode.setIsPreAggregation(node.isPreAggregation(), node.getTurnOffReason());
 
+            if (ConnectContext.get() != null
+                    && ConnectContext.get().getSessionVariable().isEnableCboCardinalityFeedback()) {
+                scanNode.setCardinalityFeedbackKey(CardinalityFeedback.buildScanKey(referenceTable,
+                        node.getSelectedIndexId(), node.getSelectedPartitionId(), node.getColumnRefMap(),
+                        node.getPredicate(), node.getLimit()));
+            }
+
             context.getScanNodes().add(scanNode);
             PlanFragment fragment =
                     new PlanFragment(context.getPlanCtx().getNextFragmentId(), scanNode, DataPartition.RANDOM);
@@ -983,6 +999,9 @@ public class PlanFragmentBuilder {
             sortNode.resolvedTupleExprs = resolvedTupleExprs;
             sortNode.setHasNullableGenerateChild();
             sortNode.computeStatistics(optExpr.getStatistics());
+            if (limit != -1 && ConnectContext.get().getSessionVariable().isEnableTopNRuntimeFilter()) {
+                sortNode.buildRuntimeFilters(runtimeFilterIdIdGenerator);
+            }
 
             inputFragment.setPlanRoot(sortNode);
             return inputFragment;
@@ -1130,8 +1149,15 @@ public class PlanFragmentBuilder {
                 hashJoinNode.computeStatistics(optExpr.getStatistics());
 
                 if (ConnectContext.get().getSessionVariable().getEnableGlobalRuntimeFilter()) {
+                    List<RuntimeFilterEstimator.Estimate> estimates = null;
+                    if (ConnectContext.get().getSessionVariable().isCboEnableRuntimeFilterCost()) {
+                        estimates = RuntimeFilterEstimator.estimate(
+                                optExpr.inputAt(0).getLogicalProperty().getOutputColumns(),
+                                optExpr.inputAt(0).getStatistics(), optExpr.inputAt(1).getStatistics(),
+                                eqOnPredicates);
+                    }
                     hashJoinNode.buildRuntimeFilters(runtimeFilterIdIdGenerator, hashJoinNode.getChild(1),
-                            hashJoinNode.getEqJoinConjuncts(), joinOperator);
+                            hashJoinNode.getEqJoinConjuncts(), joinOperator, estimates);
                 }
 
                 if (distributionMode.equals(HashJoinNode.DistributionMode.BROADCAST)) {
@@ -1511,5 +1537,78 @@ public class PlanFragmentBuilder {
             inputFragment.setPlanRoot(tableFunctionNode);
             return inputFragment;
         }
+
+        @Override
+        public PlanFragment visitPhysicalCTEAnchor(OptExpression optExpression, ExecPlan context) {
+            // Build the fragment of cte producer before the consumers
+            visit(optExpression.inputAt(0), context);
+            return visit(optExpression.inputAt(1), context);
+        }
+
+        @Override
+        public PlanFragment visitPhysicalCTEProduce(OptExpression optExpression, ExecPlan context) {
+            PlanFragment inputFragment = visit(optExpression.inputAt(0), context);
+            PhysicalCTEProduceOperator produce = (PhysicalCTEProduceOperator) optExpression.getOp();
+
+            MultiCastPlanFragment cteFragment = new MultiCastPlanFragment(inputFragment);
+            context.getFragments().set(context.getFragments().indexOf(inputFragment), cteFragment);
+            cteProduceFragments.put(produce.getCteId(), cteFragment);
+            return cteFragment;
+        }
+
+        @Override
+        public PlanFragment visitPhysicalCTEConsume(OptExpression optExpression, ExecPlan context) {
+            PhysicalCTEConsumeOperator consume = (PhysicalCTEConsumeOperator) optExpression.getOp();
+            MultiCastPlanFragment cteFragment = cteProduceFragments.get(consume.getCteId());
+            Preconditions.checkState(cteFragment != null, "cte producer is not built: " + consume.getCteId());
+
+            ExchangeNode exchangeNode = new ExchangeNode(context.getPlanCtx().getNextNodeId(),
+                    cteFragment.getPlanRoot(), false);
+            exchangeNode.setNumInstances(cteFragment.getPlanRoot().getNumInstances());
+            // the producer is shared by all the consumers, the runtime filters of a consumer must stop here
+            exchangeNode.disableRuntimeFiltersPushDownToChild();
+            cteFragment.addDestination(exchangeNode);
+
+            // Output the producer columns as the consumer columns
+            TupleDescriptor tupleDescriptor = context.getDescTbl().createTupleDescriptor();
+            Map<SlotId, Expr> projectMap = Maps.newHashMap();
+            for (Map.Entry<ColumnRefOperator, ColumnRefOperator> entry :
+                    consume.getCteOutputColumnRefMap().entrySet()) {
+                Expr expr = ScalarOperatorToExpr.buildExecExpression(entry.getValue(),
+                        new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr()));
+                projectMap.put(new SlotId(entry.getKey().getId()), expr);
+
+                SlotDescriptor slotDescriptor =
+                        context.getDescTbl().addSlotDescriptor(tupleDescriptor, new SlotId(entry.getKey().getId()));
+                slotDescriptor.setIsNullable(expr.isNullable());
+                slotDescriptor.setIsMaterialized(true);
+                slotDescriptor.setType(expr.getType());
+                context.getColRefToExpr().put(entry.getKey(), new SlotRef(entry.getKey().toString(), slotDescriptor));
+            }
+            tupleDescriptor.computeMemLayout();
+
+            ProjectNode projectNode = new ProjectNode(context.getPlanCtx().getNextNodeId(), tupleDescriptor,
+                    exchangeNode, projectMap, Maps.newHashMap());
+            projectNode.computeStatistics(optExpression.getStatistics());
+
+            PlanFragment consumeFragment = new PlanFragment(context.getPlanCtx().getNextFragmentId(),
+                    projectNode, DataPartition.RANDOM);
+            consumeFragment.addChild(cteFragment);
+
+            if (consume.getPredicate() != null) {
+                List<Expr> predicates = Utils.extractConjuncts(consume.getPredicate()).stream()
+                        .map(d -> ScalarOperatorToExpr.buildExecExpression(d,
+                                new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr())))
+                        .collect(Collectors.toList());
+                SelectNode selectNode =
+                        new SelectNode(context.getPlanCtx().getNextNodeId(), projectNode, predicates);
+                selectNode.computeStatistics(optExpression.getStatistics());
+                consumeFragment.setPlanRoot(selectNode);
+            }
+            consumeFragment.getPlanRoot().setLimit(consume.getLimit());
+
+            context.getFragments().add(consumeFragment);
+            return consumeFragment;
+        }
     }
 }
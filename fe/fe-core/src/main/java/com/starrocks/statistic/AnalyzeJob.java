@@ -2,6 +2,7 @@
 
 package com.starrocks.statistic;
 
+import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -23,12 +24,15 @@ import java.io.DataOutput;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 public class AnalyzeJob implements Writable {
     public static final String PROP_UPDATE_INTERVAL_SEC_KEY = "update_interval_sec";
     public static final String PROP_SAMPLE_COLLECT_ROWS_KEY = "sample_collect_rows";
+    // The groups of correlated columns to collect joint statistics, e.g. "country,city;k1,k2"
+    public static final String PROP_COLUMN_GROUPS_KEY = "column_groups";
 
     public static final List<String> NUMBER_PROP_KEY_LIST = ImmutableList.<String>builder()
             .add(PROP_UPDATE_INTERVAL_SEC_KEY)
@@ -144,6 +148,21 @@ public class AnalyzeJob implements Writable {
                 .getOrDefault(PROP_SAMPLE_COLLECT_ROWS_KEY, String.valueOf(Config.statistic_sample_collect_rows)));
     }
 
+    public List<List<String>> getColumnGroups() {
+        if (properties == null) {
+            return Collections.emptyList();
+        }
+        return parseColumnGroups(properties.getOrDefault(PROP_COLUMN_GROUPS_KEY, ""));
+    }
+
+    public static List<List<String>> parseColumnGroups(String value) {
+        List<List<String>> columnGroups = Lists.newArrayList();
+        for (String group : Splitter.on(';').trimResults().omitEmptyStrings().split(value)) {
+            columnGroups.add(Splitter.on(',').trimResults().omitEmptyStrings().splitToList(group));
+        }
+        return columnGroups;
+    }
+
     public ScheduleType getScheduleType() {
         return scheduleType;
     }
@@ -50,6 +50,10 @@ public class StatisticAutoCollector extends MasterDaemon {
                 statisticExecutor
                         .sampleCollectStatisticSync(db.getId(), table.getId(), columns, job.getSampleCollectRows());
             }
+
+            statisticExecutor.collectColumnGroupStatisticSync(db.getId(), table.getId(),
+                    StatisticUtils.getColumnGroups((OlapTable) table, columns, job.getColumnGroups()),
+                    AnalyzeType.SAMPLE == job.getType(), job.getSampleCollectRows());
         }
     }
 
@@ -135,6 +139,7 @@ public class StatisticAutoCollector extends MasterDaemon {
                     tcj.tryCollect();
 
                     Catalog.getCurrentStatisticStorage().expireColumnStatistics(tcj.table, tcj.columns);
+                    Catalog.getCurrentStatisticStorage().expireColumnGroupStatistics(tcj.table);
                 } catch (Exception e) {
                     LOG.warn("Statistic collect work job: {}, type: {}, db: {}, table: {}. throw exception.",
                             analyzeJob.getId(), analyzeJob.getType(), tcj.db.getFullName(), tcj.table.getName(), e);
@@ -33,6 +33,7 @@ import com.starrocks.sql.optimizer.Optimizer;
 import com.starrocks.sql.optimizer.base.ColumnRefFactory;
 import com.starrocks.sql.optimizer.base.ColumnRefSet;
 import com.starrocks.sql.optimizer.base.PhysicalPropertySet;
+import com.starrocks.sql.optimizer.statistics.ColumnGroupStatistic;
 import com.starrocks.sql.optimizer.transformer.LogicalPlan;
 import com.starrocks.sql.optimizer.transformer.RelationTransformer;
 import com.starrocks.sql.plan.ExecPlan;
@@ -95,6 +96,20 @@ public class StatisticExecutor {
                     + "    GROUP BY t0.`$columnName` "
                     + ") as t1";
 
+    private static final String INSERT_SELECT_COLUMN_GROUP_TEMPLATE =
+            "SELECT $tableId, '$columnName', $dbId, '$tableName', '$dbName', COUNT(1), "
+                    + "0, $countDistinctFunction, 0, '', '', NOW() "
+                    + "FROM $tableName";
+
+    private static final String INSERT_SELECT_COLUMN_GROUP_SAMPLE_TEMPLATE =
+            "SELECT $tableId, '$columnName', $dbId, '$tableName', '$dbName', IFNULL(SUM(t1.count), 0) * $ratio, "
+                    + "0, $countDistinctFunction, 0, '', '', NOW() "
+                    + "FROM ( "
+                    + "    SELECT COUNT(1) as count "
+                    + "    FROM (SELECT $columns FROM $tableName $hints) as t0 "
+                    + "    GROUP BY $columns "
+                    + ") as t1";
+
     private static final String DELETE_TEMPLATE = "DELETE FROM " + Constants.StatisticsTableName + " WHERE ";
 
     private static final String SELECT_EXPIRE_TABLE_TEMPLATE =
@@ -115,7 +130,16 @@ public class StatisticExecutor {
     }
 
     public List<TStatisticData> queryStatisticSync(Long dbId, Long tableId, List<String> columnNames) {
-        String sql = buildQuerySQL(dbId, tableId, columnNames);
+        return queryStatisticSync(buildQuerySQL(dbId, tableId, columnNames));
+    }
+
+    public List<TStatisticData> queryColumnGroupStatisticSync(Long tableId) {
+        String sql = QUERY_STATISTIC_TEMPLATE + " AND table_id = " + tableId
+                + " AND column_name LIKE '%" + ColumnGroupStatistic.SEPARATOR + "%'";
+        return queryStatisticSync(sql);
+    }
+
+    private List<TStatisticData> queryStatisticSync(String sql) {
         Map<String, Database> dbs = Maps.newHashMap();
 
         ConnectContext context = StatisticUtils.buildConnectContext();
@@ -200,6 +224,28 @@ public class StatisticExecutor {
         }
     }
 
+    // Collect the joint distinct values of each column group, which is stored as the column statistic of
+    // the group name, see ColumnGroupStatistic
+    public void collectColumnGroupStatisticSync(Long dbId, Long tableId, List<List<String>> columnGroups,
+                                                boolean isSample, long rows) throws Exception {
+        if (columnGroups.isEmpty()) {
+            return;
+        }
+
+        String sql = isSample ? buildColumnGroupSampleInsertSQL(dbId, tableId, columnGroups, rows) :
+                buildColumnGroupInsertSQL(dbId, tableId, columnGroups);
+        LOG.debug("Collect column group statistic SQL: {}", sql);
+
+        ConnectContext context = StatisticUtils.buildConnectContext();
+        StatementBase parsedStmt = parseSQL(sql, context);
+        StmtExecutor executor = new StmtExecutor(context, parsedStmt);
+        executor.execute();
+
+        if (context.getState().getStateType() == QueryState.MysqlStateType.ERR) {
+            throw new DdlException(context.getState().getErrorMessage());
+        }
+    }
+
     public void expireStatisticSync(List<String> tableIds) {
         StringBuilder sql = new StringBuilder(DELETE_TEMPLATE);
         sql.append(" table_id IN (").append(StringUtils.join(tableIds, ",")).append(")");
@@ -387,10 +433,93 @@ public class StatisticExecutor {
         return builder.substring(0, builder.length() - "UNION ALL ".length());
     }
 
-    private String buildSampleInsertSQL(Long dbId, Long tableId, List<String> columnNames, long rows) {
+    private String buildColumnGroupInsertSQL(Long dbId, Long tableId, List<List<String>> columnGroups) {
+        StringBuilder builder = new StringBuilder(INSERT_STATISTIC_TEMPLATE).append(" ");
+
+        Database db = Catalog.getCurrentCatalog().getDb(dbId);
+        OlapTable table = (OlapTable) db.getTable(tableId);
+
+        for (List<String> columnGroup : columnGroups) {
+            VelocityContext context = new VelocityContext();
+
+            context.put("dbId", dbId);
+            context.put("tableId", tableId);
+            context.put("columnName", ColumnGroupStatistic.encodeName(columnGroup));
+            context.put("dbName", db.getFullName());
+            context.put("tableName", ClusterNamespace.getNameFromFullName(db.getFullName()) + "." + table.getName());
+            context.put("countDistinctFunction", "approx_count_distinct(" + encodeColumnGroupValues(columnGroup) + ")");
+
+            StringWriter sw = new StringWriter();
+            DEFAULT_VELOCITY_ENGINE.evaluate(context, sw, "", INSERT_SELECT_COLUMN_GROUP_TEMPLATE);
+
+            builder.append(sw.toString());
+            builder.append(" UNION ALL ");
+        }
+
+        return builder.substring(0, builder.length() - "UNION ALL ".length());
+    }
+
+    // concat the values of all the columns into one string, each value is prefixed with its length to keep
+    // the boundaries, and the null value is encoded as 'N' to be distinct from the empty string
+    private static String encodeColumnGroupValues(List<String> columnGroup) {
+        return "CONCAT(" + columnGroup.stream()
+                .map(name -> "IFNULL(CONCAT(CAST(CHAR_LENGTH(CAST(`" + name + "` AS VARCHAR)) AS VARCHAR), ':', "
+                        + "CAST(`" + name + "` AS VARCHAR)), 'N')")
+                .collect(Collectors.joining(", ")) + ")";
+    }
+
+    private String buildColumnGroupSampleInsertSQL(Long dbId, Long tableId, List<List<String>> columnGroups,
+                                                   long rows) {
         Database db = Catalog.getCurrentCatalog().getDb(dbId);
         OlapTable table = (OlapTable) db.getTable(tableId);
 
+        SampleTablets sampleTablets = chooseSampleTablets(table, rows);
+        if (sampleTablets == null) {
+            // can't fill full sample rows
+            return buildColumnGroupInsertSQL(dbId, tableId, columnGroups);
+        }
+
+        StringBuilder builder = new StringBuilder(INSERT_STATISTIC_TEMPLATE).append(" ");
+
+        for (List<String> columnGroup : columnGroups) {
+            VelocityContext context = new VelocityContext();
+
+            context.put("dbId", dbId);
+            context.put("tableId", tableId);
+            context.put("columnName", ColumnGroupStatistic.encodeName(columnGroup));
+            context.put("dbName", db.getFullName());
+            context.put("tableName", ClusterNamespace.getNameFromFullName(db.getFullName()) + "." + table.getName());
+            context.put("columns", columnGroup.stream().map(name -> "`" + name + "`")
+                    .collect(Collectors.joining(", ")));
+            context.put("ratio", sampleTablets.ratio);
+            context.put("hints", sampleTablets.hints);
+            context.put("countDistinctFunction", sampleDistinctCountFunction(sampleTablets.totalRows));
+
+            StringWriter sw = new StringWriter();
+            DEFAULT_VELOCITY_ENGINE.evaluate(context, sw, "", INSERT_SELECT_COLUMN_GROUP_SAMPLE_TEMPLATE);
+
+            builder.append(sw.toString());
+            builder.append(" UNION ALL ");
+        }
+
+        return builder.substring(0, builder.length() - "UNION ALL ".length());
+    }
+
+    private static class SampleTablets {
+        // the tablet hints and limit appended to the table name
+        private final String hints;
+        private final long ratio;
+        private final long totalRows;
+
+        private SampleTablets(String hints, long ratio, long totalRows) {
+            this.hints = hints;
+            this.ratio = ratio;
+            this.totalRows = totalRows;
+        }
+    }
+
+    // return null if the table can't fill full sample rows
+    private SampleTablets chooseSampleTablets(OlapTable table, long rows) {
         long hitRows = 1;
         long totalRows = 0;
         long totalTablet = 0;
@@ -429,13 +558,39 @@ public class StatisticExecutor {
         // all hit, direct full
         String hintTablets;
         if (randomTablets.isEmpty() || totalRows < rows) {
-            // can't fill full sample rows
-            return buildFullInsertSQL(dbId, tableId, columnNames);
+            return null;
         } else if (randomTablets.size() == totalTablet) {
             hintTablets = " LIMIT " + rows;
         } else {
             hintTablets = " Tablet(" + String.join(", ", randomTablets) + ")" + " LIMIT " + rows;
         }
+        return new SampleTablets(hintTablets, ratio, totalRows);
+    }
+
+    // From PostgreSQL and paper: ESTIMATING THE NUMBER OF CLASSES IN A FINITE POPULATION
+    // (http://citeseerx.ist.psu.edu/viewdoc/download?doi=10.1.1.93.8637&rep=rep1&type=pdf)
+    // sample_row * count_distinct / ( sample_row - once_count + once_count * sample_row / total_row)
+    private static String sampleDistinctCountFunction(long totalRows) {
+        String sampleRows = "SUM(t1.count)";
+        String onceCount = "SUM(IF(t1.count = 1, 1, 0))";
+        String countDistinct = "COUNT(1)";
+
+        String fn = MessageFormat.format("{0} * {1} / ({0} - {2} + {2} * {0} / {3})", sampleRows,
+                countDistinct, onceCount, String.valueOf(totalRows));
+        return "IFNULL(" + fn + ", COUNT(1))";
+    }
+
+    private String buildSampleInsertSQL(Long dbId, Long tableId, List<String> columnNames, long rows) {
+        Database db = Catalog.getCurrentCatalog().getDb(dbId);
+        OlapTable table = (OlapTable) db.getTable(tableId);
+
+        SampleTablets sampleTablets = chooseSampleTablets(table, rows);
+        if (sampleTablets == null) {
+            // can't fill full sample rows
+            return buildFullInsertSQL(dbId, tableId, columnNames);
+        }
+        long ratio = sampleTablets.ratio;
+        String hintTablets = sampleTablets.hints;
 
         StringBuilder builder = new StringBuilder(INSERT_STATISTIC_TEMPLATE).append(" ");
 
@@ -459,16 +614,7 @@ public class StatisticExecutor {
             if (lowerDistributeColumns.size() == 1 && lowerDistributeColumns.contains(name.toLowerCase())) {
                 context.put("countDistinctFunction", "COUNT(1) * " + ratio);
             } else {
-                // From PostgreSQL and paper: ESTIMATING THE NUMBER OF CLASSES IN A FINITE POPULATION
-                // (http://citeseerx.ist.psu.edu/viewdoc/download?doi=10.1.1.93.8637&rep=rep1&type=pdf)
-                // sample_row * count_distinct / ( sample_row - once_count + once_count * sample_row / total_row)
-                String sampleRows = "SUM(t1.count)";
-                String onceCount = "SUM(IF(t1.count = 1, 1, 0))";
-                String countDistinct = "COUNT(1)";
-
-                String fn = MessageFormat.format("{0} * {1} / ({0} - {2} + {2} * {0} / {3})", sampleRows,
-                        countDistinct, onceCount, String.valueOf(totalRows));
-                context.put("countDistinctFunction", "IFNULL(" + fn + ", COUNT(1))");
+                context.put("countDistinctFunction", sampleDistinctCountFunction(sampleTablets.totalRows));
             }
 
             StringWriter sw = new StringWriter();
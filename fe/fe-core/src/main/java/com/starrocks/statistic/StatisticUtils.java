@@ -3,15 +3,24 @@
 package com.starrocks.statistic;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.starrocks.analysis.UserIdentity;
 import com.starrocks.catalog.Catalog;
+import com.starrocks.catalog.Column;
 import com.starrocks.catalog.Database;
+import com.starrocks.catalog.KeysType;
+import com.starrocks.catalog.OlapTable;
 import com.starrocks.catalog.Table;
+import com.starrocks.common.Config;
 import com.starrocks.common.util.UUIDUtil;
 import com.starrocks.qe.ConnectContext;
 import com.starrocks.system.SystemInfoService;
 
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 public class StatisticUtils {
     private static final List<String> COLLECT_DATABASES_BLACKLIST = ImmutableList.<String>builder()
@@ -68,4 +77,40 @@ public class StatisticUtils {
         return false;
     }
 
+    // The column groups to collect joint statistics, which are the groups specified by users and the
+    // multi-column distribution keys and unique keys, whose columns are all in the collected columns
+    public static List<List<String>> getColumnGroups(OlapTable table, List<String> columns,
+                                                     List<List<String>> specifiedGroups) {
+        List<List<String>> candidates = Lists.newArrayList(specifiedGroups);
+        if (Config.enable_statistic_collect_column_group) {
+            Set<String> distributionColumns = Sets.newTreeSet(String.CASE_INSENSITIVE_ORDER);
+            distributionColumns.addAll(table.getDistributionColumnNames());
+            candidates.add(table.getBaseSchema().stream().map(Column::getName)
+                    .filter(distributionColumns::contains).collect(Collectors.toList()));
+
+            if (table.getKeysType() == KeysType.UNIQUE_KEYS || table.getKeysType() == KeysType.PRIMARY_KEYS) {
+                candidates.add(table.getBaseSchema().stream().filter(Column::isKey).map(Column::getName)
+                        .collect(Collectors.toList()));
+            }
+        }
+
+        Set<String> collectedColumns = Sets.newTreeSet(String.CASE_INSENSITIVE_ORDER);
+        collectedColumns.addAll(columns);
+        Set<Set<String>> mentionedGroups = Sets.newHashSet();
+        List<List<String>> columnGroups = Lists.newArrayList();
+        for (List<String> group : candidates) {
+            if (group.size() < 2 || !collectedColumns.containsAll(group)) {
+                continue;
+            }
+            if (group.stream().map(table::getColumn).anyMatch(c -> c == null || c.getType().isOnlyMetricType())) {
+                continue;
+            }
+            Set<String> lowerGroup =
+                    group.stream().map(String::toLowerCase).collect(Collectors.toCollection(TreeSet::new));
+            if (mentionedGroups.add(lowerGroup)) {
+                columnGroups.add(group);
+            }
+        }
+        return columnGroups;
+    }
 }
@@ -0,0 +1,137 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.backup;
+
+import com.starrocks.backup.Status.ErrCode;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MultipartTransferTest {
+    private static final long PART_SIZE = 1024 * 1024;
+
+    private File workDir;
+    private File srcFile;
+    private File destFile;
+
+    @Before
+    public void setUp() throws IOException {
+        workDir = Files.createTempDirectory("multipart_transfer").toFile();
+        srcFile = new File(workDir, "src");
+        destFile = new File(workDir, "dest");
+
+        byte[] content = new byte[(int) (PART_SIZE * 5 + 12345)];
+        new Random(1).nextBytes(content);
+        Files.write(srcFile.toPath(), content);
+        try (RandomAccessFile raf = new RandomAccessFile(destFile, "rw")) {
+            raf.setLength(content.length);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        destFile.delete();
+        srcFile.delete();
+        workDir.delete();
+    }
+
+    // copy the part from src file to dest file, like downloading the part with broker
+    private Status copyPart(long offset, long length) {
+        try (RandomAccessFile in = new RandomAccessFile(srcFile, "r");
+                RandomAccessFile out = new RandomAccessFile(destFile, "rw")) {
+            byte[] buf = new byte[(int) length];
+            in.seek(offset);
+            in.readFully(buf);
+            out.seek(offset);
+            out.write(buf);
+            return Status.OK;
+        } catch (IOException e) {
+            return new Status(ErrCode.COMMON_ERROR, e.getMessage());
+        }
+    }
+
+    @Test
+    public void testProgress() {
+        BlobTransferProgress progress = new BlobTransferProgress("file", PART_SIZE * 2 + 1, PART_SIZE);
+        Assert.assertEquals(3, progress.getPartNum());
+        Assert.assertEquals(PART_SIZE * 2, progress.getPartOffset(2));
+        Assert.assertEquals(1, progress.getPartLength(2));
+
+        progress.finishPart(2);
+        Assert.assertTrue(progress.isPartFinished(2));
+        Assert.assertEquals(1, progress.getFinishedBytes());
+        Assert.assertFalse(progress.isFinished());
+
+        BlobTransferProgress empty = new BlobTransferProgress("empty", 0, PART_SIZE);
+        Assert.assertEquals(1, empty.getPartNum());
+        Assert.assertEquals(0, empty.getPartLength(0));
+    }
+
+    @Test
+    public void testParallelTransferWithRetry() throws IOException {
+        BlobTransferProgress progress = new BlobTransferProgress(srcFile.getPath(), srcFile.length(), PART_SIZE);
+        ConcurrentHashMap<Integer, AtomicInteger> tryTimes = new ConcurrentHashMap<>();
+        MultipartTransfer transfer = new MultipartTransfer(progress, 4, 3, (partIdx, offset, length) -> {
+            int times = tryTimes.computeIfAbsent(partIdx, k -> new AtomicInteger()).incrementAndGet();
+            if (partIdx == 3 && times == 1) {
+                return new Status(ErrCode.BAD_CONNECTION, "injected failure");
+            }
+            return copyPart(offset, length);
+        });
+
+        Status st = transfer.run();
+        Assert.assertTrue(st.getErrMsg(), st.ok());
+        Assert.assertTrue(progress.isFinished());
+        Assert.assertEquals(srcFile.length(), progress.getFinishedBytes());
+        Assert.assertEquals(2, tryTimes.get(3).get());
+        Assert.assertEquals(1, tryTimes.get(0).get());
+
+        Assert.assertArrayEquals(Files.readAllBytes(srcFile.toPath()), Files.readAllBytes(destFile.toPath()));
+    }
+
+    @Test
+    public void testSkipFinishedParts() {
+        BlobTransferProgress progress = new BlobTransferProgress(srcFile.getPath(), srcFile.length(), PART_SIZE);
+        progress.finishPart(0);
+        progress.finishPart(1);
+        AtomicInteger transferred = new AtomicInteger();
+        MultipartTransfer transfer = new MultipartTransfer(progress, 2, 0, (partIdx, offset, length) -> {
+            Assert.assertTrue(partIdx > 1);
+            transferred.incrementAndGet();
+            return copyPart(offset, length);
+        });
+
+        Assert.assertTrue(transfer.run().ok());
+        Assert.assertEquals(progress.getPartNum() - 2, transferred.get());
+        Assert.assertTrue(progress.isFinished());
+    }
+
+    @Test
+    public void testFailAfterRetry() {
+        BlobTransferProgress progress = new BlobTransferProgress(srcFile.getPath(), srcFile.length(), PART_SIZE);
+        AtomicInteger failedTimes = new AtomicInteger();
+        MultipartTransfer transfer = new MultipartTransfer(progress, 1, 2, (partIdx, offset, length) -> {
+            if (partIdx == 1) {
+                failedTimes.incrementAndGet();
+                return new Status(ErrCode.COMMON_ERROR, "injected failure");
+            }
+            return copyPart(offset, length);
+        });
+
+        Status st = transfer.run();
+        Assert.assertFalse(st.ok());
+        Assert.assertEquals("injected failure", st.getErrMsg());
+        Assert.assertEquals(3, failedTimes.get());
+        Assert.assertTrue(progress.isPartFinished(0));
+        Assert.assertFalse(progress.isPartFinished(2));
+    }
+}
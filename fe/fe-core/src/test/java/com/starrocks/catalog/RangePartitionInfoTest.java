@@ -22,18 +22,26 @@
 package com.starrocks.catalog;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.starrocks.analysis.IntLiteral;
 import com.starrocks.analysis.PartitionKeyDesc;
 import com.starrocks.analysis.PartitionKeyDesc.PartitionRangeType;
 import com.starrocks.analysis.PartitionValue;
 import com.starrocks.analysis.SingleRangePartitionDesc;
 import com.starrocks.common.AnalysisException;
 import com.starrocks.common.DdlException;
+import com.starrocks.planner.PartitionColumnFilter;
+import com.starrocks.planner.RangePartitionPruner;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 public class RangePartitionInfoTest {
 
@@ -347,4 +355,46 @@ public class RangePartitionInfoTest {
         }
     }
 
+    @Test
+    public void testRangeIndex() throws DdlException, AnalysisException {
+        Column k1 = new Column("k1", new ScalarType(PrimitiveType.INT), true, null, "", "");
+        partitionColumns.add(k1);
+        partitionInfo = new RangePartitionInfo(partitionColumns);
+        // [0, 10), [10, 20), [20, 30)
+        for (int i = 0; i < 3; i++) {
+            PartitionKeyDesc keyDesc = new PartitionKeyDesc(
+                    Lists.newArrayList(new PartitionValue(String.valueOf(i * 10))),
+                    Lists.newArrayList(new PartitionValue(String.valueOf((i + 1) * 10))));
+            SingleRangePartitionDesc desc = new SingleRangePartitionDesc(false, "p" + i, keyDesc, null);
+            desc.analyze(1, null);
+            partitionInfo.handleNewSinglePartitionDesc(desc, 20000L + i, false);
+        }
+
+        PartitionRangeIndex index = partitionInfo.getRangeIndex();
+        Assert.assertEquals(3, index.size());
+        // shared until the ranges are changed
+        Assert.assertSame(index, partitionInfo.getRangeIndex());
+
+        PartitionColumnFilter filter = new PartitionColumnFilter();
+        filter.setInPredicateLiterals(Lists.newArrayList(new IntLiteral(5, Type.INT), new IntLiteral(25, Type.INT),
+                new IntLiteral(30, Type.INT)));
+        Map<String, PartitionColumnFilter> filters = Maps.newHashMap();
+        filters.put("k1", filter);
+        Collection<Long> partitionIds = new RangePartitionPruner(index, partitionColumns, filters).prune();
+        Assert.assertEquals(Sets.newHashSet(20000L, 20002L), Sets.newHashSet(partitionIds));
+
+        // temp partitions are not indexed
+        partitionInfo.setRange(30000L, true, partitionInfo.getRange(20002L));
+        Assert.assertSame(index, partitionInfo.getRangeIndex());
+
+        partitionInfo.dropPartition(20002L);
+        PartitionRangeIndex newIndex = partitionInfo.getRangeIndex();
+        Assert.assertNotSame(index, newIndex);
+        Assert.assertEquals(2, newIndex.size());
+        partitionIds = new RangePartitionPruner(newIndex, partitionColumns, filters).prune();
+        Assert.assertEquals(Sets.newHashSet(20000L), Sets.newHashSet(partitionIds));
+
+        partitionInfo.moveRangeFromTempToFormal(30000L);
+        Assert.assertEquals(3, partitionInfo.getRangeIndex().size());
+    }
 }
@@ -33,6 +33,7 @@ import com.starrocks.analysis.ShowTabletStmt;
 import com.starrocks.analysis.TruncateTableStmt;
 import com.starrocks.catalog.MaterializedIndex.IndexExtState;
 import com.starrocks.common.AnalysisException;
+import com.starrocks.common.DdlException;
 import com.starrocks.common.FeConstants;
 import com.starrocks.common.FeMetaVersion;
 import com.starrocks.common.jmockit.Deencapsulation;
@@ -560,6 +561,42 @@ public class TempPartitionTest {
         checkShowPartitionsResultNum("db3.tbl3", true, 0);
     }
 
+    @Test
+    public void testForUnpartitionedTempPartition() throws Exception {
+        starRocksAssert.withDatabase("db4").useDatabase("db4").withTable(
+                "create table db4.tbl4(k1 int) distributed by hash(k1) buckets 3 properties('replication_num' = '1');");
+        Database db4 = Catalog.getCurrentCatalog().getDb("default_cluster:db4");
+        OlapTable tbl4 = (OlapTable) db4.getTable("tbl4");
+        long oldPartitionId = tbl4.getPartition("tbl4").getId();
+
+        Catalog.getCurrentCatalog().addUnpartitionedTempPartition(db4, "tbl4", "tp1");
+        checkShowPartitionsResultNum("db4.tbl4", true, 1);
+        checkPartitionExist(tbl4, "tp1", true, true);
+        Assert.assertEquals(3, tbl4.getPartition("tp1", true).getDistributionInfo().getBucketNum());
+        testSerializeOlapTable(tbl4);
+
+        // the temp partition can be dropped and added again
+        alterTable("alter table db4.tbl4 drop temporary partition tp1", false);
+        checkShowPartitionsResultNum("db4.tbl4", true, 0);
+        Catalog.getCurrentCatalog().addUnpartitionedTempPartition(db4, "tbl4", "tp1");
+        try {
+            Catalog.getCurrentCatalog().addUnpartitionedTempPartition(db4, "tbl4", "tp1");
+            Assert.fail("expected exception not thrown");
+        } catch (DdlException e) {
+            System.out.println("got exception: " + e.getMessage());
+        }
+        long tempPartitionId = tbl4.getPartition("tp1", true).getId();
+
+        // the formal partition is replaced, and keeps its name
+        alterTable("alter table db4.tbl4 replace partition (tbl4) with temporary partition(tp1)", false);
+        checkShowPartitionsResultNum("db4.tbl4", false, 1);
+        checkShowPartitionsResultNum("db4.tbl4", true, 0);
+        Assert.assertEquals(tempPartitionId, tbl4.getPartition("tbl4").getId());
+        Assert.assertNull(tbl4.getPartition(oldPartitionId));
+        Assert.assertNotNull(tbl4.getPartitionInfo().getDataProperty(tempPartitionId));
+        Assert.assertNull(tbl4.getPartitionInfo().getDataProperty(oldPartitionId));
+    }
+
     private void testSerializeOlapTable(OlapTable tbl) throws IOException, AnalysisException {
         // 1. Write objects to file
         File file = new File(tempPartitionFile);
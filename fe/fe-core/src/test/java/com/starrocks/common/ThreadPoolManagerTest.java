@@ -27,6 +27,8 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadPoolExecutor;
 
 public class ThreadPoolManagerTest {
@@ -88,4 +90,25 @@ public class ThreadPoolManagerTest {
         Assert.assertEquals(4, testFixedThreaddPool.getCompletedTaskCount());
 
     }
+
+    @Test
+    public void testVirtualThreadPool() throws Exception {
+        ExecutorService pool = ThreadPoolManager.newDaemonCacheOrVirtualThreadPool(2, "test_virtual_pool",
+                false, true);
+        Future<String> threadName = pool.submit(() -> Thread.currentThread().getName());
+        Assert.assertTrue(threadName.get().startsWith("test_virtual_pool-"));
+        if (ThreadPoolManager.isVirtualThreadSupported()) {
+            Assert.assertFalse(pool instanceof ThreadPoolExecutor);
+        } else {
+            // fall back to the platform threads
+            Assert.assertTrue(pool instanceof ThreadPoolExecutor);
+            Assert.assertEquals(2, ((ThreadPoolExecutor) pool).getMaximumPoolSize());
+        }
+        pool.shutdown();
+
+        ExecutorService platformPool = ThreadPoolManager.newDaemonCacheOrVirtualThreadPool(2, "test_platform_pool",
+                false, false);
+        Assert.assertTrue(platformPool instanceof ThreadPoolExecutor);
+        platformPool.shutdown();
+    }
 }
@@ -0,0 +1,81 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.common.util;
+
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RingBufferTest {
+
+    @Test
+    public void testOfferAndPoll() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(5);
+        Assert.assertEquals(8, buffer.capacity());
+        Assert.assertTrue(buffer.isEmpty());
+        Assert.assertNull(buffer.poll());
+
+        for (int i = 0; i < 8; i++) {
+            Assert.assertTrue(buffer.offer(i));
+        }
+        Assert.assertFalse(buffer.offer(8));
+        Assert.assertEquals(8, buffer.size());
+
+        Assert.assertEquals(0, (int) buffer.poll());
+        Assert.assertTrue(buffer.offer(8));
+
+        List<Integer> list = Lists.newArrayList();
+        Assert.assertEquals(5, buffer.drainTo(list, 5));
+        Assert.assertEquals(Lists.newArrayList(1, 2, 3, 4, 5), list);
+        list.clear();
+        Assert.assertEquals(3, buffer.drainTo(list, 100));
+        Assert.assertEquals(Lists.newArrayList(6, 7, 8), list);
+        Assert.assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void testConcurrentProducersAndConsumers() throws InterruptedException {
+        final int threadNum = 4;
+        final int elementNumPerThread = 100000;
+        RingBuffer<Long> buffer = new RingBuffer<>(1024);
+        AtomicLong sum = new AtomicLong(0);
+        AtomicLong consumedNum = new AtomicLong(0);
+
+        List<Thread> threads = Lists.newArrayList();
+        for (int i = 0; i < threadNum; i++) {
+            final long base = (long) i * elementNumPerThread;
+            threads.add(new Thread(() -> {
+                for (long j = 0; j < elementNumPerThread; j++) {
+                    while (!buffer.offer(base + j)) {
+                        Thread.yield();
+                    }
+                }
+            }));
+            threads.add(new Thread(() -> {
+                while (consumedNum.get() < (long) threadNum * elementNumPerThread) {
+                    Long element = buffer.poll();
+                    if (element == null) {
+                        Thread.yield();
+                        continue;
+                    }
+                    sum.addAndGet(element);
+                    consumedNum.incrementAndGet();
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long n = (long) threadNum * elementNumPerThread;
+        Assert.assertEquals(n, consumedNum.get());
+        Assert.assertEquals(n * (n - 1) / 2, sum.get());
+        Assert.assertTrue(buffer.isEmpty());
+    }
+}
@@ -24,6 +24,7 @@ package com.starrocks.common.util;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.starrocks.common.Config;
 import com.starrocks.thrift.TCounter;
 import com.starrocks.thrift.TRuntimeProfileNode;
 import com.starrocks.thrift.TRuntimeProfileTree;
@@ -31,9 +32,15 @@ import com.starrocks.thrift.TUnit;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Set;
 
 public class RuntimeProfileTest {
@@ -176,4 +183,132 @@ public class RuntimeProfileTest {
         profile.computeTimeInProfile();
         profile.prettyPrint(builder, "");
     }
+
+    private static RuntimeProfile createQueryProfile(String queryId, long... instanceRows) {
+        RuntimeProfile queryProfile = new RuntimeProfile("Query");
+        RuntimeProfile summaryProfile = new RuntimeProfile("Summary");
+        summaryProfile.addInfoString(ProfileManager.QUERY_ID, queryId);
+        summaryProfile.addInfoString(ProfileManager.SQL_STATEMENT, "select * from t");
+        queryProfile.addChild(summaryProfile);
+
+        RuntimeProfile executionProfile = new RuntimeProfile("Execution Profile " + queryId);
+        RuntimeProfile fragmentProfile = new RuntimeProfile("Fragment 0");
+        for (int i = 0; i < instanceRows.length; i++) {
+            RuntimeProfile instanceProfile = new RuntimeProfile("Instance " + i + " (host=host" + i + ")");
+            instanceProfile.getCounterTotalTime().setValue(instanceRows[i] * 10);
+            RuntimeProfile scanProfile = new RuntimeProfile("OLAP_SCAN_NODE (id=0)");
+            scanProfile.addCounter("RowsRead", TUnit.UNIT, "").setValue(instanceRows[i]);
+            scanProfile.addCounter("BytesRead", TUnit.BYTES, "RowsRead").setValue(instanceRows[i] * 8);
+            instanceProfile.addChild(scanProfile);
+            fragmentProfile.addChild(instanceProfile);
+        }
+        executionProfile.addChild(fragmentProfile);
+        queryProfile.addChild(executionProfile);
+        return queryProfile;
+    }
+
+    @Test
+    public void testWriteRead() throws IOException {
+        RuntimeProfile profile = createQueryProfile("query1", 10, 20, 30);
+        profile.getChildList().get(0).first.addInfoString("NullInfo", null);
+        profile.computeTimeInChildProfile();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        profile.write(new DataOutputStream(bytes));
+        RuntimeProfile readProfile = RuntimeProfile.read(new DataInputStream(
+                new ByteArrayInputStream(bytes.toByteArray())));
+
+        Assert.assertEquals(profile.toString(), readProfile.toString());
+        Assert.assertNull(readProfile.getChildList().get(0).first.getInfoString("NullInfo"));
+        RuntimeProfile scanProfile = readProfile.getChildList().get(1).first.getChildList().get(0).first
+                .getChildList().get(0).first.getChildList().get(0).first;
+        Assert.assertEquals(Sets.newHashSet("BytesRead"), scanProfile.getChildCounterNames("RowsRead"));
+    }
+
+    @Test
+    public void testMergedProfile() {
+        MergedProfile mergedProfile = MergedProfile.merge(createQueryProfile("query1", 10, 20, 60));
+        Assert.assertEquals(1, mergedProfile.getFragments().size());
+
+        MergedProfile.Node fragment = mergedProfile.getFragments().get(0);
+        Assert.assertEquals(3, fragment.getInstanceNum());
+        Assert.assertEquals(600, fragment.getCounters().get("TotalTime").getMax());
+
+        MergedProfile.Node scan = fragment.getChildren().get("OLAP_SCAN_NODE (id=0)");
+        Assert.assertEquals(3, scan.getInstanceNum());
+        MergedProfile.CounterStat rowsRead = scan.getCounters().get("RowsRead");
+        Assert.assertEquals(10, rowsRead.getMin());
+        Assert.assertEquals(60, rowsRead.getMax());
+        Assert.assertEquals(90, rowsRead.getSum());
+        Assert.assertEquals(2.0, rowsRead.getSkew(), 0.001);
+        Assert.assertEquals(720, scan.getCounters().get("BytesRead").getSum());
+
+        List<List<String>> rows = mergedProfile.toRows();
+        Assert.assertTrue(rows.stream().allMatch(row -> row.size() == MergedProfile.TITLE_NAMES.size()));
+        Assert.assertTrue(rows.stream().anyMatch(row -> row.get(1).equals("OLAP_SCAN_NODE (id=0)")
+                && row.get(2).equals("RowsRead") && row.get(6).equals("2.00")));
+    }
+
+    @Test
+    public void testProfileManagerBudget() {
+        long oldBudget = Config.profile_store_memory_budget_bytes;
+        boolean oldSpill = Config.enable_profile_spill;
+        try {
+            Config.enable_profile_spill = false;
+            Config.profile_store_memory_budget_bytes = 1;
+            ProfileManager manager = ProfileManager.getInstance();
+            manager.pushProfile(createQueryProfile("budget_query1", 1, 2));
+            manager.pushProfile(createQueryProfile("budget_query2", 3, 4));
+
+            // only the latest profile is kept
+            Assert.assertNull(manager.getProfile("budget_query1"));
+            RuntimeProfile profile = createQueryProfile("budget_query2", 3, 4);
+            Assert.assertEquals(profile.toString(), manager.getProfile("budget_query2"));
+            Assert.assertEquals(2, manager.getMergedProfile("budget_query2").getFragments().get(0).getInstanceNum());
+            Assert.assertEquals("budget_query2", manager.getAllQueries().get(0).get(0));
+        } finally {
+            Config.profile_store_memory_budget_bytes = oldBudget;
+            Config.enable_profile_spill = oldSpill;
+        }
+    }
+
+    @Test
+    public void testProfileManagerSpill() {
+        long oldBudget = Config.profile_store_memory_budget_bytes;
+        long oldSpillMaxBytes = Config.profile_spill_max_bytes;
+        boolean oldSpill = Config.enable_profile_spill;
+        try {
+            Config.enable_profile_spill = true;
+            Config.profile_store_memory_budget_bytes = 1;
+            Config.profile_spill_max_bytes = Long.MAX_VALUE;
+            ProfileManager manager = ProfileManager.getInstance();
+            manager.pushProfile(createQueryProfile("spill_query1", 1, 2));
+            manager.pushProfile(createQueryProfile("spill_query2", 3, 4));
+
+            // the older profile is spilled, and read back from the file
+            File spillFile = new File(Config.tmp_dir, "profile/spill_query1.profile");
+            Assert.assertTrue(spillFile.exists());
+            Assert.assertEquals(createQueryProfile("spill_query1", 1, 2).toString(),
+                    manager.getProfile("spill_query1"));
+            Assert.assertEquals(createQueryProfile("spill_query2", 3, 4).toString(),
+                    manager.getProfile("spill_query2"));
+            List<String> spilledRow = manager.getAllQueriesWithStorage().stream()
+                    .filter(row -> row.get(0).equals("spill_query1")).findFirst().get();
+            Assert.assertEquals("true", spilledRow.get(spilledRow.size() - 1));
+
+            // the spilled profiles exceeding profile_spill_max_bytes are deleted
+            Config.profile_spill_max_bytes = 0;
+            manager.pushProfile(createQueryProfile("spill_query3", 5, 6));
+            Assert.assertFalse(spillFile.exists());
+            Assert.assertFalse(new File(Config.tmp_dir, "profile/spill_query2.profile").exists());
+            Assert.assertNull(manager.getProfile("spill_query1"));
+            Assert.assertNull(manager.getProfile("spill_query2"));
+            Assert.assertEquals(createQueryProfile("spill_query3", 5, 6).toString(),
+                    manager.getProfile("spill_query3"));
+        } finally {
+            Config.profile_store_memory_budget_bytes = oldBudget;
+            Config.profile_spill_max_bytes = oldSpillMaxBytes;
+            Config.enable_profile_spill = oldSpill;
+        }
+    }
 }
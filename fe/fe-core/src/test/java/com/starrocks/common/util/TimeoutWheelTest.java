@@ -0,0 +1,111 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.common.util;
+
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+
+public class TimeoutWheelTest {
+    private static final long TICK_MS = 1000;
+
+    private final List<String> expired = Lists.newArrayList();
+
+    private TimeoutWheel<String> createWheel(int slotNum) {
+        return new TimeoutWheel<>(TICK_MS, slotNum, 0, (item, nowMs) -> {
+            expired.add(item + "@" + nowMs);
+            return -1;
+        });
+    }
+
+    @Test
+    public void testExpire() {
+        TimeoutWheel<String> wheel = createWheel(8);
+        wheel.add("a", 2500);
+        wheel.add("b", 3000);
+        // farther than a round
+        wheel.add("c", 20500);
+
+        wheel.advance(2999);
+        Assert.assertTrue(expired.isEmpty());
+        wheel.advance(3000);
+        Assert.assertEquals(Lists.newArrayList("a@3000", "b@3000"), expired);
+
+        expired.clear();
+        wheel.advance(20000);
+        Assert.assertTrue(expired.isEmpty());
+        wheel.advance(21000);
+        Assert.assertEquals(Lists.newArrayList("c@21000"), expired);
+
+        // removed from the wheel
+        expired.clear();
+        wheel.advance(100000);
+        Assert.assertTrue(expired.isEmpty());
+    }
+
+    @Test
+    public void testReschedule() {
+        TimeoutWheel<String> wheel = createWheel(8);
+        TimeoutWheel.Entry<String> later = wheel.add("later", 2000);
+        TimeoutWheel.Entry<String> earlier = wheel.add("earlier", 30000);
+        TimeoutWheel.Entry<String> removed = wheel.add("removed", 2000);
+        wheel.advance(1000);
+
+        wheel.reschedule(later, 5000);
+        wheel.reschedule(earlier, 3000);
+        wheel.remove(removed);
+        wheel.advance(3000);
+        Assert.assertEquals(Lists.newArrayList("earlier@3000"), expired);
+
+        expired.clear();
+        wheel.advance(4999);
+        Assert.assertTrue(expired.isEmpty());
+        wheel.advance(5000);
+        Assert.assertEquals(Lists.newArrayList("later@5000"), expired);
+
+        expired.clear();
+        wheel.advance(100000);
+        Assert.assertTrue(expired.isEmpty());
+    }
+
+    @Test
+    public void testHandlerReschedule() {
+        List<Long> expireTimes = Lists.newArrayList();
+        TimeoutWheel<String> wheel = new TimeoutWheel<>(TICK_MS, 4, 0, (item, nowMs) -> {
+            expireTimes.add(nowMs);
+            // check again after 5s until 3 times
+            return expireTimes.size() < 3 ? nowMs + 5000 : -1;
+        });
+        wheel.add("a", 1000);
+        for (long now = 0; now <= 30000; now += 500) {
+            wheel.advance(now);
+        }
+        Assert.assertEquals(Lists.newArrayList(1000L, 6000L, 11000L), expireTimes);
+    }
+
+    @Test
+    public void testRemovedItemReleased() {
+        TimeoutWheel<Object> wheel = new TimeoutWheel<>(TICK_MS, 8, 0, (item, nowMs) -> {
+            Assert.fail("removed item expired");
+            return -1;
+        });
+        Object item = new Object();
+        WeakReference<Object> itemRef = new WeakReference<>(item);
+        TimeoutWheel.Entry<Object> entry = wheel.add(item, 300000);
+        wheel.advance(1000);
+
+        // the entry is still in its slot, but doesn't hold the item
+        wheel.remove(entry);
+        Assert.assertNull(entry.getItem());
+        item = null;
+        for (int i = 0; i < 10 && itemRef.get() != null; i++) {
+            System.gc();
+        }
+        Assert.assertNull(itemRef.get());
+
+        wheel.advance(400000);
+    }
+}
@@ -0,0 +1,132 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.external.elasticsearch;
+
+import com.starrocks.analysis.TupleDescriptor;
+import com.starrocks.analysis.TupleId;
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.EsTable;
+import com.starrocks.catalog.Type;
+import com.starrocks.common.Config;
+import com.starrocks.planner.EsScanNode;
+import com.starrocks.planner.PlanNodeId;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class EsSlicedScrollTest extends EsTestCase {
+
+    // a mock ES http server, which responds the json files for the paths
+    private HttpServer server;
+
+    @Before
+    public void startServer() throws Exception {
+        Map<String, String> responses = new HashMap<>();
+        responses.put("/_nodes/http", loadJsonFromFile("data/es/test_nodes_http.json"));
+        responses.put("/doe/_search_shards", loadJsonFromFile("data/es/test_search_shards.json"));
+        responses.put("/doe/_stats/docs", loadJsonFromFile("data/es/test_shard_stats.json"));
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            String response = responses.get(exchange.getRequestURI().getPath());
+            if (response == null) {
+                exchange.sendResponseHeaders(404, -1);
+            } else {
+                byte[] body = response.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(body);
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    private EsTable createTable(String version, String maxDocsPerSlice) throws Exception {
+        List<Column> columns = new ArrayList<>();
+        columns.add(new Column("k1", Type.BIGINT));
+        Map<String, String> props = new HashMap<>();
+        props.put(EsTable.HOSTS, "127.0.0.1:" + server.getAddress().getPort());
+        props.put(EsTable.INDEX, "doe");
+        props.put(EsTable.TYPE, "doc");
+        props.put(EsTable.VERSION, version);
+        if (maxDocsPerSlice != null) {
+            props.put(EsTable.MAX_DOCS_PER_SLICE, maxDocsPerSlice);
+        }
+        return new EsTable(new Random().nextLong(), "doe", columns, props, null);
+    }
+
+    private Map<Integer, Long> fetchDocCounts(EsTable table) throws Exception {
+        EsRestClient client = new EsRestClient(new String[] {"127.0.0.1:" + server.getAddress().getPort()}, null, null);
+        SearchContext context = new SearchContext(table);
+        context.version(table.esVersion());
+        PartitionPhase partitionPhase = new PartitionPhase(client);
+        partitionPhase.execute(context);
+        partitionPhase.postProcess(context);
+
+        Map<Integer, Long> docCounts = new HashMap<>();
+        for (List<EsShardRouting> routings : context.partitions().getShardRoutings().values()) {
+            docCounts.put(routings.get(0).getShardId(), routings.get(0).getDocCount());
+        }
+        return docCounts;
+    }
+
+    @Test
+    public void testFetchDocCounts() throws Exception {
+        Map<Integer, Long> docCounts = fetchDocCounts(createTable("7.10.1", null));
+        Assert.assertEquals(5, docCounts.size());
+        // the doc count of primary shard
+        Assert.assertEquals(12000000L, (long) docCounts.get(0));
+        Assert.assertEquals(1000000L, (long) docCounts.get(1));
+        Assert.assertEquals(0L, (long) docCounts.get(2));
+        Assert.assertEquals(100000000L, (long) docCounts.get(4));
+
+        // sliced scroll is not used before 7.x
+        docCounts = fetchDocCounts(createTable("6.5.3", null));
+        Assert.assertEquals(-1L, (long) docCounts.get(0));
+
+        // disabled
+        docCounts = fetchDocCounts(createTable("7.10.1", "0"));
+        Assert.assertEquals(-1L, (long) docCounts.get(0));
+    }
+
+    @Test
+    public void testSliceNum() throws Exception {
+        EsTable table = createTable("7.10.1", "5000000");
+        TupleDescriptor desc = new TupleDescriptor(new TupleId(0));
+        desc.setTable(table);
+        EsScanNode scanNode = new EsScanNode(new PlanNodeId(0), desc, "EsScanNode");
+
+        Assert.assertEquals(1, scanNode.computeSliceNum(-1));
+        Assert.assertEquals(1, scanNode.computeSliceNum(0));
+        Assert.assertEquals(1, scanNode.computeSliceNum(5000000));
+        Assert.assertEquals(3, scanNode.computeSliceNum(12000000));
+        Assert.assertEquals(Config.es_max_slices_per_shard, scanNode.computeSliceNum(100000000));
+
+        int maxSlices = Config.es_max_slices_per_shard;
+        Config.es_max_slices_per_shard = 1;
+        try {
+            Assert.assertEquals(1, scanNode.computeSliceNum(100000000));
+        } finally {
+            Config.es_max_slices_per_shard = maxSlices;
+        }
+    }
+}
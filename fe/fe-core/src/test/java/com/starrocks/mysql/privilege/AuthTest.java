@@ -38,6 +38,7 @@ import com.starrocks.catalog.AccessPrivilege;
 import com.starrocks.catalog.Catalog;
 import com.starrocks.catalog.DomainResolver;
 import com.starrocks.common.AnalysisException;
+import com.starrocks.common.Config;
 import com.starrocks.common.DdlException;
 import com.starrocks.common.UserException;
 import com.starrocks.mysql.MysqlPassword;
@@ -1530,4 +1531,44 @@ public class AuthTest {
                 auth.checkPassword(SystemInfoService.DEFAULT_CLUSTER + ":lisi", "192.168.8.8", new byte[0], seed,
                         currentUser));
     }
+
+    @Test
+    public void testPrivSnapshot() throws UserException {
+        UserIdentity userIdentity = new UserIdentity("wangwu", "%");
+        CreateUserStmt createUserStmt = new CreateUserStmt(false, new UserDesc(userIdentity, "12345", true), null);
+        createUserStmt.analyze(analyzer);
+        auth.createUser(createUserStmt);
+        String db1 = SystemInfoService.DEFAULT_CLUSTER + ":db1";
+        String db2 = SystemInfoService.DEFAULT_CLUSTER + ":db2";
+
+        // the checks are cached in the snapshot, they must be changed after grant and revoke
+        Assert.assertFalse(auth.checkDbPriv(userIdentity, db1, PrivPredicate.SELECT));
+        Assert.assertFalse(auth.checkTblPriv(userIdentity, db2, "tbl1", PrivPredicate.SELECT));
+        Assert.assertFalse(auth.checkDbPriv(userIdentity, db2, PrivPredicate.SHOW));
+
+        TablePattern dbPattern = new TablePattern("db%", "*");
+        dbPattern.analyze(SystemInfoService.DEFAULT_CLUSTER);
+        auth.grantPrivs(userIdentity, dbPattern, PrivBitSet.of(Privilege.SELECT_PRIV), false);
+        TablePattern tblPattern = new TablePattern("db2", "tbl1");
+        tblPattern.analyze(SystemInfoService.DEFAULT_CLUSTER);
+        auth.grantPrivs(userIdentity, tblPattern, PrivBitSet.of(Privilege.LOAD_PRIV), false);
+
+        for (boolean enableSnapshot : new boolean[] {true, false}) {
+            Config.enable_auth_priv_snapshot = enableSnapshot;
+            Assert.assertTrue(auth.checkDbPriv(userIdentity, db1, PrivPredicate.SELECT));
+            Assert.assertFalse(auth.checkDbPriv(userIdentity, "other", PrivPredicate.SELECT));
+            Assert.assertTrue(auth.checkTblPriv(userIdentity, db2, "tbl1", PrivPredicate.LOAD));
+            Assert.assertFalse(auth.checkTblPriv(userIdentity, db2, "tbl2", PrivPredicate.LOAD));
+            Assert.assertTrue(auth.checkDbPriv(userIdentity, db2, PrivPredicate.SHOW));
+            Assert.assertFalse(auth.checkGlobalPriv(userIdentity, PrivPredicate.SELECT));
+        }
+        Config.enable_auth_priv_snapshot = true;
+
+        auth.revokePrivs(userIdentity, dbPattern, PrivBitSet.of(Privilege.SELECT_PRIV), true);
+        Assert.assertFalse(auth.checkDbPriv(userIdentity, db1, PrivPredicate.SELECT));
+        Assert.assertTrue(auth.checkTblPriv(userIdentity, db2, "tbl1", PrivPredicate.LOAD));
+        auth.revokePrivs(userIdentity, tblPattern, PrivBitSet.of(Privilege.LOAD_PRIV), true);
+        Assert.assertFalse(auth.checkTblPriv(userIdentity, db2, "tbl1", PrivPredicate.LOAD));
+        Assert.assertFalse(auth.checkDbPriv(userIdentity, db2, PrivPredicate.SHOW));
+    }
 }
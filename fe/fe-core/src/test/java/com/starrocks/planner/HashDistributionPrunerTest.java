@@ -27,10 +27,14 @@ import com.google.common.collect.Sets;
 import com.starrocks.analysis.Expr;
 import com.starrocks.analysis.FunctionCallExpr;
 import com.starrocks.analysis.InPredicate;
+import com.starrocks.analysis.IntLiteral;
+import com.starrocks.analysis.LiteralExpr;
 import com.starrocks.analysis.SlotRef;
 import com.starrocks.analysis.StringLiteral;
 import com.starrocks.catalog.Column;
 import com.starrocks.catalog.Type;
+import com.starrocks.common.AnalysisException;
+import com.starrocks.common.Config;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -112,9 +116,15 @@ public class HashDistributionPrunerTest {
         filters.get("shop_type").getInPredicate().addChild(new StringLiteral("7"));
         filters.get("shop_type").getInPredicate().addChild(new StringLiteral("8"));
         filters.get("shop_type").setInPredicate(filters.get("shop_type").getInPredicate());
-        results = pruner.prune();
-        // 120 = 1 * 5 * 2 * 2 * 6 (element num of each filter) > 100
-        Assert.assertEquals(300, results.size());
+        // 156 = 1 + 1 * 5 + 1 * 5 * 2 + 1 * 5 * 2 * 2 + 1 * 5 * 2 * 2 * 6 hash computations > 100
+        int maxHashNum = Config.max_distribution_pruner_hash_num;
+        Config.max_distribution_pruner_hash_num = 100;
+        try {
+            results = pruner.prune();
+            Assert.assertEquals(300, results.size());
+        } finally {
+            Config.max_distribution_pruner_hash_num = maxHashNum;
+        }
 
         // check hash conflict
         inList4.add(new StringLiteral("4"));
@@ -179,4 +189,85 @@ public class HashDistributionPrunerTest {
         Assert.assertEquals(tabletIds.size(), results.size());
     }
 
+
+    // the buckets of the keys computed one by one by HashDistributionKey
+    private static Set<Long> bruteForcePrune(List<Long> tabletIds, List<LiteralExpr> values, Type type) {
+        Set<Long> tablets = Sets.newHashSet();
+        for (LiteralExpr value : values) {
+            HashDistributionKey hashKey = new HashDistributionKey();
+            hashKey.pushColumn(value, type);
+            tablets.add(tabletIds.get((int) ((hashKey.getHashValue() & 0xffffffff) % tabletIds.size())));
+        }
+        return tablets;
+    }
+
+    @Test
+    public void testLargeInList() throws AnalysisException {
+        List<Long> tabletIds = Lists.newArrayList();
+        for (long i = 0; i < 4096; i++) {
+            tabletIds.add(i);
+        }
+        Column id = new Column("id", Type.BIGINT, false);
+        List<LiteralExpr> values = Lists.newArrayList();
+        for (long i = 0; i < 10000; i += 7) {
+            values.add(new IntLiteral(i * 1000003, Type.BIGINT));
+        }
+        PartitionColumnFilter filter = new PartitionColumnFilter();
+        filter.setInPredicateLiterals(values);
+        Map<String, PartitionColumnFilter> filters = Maps.newHashMap();
+        filters.put("id", filter);
+
+        HashDistributionPruner pruner = new HashDistributionPruner(tabletIds, Lists.newArrayList(id), filters,
+                tabletIds.size());
+        Collection<Long> results = pruner.prune();
+        Set<Long> expected = bruteForcePrune(tabletIds, values, Type.BIGINT);
+        Assert.assertTrue(expected.size() < tabletIds.size());
+        Assert.assertEquals(expected, Sets.newHashSet(results));
+        Assert.assertEquals(expected.size(), results.size());
+
+        List<Integer> bucketSeqs = pruner.pruneBucketSeqs();
+        Assert.assertEquals(expected.size(), bucketSeqs.size());
+        for (int i = 1; i < bucketSeqs.size(); i++) {
+            Assert.assertTrue(bucketSeqs.get(i - 1) < bucketSeqs.get(i));
+        }
+
+        // all buckets are selected
+        for (long i = 0; i < 50000; i++) {
+            values.add(new IntLiteral(i, Type.BIGINT));
+        }
+        Assert.assertNull(pruner.pruneBucketSeqs());
+        Assert.assertEquals(tabletIds.size(), pruner.prune().size());
+    }
+
+    @Test
+    public void testIntRange() throws AnalysisException {
+        List<Long> tabletIds = Lists.newArrayList();
+        for (long i = 0; i < 64; i++) {
+            tabletIds.add(i);
+        }
+        Column id = new Column("id", Type.INT, false);
+        PartitionColumnFilter filter = new PartitionColumnFilter();
+        filter.setLowerBound(new IntLiteral(100, Type.INT), false);
+        filter.setUpperBound(new IntLiteral(110, Type.INT), true);
+        Map<String, PartitionColumnFilter> filters = Maps.newHashMap();
+        filters.put("id", filter);
+
+        HashDistributionPruner pruner = new HashDistributionPruner(tabletIds, Lists.newArrayList(id), filters,
+                tabletIds.size());
+        List<LiteralExpr> values = Lists.newArrayList();
+        for (long i = 101; i <= 110; i++) {
+            values.add(new IntLiteral(i, Type.INT));
+        }
+        Assert.assertEquals(bruteForcePrune(tabletIds, values, Type.INT), Sets.newHashSet(pruner.prune()));
+
+        // empty range
+        filter.setUpperBound(new IntLiteral(100, Type.INT), false);
+        Assert.assertTrue(pruner.prune().isEmpty());
+
+        // too many values
+        PartitionColumnFilter unboundedFilter = new PartitionColumnFilter();
+        unboundedFilter.setLowerBound(new IntLiteral(100, Type.INT), true);
+        filters.put("id", unboundedFilter);
+        Assert.assertEquals(tabletIds.size(), pruner.prune().size());
+    }
 }
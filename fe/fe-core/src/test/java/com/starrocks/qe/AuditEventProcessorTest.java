@@ -34,6 +34,9 @@ import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 public class AuditEventProcessorTest {
@@ -121,4 +124,89 @@ public class AuditEventProcessorTest {
         long total = System.currentTimeMillis() - start;
         System.out.println("total(ms): " + total + ", avg: " + total / 10000.0);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testAuditEventSpiller() {
+        AuditEventSpiller spiller = new AuditEventSpiller(runningDir + "spill");
+        List<AuditEvent> events = new ArrayList<>();
+        // nothing spilled
+        Assert.assertEquals(0, spiller.reload(events, 10));
+
+        for (int i = 0; i < 15; i++) {
+            AuditEvent event = new AuditEvent.AuditEventBuilder().setEventType(EventType.AFTER_QUERY)
+                    .setUser("user1")
+                    .setState("EOF")
+                    .setReturnRows(i)
+                    .setStmt("select * from tbl1").build();
+            Assert.assertTrue(spiller.spill(event));
+        }
+
+        Assert.assertEquals(10, spiller.reload(events, 10));
+        Assert.assertEquals(5, spiller.reload(events, 10));
+        Assert.assertEquals(0, spiller.reload(events, 10));
+        Assert.assertEquals(15, events.size());
+        for (int i = 0; i < 15; i++) {
+            Assert.assertEquals(EventType.AFTER_QUERY, events.get(i).type);
+            Assert.assertEquals("user1", events.get(i).user);
+            Assert.assertEquals(i, events.get(i).returnRows);
+        }
+        spiller.close();
+    }
+
+    @Test
+    public void testAuditEventSpillerWithoutClose() {
+        String dir = runningDir + "spill_without_close";
+        AuditEventSpiller spiller = new AuditEventSpiller(dir);
+        for (int i = 0; i < 3; i++) {
+            AuditEvent event = new AuditEvent.AuditEventBuilder().setEventType(EventType.AFTER_QUERY)
+                    .setUser("user1")
+                    .setReturnRows(i)
+                    .setStmt("select * from tbl1").build();
+            Assert.assertTrue(spiller.spill(event));
+        }
+
+        // FE crashes before the spiller is closed, the events are reloaded after restart
+        AuditEventSpiller newSpiller = new AuditEventSpiller(dir);
+        List<AuditEvent> events = new ArrayList<>();
+        Assert.assertEquals(3, newSpiller.reload(events, 10));
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(i, events.get(i).returnRows);
+        }
+        newSpiller.close();
+        spiller.close();
+    }
+
+    @Test
+    public void testAuditEventSpillerRoundTrip() throws IllegalAccessException {
+        AuditEvent event = new AuditEvent.AuditEventBuilder().setEventType(EventType.AFTER_QUERY)
+                .setTimestamp(1234567L)
+                .setClientIp("127.0.0.1")
+                .setUser("user1")
+                .setDb("db1")
+                .setState("ERR")
+                .setQueryTime(2000)
+                .setScanBytes(100000)
+                .setScanRows(200000)
+                .setReturnRows(3)
+                .setStmtId(1234)
+                .setQueryId("query-1")
+                .setIsQuery(true)
+                .setFeIp("127.0.0.2")
+                .setPhaseTime("parse=12,analyze=230")
+                .setStmt("select * from tbl1 where k1 = \"a\"").build();
+
+        AuditEventSpiller spiller = new AuditEventSpiller(runningDir + "spill_round_trip");
+        Assert.assertTrue(spiller.spill(event));
+        List<AuditEvent> events = new ArrayList<>();
+        Assert.assertEquals(1, spiller.reload(events, 10));
+        spiller.close();
+
+        AuditEvent reloaded = events.get(0);
+        Assert.assertEquals(EventType.AFTER_QUERY, reloaded.type);
+        for (Field field : AuditEvent.class.getDeclaredFields()) {
+            if (field.getAnnotation(AuditEvent.AuditField.class) != null) {
+                Assert.assertEquals(field.getName(), field.get(event), field.get(reloaded));
+            }
+        }
+    }
+}
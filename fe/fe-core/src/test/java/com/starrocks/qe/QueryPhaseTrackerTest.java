@@ -0,0 +1,105 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.qe;
+
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
+import com.codahale.metrics.Histogram;
+import com.google.common.collect.Lists;
+import com.starrocks.metric.MetricLabel;
+import com.starrocks.metric.PrometheusMetricVisitor;
+import com.starrocks.metric.QueryPhaseHistograms;
+import com.starrocks.qe.QueryPhaseTracker.Phase;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+
+public class QueryPhaseTrackerTest {
+
+    @Test
+    public void testTracker() {
+        QueryPhaseTracker tracker = new QueryPhaseTracker();
+        Assert.assertEquals("", tracker.toString());
+        Assert.assertFalse(tracker.isEntered(Phase.PARSE));
+
+        tracker.end(Phase.PARSE, System.nanoTime() - 2000_000);
+        tracker.end(Phase.EXECUTE, System.nanoTime() - 1000_000);
+        tracker.end(Phase.EXECUTE, System.nanoTime() - 1000_000);
+        Assert.assertTrue(tracker.isEntered(Phase.PARSE));
+        Assert.assertFalse(tracker.isEntered(Phase.OPTIMIZE));
+        Assert.assertTrue(tracker.getMicros(Phase.PARSE) >= 2000);
+        // accumulated
+        Assert.assertTrue(tracker.getMicros(Phase.EXECUTE) >= 2000);
+        Assert.assertEquals(0, tracker.getMicros(Phase.OPTIMIZE));
+
+        Map<String, Long> micros = tracker.toMicrosMap();
+        Assert.assertArrayEquals(new String[] {"parse", "execute"}, micros.keySet().toArray());
+        Assert.assertTrue(tracker.toString().matches("parse=\\d+,execute=\\d+"));
+
+        tracker.reset();
+        Assert.assertFalse(tracker.isEntered(Phase.PARSE));
+        Assert.assertTrue(tracker.toMicrosMap().isEmpty());
+    }
+
+    @Test
+    public void testHistograms() {
+        QueryPhaseHistograms histograms = new QueryPhaseHistograms();
+        QueryPhaseTracker tracker = new QueryPhaseTracker();
+        tracker.end(Phase.OPTIMIZE, System.nanoTime() - 3000_000);
+        histograms.update("SelectStmt", "normal", tracker);
+        histograms.update("SelectStmt", "normal", tracker);
+        histograms.update("InsertStmt", "high", tracker);
+
+        Histogram optimize = histograms.getHistogram("SelectStmt", "normal", Phase.OPTIMIZE);
+        Assert.assertEquals(2, optimize.getCount());
+        Assert.assertEquals(0, histograms.getHistogram("SelectStmt", "normal", Phase.PARSE).getCount());
+        Assert.assertNull(histograms.getHistogram("SelectStmt", "high", Phase.OPTIMIZE));
+
+        PrometheusMetricVisitor visitor = new PrometheusMetricVisitor("starrocks_fe");
+        histograms.accept(visitor);
+        String output = visitor.build();
+        // HELP and TYPE only once for all the labels
+        Assert.assertEquals(output.indexOf("# TYPE starrocks_fe_query_phase_latency_us summary"),
+                output.lastIndexOf("# TYPE starrocks_fe_query_phase_latency_us summary"));
+        Assert.assertTrue(output, output.contains("starrocks_fe_query_phase_latency_us_count{stmt_type=\"SelectStmt\", "
+                + "resource_group=\"normal\", phase=\"optimize\"} 2"));
+        Assert.assertTrue(output, output.contains("starrocks_fe_query_phase_latency_us{stmt_type=\"InsertStmt\", "
+                + "resource_group=\"high\", phase=\"optimize\", quantile=\"0.99\"}"));
+        // the phases not entered are not exported
+        Assert.assertFalse(output, output.contains("phase=\"parse\""));
+    }
+
+    @Test
+    public void testHistogramsResourceGroupLabel() {
+        QueryPhaseHistograms histograms = new QueryPhaseHistograms();
+        QueryPhaseTracker tracker = new QueryPhaseTracker();
+        tracker.end(Phase.OPTIMIZE, System.nanoTime() - 3000_000);
+        histograms.update("SelectStmt", "NORMAL", tracker);
+        histograms.update("SelectStmt", "normal", tracker);
+        histograms.update("SelectStmt", "g\"1", tracker);
+        histograms.update("SelectStmt", "g2", tracker);
+        histograms.update("SelectStmt", null, tracker);
+
+        Assert.assertEquals(2, histograms.getHistogram("SelectStmt", "normal", Phase.OPTIMIZE).getCount());
+        // the unknown resource groups are merged into one label value
+        Assert.assertEquals(3, histograms.getHistogram("SelectStmt", QueryPhaseHistograms.OTHER_RESOURCE_GROUP,
+                Phase.OPTIMIZE).getCount());
+
+        PrometheusMetricVisitor visitor = new PrometheusMetricVisitor("starrocks_fe");
+        histograms.accept(visitor);
+        String output = visitor.build();
+        Assert.assertFalse(output, output.contains("g2"));
+        Assert.assertTrue(output, output.contains("resource_group=\"other\""));
+    }
+
+    @Test
+    public void testPrometheusLabelEscape() {
+        Histogram histogram = new Histogram(new ExponentiallyDecayingReservoir());
+        histogram.update(1);
+        PrometheusMetricVisitor visitor = new PrometheusMetricVisitor("starrocks_fe");
+        visitor.visitHistogram("test_latency",
+                Lists.newArrayList(new MetricLabel("label", "a\"b\\c\nd")), histogram);
+        String output = visitor.build();
+        Assert.assertTrue(output, output.contains("starrocks_fe_test_latency_count{label=\"a\\\"b\\\\c\\nd\"} 1"));
+    }
+}
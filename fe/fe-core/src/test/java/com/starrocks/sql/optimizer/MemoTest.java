@@ -16,6 +16,8 @@ import mockit.Mocked;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 public class MemoTest {
     @Test
@@ -97,4 +99,48 @@ public class MemoTest {
         assertEquals(memo.getGroups().get(3).getPhysicalExpressions().size(), 0);
     }
 
+    @Test
+    public void testMergeGroup(@Mocked OlapTable olapTable1,
+                               @Mocked OlapTable olapTable2) {
+        new Expectations() {
+            {
+                olapTable1.getId();
+                result = 0;
+                minTimes = 0;
+
+                olapTable2.getId();
+                result = 1;
+                minTimes = 0;
+            }
+        };
+
+        OptExpression expr = OptExpression.create(new LogicalProjectOperator(Maps.newHashMap()),
+                OptExpression.create(new LogicalJoinOperator(),
+                        OptExpression.create(new LogicalOlapScanOperator(olapTable1)),
+                        OptExpression.create(new LogicalOlapScanOperator(olapTable2))));
+
+        Memo memo = new Memo();
+        GroupExpression project = memo.init(expr);
+        GroupExpression join = project.inputAt(0).getFirstLogicalExpression();
+        Group left = join.inputAt(0);
+        Group right = join.inputAt(1);
+        assertTrue(left.getParentExpressions().contains(join));
+        assertTrue(right.getParentExpressions().contains(join));
+
+        // the scan of right table is inserted into the left group, so the right group is merged into it
+        GroupExpression scan = new GroupExpression(new LogicalOlapScanOperator(olapTable2), Lists.newArrayList());
+        memo.insertGroupExpression(scan, left);
+
+        assertEquals(3, memo.getGroups().size());
+        assertEquals(4, memo.getGroupExpressions().size());
+        assertEquals(2, left.getLogicalExpressions().size());
+        assertSame(left, join.inputAt(0));
+        assertSame(left, join.inputAt(1));
+        assertSame(join, memo.getGroupExpressions().get(join));
+        assertTrue(left.getParentExpressions().contains(join));
+        assertTrue(right.getParentExpressions().isEmpty());
+        for (GroupExpression groupExpression : left.getLogicalExpressions()) {
+            assertSame(left, groupExpression.getGroup());
+        }
+    }
 }
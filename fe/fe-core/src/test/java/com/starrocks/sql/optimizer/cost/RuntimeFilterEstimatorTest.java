@@ -0,0 +1,101 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.cost;
+
+import com.google.common.collect.Lists;
+import com.starrocks.catalog.Type;
+import com.starrocks.planner.RuntimeFilterDescription;
+import com.starrocks.sql.optimizer.base.ColumnRefSet;
+import com.starrocks.sql.optimizer.operator.scalar.BinaryPredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.statistics.ColumnStatistic;
+import com.starrocks.sql.optimizer.statistics.Statistics;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class RuntimeFilterEstimatorTest {
+    private static ColumnStatistic column(double min, double max, double distinctValues) {
+        return ColumnStatistic.builder().setMinValue(min).setMaxValue(max).setNullsFraction(0)
+                .setAverageRowSize(8).setDistinctValuesCount(distinctValues).build();
+    }
+
+    @Test
+    public void testFilterType() {
+        ColumnStatistic probe = column(0, 100000, 100000);
+
+        // few build values
+        RuntimeFilterEstimator.Estimate estimate = RuntimeFilterEstimator.estimate(column(0, 100000, 100), 100, probe);
+        Assert.assertEquals(RuntimeFilterDescription.FilterType.IN, estimate.getType());
+        Assert.assertEquals(0.001, estimate.getSelectivity(), 1e-9);
+        Assert.assertFalse(estimate.isUseless());
+
+        // the distinct values are limited by the build rows
+        estimate = RuntimeFilterEstimator.estimate(column(0, 100000, 50000), 500, probe);
+        Assert.assertEquals(RuntimeFilterDescription.FilterType.IN, estimate.getType());
+        Assert.assertEquals(0.005, estimate.getSelectivity(), 1e-9);
+
+        // a narrow build range
+        estimate = RuntimeFilterEstimator.estimate(column(0, 1000, 50000), 50000, probe);
+        Assert.assertEquals(RuntimeFilterDescription.FilterType.MIN_MAX, estimate.getType());
+        Assert.assertEquals(0.01, estimate.getSelectivity(), 1e-9);
+
+        // the same range, the selectivity of bloom filter is contained values plus false positives
+        estimate = RuntimeFilterEstimator.estimate(column(0, 100000, 5000), 5000, probe);
+        Assert.assertEquals(RuntimeFilterDescription.FilterType.BLOOM, estimate.getType());
+        Assert.assertEquals(0.05 + 0.95 * RuntimeFilterEstimator.BLOOM_FILTER_FPP, estimate.getSelectivity(), 1e-9);
+        Assert.assertFalse(estimate.isUseless());
+
+        // all the probe values are in the build side
+        estimate = RuntimeFilterEstimator.estimate(column(0, 100000, 100000), 1000000, probe);
+        Assert.assertTrue(estimate.isKnown());
+        Assert.assertTrue(estimate.isUseless());
+    }
+
+    @Test
+    public void testNullsAndUnknown() {
+        ColumnStatistic probe = ColumnStatistic.builder().setMinValue(0).setMaxValue(100000).setNullsFraction(0.5)
+                .setAverageRowSize(8).setDistinctValuesCount(100000).build();
+        RuntimeFilterEstimator.Estimate estimate = RuntimeFilterEstimator.estimate(column(0, 100000, 100), 100, probe);
+        Assert.assertEquals(0.0005, estimate.getSelectivity(), 1e-9);
+
+        estimate = RuntimeFilterEstimator.estimate(ColumnStatistic.unknown(), 100, probe);
+        Assert.assertFalse(estimate.isKnown());
+        Assert.assertFalse(estimate.isUseless());
+        Assert.assertEquals(1, estimate.getSelectivity(), 1e-9);
+
+        // no range of string column
+        estimate = RuntimeFilterEstimator.estimate(column(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, 5000),
+                5000, column(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, 100000));
+        Assert.assertEquals(RuntimeFilterDescription.FilterType.BLOOM, estimate.getType());
+    }
+
+    @Test
+    public void testJoinPredicates() {
+        ColumnRefOperator probeKey1 = new ColumnRefOperator(1, Type.BIGINT, "probe_key1", true);
+        ColumnRefOperator probeKey2 = new ColumnRefOperator(2, Type.BIGINT, "probe_key2", true);
+        ColumnRefOperator buildKey1 = new ColumnRefOperator(3, Type.BIGINT, "build_key1", true);
+        ColumnRefOperator buildKey2 = new ColumnRefOperator(4, Type.BIGINT, "build_key2", true);
+        Statistics probeStatistics = Statistics.builder().setOutputRowCount(1000000)
+                .addColumnStatistic(probeKey1, column(0, 100000, 100000))
+                .addColumnStatistic(probeKey2, column(0, 100000, 100000)).build();
+        Statistics buildStatistics = Statistics.builder().setOutputRowCount(1000000)
+                .addColumnStatistic(buildKey1, column(0, 100000, 100))
+                .addColumnStatistic(buildKey2, column(0, 100000, 100000)).build();
+
+        // the build column is at left of the second predicate
+        List<BinaryPredicateOperator> predicates = Lists.newArrayList(
+                new BinaryPredicateOperator(BinaryPredicateOperator.BinaryType.EQ, probeKey1, buildKey1),
+                new BinaryPredicateOperator(BinaryPredicateOperator.BinaryType.EQ, buildKey2, probeKey2));
+        List<RuntimeFilterEstimator.Estimate> estimates = RuntimeFilterEstimator.estimate(
+                new ColumnRefSet(Lists.newArrayList(probeKey1, probeKey2)), probeStatistics, buildStatistics,
+                predicates);
+        Assert.assertEquals(2, estimates.size());
+        Assert.assertEquals(RuntimeFilterDescription.FilterType.IN, estimates.get(0).getType());
+        Assert.assertTrue(estimates.get(1).isUseless());
+        Assert.assertEquals(0.001, RuntimeFilterEstimator.estimateProbeSelectivity(estimates), 1e-9);
+
+        Assert.assertEquals(1, RuntimeFilterEstimator.estimateProbeSelectivity(estimates.subList(1, 2)), 1e-9);
+    }
+}
@@ -0,0 +1,126 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.rewrite;
+
+import com.google.common.collect.Lists;
+import com.starrocks.analysis.FunctionName;
+import com.starrocks.catalog.Function;
+import com.starrocks.catalog.ScalarType;
+import com.starrocks.catalog.Type;
+import com.starrocks.sql.optimizer.operator.scalar.CallOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ConstantOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Check the results of the functions folded by FE against the results of BE, which are recorded in
+ * sql/constant-folding/be-reference.txt.
+ */
+public class ConstantFoldingReferenceTest {
+    private static final String NOT_FOLDED = "?";
+
+    @Test
+    public void testBEReference() throws Exception {
+        String path = Objects.requireNonNull(ClassLoader.getSystemClassLoader().getResource("sql")).getPath();
+        File file = new File(path + "/constant-folding/be-reference.txt");
+
+        List<String> failures = Lists.newArrayList();
+        int caseNum = 0;
+        for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("//")) {
+                continue;
+            }
+            caseNum++;
+            String failure = runCase(line);
+            if (failure != null) {
+                failures.add(line + "\n    " + failure);
+            }
+        }
+
+        Assert.assertTrue("no case in " + file, caseNum > 0);
+        Assert.assertTrue(failures.size() + " cases failed:\n" + String.join("\n", failures), failures.isEmpty());
+    }
+
+    // name(arg types) return type: arguments => result
+    private static String runCase(String line) throws Exception {
+        int leftParen = line.indexOf('(');
+        int rightParen = line.indexOf(')');
+        int colon = line.indexOf(':', rightParen);
+        int arrow = line.lastIndexOf("=>");
+        String name = line.substring(0, leftParen).trim();
+
+        List<Type> argTypes = Lists.newArrayList();
+        for (String type : split(line.substring(leftParen + 1, rightParen))) {
+            argTypes.add(ScalarType.createType(type));
+        }
+        Type returnType = ScalarType.createType(line.substring(rightParen + 1, colon).trim());
+
+        List<String> argValues = split(line.substring(colon + 1, arrow));
+        Assert.assertEquals(line, argTypes.size(), argValues.size());
+        List<ScalarOperator> args = Lists.newArrayList();
+        for (int i = 0; i < argTypes.size(); i++) {
+            args.add(createConstant(argValues.get(i), argTypes.get(i)));
+        }
+
+        Function fn = new Function(new FunctionName(name), argTypes.toArray(new Type[0]), returnType, false);
+        CallOperator call = new CallOperator(name, returnType, args, fn);
+        ScalarOperator result = ScalarOperatorEvaluator.INSTANCE.evaluation(call);
+
+        String expected = line.substring(arrow + 2).trim();
+        if (NOT_FOLDED.equals(expected)) {
+            return result == call ? null : "expect not folded, but got " + result;
+        }
+        if (!(result instanceof ConstantOperator)) {
+            return "not folded";
+        }
+        ConstantOperator expectedResult = createConstant(expected, returnType);
+        if (!expectedResult.equals(result)) {
+            return "expect " + expectedResult + ", but got " + result;
+        }
+        return null;
+    }
+
+    private static ConstantOperator createConstant(String literal, Type type) throws Exception {
+        if ("NULL".equals(literal)) {
+            return ConstantOperator.createNull(type);
+        }
+        if (literal.startsWith("'")) {
+            literal = literal.substring(1, literal.length() - 1);
+        }
+        if (type.isStringType()) {
+            return ConstantOperator.createVarchar(literal);
+        }
+        return ConstantOperator.createVarchar(literal).castTo(type);
+    }
+
+    // split by the commas which are not quoted
+    private static List<String> split(String str) {
+        List<String> items = Lists.newArrayList();
+        if (str.trim().isEmpty()) {
+            return items;
+        }
+        boolean quoted = false;
+        StringBuilder item = new StringBuilder();
+        for (char c : str.toCharArray()) {
+            if (c == '\'') {
+                quoted = !quoted;
+            }
+            if (c == ',' && !quoted) {
+                items.add(item.toString().trim());
+                item.setLength(0);
+            } else {
+                item.append(c);
+            }
+        }
+        items.add(item.toString().trim());
+        return items;
+    }
+}
@@ -0,0 +1,235 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.rule.join;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class JoinReorderDPHypTest {
+    private static final double DELTA = 1e-6;
+
+    // a join graph with the same cardinality model as the enumerator
+    private static class Graph {
+        private final int atomSize;
+        private final double[] rows;
+        private final double[] costs;
+        private final long[] neighbors;
+        private final double[][] selectivities;
+
+        Graph(int atomSize, Random random) {
+            this.atomSize = atomSize;
+            this.rows = new double[atomSize];
+            this.costs = new double[atomSize];
+            this.neighbors = new long[atomSize];
+            this.selectivities = new double[atomSize][atomSize];
+            for (int i = 0; i < atomSize; i++) {
+                rows[i] = 1 + random.nextInt(1000000);
+                costs[i] = rows[i];
+                Arrays.fill(selectivities[i], 1);
+            }
+        }
+
+        void addEdge(int a, int b, double selectivity) {
+            neighbors[a] |= 1L << b;
+            neighbors[b] |= 1L << a;
+            selectivities[a][b] = selectivity;
+            selectivities[b][a] = selectivity;
+        }
+
+        JoinReorderDPHyp.Enumerator newEnumerator() {
+            JoinReorderDPHyp.Enumerator enumerator = new JoinReorderDPHyp.Enumerator(atomSize, rows, costs);
+            for (int i = 0; i < atomSize; i++) {
+                for (int j = i + 1; j < atomSize; j++) {
+                    if ((neighbors[i] & (1L << j)) != 0) {
+                        long pair = (1L << i) | (1L << j);
+                        enumerator.addEdge(pair);
+                        enumerator.addSelectivity(pair, selectivities[i][j]);
+                    }
+                }
+            }
+            return enumerator;
+        }
+
+        double rows(long atomMask) {
+            double logRows = 0;
+            for (int i = 0; i < atomSize; i++) {
+                if ((atomMask & (1L << i)) == 0) {
+                    continue;
+                }
+                logRows += Math.log(rows[i]);
+                for (int j = i + 1; j < atomSize; j++) {
+                    if ((atomMask & (1L << j)) != 0) {
+                        logRows += Math.log(selectivities[i][j]);
+                    }
+                }
+            }
+            return Math.exp(Math.max(0, logRows));
+        }
+
+        boolean isConnected(long atomMask) {
+            long component = Long.lowestOneBit(atomMask);
+            long frontier = component;
+            while (frontier != 0) {
+                long next = 0;
+                for (int i = 0; i < atomSize; i++) {
+                    if ((frontier & (1L << i)) != 0) {
+                        next |= neighbors[i];
+                    }
+                }
+                next &= atomMask & ~component;
+                component |= next;
+                frontier = next;
+            }
+            return component == atomMask;
+        }
+
+        boolean isJoined(long left, long right) {
+            for (int i = 0; i < atomSize; i++) {
+                if ((left & (1L << i)) != 0 && (neighbors[i] & right) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // try all the partitions of all the connected subsets without cross join
+        double bruteForceCost() {
+            double[] best = new double[1 << atomSize];
+            Arrays.fill(best, Double.MAX_VALUE);
+            for (int i = 0; i < atomSize; i++) {
+                best[1 << i] = costs[i];
+            }
+            for (int set = 1; set < best.length; set++) {
+                if (Integer.bitCount(set) < 2 || !isConnected(set)) {
+                    continue;
+                }
+                for (int left = (set - 1) & set; left != 0; left = (left - 1) & set) {
+                    int right = set & ~left;
+                    if (best[left] == Double.MAX_VALUE || best[right] == Double.MAX_VALUE
+                            || !isJoined(left, right)) {
+                        continue;
+                    }
+                    best[set] = Math.min(best[set], best[left] + best[right] + rows(set));
+                }
+            }
+            return best[best.length - 1];
+        }
+    }
+
+    // the cost of the plan tree recorded by the enumerator
+    private static double planCost(JoinReorderDPHyp.Enumerator enumerator, Graph graph, long atomMask) {
+        if (Long.bitCount(atomMask) == 1) {
+            return graph.costs[Long.numberOfTrailingZeros(atomMask)];
+        }
+        long left = enumerator.getBestLeft(atomMask);
+        Assert.assertTrue(left != 0 && (left & ~atomMask) == 0 && left != atomMask);
+        Assert.assertTrue(graph.isJoined(left, atomMask & ~left));
+        return planCost(enumerator, graph, left) + planCost(enumerator, graph, atomMask & ~left)
+                + graph.rows(atomMask);
+    }
+
+    private static void assertCost(double expected, double actual) {
+        Assert.assertEquals(1, actual / expected, DELTA);
+    }
+
+    private static void checkBestPlan(Graph graph) {
+        JoinReorderDPHyp.Enumerator enumerator = graph.newEnumerator();
+        enumerator.enumerate(Long.MAX_VALUE);
+        Assert.assertFalse(enumerator.isTimeout());
+
+        double expected = graph.bruteForceCost();
+        long allAtoms = enumerator.getAllAtoms();
+        assertCost(expected, enumerator.getBestCost(allAtoms));
+        assertCost(expected, planCost(enumerator, graph, allAtoms));
+    }
+
+    @Test
+    public void testChainStarCycle() {
+        Random random = new Random(0);
+        for (int atomSize = 2; atomSize <= 10; atomSize++) {
+            Graph chain = new Graph(atomSize, random);
+            Graph star = new Graph(atomSize, random);
+            Graph cycle = new Graph(atomSize, random);
+            for (int i = 1; i < atomSize; i++) {
+                chain.addEdge(i - 1, i, random.nextDouble() / 1000);
+                star.addEdge(0, i, random.nextDouble() / 1000);
+                cycle.addEdge(i - 1, i, random.nextDouble() / 1000);
+            }
+            if (atomSize > 2) {
+                cycle.addEdge(0, atomSize - 1, random.nextDouble() / 1000);
+            }
+            checkBestPlan(chain);
+            checkBestPlan(star);
+            checkBestPlan(cycle);
+        }
+    }
+
+    @Test
+    public void testRandomGraph() {
+        Random random = new Random(1);
+        for (int round = 0; round < 200; round++) {
+            int atomSize = 2 + random.nextInt(10);
+            Graph graph = new Graph(atomSize, random);
+            // a random spanning tree and some more edges
+            for (int i = 1; i < atomSize; i++) {
+                graph.addEdge(random.nextInt(i), i, random.nextDouble() / 100);
+            }
+            for (int i = random.nextInt(atomSize); i > 0; i--) {
+                int a = random.nextInt(atomSize);
+                int b = random.nextInt(atomSize);
+                if (a != b) {
+                    graph.addEdge(a, b, random.nextDouble());
+                }
+            }
+            checkBestPlan(graph);
+        }
+    }
+
+    @Test
+    public void testDisconnectedGraph() {
+        Graph graph = new Graph(4, new Random(2));
+        graph.addEdge(0, 1, 0.001);
+        graph.addEdge(2, 3, 0.001);
+        JoinReorderDPHyp.Enumerator enumerator = graph.newEnumerator();
+        enumerator.enumerate(Long.MAX_VALUE);
+
+        // the two components are joined by a cross join
+        long left = enumerator.getBestLeft(enumerator.getAllAtoms());
+        Assert.assertTrue(left == 0b0011 || left == 0b1100);
+        Assert.assertTrue(enumerator.getBestCost(enumerator.getAllAtoms()) < Double.MAX_VALUE);
+    }
+
+    @Test
+    public void testTimeout() {
+        // a star of 20 atoms has 2^18 * 19 pairs
+        Random random = new Random(3);
+        Graph graph = new Graph(20, random);
+        for (int i = 1; i < 20; i++) {
+            graph.addEdge(0, i, random.nextDouble());
+        }
+        JoinReorderDPHyp.Enumerator enumerator = graph.newEnumerator();
+        enumerator.enumerate(0);
+        Assert.assertTrue(enumerator.isTimeout());
+
+        // the greedy plan is a complete plan
+        long allAtoms = enumerator.getAllAtoms();
+        assertCost(enumerator.getBestCost(allAtoms), planCost(enumerator, graph, allAtoms));
+    }
+
+    @Test
+    public void testLargeStar() {
+        Random random = new Random(4);
+        Graph graph = new Graph(20, random);
+        for (int i = 1; i < 20; i++) {
+            graph.addEdge(0, i, random.nextDouble() / 1000);
+        }
+        JoinReorderDPHyp.Enumerator enumerator = graph.newEnumerator();
+        enumerator.enumerate(Long.MAX_VALUE);
+        Assert.assertFalse(enumerator.isTimeout());
+        long allAtoms = enumerator.getAllAtoms();
+        assertCost(enumerator.getBestCost(allAtoms), planCost(enumerator, graph, allAtoms));
+    }
+}
@@ -11,6 +11,7 @@ import com.starrocks.catalog.Column;
 import com.starrocks.catalog.OlapTable;
 import com.starrocks.catalog.Partition;
 import com.starrocks.catalog.PartitionKey;
+import com.starrocks.catalog.PartitionRangeIndex;
 import com.starrocks.catalog.PartitionType;
 import com.starrocks.catalog.PrimitiveType;
 import com.starrocks.catalog.RangePartitionInfo;
@@ -79,8 +80,8 @@ public class PartitionPruneRuleTest {
                 partitionInfo.getType();
                 result = PartitionType.RANGE;
 
-                partitionInfo.getIdToRange(false);
-                result = keyRange;
+                partitionInfo.getRangeIndex();
+                result = new PartitionRangeIndex(0, keyRange);
 
                 partitionInfo.getPartitionColumns();
                 result = columns;
@@ -177,8 +178,8 @@ public class PartitionPruneRuleTest {
                 partitionInfo.getType();
                 result = PartitionType.RANGE;
 
-                partitionInfo.getIdToRange(false);
-                result = keyRange;
+                partitionInfo.getRangeIndex();
+                result = new PartitionRangeIndex(0, keyRange);
 
                 partitionInfo.getPartitionColumns();
                 result = columns;
@@ -2,8 +2,10 @@
 
 package com.starrocks.sql.optimizer.statistics;
 
+import com.google.common.collect.Lists;
 import com.starrocks.catalog.Type;
 import com.starrocks.sql.optimizer.Utils;
+import com.starrocks.sql.optimizer.base.ColumnRefSet;
 import com.starrocks.sql.optimizer.operator.scalar.BinaryPredicateOperator;
 import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
 import com.starrocks.sql.optimizer.operator.scalar.CompoundPredicateOperator;
@@ -58,4 +60,30 @@ public class PredicateStatisticsCalculatorTest {
                 PredicateStatisticsCalculator.statisticsCalculate(compoundPredicateOperator, statistics);
         Assert.assertEquals(58.0270, estimatedStatistics.getOutputRowCount(), 0.001);
     }
+
+    @Test
+    public void testColumnGroupCompoundPredicate() {
+        ColumnRefOperator country = new ColumnRefOperator(0, Type.INT, "country", true);
+        ColumnRefOperator city = new ColumnRefOperator(1, Type.INT, "city", true);
+        Statistics.Builder builder = Statistics.builder();
+        builder.setOutputRowCount(10000);
+        builder.addColumnStatistic(country, ColumnStatistic.builder().setMinValue(0).setMaxValue(10).
+                setDistinctValuesCount(10).setNullsFraction(0).setAverageRowSize(4).build());
+        builder.addColumnStatistic(city, ColumnStatistic.builder().setMinValue(0).setMaxValue(100).
+                setDistinctValuesCount(100).setNullsFraction(0).setAverageRowSize(4).build());
+
+        CompoundPredicateOperator predicate = new CompoundPredicateOperator(CompoundPredicateOperator.CompoundType.AND,
+                new BinaryPredicateOperator(BinaryPredicateOperator.BinaryType.EQ, country,
+                        ConstantOperator.createInt(5)),
+                new BinaryPredicateOperator(BinaryPredicateOperator.BinaryType.EQ, city,
+                        ConstantOperator.createInt(50)));
+
+        Statistics estimatedStatistics = PredicateStatisticsCalculator.statisticsCalculate(predicate, builder.build());
+        Assert.assertEquals(10, estimatedStatistics.getOutputRowCount(), 0.001);
+
+        // city determines country
+        builder.addColumnGroupStatistic(new ColumnRefSet(Lists.newArrayList(country, city)), 100);
+        estimatedStatistics = PredicateStatisticsCalculator.statisticsCalculate(predicate, builder.build());
+        Assert.assertEquals(100, estimatedStatistics.getOutputRowCount(), 0.001);
+    }
 }
@@ -5,6 +5,7 @@ package com.starrocks.sql.optimizer.statistics;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.starrocks.analysis.JoinOperator;
 import com.starrocks.catalog.Catalog;
 import com.starrocks.catalog.Column;
 import com.starrocks.catalog.OlapTable;
@@ -21,6 +22,7 @@ import com.starrocks.sql.optimizer.base.ColumnRefFactory;
 import com.starrocks.sql.optimizer.base.ColumnRefSet;
 import com.starrocks.sql.optimizer.dump.MockDumpInfo;
 import com.starrocks.sql.optimizer.operator.logical.LogicalAggregationOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalJoinOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalOlapScanOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalUnionOperator;
 import com.starrocks.sql.optimizer.operator.scalar.BinaryPredicateOperator;
@@ -155,6 +157,45 @@ public class StatisticsCalculatorTest {
         Assert.assertEquals(new StatisticRangeValues(0, 100, 100), StatisticRangeValues.from(columnStatisticV6));
     }
 
+    @Test
+    public void testLogicalJoinWithColumnGroup() throws Exception {
+        ColumnRefOperator v1 = columnRefFactory.create("v1", Type.INT, true);
+        ColumnRefOperator v2 = columnRefFactory.create("v2", Type.INT, true);
+        ColumnRefOperator v3 = columnRefFactory.create("v3", Type.INT, true);
+        ColumnRefOperator v4 = columnRefFactory.create("v4", Type.INT, true);
+        // v2 determines v1 in left child
+        Statistics.Builder childBuilder1 = Statistics.builder();
+        childBuilder1.setOutputRowCount(10000);
+        childBuilder1.addColumnStatistics(ImmutableMap.of(v1, new ColumnStatistic(0, 10, 0, 4, 10)));
+        childBuilder1.addColumnStatistics(ImmutableMap.of(v2, new ColumnStatistic(0, 1000, 0, 4, 1000)));
+        childBuilder1.addColumnGroupStatistic(new ColumnRefSet(Lists.newArrayList(v1, v2)), 1000);
+        Group childGroup1 = new Group(0);
+        childGroup1.setStatistics(childBuilder1.build());
+
+        Statistics.Builder childBuilder2 = Statistics.builder();
+        childBuilder2.setOutputRowCount(1000);
+        childBuilder2.addColumnStatistics(ImmutableMap.of(v3, new ColumnStatistic(0, 10, 0, 4, 10)));
+        childBuilder2.addColumnStatistics(ImmutableMap.of(v4, new ColumnStatistic(0, 1000, 0, 4, 1000)));
+        Group childGroup2 = new Group(1);
+        childGroup2.setStatistics(childBuilder2.build());
+
+        LogicalJoinOperator joinOperator = new LogicalJoinOperator(JoinOperator.INNER_JOIN, Utils.compoundAnd(
+                new BinaryPredicateOperator(BinaryPredicateOperator.BinaryType.EQ, v1, v3),
+                new BinaryPredicateOperator(BinaryPredicateOperator.BinaryType.EQ, v2, v4)));
+        GroupExpression groupExpression =
+                new GroupExpression(joinOperator, Lists.newArrayList(childGroup1, childGroup2));
+        groupExpression.setGroup(new Group(2));
+        ExpressionContext expressionContext = new ExpressionContext(groupExpression);
+        StatisticsCalculator statisticsCalculator = new StatisticsCalculator(expressionContext, new ColumnRefSet(),
+                columnRefFactory, new MockDumpInfo());
+        statisticsCalculator.estimatorStats();
+
+        // the joint distinct values of both sides are 1000
+        Assert.assertEquals(10000, expressionContext.getStatistics().getOutputRowCount(), 0.001);
+        Assert.assertEquals(1000, expressionContext.getStatistics().getColumnGroupStatistics()
+                .get(new ColumnRefSet(Lists.newArrayList(v1, v2))), 0.001);
+    }
+
     @Test
     public void testLogicalOlapTableScan() throws Exception {
         starRocksAssert.withTable("CREATE TABLE `test_all_type` (\n" +
@@ -0,0 +1,78 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.plan;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AggregatePushDownPlanTest extends PlanTestBase {
+    @Before
+    public void before() {
+        connectContext.getSessionVariable().setCboPushDownAggregate(true);
+    }
+
+    @After
+    public void after() {
+        connectContext.getSessionVariable().setCboPushDownAggregate(false);
+    }
+
+    @Test
+    public void testPushDownInnerJoin() throws Exception {
+        String sql = "select s_nationkey, sum(l_quantity), count(*), min(l_tax), max(l_tax) " +
+                "from lineitem join supplier on l_suppkey = s_suppkey group by s_nationkey";
+        String plan = getFragmentPlan(sql);
+        // the lineitem rows are aggregated by the join key before joining the suppliers
+        Assert.assertTrue(plan, plan.contains("group by: 3: L_SUPPKEY"));
+        Assert.assertTrue(plan, plan.contains("sum(5: L_QUANTITY)"));
+        Assert.assertTrue(plan, plan.contains("min(8: L_TAX)"));
+        Assert.assertTrue(plan, plan.contains("max(8: L_TAX)"));
+    }
+
+    @Test
+    public void testPushDownAvg() throws Exception {
+        String sql = "select s_nationkey, avg(l_quantity) " +
+                "from lineitem join supplier on l_suppkey = s_suppkey group by s_nationkey";
+        String plan = getFragmentPlan(sql);
+        Assert.assertTrue(plan, plan.contains("group by: 3: L_SUPPKEY"));
+        Assert.assertTrue(plan, plan.contains("sum(5: L_QUANTITY)"));
+        Assert.assertTrue(plan, plan.contains("count(5: L_QUANTITY)"));
+    }
+
+    @Test
+    public void testPushDownOuterJoin() throws Exception {
+        String sql = "select s_nationkey, sum(l_quantity) " +
+                "from lineitem left join supplier on l_suppkey = s_suppkey group by s_nationkey";
+        String plan = getFragmentPlan(sql);
+        Assert.assertTrue(plan, plan.contains("group by: 3: L_SUPPKEY"));
+
+        sql = "select s_nationkey, sum(l_quantity) " +
+                "from supplier right join lineitem on l_suppkey = s_suppkey group by s_nationkey";
+        plan = getFragmentPlan(sql);
+        Assert.assertTrue(plan, plan.contains("group by: 3: L_SUPPKEY"));
+    }
+
+    @Test
+    public void testNotPushDownNullSupplyingChild() throws Exception {
+        String sql = "select l_suppkey, sum(s_acctbal) " +
+                "from lineitem left join supplier on l_suppkey = s_suppkey group by l_suppkey";
+        assertNotPushedDown(sql);
+    }
+
+    @Test
+    public void testNotPushDownHighCardinality() throws Exception {
+        // the lineitem rows are almost unique on the grouping keys, aggregating them before the join is useless
+        String sql = "select l_orderkey, l_linenumber, sum(l_quantity) " +
+                "from lineitem join supplier on l_suppkey = s_suppkey group by l_orderkey, l_linenumber";
+        assertNotPushedDown(sql);
+    }
+
+    private void assertNotPushedDown(String sql) throws Exception {
+        String plan = getFragmentPlan(sql);
+        connectContext.getSessionVariable().setCboPushDownAggregate(false);
+        String expected = getFragmentPlan(sql);
+        connectContext.getSessionVariable().setCboPushDownAggregate(true);
+        Assert.assertEquals(expected, plan);
+    }
+}
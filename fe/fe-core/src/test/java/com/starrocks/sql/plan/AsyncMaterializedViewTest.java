@@ -0,0 +1,156 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.plan;
+
+import com.google.common.collect.Maps;
+import com.starrocks.analysis.CreateAsyncMaterializedViewStmt;
+import com.starrocks.catalog.Catalog;
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.MaterializedViewDefinition;
+import com.starrocks.catalog.MaterializedViewIndex;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.common.FeConstants;
+import com.starrocks.common.Pair;
+import com.starrocks.utframe.UtFrameUtils;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.List;
+
+public class AsyncMaterializedViewTest extends PlanTestBase {
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        PlanTestBase.beforeClass();
+        FeConstants.runningUnitTest = true;
+        starRocksAssert.withTable("CREATE TABLE `mv_orders` (\n"
+                + "  `o_id` bigint NOT NULL COMMENT \"\",\n"
+                + "  `o_cust` bigint NOT NULL COMMENT \"\",\n"
+                + "  `o_amount` bigint NULL COMMENT \"\"\n"
+                + ") ENGINE=OLAP\n"
+                + "DUPLICATE KEY(`o_id`)\n"
+                + "DISTRIBUTED BY HASH(`o_id`) BUCKETS 3\n"
+                + "PROPERTIES (\n"
+                + "\"replication_num\" = \"1\"\n"
+                + ");");
+        starRocksAssert.withTable("CREATE TABLE `mv_customers` (\n"
+                + "  `c_id` bigint NOT NULL COMMENT \"\",\n"
+                + "  `c_region` varchar(20) NULL COMMENT \"\",\n"
+                + "  `c_nation` varchar(20) NULL COMMENT \"\"\n"
+                + ") ENGINE=OLAP\n"
+                + "DUPLICATE KEY(`c_id`)\n"
+                + "DISTRIBUTED BY HASH(`c_id`) BUCKETS 3\n"
+                + "PROPERTIES (\n"
+                + "\"replication_num\" = \"1\"\n"
+                + ");");
+
+        createMaterializedView("CREATE MATERIALIZED VIEW mv_region_amount "
+                + "DISTRIBUTED BY HASH(c_region) BUCKETS 3 REFRESH ASYNC "
+                + "PROPERTIES (\"replication_num\" = \"1\") AS "
+                + "SELECT c_region, c_nation, sum(o_amount) AS total, count(*) AS cnt "
+                + "FROM mv_orders JOIN mv_customers ON o_cust = c_id "
+                + "GROUP BY c_region, c_nation");
+    }
+
+    private static void createMaterializedView(String sql) throws Exception {
+        CreateAsyncMaterializedViewStmt stmt =
+                (CreateAsyncMaterializedViewStmt) UtFrameUtils.parseAndAnalyzeStmt(sql, connectContext);
+        Catalog.getCurrentCatalog().createAsyncMaterializedView(stmt);
+    }
+
+    private static MaterializedViewDefinition getDefinition() {
+        Database db = Catalog.getCurrentCatalog().getDb("default_cluster:test");
+        OlapTable mv = (OlapTable) db.getTable("mv_region_amount");
+        return mv.getMaterializedViewDefinition();
+    }
+
+    // pretend the materialized view has been refreshed
+    private static void markFresh() {
+        Database db = Catalog.getCurrentCatalog().getDb("default_cluster:test");
+        MaterializedViewDefinition definition = getDefinition();
+        definition.setBaseTableVisibleVersions(definition.collectBaseTableVisibleVersions(db));
+    }
+
+    @Test
+    public void testCreate() {
+        MaterializedViewDefinition definition = getDefinition();
+        Assert.assertNotNull(definition);
+        Assert.assertEquals(2, definition.getBaseTableIds().size());
+        Assert.assertFalse(definition.isPartitioned());
+    }
+
+    @Test
+    public void testMaterializedViewIndex() {
+        Database db = Catalog.getCurrentCatalog().getDb("default_cluster:test");
+        OlapTable mv = (OlapTable) db.getTable("mv_region_amount");
+        MaterializedViewIndex index = Catalog.getCurrentCatalog().getMaterializedViewIndex();
+        Assert.assertFalse(index.isEmpty());
+        for (String baseTable : new String[] {"mv_orders", "mv_customers"}) {
+            List<Pair<Long, Long>> mvs = index.getMaterializedViews(db.getTable(baseTable).getId());
+            Assert.assertEquals(1, mvs.size());
+            Assert.assertEquals(db.getId(), (long) mvs.get(0).first);
+            Assert.assertEquals(mv.getId(), (long) mvs.get(0).second);
+        }
+        Assert.assertTrue(index.getMaterializedViews(mv.getId()).isEmpty());
+    }
+
+    @Test
+    public void testExactMatch() throws Exception {
+        markFresh();
+        String plan = getFragmentPlan("select c_region, c_nation, sum(o_amount) from mv_orders "
+                + "join mv_customers on o_cust = c_id group by c_region, c_nation");
+        Assert.assertTrue(plan, plan.contains("TABLE: mv_region_amount"));
+        Assert.assertFalse(plan, plan.contains("TABLE: mv_orders"));
+    }
+
+    @Test
+    public void testRollup() throws Exception {
+        markFresh();
+        String plan = getFragmentPlan("select c_region, sum(o_amount), count(*) from mv_customers "
+                + "join mv_orders on c_id = o_cust where c_nation = 'CHINA' group by c_region");
+        Assert.assertTrue(plan, plan.contains("TABLE: mv_region_amount"));
+        Assert.assertTrue(plan, plan.contains("c_nation = 'CHINA'"));
+        Assert.assertTrue(plan, plan.contains("sum("));
+    }
+
+    @Test
+    public void testScalarCountNotRollup() throws Exception {
+        markFresh();
+        // the sum of the counts is null instead of 0 if there is no row
+        String plan = getFragmentPlan("select count(*) from mv_orders join mv_customers on o_cust = c_id "
+                + "where c_nation = 'CHINA'");
+        Assert.assertFalse(plan, plan.contains("TABLE: mv_region_amount"));
+    }
+
+    @Test
+    public void testNotMatch() throws Exception {
+        markFresh();
+        // o_id is not an output of materialized view
+        String plan = getFragmentPlan("select c_region, sum(o_amount) from mv_orders "
+                + "join mv_customers on o_cust = c_id where o_id > 10 group by c_region");
+        Assert.assertFalse(plan, plan.contains("TABLE: mv_region_amount"));
+
+        // avg can not be rolled up
+        plan = getFragmentPlan("select c_region, avg(o_amount) from mv_orders "
+                + "join mv_customers on o_cust = c_id group by c_region");
+        Assert.assertFalse(plan, plan.contains("TABLE: mv_region_amount"));
+    }
+
+    @Test
+    public void testStale() throws Exception {
+        getDefinition().setBaseTableVisibleVersions(Maps.newHashMap());
+        String plan = getFragmentPlan("select c_region, c_nation, sum(o_amount) from mv_orders "
+                + "join mv_customers on o_cust = c_id group by c_region, c_nation");
+        Assert.assertFalse(plan, plan.contains("TABLE: mv_region_amount"));
+
+        markFresh();
+        connectContext.getSessionVariable().setEnableMaterializedViewRewrite(false);
+        try {
+            plan = getFragmentPlan("select c_region, c_nation, sum(o_amount) from mv_orders "
+                    + "join mv_customers on o_cust = c_id group by c_region, c_nation");
+            Assert.assertFalse(plan, plan.contains("TABLE: mv_region_amount"));
+        } finally {
+            connectContext.getSessionVariable().setEnableMaterializedViewRewrite(true);
+        }
+    }
+}
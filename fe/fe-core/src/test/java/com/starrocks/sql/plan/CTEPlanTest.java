@@ -0,0 +1,104 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.plan;
+
+import com.starrocks.planner.OlapScanNode;
+import com.starrocks.planner.ScanNode;
+import com.starrocks.thrift.TExplainLevel;
+import com.starrocks.utframe.UtFrameUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CTEPlanTest extends PlanTestBase {
+    @Before
+    public void before() {
+        connectContext.getSessionVariable().setCboCteReuse(true);
+        connectContext.getSessionVariable().setCboCteReuseRate(0);
+    }
+
+    @After
+    public void after() {
+        connectContext.getSessionVariable().setCboCteReuse(false);
+        connectContext.getSessionVariable().setCboCteReuseRate(1.2);
+    }
+
+    @Test
+    public void testMultiReferencedCTE() throws Exception {
+        String sql = "with x as (select v1, sum(v2) as s from t0 group by v1) " +
+                "select * from x a join x b on a.v1 = b.v1";
+        String plan = getFragmentPlan(sql);
+        Assert.assertTrue(plan, plan.contains("MultiCastDataSinks"));
+        // the aggregation is computed once
+        Assert.assertEquals(plan, 1, countAggregation(plan));
+    }
+
+    @Test
+    public void testInlineCTE() throws Exception {
+        String sql = "with x as (select v1, sum(v2) as s from t0 group by v1) select * from x";
+        String plan = getFragmentPlan(sql);
+        Assert.assertFalse(plan, plan.contains("MultiCastDataSinks"));
+
+        connectContext.getSessionVariable().setCboCteReuse(false);
+        sql = "with x as (select v1, sum(v2) as s from t0 group by v1) " +
+                "select * from x a join x b on a.v1 = b.v1";
+        plan = getFragmentPlan(sql);
+        Assert.assertFalse(plan, plan.contains("MultiCastDataSinks"));
+        Assert.assertEquals(plan, 2, countAggregation(plan));
+    }
+
+    @Test
+    public void testInlineByCost() throws Exception {
+        connectContext.getSessionVariable().setCboCteReuseRate(Double.MAX_VALUE);
+        String sql = "with x as (select v1, sum(v2) as s from t0 group by v1) " +
+                "select * from x a join x b on a.v1 = b.v1";
+        String plan = getFragmentPlan(sql);
+        Assert.assertFalse(plan, plan.contains("MultiCastDataSinks"));
+    }
+
+    @Test
+    public void testPushDownCommonPredicate() throws Exception {
+        String sql = "with x as (select * from t0) " +
+                "select * from x a join x b on a.v1 = b.v1 where a.v2 = 1 and b.v2 = 2";
+        String plan = getFragmentPlan(sql);
+        Assert.assertTrue(plan, plan.contains("MultiCastDataSinks"));
+        // the disjunction of the consumer predicates is pushed down to the scan of producer
+        int start = plan.indexOf("PREDICATES: ");
+        String predicates = plan.substring(start, plan.indexOf("\n", start));
+        Assert.assertTrue(predicates, predicates.equals("PREDICATES: (2: v2 = 1) OR (2: v2 = 2), 2: v2 IN (1, 2)")
+                || predicates.equals("PREDICATES: (2: v2 = 2) OR (2: v2 = 1), 2: v2 IN (2, 1)"));
+    }
+
+    @Test
+    public void testNoRuntimeFilterOnProducer() throws Exception {
+        // the runtime filter of one consumer would filter out the rows of the other consumers
+        String sql = "with x as (select * from t0) " +
+                "select count(*) from x a join t1 on a.v1 = t1.v4 union all select count(*) from x b";
+        assertNoRuntimeFilterOnProducer(sql);
+
+        sql = "with x as (select * from t0) select * from x a join x b on a.v1 = b.v1";
+        assertNoRuntimeFilterOnProducer(sql);
+    }
+
+    private void assertNoRuntimeFilterOnProducer(String sql) throws Exception {
+        ExecPlan execPlan = UtFrameUtils.getNewPlanAndFragment(connectContext, sql).second;
+        String plan = execPlan.getExplainString(TExplainLevel.NORMAL);
+        Assert.assertTrue(plan, plan.contains("MultiCastDataSinks"));
+        for (ScanNode scanNode : execPlan.getScanNodes()) {
+            if (((OlapScanNode) scanNode).getOlapTable().getName().equals("t0")) {
+                Assert.assertTrue(plan, scanNode.getProbeRuntimeFilters().isEmpty());
+            }
+        }
+    }
+
+    private static int countAggregation(String plan) {
+        int count = 0;
+        int index = plan.indexOf("AGGREGATE (update");
+        while (index >= 0) {
+            count++;
+            index = plan.indexOf("AGGREGATE (update", index + 1);
+        }
+        return count;
+    }
+}
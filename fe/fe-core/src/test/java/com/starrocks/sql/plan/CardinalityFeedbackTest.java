@@ -0,0 +1,121 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.plan;
+
+import com.starrocks.common.util.RuntimeProfile;
+import com.starrocks.planner.OlapScanNode;
+import com.starrocks.planner.ScanNode;
+import com.starrocks.qe.CardinalityFeedbackCollector;
+import com.starrocks.sql.optimizer.statistics.CardinalityFeedback;
+import com.starrocks.thrift.TUnit;
+import com.starrocks.utframe.UtFrameUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CardinalityFeedbackTest extends PlanTestBase {
+    @Before
+    public void before() {
+        connectContext.getSessionVariable().setEnableCboCardinalityFeedback(true);
+    }
+
+    @After
+    public void after() {
+        connectContext.getSessionVariable().setEnableCboCardinalityFeedback(false);
+        CardinalityFeedback.getInstance().clear();
+    }
+
+    @Test
+    public void testScanKey() throws Exception {
+        // the same scan has the same key in different queries, whose column ids are different
+        String key1 = getScanNode(getExecPlan("select l_orderkey from lineitem where l_quantity > 10 and l_tax < 1"))
+                .getCardinalityFeedbackKey();
+        String key2 = getScanNode(getExecPlan("select count(*) from lineitem where l_tax < 1 and l_quantity > 10"))
+                .getCardinalityFeedbackKey();
+        Assert.assertNotNull(key1);
+        Assert.assertEquals(key1, key2);
+
+        String key3 = getScanNode(getExecPlan("select l_orderkey from lineitem where l_quantity > 20 and l_tax < 1"))
+                .getCardinalityFeedbackKey();
+        Assert.assertNotEquals(key1, key3);
+
+        // the row count of a scan with limit is not fed back
+        Assert.assertNull(getScanNode(getExecPlan("select l_orderkey from lineitem limit 10"))
+                .getCardinalityFeedbackKey());
+    }
+
+    @Test
+    public void testFeedback() throws Exception {
+        String sql = "select l_orderkey from lineitem where l_quantity > 10";
+        ExecPlan plan = getExecPlan(sql);
+        OlapScanNode scanNode = getScanNode(plan);
+
+        CardinalityFeedbackCollector collector = new CardinalityFeedbackCollector(plan.getScanNodes(), 10);
+        collector.addInstance(scanNode.getFragmentId());
+        collector.addInstance(scanNode.getFragmentId());
+        collector.finishInstance(scanNode.getFragmentId(), buildProfile(scanNode, 3), true);
+        // the fragment isn't finished yet
+        Assert.assertFalse(collector.isMisestimated());
+        collector.finishInstance(scanNode.getFragmentId(), buildProfile(scanNode, 4), true);
+        Assert.assertTrue(collector.isMisestimated());
+
+        Assert.assertEquals(7L, (long) getScanNode(getExecPlan(sql)).getCardinality());
+
+        connectContext.getSessionVariable().setEnableCboCardinalityFeedback(false);
+        Assert.assertNotEquals(7L, getScanNode(getExecPlan(sql)).getCardinality());
+    }
+
+    @Test
+    public void testFeedbackOfFailedFragment() throws Exception {
+        ExecPlan plan = getExecPlan("select l_orderkey from lineitem where l_quantity > 10");
+        OlapScanNode scanNode = getScanNode(plan);
+
+        CardinalityFeedbackCollector collector = new CardinalityFeedbackCollector(plan.getScanNodes(), 10);
+        collector.addInstance(scanNode.getFragmentId());
+        collector.addInstance(scanNode.getFragmentId());
+        collector.finishInstance(scanNode.getFragmentId(), buildProfile(scanNode, 3), true);
+        collector.finishInstance(scanNode.getFragmentId(), buildProfile(scanNode, 0), false);
+        Assert.assertFalse(collector.isMisestimated());
+        Assert.assertNull(CardinalityFeedback.getInstance().getObservedRows(scanNode.getCardinalityFeedbackKey()));
+    }
+
+    @Test
+    public void testFeedbackOfScanWithRuntimeFilter() throws Exception {
+        ExecPlan plan = getExecPlan("select l_orderkey from lineitem join[broadcast] orders "
+                + "on l_orderkey = o_orderkey where l_quantity > 10");
+        OlapScanNode probeScan = null;
+        for (ScanNode scanNode : plan.getScanNodes()) {
+            if (!scanNode.getProbeRuntimeFilters().isEmpty()) {
+                probeScan = (OlapScanNode) scanNode;
+            }
+        }
+        Assert.assertNotNull(probeScan);
+        Assert.assertEquals("lineitem", probeScan.getOlapTable().getName());
+        Assert.assertNotNull(probeScan.getCardinalityFeedbackKey());
+
+        // the rows filtered by the runtime filter of join are not fed back
+        CardinalityFeedbackCollector collector = new CardinalityFeedbackCollector(plan.getScanNodes(), 10);
+        collector.addInstance(probeScan.getFragmentId());
+        collector.finishInstance(probeScan.getFragmentId(), buildProfile(probeScan, 3), true);
+        Assert.assertFalse(collector.isMisestimated());
+        Assert.assertNull(CardinalityFeedback.getInstance().getObservedRows(probeScan.getCardinalityFeedbackKey()));
+    }
+
+    private ExecPlan getExecPlan(String sql) throws Exception {
+        return UtFrameUtils.getNewPlanAndFragment(connectContext, sql).second;
+    }
+
+    private OlapScanNode getScanNode(ExecPlan plan) {
+        Assert.assertEquals(1, plan.getScanNodes().size());
+        return (OlapScanNode) plan.getScanNodes().get(0);
+    }
+
+    private RuntimeProfile buildProfile(OlapScanNode scanNode, long rows) {
+        RuntimeProfile instance = new RuntimeProfile("Instance");
+        RuntimeProfile scan = new RuntimeProfile("OLAP_SCAN_NODE (id=" + scanNode.getId().asInt() + ")");
+        scan.addCounter("RowsReturned", TUnit.UNIT, "").setValue(rows);
+        instance.addChild(scan);
+        return instance;
+    }
+}
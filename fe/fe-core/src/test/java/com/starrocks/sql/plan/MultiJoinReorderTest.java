@@ -489,4 +489,31 @@ public class MultiJoinReorderTest extends PlanTestBase {
                 "  |  equal join conjunct: 4: v1 = 1: v4\n" +
                 "  |  use vectorized: true"));
     }
+
+    @Test
+    public void testJoinReorderDPHyp() throws Exception {
+        connectContext.getSessionVariable().enableDPJoinReorder();
+        connectContext.getSessionVariable().disableGreedyJoinReorder();
+        // more atoms than the limit of dp, reordered by the connected subgraphs
+        connectContext.getSessionVariable().setCboMaxReorderNodeUseDP(2);
+        try {
+            String sql = "select * from t1 " +
+                    "join t3 on t1.v4 = t3.v1 " +
+                    "join t0 on t3.v2 = t0.v2 " +
+                    "join t2 on t0.v3 = t2.v9";
+            String planFragment = getFragmentPlan(sql);
+            Assert.assertFalse(planFragment.contains("CROSS JOIN"));
+            // every predicate is a join conjunct, in either order
+            Assert.assertTrue(containsJoinConjunct(planFragment, "1: v4", "4: v1"));
+            Assert.assertTrue(containsJoinConjunct(planFragment, "5: v2", "8: v2"));
+            Assert.assertTrue(containsJoinConjunct(planFragment, "9: v3", "12: v9"));
+        } finally {
+            connectContext.getSessionVariable().setCboMaxReorderNodeUseDP(10);
+        }
+    }
+
+    private static boolean containsJoinConjunct(String planFragment, String left, String right) {
+        return planFragment.contains("equal join conjunct: " + left + " = " + right)
+                || planFragment.contains("equal join conjunct: " + right + " = " + left);
+    }
 }
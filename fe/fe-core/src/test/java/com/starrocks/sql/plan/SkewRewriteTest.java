@@ -0,0 +1,71 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.plan;
+
+import com.google.common.collect.Lists;
+import com.starrocks.sql.optimizer.rule.transformation.SkewRewriteRule;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class SkewRewriteTest extends PlanTestBase {
+    @After
+    public void after() {
+        connectContext.getSessionVariable().setCboSkewHotKeys("");
+    }
+
+    @Test
+    public void testParseHotKeys() {
+        Map<String, List<String>> hotKeys = SkewRewriteRule.parseHotKeys(" V1 : 1, 2 ;v4:3;;bad;:4;v5:");
+        Assert.assertEquals(2, hotKeys.size());
+        Assert.assertEquals(Lists.newArrayList("1", "2"), hotKeys.get("v1"));
+        Assert.assertEquals(Lists.newArrayList("3"), hotKeys.get("v4"));
+
+        Assert.assertTrue(SkewRewriteRule.parseHotKeys("").isEmpty());
+    }
+
+    @Test
+    public void testSkewJoin() throws Exception {
+        connectContext.getSessionVariable().setCboSkewHotKeys("v1:1,2");
+        String plan = getFragmentPlan("select * from t0 join[shuffle] t1 on t0.v1 = t1.v4");
+        Assert.assertTrue(plan, plan.contains("skew_salt"));
+        // only the right rows of hot keys are copied, by joining the values of (hot value, salt)
+        Assert.assertTrue(plan, plan.contains("LEFT OUTER JOIN"));
+        Assert.assertTrue(plan, plan.contains("skew_hot_value"));
+        Assert.assertFalse(plan, plan.contains("CROSS JOIN"));
+
+        // the hot values compared with the right key are of its type
+        plan = getFragmentPlan("select * from t0 join[shuffle] test_all_type on t0.v1 = test_all_type.t1c");
+        Assert.assertTrue(plan, plan.contains("skew_salt"));
+        Assert.assertTrue(plan, plan.contains("skew_hot_value"));
+
+        // the hot keys of the right child are not salted
+        connectContext.getSessionVariable().setCboSkewHotKeys("v4:1,2");
+        plan = getFragmentPlan("select * from t0 join t1 on t0.v1 = t1.v4");
+        Assert.assertFalse(plan, plan.contains("skew_salt"));
+    }
+
+    @Test
+    public void testSkewJoinNotApplied() throws Exception {
+        connectContext.getSessionVariable().setCboSkewHotKeys("v1:1");
+        String plan = getFragmentPlan("select * from t0 join[broadcast] t1 on t0.v1 = t1.v4");
+        Assert.assertFalse(plan, plan.contains("skew_salt"));
+
+        plan = getFragmentPlan("select * from t0 left semi join t1 on t0.v1 = t1.v4");
+        Assert.assertFalse(plan, plan.contains("skew_salt"));
+    }
+
+    @Test
+    public void testSkewAggregation() throws Exception {
+        connectContext.getSessionVariable().setCboSkewHotKeys("v1:1");
+        String plan = getFragmentPlan("select v1, sum(v2), count(v3), max(v3) from t0 group by v1");
+        Assert.assertTrue(plan, plan.contains("skew_salt"));
+
+        // distinct aggregation is not salted
+        plan = getFragmentPlan("select v1, count(distinct v2) from t0 group by v1");
+        Assert.assertFalse(plan, plan.contains("skew_salt"));
+    }
+}
@@ -0,0 +1,147 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.plan;
+
+import com.starrocks.planner.OlapScanNode;
+import com.starrocks.planner.RuntimeFilterDescription;
+import com.starrocks.planner.ScanNode;
+import com.starrocks.thrift.TExplainLevel;
+import com.starrocks.utframe.UtFrameUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TopNRuntimeFilterTest extends PlanTestBase {
+    @Before
+    public void before() {
+        connectContext.getSessionVariable().setEnableTopNRuntimeFilter(true);
+        connectContext.getSessionVariable().setCboPushDownTopN(true);
+    }
+
+    @After
+    public void after() {
+        connectContext.getSessionVariable().setEnableTopNRuntimeFilter(false);
+        connectContext.getSessionVariable().setCboPushDownTopN(false);
+    }
+
+    @Test
+    public void testTopNRuntimeFilter() throws Exception {
+        String sql = "select * from t0 order by v2 desc limit 10";
+        String plan = getVerboseExplain(sql);
+        Assert.assertTrue(plan, plan.contains("build runtime filters:"));
+        Assert.assertTrue(plan, plan.contains("topn = DESC"));
+        Assert.assertTrue(plan, plan.contains("probe runtime filters:"));
+
+        connectContext.getSessionVariable().setEnableTopNRuntimeFilter(false);
+        plan = getVerboseExplain(sql);
+        Assert.assertFalse(plan, plan.contains("build runtime filters:"));
+    }
+
+    @Test
+    public void testNoTopNRuntimeFilterWithoutLimit() throws Exception {
+        String plan = getVerboseExplain("select * from t0 order by v2 desc");
+        Assert.assertFalse(plan, plan.contains("build runtime filters:"));
+    }
+
+    @Test
+    public void testTopNRuntimeFilterOfNullSupplyingSide() throws Exception {
+        // the rows of t1 filtered by the threshold would be output with nulls
+        ExecPlan plan = getExecPlan("select * from t0 left join t1 on v1 = v4 order by v5 limit 10");
+        Assert.assertFalse(hasTopNRuntimeFilter(plan, "t1"));
+
+        plan = getExecPlan("select * from t0 left join t1 on v1 = v4 order by v2 limit 10");
+        Assert.assertTrue(hasTopNRuntimeFilter(plan, "t0"));
+        Assert.assertFalse(hasTopNRuntimeFilter(plan, "t1"));
+    }
+
+    @Test
+    public void testNoTopNRuntimeFilterBelowRepeat() throws Exception {
+        // the subtotal and grand total rows are aggregated from all the rows
+        ExecPlan plan = getExecPlan("select v1, sum(v2) from t0 group by rollup(v1) order by v1 limit 10");
+        Assert.assertFalse(hasTopNRuntimeFilter(plan, "t0"));
+    }
+
+    @Test
+    public void testNoTopNRuntimeFilterOnCTEProducer() throws Exception {
+        connectContext.getSessionVariable().setCboCteReuse(true);
+        connectContext.getSessionVariable().setCboCteReuseRate(0);
+        try {
+            // the other consumer needs all the rows of the producer
+            ExecPlan plan = getExecPlan("with x as (select * from t0) " +
+                    "select * from (select * from x order by v1 limit 10) a join x b on a.v1 = b.v1");
+            Assert.assertTrue(plan.getExplainString(TExplainLevel.NORMAL).contains("MultiCastDataSinks"));
+            Assert.assertFalse(hasTopNRuntimeFilter(plan, "t0"));
+        } finally {
+            connectContext.getSessionVariable().setCboCteReuse(false);
+            connectContext.getSessionVariable().setCboCteReuseRate(1.2);
+        }
+    }
+
+    @Test
+    public void testPushDownTopNUnion() throws Exception {
+        String sql = "select * from (select v1 from t0 union all select v4 from t1) t order by v1 limit 10";
+        assertPushDownTopN(sql);
+    }
+
+    @Test
+    public void testPushDownTopNOuterJoin() throws Exception {
+        assertPushDownTopN("select * from t0 left join t1 on v1 = v4 order by v2 limit 10");
+        assertPushDownTopN("select * from t0 right join t1 on v1 = v4 order by v5 limit 10");
+    }
+
+    @Test
+    public void testPushDownTopNProject() throws Exception {
+        // the TopN is pushed down below the projection of v1 + 1, and then to the children of the union
+        String sql = "select v1 + 1, v2 from (select v1, v2 from t0 union all select v4, v5 from t1) t " +
+                "order by v2 limit 10";
+        assertPushDownTopN(sql);
+    }
+
+    @Test
+    public void testNotPushDownTopN() throws Exception {
+        // the join may output more than one row for every row of the preserved side, with the right columns
+        String sql = "select * from t0 left join t1 on v1 = v4 order by v2, v5 limit 10";
+        Assert.assertEquals(countTopN(sql), countTopNWithoutPushDown(sql));
+
+        // the distinct union
+        sql = "select * from (select v1 from t0 union select v4 from t1) t order by v1 limit 10";
+        Assert.assertEquals(countTopN(sql), countTopNWithoutPushDown(sql));
+    }
+
+    private ExecPlan getExecPlan(String sql) throws Exception {
+        return UtFrameUtils.getNewPlanAndFragment(connectContext, sql).second;
+    }
+
+    private boolean hasTopNRuntimeFilter(ExecPlan plan, String table) {
+        for (ScanNode scanNode : plan.getScanNodes()) {
+            OlapScanNode olapScanNode = (OlapScanNode) scanNode;
+            if (olapScanNode.getOlapTable().getName().equals(table) && olapScanNode.getProbeRuntimeFilters()
+                    .stream().anyMatch(RuntimeFilterDescription::isBuildFromTopN)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void assertPushDownTopN(String sql) throws Exception {
+        int pushDown = countTopN(sql);
+        int withoutPushDown = countTopNWithoutPushDown(sql);
+        Assert.assertTrue(pushDown + " TopN with push down, " + withoutPushDown + " TopN without push down",
+                pushDown > withoutPushDown);
+    }
+
+    private int countTopN(String sql) throws Exception {
+        return StringUtils.countMatches(getFragmentPlan(sql), "TOP-N");
+    }
+
+    private int countTopNWithoutPushDown(String sql) throws Exception {
+        connectContext.getSessionVariable().setCboPushDownTopN(false);
+        try {
+            return countTopN(sql);
+        } finally {
+            connectContext.getSessionVariable().setCboPushDownTopN(true);
+        }
+    }
+}
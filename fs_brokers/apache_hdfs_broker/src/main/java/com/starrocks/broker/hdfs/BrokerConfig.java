@@ -33,6 +33,14 @@ public class BrokerConfig extends ConfigBase {
     
     @ConfField
     public static int hdfs_write_buffer_size_kb = 1024;
+
+    // size of the readahead buffer of each reader, only used by sequential reads, 0 to disable readahead
+    @ConfField
+    public static int hdfs_readahead_buffer_size_kb = 1024;
+
+    // max number of ranges in a batch read request
+    @ConfField
+    public static int hdfs_batch_read_max_ranges = 256;
     
     @ConfField
     public static int client_expire_seconds = 300;
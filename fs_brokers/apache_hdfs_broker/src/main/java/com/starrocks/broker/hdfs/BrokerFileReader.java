@@ -0,0 +1,155 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.broker.hdfs;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BrokerFileReader reads an opened file with positional reads (PositionedReadable), so the
+ * concurrent reads of the same fd do not block each other and never move the stream offset.
+ *
+ * Small sequential reads, which are common for text and csv files, are served from a bounded
+ * readahead buffer to save the round trips to the storage. Random reads, like the column chunks
+ * of parquet files, bypass the buffer.
+ *
+ * The read statistics of the fd are logged when it is closed.
+ */
+public class BrokerFileReader {
+
+    private static Logger logger = Logger.getLogger(BrokerFileReader.class.getName());
+
+    private final String path;
+    private final FSDataInputStream inputStream;
+    private final int readaheadSize;
+
+    // readahead buffer, guarded by this
+    private byte[] readaheadBuffer;
+    private long readaheadOffset = -1;
+    private int readaheadLength = 0;
+    // end offset of the last read, to detect the sequential reads
+    private long lastReadEnd = -1;
+
+    private final long openTime;
+    private final AtomicLong readRequests = new AtomicLong(0);
+    private final AtomicLong readBytes = new AtomicLong(0);
+    private final AtomicLong readNanos = new AtomicLong(0);
+    private final AtomicLong readaheadHits = new AtomicLong(0);
+
+    public BrokerFileReader(String path, FSDataInputStream inputStream, long startOffset, int readaheadSize) {
+        this.path = path;
+        this.inputStream = inputStream;
+        this.readaheadSize = readaheadSize;
+        this.lastReadEnd = startOffset;
+        this.openTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Read at most length bytes from offset, the returned buffer is shorter than length
+     * only if the end of file is reached.
+     */
+    public ByteBuffer read(long offset, int length) throws IOException {
+        long startTime = System.nanoTime();
+        readRequests.incrementAndGet();
+        try {
+            ByteBuffer result = readaheadSize > 0 && length < readaheadSize ? readWithReadahead(offset, length) : null;
+            if (result == null) {
+                byte[] buf = new byte[length];
+                int readLength = readFully(offset, buf, 0, length);
+                result = ByteBuffer.wrap(buf, 0, readLength);
+            }
+            readBytes.addAndGet(result.remaining());
+            return result;
+        } finally {
+            readNanos.addAndGet(System.nanoTime() - startTime);
+        }
+    }
+
+    // return null if the read is not sequential
+    private ByteBuffer readWithReadahead(long offset, int length) throws IOException {
+        synchronized (this) {
+            ByteBuffer cached = readFromBuffer(offset, length);
+            if (cached != null) {
+                readaheadHits.incrementAndGet();
+                lastReadEnd = offset + cached.remaining();
+                return cached;
+            }
+            if (offset != lastReadEnd) {
+                lastReadEnd = offset + length;
+                return null;
+            }
+        }
+
+        byte[] buffer = new byte[readaheadSize];
+        int bufferLength = readFully(offset, buffer, 0, readaheadSize);
+        synchronized (this) {
+            readaheadBuffer = buffer;
+            readaheadOffset = offset;
+            readaheadLength = bufferLength;
+            ByteBuffer result = readFromBuffer(offset, length);
+            lastReadEnd = offset + result.remaining();
+            return result;
+        }
+    }
+
+    // return null if [offset, offset + length) is not in buffer, the caller should hold the lock
+    private ByteBuffer readFromBuffer(long offset, int length) {
+        if (readaheadBuffer == null || offset < readaheadOffset || offset > readaheadOffset + readaheadLength) {
+            return null;
+        }
+        int start = (int) (offset - readaheadOffset);
+        int available = readaheadLength - start;
+        // a short buffer means the end of file, so it is ok to return less data than length
+        if (available < length && readaheadLength == readaheadSize) {
+            return null;
+        }
+        int copyLength = Math.min(available, length);
+        byte[] result = new byte[copyLength];
+        System.arraycopy(readaheadBuffer, start, result, 0, copyLength);
+        return ByteBuffer.wrap(result);
+    }
+
+    private int readFully(long position, byte[] buf, int offset, int length) throws IOException {
+        int readLength = 0;
+        while (readLength < length) {
+            int n = inputStream.read(position + readLength, buf, offset + readLength, length - readLength);
+            if (n <= 0) {
+                break;
+            }
+            readLength += n;
+        }
+        return readLength;
+    }
+
+    public long getReadRequests() {
+        return readRequests.get();
+    }
+
+    public long getReadBytes() {
+        return readBytes.get();
+    }
+
+    public long getReadaheadHits() {
+        return readaheadHits.get();
+    }
+
+    public void close() throws IOException {
+        synchronized (this) {
+            readaheadBuffer = null;
+        }
+        inputStream.close();
+        if (readRequests.get() > 0) {
+            long readMillis = readNanos.get() / 1000000;
+            logger.info("close reader of " + path + ", read requests: " + readRequests.get()
+                    + ", read bytes: " + readBytes.get()
+                    + ", readahead hits: " + readaheadHits.get()
+                    + ", read time: " + readMillis + "ms"
+                    + ", throughput: " + (readMillis == 0 ? 0 : readBytes.get() / 1024 * 1000 / 1024 / readMillis)
+                    + "MB/s, open time: " + (System.currentTimeMillis() - openTime) + "ms");
+        }
+    }
+}
@@ -27,7 +27,6 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
-import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.log4j.Logger;
 
@@ -68,25 +67,25 @@ public class ClientContextManager {
         fdToClientMap.putIfAbsent(fd, clientId);
     }
     
-    public synchronized void putNewInputStream(String clientId, TBrokerFD fd, FSDataInputStream fsDataInputStream, 
+    public synchronized void putNewInputStream(String clientId, TBrokerFD fd, BrokerFileReader reader,
             BrokerFileSystem brokerFileSystem) {
         if (!clientContexts.containsKey(clientId)) {
             clientContexts.putIfAbsent(clientId, new ClientResourceContext(clientId));
         }
         ClientResourceContext clientContext = clientContexts.get(clientId);
-        clientContext.putInputStream(fd, fsDataInputStream, brokerFileSystem);
+        clientContext.putInputStream(fd, reader, brokerFileSystem);
         fdToClientMap.putIfAbsent(fd, clientId);
     }
     
-    public synchronized FSDataInputStream getFsDataInputStream(TBrokerFD fd) {
+    public synchronized BrokerFileReader getReader(TBrokerFD fd) {
         String clientId = fdToClientMap.get(fd);
         if (clientId == null) {
             throw new BrokerException(TBrokerOperationStatusCode.TARGET_STORAGE_SERVICE_ERROR, 
                     "the fd is not owned by client {}", clientId);
         }
         ClientResourceContext clientContext = clientContexts.get(clientId);
-        FSDataInputStream fsDataInputStream = clientContext.getInputStream(fd);
-        return fsDataInputStream;
+        BrokerFileReader reader = clientContext.getInputStream(fd);
+        return reader;
     }
     
     public synchronized FSDataOutputStream getFsDataOutputStream(TBrokerFD fd) {
@@ -109,7 +108,7 @@ public class ClientContextManager {
         BrokerInputStream brokerInputStream = clientContext.inputStreams.remove(fd);
         try {
             if (brokerInputStream != null) {
-                brokerInputStream.inputStream.close();
+                brokerInputStream.reader.close();
             }
         } catch (Exception e) {
             logger.error("errors while close file data input stream", e);
@@ -179,18 +178,18 @@ public class ClientContextManager {
     
     private static class BrokerInputStream {
         
-        private final FSDataInputStream inputStream;
+        private final BrokerFileReader reader;
         private final BrokerFileSystem brokerFileSystem;
         
-        public BrokerInputStream(FSDataInputStream inputStream, BrokerFileSystem brokerFileSystem) {
-            this.inputStream = inputStream;
+        public BrokerInputStream(BrokerFileReader reader, BrokerFileSystem brokerFileSystem) {
+            this.reader = reader;
             this.brokerFileSystem = brokerFileSystem;
             this.brokerFileSystem.updateLastUpdateAccessTime();
         }
         
-        public FSDataInputStream getInputStream() {
+        public BrokerFileReader getReader() {
             this.brokerFileSystem.updateLastUpdateAccessTime();
-            return inputStream;
+            return reader;
         }
         
         public void updateLastUpdateAccessTime() {
@@ -212,18 +211,18 @@ public class ClientContextManager {
             this.lastPingTimestamp = System.currentTimeMillis();
         }
         
-        public void putInputStream(TBrokerFD fd, FSDataInputStream inputStream, BrokerFileSystem fileSystem) {
-            inputStreams.putIfAbsent(fd, new BrokerInputStream(inputStream, fileSystem));
+        public void putInputStream(TBrokerFD fd, BrokerFileReader reader, BrokerFileSystem fileSystem) {
+            inputStreams.putIfAbsent(fd, new BrokerInputStream(reader, fileSystem));
         }
         
         public void putOutputStream(TBrokerFD fd, FSDataOutputStream outputStream, BrokerFileSystem fileSystem) {
             outputStreams.putIfAbsent(fd, new BrokerOutputStream(outputStream, fileSystem));
         }
         
-        public FSDataInputStream getInputStream(TBrokerFD fd) {
+        public BrokerFileReader getInputStream(TBrokerFD fd) {
             BrokerInputStream brokerInputStream = inputStreams.get(fd);
             if (brokerInputStream != null) {
-                return brokerInputStream.getInputStream();
+                return brokerInputStream.getReader();
             }
             return null;
         }
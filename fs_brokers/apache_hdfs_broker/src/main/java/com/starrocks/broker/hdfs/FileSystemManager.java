@@ -27,6 +27,7 @@ import com.starrocks.common.WildcardURI;
 import com.starrocks.thrift.TBrokerFD;
 import com.starrocks.thrift.TBrokerFileStatus;
 import com.starrocks.thrift.TBrokerOperationStatusCode;
+import com.starrocks.thrift.TBrokerReadRange;
 
 import com.google.common.base.Strings;
 
@@ -650,10 +651,11 @@ public class FileSystemManager {
         BrokerFileSystem fileSystem = getFileSystem(path, properties);
         try {
             FSDataInputStream fsDataInputStream = fileSystem.getDFSFileSystem().open(inputFilePath, readBufferSize);
-            fsDataInputStream.seek(startOffset);
+            BrokerFileReader reader = new BrokerFileReader(path, fsDataInputStream, startOffset,
+                    BrokerConfig.hdfs_readahead_buffer_size_kb << 10);
             UUID uuid = UUID.randomUUID();
             TBrokerFD fd = parseUUIDToFD(uuid);
-            clientContextManager.putNewInputStream(clientId, fd, fsDataInputStream, fileSystem);
+            clientContextManager.putNewInputStream(clientId, fd, reader, fileSystem);
             return fd;
         } catch (IOException e) {
             logger.error("errors while open path", e);
@@ -663,51 +665,52 @@ public class FileSystemManager {
         }
     }
     
+    // reads are positional, so the concurrent reads of the same fd do not block each other
     public ByteBuffer pread(TBrokerFD fd, long offset, long length) {
-        FSDataInputStream fsDataInputStream = clientContextManager.getFsDataInputStream(fd);
-        synchronized (fsDataInputStream) {
-            long currentStreamOffset;
-            try {
-                currentStreamOffset = fsDataInputStream.getPos();
-            } catch (IOException e) {
-                logger.error("errors while get file pos from output stream", e);
-                throw new BrokerException(TBrokerOperationStatusCode.TARGET_STORAGE_SERVICE_ERROR,
-                        "errors while get file pos from output stream");
-            }
-            if (currentStreamOffset != offset) {
-                // it's ok, when reading some format like parquet, it is not a sequential read
-                logger.debug("invalid offset, current read offset is "
-                        + currentStreamOffset + " is not equal to request offset "
-                        + offset + " seek to it");
-                try {
-                    fsDataInputStream.seek(offset);
-                } catch (IOException e) {
-                    throw new BrokerException(TBrokerOperationStatusCode.INVALID_INPUT_OFFSET,
-                            e, "current read offset {} is not equal to {}, and could not seek to it",
-                            currentStreamOffset, offset);
-                }
-            }
-            byte[] buf;
-            if (length > readBufferSize) {
-                buf = new byte[readBufferSize];
-            } else {
-                buf = new byte[(int)length];
-            }
-            try {
-                int readLength = readByteArrayFully(fsDataInputStream, buf);
-                if (readLength < 0) {
-                    throw new BrokerException(TBrokerOperationStatusCode.END_OF_FILE,
-                            "end of file reached");
-                }
-                if (logger.isDebugEnabled()) {
-                    logger.debug("read buffer from input stream, buffer size:" + buf.length + ", read length:" + readLength);
-                }
-                return ByteBuffer.wrap(buf, 0, readLength);
-            } catch (IOException e) {
-                logger.error("errors while read data from stream", e);
-                throw new BrokerException(TBrokerOperationStatusCode.TARGET_STORAGE_SERVICE_ERROR,
-                        e, "errors while write data to output stream");
+        BrokerFileReader reader = getReader(fd);
+        return read(reader, offset, length);
+    }
+
+    public List<ByteBuffer> preadBatch(TBrokerFD fd, List<TBrokerReadRange> ranges) {
+        if (ranges.size() > BrokerConfig.hdfs_batch_read_max_ranges) {
+            throw new BrokerException(TBrokerOperationStatusCode.INVALID_ARGUMENT,
+                    "too many ranges in a batch read: {}, the max is {}",
+                    ranges.size(), BrokerConfig.hdfs_batch_read_max_ranges);
+        }
+        BrokerFileReader reader = getReader(fd);
+        List<ByteBuffer> result = new ArrayList<>(ranges.size());
+        for (TBrokerReadRange range : ranges) {
+            result.add(read(reader, range.offset, range.length));
+        }
+        return result;
+    }
+
+    private BrokerFileReader getReader(TBrokerFD fd) {
+        BrokerFileReader reader = clientContextManager.getReader(fd);
+        if (reader == null) {
+            throw new BrokerException(TBrokerOperationStatusCode.INVALID_ARGUMENT,
+                    "the fd {} is closed", fd);
+        }
+        return reader;
+    }
+
+    private ByteBuffer read(BrokerFileReader reader, long offset, long length) {
+        if (offset < 0 || length < 0) {
+            throw new BrokerException(TBrokerOperationStatusCode.INVALID_INPUT_OFFSET,
+                    "invalid read offset {} or length {}", offset, length);
+        }
+        int readLength = length > readBufferSize ? readBufferSize : (int) length;
+        try {
+            ByteBuffer buf = reader.read(offset, readLength);
+            if (logger.isDebugEnabled()) {
+                logger.debug("read buffer from input stream, offset: " + offset + ", buffer size:" + readLength
+                        + ", read length:" + buf.remaining());
             }
+            return buf;
+        } catch (IOException e) {
+            logger.error("errors while read data from stream", e);
+            throw new BrokerException(TBrokerOperationStatusCode.TARGET_STORAGE_SERVICE_ERROR,
+                    e, "errors while read data from input stream");
         }
     }
     
@@ -717,18 +720,8 @@ public class FileSystemManager {
     }
     
     public void closeReader(TBrokerFD fd) {
-        FSDataInputStream fsDataInputStream = clientContextManager.getFsDataInputStream(fd);
-        synchronized (fsDataInputStream) {
-            try {
-                fsDataInputStream.close();
-            } catch (IOException e) {
-                logger.error("errors while close file input stream", e);
-                throw new BrokerException(TBrokerOperationStatusCode.TARGET_STORAGE_SERVICE_ERROR,
-                        e, "errors while close file input stream");
-            } finally {
-                clientContextManager.removeInputStream(fd);
-            }
-        }
+        // the stream is closed when it is removed
+        clientContextManager.removeInputStream(fd);
     }
     
     public TBrokerFD openWriter(String clientId, String path, Map<String, String> properties) {
@@ -800,18 +793,6 @@ public class FileSystemManager {
         return new TBrokerFD(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
     }
 
-    private int readByteArrayFully(FSDataInputStream is, byte[] dest) throws IOException {
-        int readLength = 0;
-        while (readLength < dest.length) {
-            int n = is.read(dest , readLength, dest.length - readLength);
-            if (n <= 0) {
-                break;
-            }
-            readLength += n;
-        }
-        return readLength;
-    }
-    
     class FileSystemExpirationChecker implements Runnable {
         @Override
         public void run() {
@@ -25,6 +25,8 @@ package com.starrocks.broker.hdfs;
 
 import com.google.common.base.Stopwatch;
 import com.starrocks.common.BrokerPerfMonitor;
+import com.starrocks.thrift.TBrokerBatchPReadRequest;
+import com.starrocks.thrift.TBrokerBatchReadResponse;
 import com.starrocks.thrift.TBrokerCheckPathExistRequest;
 import com.starrocks.thrift.TBrokerCheckPathExistResponse;
 import com.starrocks.thrift.TBrokerCloseReaderRequest;
@@ -177,6 +179,30 @@ public class HDFSBrokerServiceImpl implements TFileBrokerService.Iface {
         return response;
     }
 
+    @Override
+    public TBrokerBatchReadResponse preadBatch(TBrokerBatchPReadRequest request)
+            throws TException {
+        logger.debug("receive a batch read request, request detail: " + request);
+        Stopwatch stopwatch = BrokerPerfMonitor.startWatch();
+        TBrokerBatchReadResponse response = new TBrokerBatchReadResponse();
+        try {
+            List<ByteBuffer> readBufs = fileSystemManager.preadBatch(request.fd, request.ranges);
+            response.setData(readBufs);
+            response.setOpStatus(generateOKStatus());
+        } catch (BrokerException e) {
+            logger.warn("failed to batch pread: " + request.fd, e);
+            TBrokerOperationStatus errorStatus = e.generateFailedOperationStatus();
+            response.setOpStatus(errorStatus);
+            return response;
+        } finally {
+            stopwatch.stop();
+            logger.debug("batch read request fd: " + request.fd.high + ""
+                    + request.fd.low + " ranges: " + request.ranges.size() + " cost "
+                    + stopwatch.elapsed(TimeUnit.MILLISECONDS) + " millis");
+        }
+        return response;
+    }
+
     @Override
     public TBrokerOperationStatus seek(TBrokerSeekRequest request)
             throws TException {
@@ -0,0 +1,102 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.broker.hdfs;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class BrokerFileReaderTest {
+
+    private static final int FILE_SIZE = 10000;
+
+    private File file;
+    private FileSystem fileSystem;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("broker_reader", ".dat");
+        byte[] data = new byte[FILE_SIZE];
+        for (int i = 0; i < FILE_SIZE; i++) {
+            data[i] = (byte) i;
+        }
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(data);
+        }
+        fileSystem = FileSystem.getLocal(new Configuration());
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    private BrokerFileReader openReader(int readaheadSize) throws Exception {
+        return new BrokerFileReader(file.getPath(), fileSystem.open(new Path(file.getPath())), 0, readaheadSize);
+    }
+
+    private static void checkData(ByteBuffer buf, long offset, int length) {
+        Assert.assertEquals(length, buf.remaining());
+        for (int i = 0; i < length; i++) {
+            Assert.assertEquals((byte) (offset + i), buf.get(buf.position() + i));
+        }
+    }
+
+    @Test
+    public void testSequentialRead() throws Exception {
+        BrokerFileReader reader = openReader(4096);
+        long offset = 0;
+        while (offset < FILE_SIZE) {
+            ByteBuffer buf = reader.read(offset, 1000);
+            checkData(buf, offset, (int) Math.min(1000, FILE_SIZE - offset));
+            offset += buf.remaining();
+        }
+        Assert.assertEquals(0, reader.read(FILE_SIZE, 1000).remaining());
+        Assert.assertEquals(FILE_SIZE, reader.getReadBytes());
+        // 3 of every 4 reads are served by the readahead buffer
+        Assert.assertTrue(reader.getReadaheadHits() >= 6);
+        reader.close();
+    }
+
+    @Test
+    public void testRandomRead() throws Exception {
+        BrokerFileReader reader = openReader(4096);
+        checkData(reader.read(5000, 100), 5000, 100);
+        checkData(reader.read(100, 100), 100, 100);
+        checkData(reader.read(9950, 100), 9950, 50);
+        // larger than readahead buffer
+        checkData(reader.read(1, 8000), 1, 8000);
+        Assert.assertEquals(0, reader.getReadaheadHits());
+        reader.close();
+    }
+
+    @Test
+    public void testConcurrentRead() throws Exception {
+        BrokerFileReader reader = openReader(0);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<ByteBuffer>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            final long offset = i * 500;
+            futures.add(executor.submit(() -> reader.read(offset, 500)));
+        }
+        for (int i = 0; i < 20; i++) {
+            checkData(futures.get(i).get(), i * 500, 500);
+        }
+        executor.shutdown();
+        Assert.assertEquals(20, reader.getReadRequests());
+        reader.close();
+    }
+}
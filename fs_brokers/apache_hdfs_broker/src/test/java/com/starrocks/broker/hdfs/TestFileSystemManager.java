@@ -191,15 +191,20 @@ public class TestFileSystemManager extends TestCase {
         ByteBuffer readData = fileSystemManager.pread(readFd, 0, 2222);
         assertEquals(1256, readData.limit());
         
+        // positional read at any offset
+        ByteBuffer readData2 = fileSystemManager.pread(readFd, 1, 2222);
+        assertEquals(1255, readData2.limit());
+
         // read with exception
         boolean readDataHasError = false;
         try {
-            ByteBuffer readData2 = fileSystemManager.pread(readFd, 1, 2222);
+            fileSystemManager.pread(readFd, -1, 2222);
         } catch (BrokerException e) {
             readDataHasError = true;
             assertEquals(TBrokerOperationStatusCode.INVALID_INPUT_OFFSET, e.errorCode);
         }
         assertEquals(true, readDataHasError);
+        fileSystemManager.closeReader(readFd);
         
         // delete file
         fileSystemManager.deletePath(tempFile2, properties);
@@ -79,6 +79,12 @@ struct TBrokerReadResponse {
     2: optional binary data; 
 }
 
+struct TBrokerBatchReadResponse {
+    1: required TBrokerOperationStatus opStatus;
+    // one buffer for each range of the request, in the same order
+    2: optional list<binary> data;
+}
+
 struct TBrokerOpenWriterResponse {
     1: required TBrokerOperationStatus opStatus;
     2: optional TBrokerFD fd;
@@ -131,6 +137,17 @@ struct TBrokerPReadRequest {
     4: required i64 length;
 }
 
+struct TBrokerReadRange {
+    1: required i64 offset;
+    2: required i64 length;
+}
+
+struct TBrokerBatchPReadRequest {
+    1: required TBrokerVersion version;
+    2: required TBrokerFD fd;
+    3: required list<TBrokerReadRange> ranges;
+}
+
 struct TBrokerSeekRequest {
     1: required TBrokerVersion version;
     2: required TBrokerFD fd;
@@ -207,6 +224,11 @@ service TFileBrokerService {
     //   needed to return
     //   The binary here will be wrapped into a response object later.
     TBrokerReadResponse pread(1: TBrokerPReadRequest request);
+
+    // read several ranges of file in one call, such as the column chunks of a parquet row group.
+    // The ranges are read with positional reads, they can be in any order and do not change
+    // the offset of the fd. The data of a range may be shorter than its length at the end of file.
+    TBrokerBatchReadResponse preadBatch(1: TBrokerBatchPReadRequest request);
     
     // seek to position
     TBrokerOperationStatus seek(1: TBrokerSeekRequest request);
@@ -191,6 +191,9 @@ struct TEsScanRange {
   2: required string index
   3: optional string type
   4: required i32 shard_id
+  // sliced scroll of the shard, set only if the shard is split into several scan ranges
+  5: optional i32 slice_id
+  6: optional i32 slice_max
 }
 
 // Hdfs scan range
@@ -523,6 +526,8 @@ struct TSortNode {
   20: optional bool has_outer_join_child
   // For profile attributes' printing: `Sort Keys`
   21: optional string sql_sort_keys
+  // Runtime filters built from the threshold of the TopN
+  22: optional list<TRuntimeFilterDescription> build_runtime_filters
 }
 
 enum TAnalyticWindowType {
@@ -781,6 +786,12 @@ struct TRuntimeFilterDescription {
   // if this rf is generated by broadcast, and can be used by other process
   // we just need one instance to send one copy of that rf.
   10: optional Types.TUniqueId sender_finst_id;
+
+  // Built by a TopN from its threshold, which is the last row of the top limit + offset rows,
+  // and the probe rows behind the threshold in the order of the TopN are filtered.
+  11: optional bool build_from_topn;
+  12: optional bool topn_is_asc;
+  13: optional bool topn_nulls_first;
 }
 
 struct TTableFunctionNode {